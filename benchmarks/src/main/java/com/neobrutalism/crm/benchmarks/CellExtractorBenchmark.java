@@ -0,0 +1,120 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.utils.cache.CellExtractor;
+import com.neobrutalism.crm.utils.cache.EnhancedReflectionCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cell read + dispatch per row: reflective Field.get with an instanceof ladder per value (what
+ * the writers did before) vs the compiled CellExtractor with its per-column ValueKind
+ *
+ * One op = every column of one row, cycling over 1024 rows so values are not constant-folded.
+ * XSSF, SXSSF, CSV (ExcelWriteHelper) and OOXML (OoxmlStreamWriter) all read cells this way, so
+ * this is the extraction share of each strategy; WriteStrategyBenchmark / WideWriteBenchmark
+ * give the whole-file cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CellExtractorBenchmark {
+
+    private static final int ROWS = 1024;
+
+    /**
+     * HSBG sheet DTOs, or WIDE for the 40-column WideRow
+     */
+    @Param({"HSBG_THEO_HOP_DONG", "HSBG_THEO_CIF", "HSBG_THEO_TAP", "WIDE"})
+    public String bean;
+
+    private List<?> data;
+    private CellExtractor[] extractors;
+    private Field[] fields;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchFieldException {
+        Class<?> beanClass;
+        if ("WIDE".equals(bean)) {
+            beanClass = WideRow.class;
+            data = WideRow.rows(ROWS);
+        } else {
+            beanClass = HsbgWorkbookGenerator.dtoClass(SheetType.valueOf(bean));
+            data = HsbgWorkbookGenerator.rows(beanClass, ROWS);
+        }
+        extractors = EnhancedReflectionCache.getInstance().getCellExtractors(beanClass);
+        fields = new Field[extractors.length];
+        for (int i = 0; i < extractors.length; i++) {
+            fields[i] = beanClass.getDeclaredField(extractors[i].getFieldName());
+            fields[i].setAccessible(true);
+        }
+    }
+
+    @Benchmark
+    public void reflectiveField(Blackhole bh) throws IllegalAccessException {
+        Object row = nextRow();
+        for (Field field : fields) {
+            Object value = field.get(row);
+            if (value == null) {
+                bh.consume(0);
+            } else if (value instanceof String s) {
+                bh.consume(s);
+            } else if (value instanceof Integer || value instanceof Long) {
+                bh.consume(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                bh.consume(((Number) value).doubleValue());
+            } else if (value instanceof Boolean b) {
+                bh.consume(b.booleanValue());
+            } else if (value instanceof java.util.Date date) {
+                bh.consume(date.getTime());
+            } else {
+                bh.consume(value.toString());
+            }
+        }
+    }
+
+    @Benchmark
+    public void compiledExtractor(Blackhole bh) {
+        Object row = nextRow();
+        for (CellExtractor extractor : extractors) {
+            Object value = extractor.get(row);
+            if (value == null) {
+                bh.consume(0);
+                continue;
+            }
+            switch (extractor.getKind()) {
+                case STRING -> bh.consume((String) value);
+                case LONG -> bh.consume(((Number) value).longValue());
+                case DOUBLE -> bh.consume(((Number) value).doubleValue());
+                case BOOLEAN -> bh.consume(((Boolean) value).booleanValue());
+                case DATE -> bh.consume(((java.util.Date) value).getTime());
+                case TEXT, DYNAMIC -> bh.consume(value.toString());
+            }
+        }
+    }
+
+    private Object nextRow() {
+        Object row = data.get(next);
+        next = (next + 1) & (ROWS - 1);
+        return row;
+    }
+}
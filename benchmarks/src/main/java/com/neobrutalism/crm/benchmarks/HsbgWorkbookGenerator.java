@@ -0,0 +1,125 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.excel.helper.OoxmlStreamWriter;
+import com.neobrutalism.crm.application.migration.dto.HSBGCifDTO;
+import com.neobrutalism.crm.application.migration.dto.HSBGHopDongDTO;
+import com.neobrutalism.crm.application.migration.dto.HSBGTapDTO;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.utils.ExcelColumn;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.reflection.MethodHandleMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic HSBG workbooks for the benchmarks
+ *
+ * Rows are built from the migration DTOs' @ExcelColumn fields, so headers and column types
+ * always match what the import path expects. Values are deterministic for a given seed:
+ * - String: low-cardinality codes for unit/status/type-like columns, unique ids otherwise
+ * - Integer: small counts
+ * - LocalDate: dates spread over the last ten years
+ *
+ * Workbooks are written with OoxmlStreamWriter, so generating 1M rows stays cheap.
+ */
+public final class HsbgWorkbookGenerator {
+
+    private static final long SEED = 20_240_101L;
+    private static final LocalDate BASE_DATE = LocalDate.of(2015, 1, 1);
+    private static final int DATE_SPREAD_DAYS = 3650;
+    private static final int CATEGORY_CARDINALITY = 32;
+
+    private HsbgWorkbookGenerator() {
+    }
+
+    /**
+     * DTO bound to a migration sheet
+     */
+    public static Class<?> dtoClass(SheetType sheetType) {
+        return switch (sheetType) {
+            case HSBG_THEO_HOP_DONG -> HSBGHopDongDTO.class;
+            case HSBG_THEO_CIF -> HSBGCifDTO.class;
+            case HSBG_THEO_TAP -> HSBGTapDTO.class;
+        };
+    }
+
+    /**
+     * Build rows in memory
+     *
+     * @param beanClass DTO class with @ExcelColumn fields
+     * @param rows Number of rows
+     */
+    public static <T> List<T> rows(Class<T> beanClass, int rows) {
+        MethodHandleMapper<T> mapper = MethodHandleMapper.forClass(beanClass);
+        List<Field> columns = excelColumns(beanClass);
+        SplittableRandom random = new SplittableRandom(SEED);
+
+        List<T> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            T row = mapper.createInstance();
+            for (Field column : columns) {
+                mapper.setFieldValue(row, column.getName(), value(column, i, random));
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    /**
+     * Write a single-sheet workbook to a temp file
+     *
+     * The caller deletes the file.
+     */
+    public static Path workbook(SheetType sheetType, int rows) throws IOException {
+        return workbook(dtoClass(sheetType), rows);
+    }
+
+    public static <T> Path workbook(Class<T> beanClass, int rows) throws IOException {
+        Path file = Files.createTempFile("bench-" + beanClass.getSimpleName() + "-" + rows + "-", ".xlsx");
+        new OoxmlStreamWriter().writeToFile(file.toString(), rows(beanClass, rows).iterator(), beanClass,
+                                            0, 0, ExcelConfig.builder().build());
+        return file;
+    }
+
+    private static List<Field> excelColumns(Class<?> beanClass) {
+        List<Field> columns = new ArrayList<>();
+        for (Field field : beanClass.getDeclaredFields()) {
+            if (field.isAnnotationPresent(ExcelColumn.class)) {
+                columns.add(field);
+            }
+        }
+        return columns;
+    }
+
+    private static Object value(Field column, int rowIndex, SplittableRandom random) {
+        Class<?> type = column.getType();
+        if (type == Integer.class || type == int.class) {
+            return 1 + random.nextInt(50);
+        }
+        if (type == LocalDate.class) {
+            return BASE_DATE.plusDays(random.nextInt(DATE_SPREAD_DAYS));
+        }
+        if (type == String.class) {
+            String name = column.getName();
+            if (isCategory(name)) {
+                return name.toUpperCase() + "_" + random.nextInt(CATEGORY_CARDINALITY);
+            }
+            return name + "-" + rowIndex;
+        }
+        return null;
+    }
+
+    private static boolean isCategory(String fieldName) {
+        String name = fieldName.toLowerCase();
+        return name.contains("code") || name.contains("status") || name.contains("type")
+            || name.contains("segment") || name.contains("flow") || name.contains("warehouse")
+            || name.contains("product") || name.contains("category");
+    }
+}
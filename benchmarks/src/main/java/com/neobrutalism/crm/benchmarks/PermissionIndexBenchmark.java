@@ -0,0 +1,144 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.config.security.CompiledPolicySet;
+import com.neobrutalism.crm.config.security.ScopeMatcher;
+import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.model.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission checks: Enforcer.enforce vs CompiledPolicySet as the policy set grows
+ *
+ * Synthetic tenants with ~50 roles each, a priority chain of role inheritance (g), user
+ * assignments and menu-path policies shaped like CasbinPolicyManager's (one row per action,
+ * literal paths, a few regex paths). Setup also runs a differential check: every probe
+ * request must get the same answer from both engines, or the trial fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class PermissionIndexBenchmark {
+
+    private static final String[] ACTIONS = {"read", "create", "update", "delete", "export", "import"};
+    private static final String[] SCOPES = {"ALL_BRANCHES", "CURRENT_BRANCH", "SELF_ONLY"};
+    private static final int ROLES_PER_TENANT = 50;
+    private static final int USERS_PER_TENANT = 200;
+    private static final int PROBES = 4096;
+
+    @Param({"1000", "10000", "50000"})
+    public int policies;
+
+    private Enforcer enforcer;
+    private CompiledPolicySet compiled;
+    private String[][] probes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SplittableRandom random = new SplittableRandom(11);
+        int tenants = Math.max(1, policies / 1000);
+        int resourcesPerTenant = Math.max(1, policies / tenants / ROLES_PER_TENANT / 2);
+
+        List<List<String>> p = new ArrayList<>();
+        List<List<String>> g = new ArrayList<>();
+        for (int t = 0; t < tenants; t++) {
+            String tenant = "tenant-" + t;
+            for (int r = 0; r < ROLES_PER_TENANT; r++) {
+                String role = "ROLE_" + r;
+                if (r > 0) {
+                    g.add(List.of(role, "ROLE_" + (r - 1), tenant));
+                }
+                for (int i = 0; i < resourcesPerTenant && p.size() < policies; i++) {
+                    String resource = random.nextInt(10) == 0
+                        ? "/api/module" + r + "/res" + i + "/.*"
+                        : "/api/module" + r + "/res" + i;
+                    p.add(List.of(role, tenant, resource, ACTIONS[random.nextInt(ACTIONS.length)],
+                                  "allow", SCOPES[random.nextInt(SCOPES.length)]));
+                    p.add(List.of(role, tenant, resource, "read", "allow", SCOPES[random.nextInt(SCOPES.length)]));
+                }
+            }
+            for (int u = 0; u < USERS_PER_TENANT; u++) {
+                g.add(List.of("user-" + u, "ROLE_" + random.nextInt(ROLES_PER_TENANT), tenant));
+            }
+        }
+
+        Model model = new Model();
+        model.loadModelFromText(modelText());
+        enforcer = new Enforcer(model);
+        ScopeMatcher.register(enforcer);
+        enforcer.addPolicies(p);
+        enforcer.addNamedGroupingPolicies("g", g);
+        compiled = CompiledPolicySet.compile(p, g, List.of());
+
+        probes = new String[PROBES][];
+        for (int i = 0; i < PROBES; i++) {
+            String tenant = "tenant-" + random.nextInt(tenants);
+            String subject = random.nextBoolean()
+                ? "user-" + random.nextInt(USERS_PER_TENANT)
+                : "ROLE_" + random.nextInt(ROLES_PER_TENANT);
+            String path = "/api/module" + random.nextInt(ROLES_PER_TENANT) + "/res"
+                + random.nextInt(resourcesPerTenant) + (random.nextBoolean() ? "/42" : "");
+            probes[i] = new String[] {subject, tenant, path, ACTIONS[random.nextInt(ACTIONS.length)],
+                                      SCOPES[random.nextInt(SCOPES.length)]};
+        }
+
+        for (String[] probe : probes) {
+            boolean expected = enforcer.enforce(probe[0], probe[1], probe[2], probe[3], probe[4]);
+            boolean actual = compiled.enforce(probe[0], probe[1], probe[2], probe[3], probe[4]);
+            if (expected != actual) {
+                throw new IllegalStateException("Decision mismatch for " + String.join(", ", probe)
+                    + ": enforcer=" + expected + ", compiled=" + actual);
+            }
+        }
+    }
+
+    private static String modelText() throws IOException {
+        try (InputStream in = PermissionIndexBenchmark.class.getClassLoader()
+                .getResourceAsStream("casbin/model.conf")) {
+            if (in == null) {
+                throw new IOException("casbin/model.conf not found on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String[] next() {
+        String[] probe = probes[cursor];
+        cursor = (cursor + 1) & (PROBES - 1);
+        return probe;
+    }
+
+    @Benchmark
+    public boolean enforcer() {
+        String[] probe = next();
+        return enforcer.enforce(probe[0], probe[1], probe[2], probe[3], probe[4]);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        String[] probe = next();
+        return compiled.enforce(probe[0], probe[1], probe[2], probe[3], probe[4]);
+    }
+}
@@ -0,0 +1,108 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.excel.strategy.ReadStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.ParallelReadStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.ReactiveParallelReadStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.StreamingReadStrategy;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read strategies over a synthetic HSBG workbook
+ *
+ * One op = one full read of the workbook; the batch consumer only counts rows (parallel
+ * strategies call it from worker threads, so not a Blackhole), so the score is parse + bind
+ * cost. Multiply ops/s by rows for rows/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReadStrategyBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"HSBG_THEO_HOP_DONG", "HSBG_THEO_CIF", "HSBG_THEO_TAP"})
+    public SheetType sheetType;
+
+    private Path workbook;
+    private Class<Object> beanClass;
+    private ExcelConfig config;
+    private ExcelConfig parallelConfig;
+
+    private final StreamingReadStrategy<Object> streaming = new StreamingReadStrategy<>();
+    private final ParallelReadStrategy<Object> parallel = new ParallelReadStrategy<>();
+    private ReactiveParallelReadStrategy<Object> reactive;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        beanClass = (Class<Object>) HsbgWorkbookGenerator.dtoClass(sheetType);
+        workbook = HsbgWorkbookGenerator.workbook(beanClass, rows);
+        config = ExcelConfig.builder()
+            .batchSize(5000)
+            .enableProgressTracking(false)
+            .enableMemoryMonitoring(false)
+            .build();
+        parallelConfig = ExcelConfig.builder()
+            .batchSize(5000)
+            .parallelProcessing(true)
+            .threadPoolSize(Runtime.getRuntime().availableProcessors())
+            .enableProgressTracking(false)
+            .enableMemoryMonitoring(false)
+            .build();
+        reactive = new ReactiveParallelReadStrategy<>(new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public Object streaming() throws Exception {
+        return read(streaming, config);
+    }
+
+    @Benchmark
+    public Object parallel() throws Exception {
+        return read(parallel, parallelConfig);
+    }
+
+    @Benchmark
+    public Object reactiveParallel() throws Exception {
+        return read(reactive, parallelConfig);
+    }
+
+    private Object read(ReadStrategy<Object> strategy, ExcelConfig readConfig) throws Exception {
+        LongAdder consumed = new LongAdder();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(workbook))) {
+            strategy.execute(in, beanClass, readConfig, batch -> consumed.add(batch.size()));
+        }
+        return consumed.sum();
+    }
+}
@@ -0,0 +1,108 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.utils.cache.CellExtractor;
+import com.neobrutalism.crm.utils.cache.EnhancedReflectionCache;
+import com.neobrutalism.crm.utils.cache.ReflectionCache;
+import com.neobrutalism.crm.utils.reflection.MethodHandleMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean binding cost per row: MethodHandleMapper vs ReflectionCache
+ *
+ * Each op binds (or reads) every @ExcelColumn field of one HSBG DTO, i.e. one spreadsheet row.
+ * Field lookups go through each cache by name, as the row processors do, so the score includes
+ * the map lookup and not only the invocation. extractorGet is the compiled path the writers use.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ReflectionBenchmark {
+
+    @Param({"HSBG_THEO_HOP_DONG", "HSBG_THEO_CIF", "HSBG_THEO_TAP"})
+    public SheetType sheetType;
+
+    private Class<Object> beanClass;
+    private MethodHandleMapper<Object> mapper;
+    private ReflectionCache reflectionCache;
+    private CellExtractor[] extractors;
+
+    private String[] fieldNames;
+    private Object[] values;
+    private Object bean;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        beanClass = (Class<Object>) HsbgWorkbookGenerator.dtoClass(sheetType);
+        mapper = MethodHandleMapper.forClass(beanClass);
+        reflectionCache = ReflectionCache.getInstance();
+        extractors = EnhancedReflectionCache.getInstance().getCellExtractors(beanClass);
+
+        bean = HsbgWorkbookGenerator.rows(beanClass, 1).get(0);
+        fieldNames = new String[extractors.length];
+        values = new Object[extractors.length];
+        for (int i = 0; i < extractors.length; i++) {
+            fieldNames[i] = extractors[i].getFieldName();
+            values[i] = extractors[i].get(bean);
+        }
+    }
+
+    @Benchmark
+    public Object methodHandleBind() {
+        Object row = mapper.createInstance();
+        for (int i = 0; i < fieldNames.length; i++) {
+            mapper.setFieldValue(row, fieldNames[i], values[i]);
+        }
+        return row;
+    }
+
+    @Benchmark
+    public Object reflectionBind() throws Exception {
+        Constructor<Object> constructor = reflectionCache.getConstructor(beanClass);
+        Object row = constructor.newInstance();
+        for (int i = 0; i < fieldNames.length; i++) {
+            reflectionCache.getField(beanClass, fieldNames[i]).set(row, values[i]);
+        }
+        return row;
+    }
+
+    @Benchmark
+    public void methodHandleGet(Blackhole bh) {
+        for (String fieldName : fieldNames) {
+            bh.consume(mapper.getFieldValue(bean, fieldName));
+        }
+    }
+
+    @Benchmark
+    public void reflectionGet(Blackhole bh) throws Exception {
+        for (String fieldName : fieldNames) {
+            bh.consume(reflectionCache.getField(beanClass, fieldName).get(bean));
+        }
+    }
+
+    @Benchmark
+    public void extractorGet(Blackhole bh) {
+        for (CellExtractor extractor : extractors) {
+            bh.consume(extractor.get(bean));
+        }
+    }
+}
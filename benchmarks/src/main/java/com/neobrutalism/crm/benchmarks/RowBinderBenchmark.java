@@ -0,0 +1,79 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.excel.strategy.impl.StreamingReadStrategy;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compiled row binder on / off (ExcelConfig.useCompiledRowBinder) over one large workbook
+ *
+ * One op = one streaming read of the whole sheet from disk, timed single-shot (seconds per
+ * file). Everything but the binding path is the same, so the difference is the per-cell cost of
+ * header lookups, name normalisation and TypeConverter calls that the binder compiles away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class RowBinderBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"HSBG_THEO_HOP_DONG"})
+    public SheetType sheetType;
+
+    @Param({"true", "false"})
+    public boolean compiledBinder;
+
+    private Path workbook;
+    private Class<Object> beanClass;
+    private ExcelConfig config;
+
+    private final StreamingReadStrategy<Object> streaming = new StreamingReadStrategy<>();
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        beanClass = (Class<Object>) HsbgWorkbookGenerator.dtoClass(sheetType);
+        workbook = HsbgWorkbookGenerator.workbook(beanClass, rows);
+        config = ExcelConfig.builder()
+            .batchSize(5000)
+            .useCompiledRowBinder(compiledBinder)
+            .enableProgressTracking(false)
+            .enableMemoryMonitoring(false)
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(workbook);
+    }
+
+    @Benchmark
+    public long read() throws Exception {
+        LongAdder consumed = new LongAdder();
+        streaming.execute(workbook, beanClass, config, batch -> consumed.add(batch.size()));
+        return consumed.sum();
+    }
+}
@@ -0,0 +1,232 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.migration.entity.StagingHSBGCif;
+import com.neobrutalism.crm.application.migration.entity.StagingHSBGHopDong;
+import com.neobrutalism.crm.application.migration.entity.StagingHSBGTap;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.application.migration.repository.JdbcBatchInsertHelper;
+import com.neobrutalism.crm.application.migration.repository.StagingBulkLoader;
+import com.neobrutalism.crm.application.migration.repository.StagingBulkLoader.StagingBatch;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Staging load: PostgreSQL COPY (StagingBulkLoader) vs the JDBC batch INSERT fallback
+ * (JdbcBatchInsertHelper)
+ *
+ * Needs a PostgreSQL database (-p jdbcUrl=... -p user=... -p password=...); the three staging
+ * tables are (re)created from the V201 / V203 / V307 migrations, with the H2-only syntax
+ * translated. One op = one batch of batchRows staging rows loaded and committed; the tables are
+ * truncated after every iteration so index size does not drift between the two paths.
+ *
+ * The JDBC path calls the helper's connection entry points on a pooled connection and commits,
+ * the way the checkpoint transaction commits a staged batch in the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class StagingLoadBenchmark {
+
+    private static final String[] STAGING_TABLES = {
+        "staging_hsbg_hop_dong", "staging_hsbg_cif", "staging_hsbg_tap"
+    };
+    private static final String[] SCHEMA_SCRIPTS = {
+        "db/migration/V201__Create_excel_migration_tables.sql",
+        "db/migration/V203__Drop_unused_staging_columns.sql",
+        "db/migration/V307__Add_migration_sheet_checkpoint.sql"
+    };
+
+    @Param({"jdbc:postgresql://localhost:5432/postgres"})
+    public String jdbcUrl;
+
+    @Param({"postgres"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    @Param({"HSBG_THEO_HOP_DONG", "HSBG_THEO_CIF", "HSBG_THEO_TAP"})
+    public SheetType sheetType;
+
+    @Param({"5000"})
+    public int batchRows;
+
+    private HikariDataSource dataSource;
+    private JdbcBatchInsertHelper insertHelper;
+    private StagingBulkLoader copyLoader;
+    private List<?> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setJdbcUrl(jdbcUrl);
+        hikari.setUsername(user);
+        hikari.setPassword(password);
+        hikari.setMaximumPoolSize(2);
+        dataSource = new HikariDataSource(hikari);
+        createStagingTables();
+
+        insertHelper = new JdbcBatchInsertHelper();
+        copyLoader = new StagingBulkLoader(dataSource, insertHelper, true);
+        if (!copyLoader.isCopySupported()) {
+            throw new IllegalStateException("COPY not available on " + jdbcUrl);
+        }
+        rows = stagingRows(batchRows);
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE " + String.join(", ", STAGING_TABLES));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int copy() {
+        StagingBatch<Object> batch = (StagingBatch<Object>) switch (sheetType) {
+            case HSBG_THEO_HOP_DONG -> copyLoader.hopDongBatch(batchRows);
+            case HSBG_THEO_CIF -> copyLoader.cifBatch(batchRows);
+            case HSBG_THEO_TAP -> copyLoader.tapBatch(batchRows);
+        };
+        for (Object row : rows) {
+            batch.add(row);
+        }
+        return batch.load();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int jdbcBatch() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            int inserted = switch (sheetType) {
+                case HSBG_THEO_HOP_DONG -> insertHelper.insertHopDong(connection, (List<StagingHSBGHopDong>) rows);
+                case HSBG_THEO_CIF -> insertHelper.insertCif(connection, (List<StagingHSBGCif>) rows);
+                case HSBG_THEO_TAP -> insertHelper.insertTap(connection, (List<StagingHSBGTap>) rows);
+            };
+            connection.commit();
+            return inserted;
+        }
+    }
+
+    /**
+     * Staging rows with every mapped column filled; ids left null (both paths generate them)
+     */
+    private List<?> stagingRows(int count) throws ReflectiveOperationException {
+        Class<?> entityClass = switch (sheetType) {
+            case HSBG_THEO_HOP_DONG -> StagingHSBGHopDong.class;
+            case HSBG_THEO_CIF -> StagingHSBGCif.class;
+            case HSBG_THEO_TAP -> StagingHSBGTap.class;
+        };
+        UUID jobId = UUID.randomUUID();
+        UUID sheetId = UUID.randomUUID();
+        SplittableRandom random = new SplittableRandom(20_240_101L);
+        LocalDate baseDate = LocalDate.of(2015, 1, 1);
+
+        List<Object> data = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object row = entityClass.getDeclaredConstructor().newInstance();
+            for (Field field : entityClass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String name = field.getName();
+                Class<?> type = field.getType();
+                Object value;
+                if (name.equals("id")) {
+                    value = null;
+                } else if (name.equals("jobId")) {
+                    value = jobId;
+                } else if (name.equals("sheetId")) {
+                    value = sheetId;
+                } else if (name.equals("rowNumber")) {
+                    value = (long) i + 1;
+                } else if (name.equals("validationStatus")) {
+                    value = "VALID";
+                } else if (type == String.class) {
+                    // Fits the narrowest staging column (VARCHAR(50))
+                    value = name.substring(0, Math.min(name.length(), 24)) + "-" + i;
+                } else if (type == Integer.class) {
+                    value = 1 + random.nextInt(50);
+                } else if (type == LocalDate.class) {
+                    value = baseDate.plusDays(random.nextInt(3650));
+                } else if (type == Boolean.class) {
+                    value = Boolean.FALSE;
+                } else {
+                    value = field.get(row);
+                }
+                field.set(row, value);
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    /**
+     * Staging DDL from the migrations, H2 syntax translated for PostgreSQL
+     */
+    private void createStagingTables() throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + String.join(", ", STAGING_TABLES));
+            for (String script : SCHEMA_SCRIPTS) {
+                for (String sql : readScript(script).split(";")) {
+                    if (sql.contains("staging_hsbg_") && !sql.contains("COMMENT ON")) {
+                        statement.execute(sql
+                            .replace("RANDOM_UUID()", "gen_random_uuid()")
+                            .replace("CLOB", "TEXT"));
+                    }
+                }
+            }
+        }
+    }
+
+    private static String readScript(String resource) throws IOException {
+        try (InputStream in = StagingLoadBenchmark.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Migration not on the classpath: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                .replaceAll("(?m)--.*$", "");
+        }
+    }
+}
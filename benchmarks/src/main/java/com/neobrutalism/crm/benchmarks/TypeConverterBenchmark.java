@@ -0,0 +1,85 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.utils.converter.TypeConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TypeConverter.convert per cell
+ *
+ * distinctValues controls the conversion cache: 16 keeps every call a cache hit, 100000 runs
+ * past the 10K-entry cap so most calls parse. dd/MM/yyyy dates (local text format) only match
+ * the third formatter, so they also pay for two failed parses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class TypeConverterBenchmark {
+
+    @Param({"16", "100000"})
+    public int distinctValues;
+
+    private final TypeConverter converter = TypeConverter.getInstance();
+
+    private String[] integers;
+    private String[] isoDates;
+    private String[] dmyDates;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        DateTimeFormatter dmy = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        LocalDate base = LocalDate.of(2000, 1, 1);
+
+        integers = new String[distinctValues];
+        isoDates = new String[distinctValues];
+        dmyDates = new String[distinctValues];
+        for (int i = 0; i < distinctValues; i++) {
+            LocalDate date = base.plusDays(random.nextInt(20_000));
+            integers[i] = Integer.toString(random.nextInt(1_000_000));
+            isoDates[i] = date.toString();
+            dmyDates[i] = date.format(dmy);
+        }
+        converter.clearCache();
+    }
+
+    private int next() {
+        int index = cursor;
+        cursor = index + 1 == distinctValues ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public Integer integer() {
+        return converter.convert(integers[next()], Integer.class);
+    }
+
+    @Benchmark
+    public LocalDate isoDate() {
+        return converter.convert(isoDates[next()], LocalDate.class);
+    }
+
+    @Benchmark
+    public LocalDate dmyDate() {
+        return converter.convert(dmyDates[next()], LocalDate.class);
+    }
+}
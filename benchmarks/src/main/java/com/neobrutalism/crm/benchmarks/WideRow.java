@@ -0,0 +1,327 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.utils.ExcelColumn;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 40-column export row for the 1M x 40 write benchmarks
+ *
+ * 24 text, 8 integer, 4 decimal and 4 date columns with public getters, so the writers read it
+ * through compiled extractors like the application DTOs. The first text column is unique per
+ * row; the other text columns come from small value pools (codes, statuses, names), which keeps
+ * 1M rows around 0.5GB of heap.
+ */
+public class WideRow {
+
+    public static final int COLUMNS = 40;
+
+    private static final long SEED = 20_240_101L;
+    private static final LocalDate BASE_DATE = LocalDate.of(2015, 1, 1);
+    private static final int DATE_SPREAD_DAYS = 3650;
+    private static final int TEXT_POOL_SIZE = 64;
+
+    @ExcelColumn(name = "Column 01", index = 0)
+    private String col01;
+    @ExcelColumn(name = "Column 02", index = 1)
+    private String col02;
+    @ExcelColumn(name = "Column 03", index = 2)
+    private String col03;
+    @ExcelColumn(name = "Column 04", index = 3)
+    private String col04;
+    @ExcelColumn(name = "Column 05", index = 4)
+    private String col05;
+    @ExcelColumn(name = "Column 06", index = 5)
+    private String col06;
+    @ExcelColumn(name = "Column 07", index = 6)
+    private String col07;
+    @ExcelColumn(name = "Column 08", index = 7)
+    private String col08;
+    @ExcelColumn(name = "Column 09", index = 8)
+    private String col09;
+    @ExcelColumn(name = "Column 10", index = 9)
+    private String col10;
+    @ExcelColumn(name = "Column 11", index = 10)
+    private String col11;
+    @ExcelColumn(name = "Column 12", index = 11)
+    private String col12;
+    @ExcelColumn(name = "Column 13", index = 12)
+    private String col13;
+    @ExcelColumn(name = "Column 14", index = 13)
+    private String col14;
+    @ExcelColumn(name = "Column 15", index = 14)
+    private String col15;
+    @ExcelColumn(name = "Column 16", index = 15)
+    private String col16;
+    @ExcelColumn(name = "Column 17", index = 16)
+    private String col17;
+    @ExcelColumn(name = "Column 18", index = 17)
+    private String col18;
+    @ExcelColumn(name = "Column 19", index = 18)
+    private String col19;
+    @ExcelColumn(name = "Column 20", index = 19)
+    private String col20;
+    @ExcelColumn(name = "Column 21", index = 20)
+    private String col21;
+    @ExcelColumn(name = "Column 22", index = 21)
+    private String col22;
+    @ExcelColumn(name = "Column 23", index = 22)
+    private String col23;
+    @ExcelColumn(name = "Column 24", index = 23)
+    private String col24;
+    @ExcelColumn(name = "Column 25", index = 24)
+    private Long col25;
+    @ExcelColumn(name = "Column 26", index = 25)
+    private Long col26;
+    @ExcelColumn(name = "Column 27", index = 26)
+    private Long col27;
+    @ExcelColumn(name = "Column 28", index = 27)
+    private Long col28;
+    @ExcelColumn(name = "Column 29", index = 28)
+    private Long col29;
+    @ExcelColumn(name = "Column 30", index = 29)
+    private Long col30;
+    @ExcelColumn(name = "Column 31", index = 30)
+    private Long col31;
+    @ExcelColumn(name = "Column 32", index = 31)
+    private Long col32;
+    @ExcelColumn(name = "Column 33", index = 32)
+    private Double col33;
+    @ExcelColumn(name = "Column 34", index = 33)
+    private Double col34;
+    @ExcelColumn(name = "Column 35", index = 34)
+    private Double col35;
+    @ExcelColumn(name = "Column 36", index = 35)
+    private Double col36;
+    @ExcelColumn(name = "Column 37", index = 36)
+    private LocalDate col37;
+    @ExcelColumn(name = "Column 38", index = 37)
+    private LocalDate col38;
+    @ExcelColumn(name = "Column 39", index = 38)
+    private LocalDate col39;
+    @ExcelColumn(name = "Column 40", index = 39)
+    private LocalDate col40;
+
+    /**
+     * Deterministic rows
+     */
+    public static List<WideRow> rows(int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[][] pools = new String[24][TEXT_POOL_SIZE];
+        for (int column = 0; column < pools.length; column++) {
+            for (int value = 0; value < TEXT_POOL_SIZE; value++) {
+                pools[column][value] = "C" + (column + 1) + "_VALUE_" + value;
+            }
+        }
+
+        List<WideRow> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            WideRow row = new WideRow();
+            row.col01 = "ROW-" + i;
+            row.col02 = pools[1][random.nextInt(TEXT_POOL_SIZE)];
+            row.col03 = pools[2][random.nextInt(TEXT_POOL_SIZE)];
+            row.col04 = pools[3][random.nextInt(TEXT_POOL_SIZE)];
+            row.col05 = pools[4][random.nextInt(TEXT_POOL_SIZE)];
+            row.col06 = pools[5][random.nextInt(TEXT_POOL_SIZE)];
+            row.col07 = pools[6][random.nextInt(TEXT_POOL_SIZE)];
+            row.col08 = pools[7][random.nextInt(TEXT_POOL_SIZE)];
+            row.col09 = pools[8][random.nextInt(TEXT_POOL_SIZE)];
+            row.col10 = pools[9][random.nextInt(TEXT_POOL_SIZE)];
+            row.col11 = pools[10][random.nextInt(TEXT_POOL_SIZE)];
+            row.col12 = pools[11][random.nextInt(TEXT_POOL_SIZE)];
+            row.col13 = pools[12][random.nextInt(TEXT_POOL_SIZE)];
+            row.col14 = pools[13][random.nextInt(TEXT_POOL_SIZE)];
+            row.col15 = pools[14][random.nextInt(TEXT_POOL_SIZE)];
+            row.col16 = pools[15][random.nextInt(TEXT_POOL_SIZE)];
+            row.col17 = pools[16][random.nextInt(TEXT_POOL_SIZE)];
+            row.col18 = pools[17][random.nextInt(TEXT_POOL_SIZE)];
+            row.col19 = pools[18][random.nextInt(TEXT_POOL_SIZE)];
+            row.col20 = pools[19][random.nextInt(TEXT_POOL_SIZE)];
+            row.col21 = pools[20][random.nextInt(TEXT_POOL_SIZE)];
+            row.col22 = pools[21][random.nextInt(TEXT_POOL_SIZE)];
+            row.col23 = pools[22][random.nextInt(TEXT_POOL_SIZE)];
+            row.col24 = pools[23][random.nextInt(TEXT_POOL_SIZE)];
+            row.col25 = random.nextLong(1_000_000_000L);
+            row.col26 = random.nextLong(1_000_000_000L);
+            row.col27 = random.nextLong(1_000_000_000L);
+            row.col28 = random.nextLong(1_000_000_000L);
+            row.col29 = random.nextLong(1_000_000_000L);
+            row.col30 = random.nextLong(1_000_000_000L);
+            row.col31 = random.nextLong(1_000_000_000L);
+            row.col32 = random.nextLong(1_000_000_000L);
+            row.col33 = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            row.col34 = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            row.col35 = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            row.col36 = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            row.col37 = BASE_DATE.plusDays(random.nextInt(DATE_SPREAD_DAYS));
+            row.col38 = BASE_DATE.plusDays(random.nextInt(DATE_SPREAD_DAYS));
+            row.col39 = BASE_DATE.plusDays(random.nextInt(DATE_SPREAD_DAYS));
+            row.col40 = BASE_DATE.plusDays(random.nextInt(DATE_SPREAD_DAYS));
+            data.add(row);
+        }
+        return data;
+    }
+
+    public String getCol01() {
+        return col01;
+    }
+
+    public String getCol02() {
+        return col02;
+    }
+
+    public String getCol03() {
+        return col03;
+    }
+
+    public String getCol04() {
+        return col04;
+    }
+
+    public String getCol05() {
+        return col05;
+    }
+
+    public String getCol06() {
+        return col06;
+    }
+
+    public String getCol07() {
+        return col07;
+    }
+
+    public String getCol08() {
+        return col08;
+    }
+
+    public String getCol09() {
+        return col09;
+    }
+
+    public String getCol10() {
+        return col10;
+    }
+
+    public String getCol11() {
+        return col11;
+    }
+
+    public String getCol12() {
+        return col12;
+    }
+
+    public String getCol13() {
+        return col13;
+    }
+
+    public String getCol14() {
+        return col14;
+    }
+
+    public String getCol15() {
+        return col15;
+    }
+
+    public String getCol16() {
+        return col16;
+    }
+
+    public String getCol17() {
+        return col17;
+    }
+
+    public String getCol18() {
+        return col18;
+    }
+
+    public String getCol19() {
+        return col19;
+    }
+
+    public String getCol20() {
+        return col20;
+    }
+
+    public String getCol21() {
+        return col21;
+    }
+
+    public String getCol22() {
+        return col22;
+    }
+
+    public String getCol23() {
+        return col23;
+    }
+
+    public String getCol24() {
+        return col24;
+    }
+
+    public Long getCol25() {
+        return col25;
+    }
+
+    public Long getCol26() {
+        return col26;
+    }
+
+    public Long getCol27() {
+        return col27;
+    }
+
+    public Long getCol28() {
+        return col28;
+    }
+
+    public Long getCol29() {
+        return col29;
+    }
+
+    public Long getCol30() {
+        return col30;
+    }
+
+    public Long getCol31() {
+        return col31;
+    }
+
+    public Long getCol32() {
+        return col32;
+    }
+
+    public Double getCol33() {
+        return col33;
+    }
+
+    public Double getCol34() {
+        return col34;
+    }
+
+    public Double getCol35() {
+        return col35;
+    }
+
+    public Double getCol36() {
+        return col36;
+    }
+
+    public LocalDate getCol37() {
+        return col37;
+    }
+
+    public LocalDate getCol38() {
+        return col38;
+    }
+
+    public LocalDate getCol39() {
+        return col39;
+    }
+
+    public LocalDate getCol40() {
+        return col40;
+    }
+}
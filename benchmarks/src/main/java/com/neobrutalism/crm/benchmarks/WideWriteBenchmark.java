@@ -0,0 +1,101 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.excel.helper.ExcelWriteHelper;
+import com.neobrutalism.crm.application.excel.helper.OoxmlStreamWriter;
+import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.CSVWriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.OoxmlWriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.SXSSFWriteStrategy;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Large exports: SXSSF vs direct OOXML vs CSV at 1M rows x 40 columns
+ *
+ * One op = one complete file, timed single-shot (seconds per file); the rows are built once per
+ * trial. XSSF is left out: canHandle rejects 40M cells. Pair with -prof gc to compare the
+ * allocation per file (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class WideWriteBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private List<Object> data;
+    private ExcelConfig config;
+    private Path outputDir;
+    private String fileName;
+
+    private final ExcelWriteHelper writeHelper = new ExcelWriteHelper();
+    private final SXSSFWriteStrategy<Object> sxssf = new SXSSFWriteStrategy<>(writeHelper);
+    private final OoxmlWriteStrategy<Object> ooxml = new OoxmlWriteStrategy<>(new OoxmlStreamWriter());
+    private final CSVWriteStrategy<Object> csv = new CSVWriteStrategy<>(writeHelper);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = List.copyOf(WideRow.rows(rows));
+        config = ExcelConfig.builder()
+            .enableProgressTracking(false)
+            .enableMemoryMonitoring(false)
+            .useDirectOoxmlWriter(true)
+            .build();
+        outputDir = Files.createTempDirectory("bench-wide-");
+        // CSVWriteStrategy swaps the extension, so every strategy writes inside outputDir
+        fileName = outputDir.resolve("out.xlsx").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long sxssf() throws Exception {
+        return write(sxssf);
+    }
+
+    @Benchmark
+    public long ooxml() throws Exception {
+        return write(ooxml);
+    }
+
+    @Benchmark
+    public long csv() throws Exception {
+        return write(csv);
+    }
+
+    private long write(WriteStrategy<Object> strategy) throws Exception {
+        strategy.execute(fileName, data, config);
+        return data.size();
+    }
+}
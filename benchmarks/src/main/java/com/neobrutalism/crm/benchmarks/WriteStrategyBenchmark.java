@@ -0,0 +1,114 @@
+package com.neobrutalism.crm.benchmarks;
+
+import com.neobrutalism.crm.application.excel.helper.ExcelWriteHelper;
+import com.neobrutalism.crm.application.excel.helper.OoxmlStreamWriter;
+import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.CSVWriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.OoxmlWriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.SXSSFWriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.impl.XSSFWriteStrategy;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write strategies over synthetic HSBG rows
+ *
+ * One op = one full file written from an in-memory list (the rows are built once per trial).
+ * Strategies are called directly, bypassing canHandle, so XSSF is measured past the band the
+ * selector would give it; expect it to dominate the allocation rate at 100K rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WriteStrategyBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"HSBG_THEO_HOP_DONG", "HSBG_THEO_CIF", "HSBG_THEO_TAP"})
+    public SheetType sheetType;
+
+    private List<Object> data;
+    private ExcelConfig config;
+    private Path outputDir;
+    private String fileName;
+
+    private final ExcelWriteHelper writeHelper = new ExcelWriteHelper();
+    private final XSSFWriteStrategy<Object> xssf = new XSSFWriteStrategy<>(writeHelper);
+    private final SXSSFWriteStrategy<Object> sxssf = new SXSSFWriteStrategy<>(writeHelper);
+    private final OoxmlWriteStrategy<Object> ooxml = new OoxmlWriteStrategy<>(new OoxmlStreamWriter());
+    private final CSVWriteStrategy<Object> csv = new CSVWriteStrategy<>(writeHelper);
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        Class<Object> beanClass = (Class<Object>) HsbgWorkbookGenerator.dtoClass(sheetType);
+        data = HsbgWorkbookGenerator.rows(beanClass, rows);
+        config = ExcelConfig.builder()
+            .enableProgressTracking(false)
+            .enableMemoryMonitoring(false)
+            .useDirectOoxmlWriter(true)
+            .build();
+        outputDir = Files.createTempDirectory("bench-write-");
+        // CSVWriteStrategy swaps the extension, so every strategy writes inside outputDir
+        fileName = outputDir.resolve("out.xlsx").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long xssf() throws Exception {
+        return write(xssf);
+    }
+
+    @Benchmark
+    public long sxssf() throws Exception {
+        return write(sxssf);
+    }
+
+    @Benchmark
+    public long ooxml() throws Exception {
+        return write(ooxml);
+    }
+
+    @Benchmark
+    public long csv() throws Exception {
+        return write(csv);
+    }
+
+    private long write(WriteStrategy<Object> strategy) throws Exception {
+        strategy.execute(fileName, data, config);
+        return data.size();
+    }
+}
@@ -5,16 +5,21 @@ import com.neobrutalism.crm.application.excel.builder.ExcelWriterBuilder;
 import com.neobrutalism.crm.application.excel.service.ExcelReadingService;
 import com.neobrutalism.crm.application.excel.service.ExcelWritingService;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.config.ExcelConfigFactory;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
+import com.neobrutalism.crm.utils.json.StreamingJsonProcessor;
 import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Unified facade for Excel operations with automatic strategy selection
@@ -226,6 +231,67 @@ public class ExcelFacade {
         }
     }
 
+    /**
+     * Read a CSV file from disk and process in batches (no Excel conversion)
+     *
+     * The file is memory-mapped and parsed in parallel record-aligned ranges, with the same
+     * row binding, validations and batch contract as the Excel readers (batches arrive in file order).
+     * Delimiter from config.getDelimiter(), UTF-8.
+     *
+     * @param csvFile CSV file on disk
+     * @param beanClass Class type to map CSV records to
+     * @param config Excel configuration (batch size, startRow, threadPoolSize, ...)
+     * @param batchProcessor Consumer that processes each batch
+     * @param <T> Type of objects to read
+     * @return ProcessingResult with statistics
+     * @throws ExcelProcessException if reading fails
+     */
+    public <T> TrueStreamingSAXProcessor.ProcessingResult readCsv(
+        Path csvFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        log.debug("Reading CSV file {} for class: {}", csvFile, beanClass.getSimpleName());
+
+        try {
+            TrueStreamingSAXProcessor<T> processor = new TrueStreamingSAXProcessor<>(
+                beanClass, config, new ArrayList<>(), batchProcessor);
+            return processor.processCsvFile(csvFile);
+        } catch (Exception e) {
+            throw new ExcelProcessException("Failed to read CSV file", e);
+        }
+    }
+
+    /**
+     * Read a JSON array or JSON Lines stream and process in batches
+     *
+     * Records are bound straight from the byte stream (no per-line Strings, arrays are not
+     * buffered), with the same batch contract and ProcessingResult as the Excel readers.
+     *
+     * @param inputStream JSON / JSONL byte stream (closed when reading ends)
+     * @param beanClass Class type to bind records to
+     * @param config Excel configuration (batch size, maxRows, maxErrorsBeforeAbort)
+     * @param batchProcessor Consumer that processes each batch
+     * @param <T> Type of objects to read
+     * @return ProcessingResult with statistics
+     * @throws ExcelProcessException if reading fails
+     */
+    public <T> TrueStreamingSAXProcessor.ProcessingResult readJson(
+        InputStream inputStream,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        log.debug("Reading JSON stream for class: {}", beanClass.getSimpleName());
+
+        try {
+            return new StreamingJsonProcessor<>(beanClass, config, batchProcessor).process(inputStream);
+        } catch (Exception e) {
+            throw new ExcelProcessException("Failed to read JSON stream", e);
+        }
+    }
+
     // ========== WRITING API ==========
 
     /**
@@ -278,6 +344,28 @@ public class ExcelFacade {
         writingService.writeWithConfig(fileName, data, config);
     }
 
+    /**
+     * Write rows pulled lazily from a cursor to Excel / CSV file
+     *
+     * Use for exports that should not be loaded into a List first, e.g. a
+     * Spring Data {@code Stream<T>} repository query with a fetch size hint.
+     * The caller keeps the read-only transaction open and closes the stream.
+     *
+     * @param fileName Output file name
+     * @param rows Rows to write
+     * @param beanClass Row type
+     * @param estimatedRows Expected row count (used for SXSSF vs CSV selection)
+     * @param <T> Type of objects to write
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    public <T> long writeExcel(String fileName, Stream<T> rows, Class<T> beanClass, long estimatedRows)
+            throws ExcelProcessException {
+        log.debug("Streaming ~{} {} records to Excel file: {}", estimatedRows, beanClass.getSimpleName(), fileName);
+
+        return writingService.writeStream(fileName, rows, beanClass, estimatedRows, ExcelConfigFactory.createProductionConfig());
+    }
+
     // ========== CONVENIENCE METHODS ==========
 
     /**
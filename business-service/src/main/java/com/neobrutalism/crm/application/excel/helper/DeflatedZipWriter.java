@@ -0,0 +1,179 @@
+package com.neobrutalism.crm.application.excel.helper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal zip writer for entries that are already deflated
+ *
+ * ZipOutputStream always compresses what it is given, so parts deflated concurrently
+ * (one Deflater per sheet) could only be stitched by inflating and re-deflating them.
+ * This writer copies raw-deflate data as-is: the CRC and both sizes are known up front,
+ * so every local header is final and no data descriptors are needed.
+ *
+ * Limits: no ZIP64 (entries and archive below 4GB, fewer than 65535 entries).
+ */
+final class DeflatedZipWriter {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int FLAG_UTF8_NAMES = 0x0800;
+    private static final int METHOD_DEFLATED = 8;
+    private static final long MAX_32 = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private record Entry(byte[] name, long crc, long size, long compressedSize, long offset) {
+    }
+
+    private final OutputStream out;
+    private final int dosTime;
+    private final int dosDate;
+    private final List<Entry> entries = new ArrayList<>();
+    private long offset;
+
+    DeflatedZipWriter(OutputStream out) {
+        this.out = out;
+        LocalDateTime now = LocalDateTime.now();
+        this.dosTime = (now.getHour() << 11) | (now.getMinute() << 5) | (now.getSecond() >> 1);
+        this.dosDate = ((now.getYear() - 1980) << 9) | (now.getMonthValue() << 5) | now.getDayOfMonth();
+    }
+
+    /**
+     * Deflate a small in-memory part and add it
+     */
+    void writeEntry(String name, byte[] data, int level) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            byte[] body = compressed.toByteArray();
+
+            writeLocalHeader(name, crc.getValue(), data.length, body.length);
+            out.write(body);
+            offset += body.length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Add a part whose raw-deflate data (no zlib header) is read from the stream
+     */
+    void writeDeflatedEntry(String name, long crc, long size, long compressedSize, InputStream data) throws IOException {
+        writeLocalHeader(name, crc, size, compressedSize);
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long copied = 0;
+        int n;
+        while ((n = data.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+            copied += n;
+        }
+        if (copied != compressedSize) {
+            throw new IOException("Part " + name + " has " + copied + " compressed bytes, expected " + compressedSize);
+        }
+        offset += copied;
+    }
+
+    /**
+     * Write the central directory; the output stream is flushed but not closed
+     */
+    void finish() throws IOException {
+        long centralDirectoryOffset = offset;
+        for (Entry entry : entries) {
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(VERSION);             // version made by
+            writeShort(VERSION);             // version needed to extract
+            writeShort(FLAG_UTF8_NAMES);
+            writeShort(METHOD_DEFLATED);
+            writeShort(dosTime);
+            writeShort(dosDate);
+            writeInt(entry.crc());
+            writeInt(entry.compressedSize());
+            writeInt(entry.size());
+            writeShort(entry.name().length);
+            writeShort(0);                   // extra field length
+            writeShort(0);                   // comment length
+            writeShort(0);                   // disk number start
+            writeShort(0);                   // internal attributes
+            writeInt(0);                     // external attributes
+            writeInt(entry.offset());
+            out.write(entry.name());
+            offset += 46 + entry.name().length;
+        }
+        long centralDirectorySize = offset - centralDirectoryOffset;
+        checkLimit("archive", offset);
+
+        writeInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(0);                       // this disk
+        writeShort(0);                       // disk with the central directory
+        writeShort(entries.size());
+        writeShort(entries.size());
+        writeInt(centralDirectorySize);
+        writeInt(centralDirectoryOffset);
+        writeShort(0);                       // comment length
+        out.flush();
+    }
+
+    private void writeLocalHeader(String name, long crc, long size, long compressedSize) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        checkLimit(name, size);
+        checkLimit(name, compressedSize);
+        checkLimit(name, offset);
+        if (entries.size() >= MAX_ENTRIES) {
+            throw new IOException("Too many zip entries (ZIP64 is not supported)");
+        }
+        entries.add(new Entry(nameBytes, crc, size, compressedSize, offset));
+
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(VERSION);
+        writeShort(FLAG_UTF8_NAMES);
+        writeShort(METHOD_DEFLATED);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt(crc);
+        writeInt(compressedSize);
+        writeInt(size);
+        writeShort(nameBytes.length);
+        writeShort(0);                       // extra field length
+        out.write(nameBytes);
+        offset += 30 + nameBytes.length;
+    }
+
+    private static void checkLimit(String what, long value) throws IOException {
+        if (value > MAX_32) {
+            throw new IOException(what + " exceeds 4GB (ZIP64 is not supported); export as CSV instead");
+        }
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private void writeInt(long value) throws IOException {
+        out.write((int) (value & 0xFF));
+        out.write((int) ((value >>> 8) & 0xFF));
+        out.write((int) ((value >>> 16) & 0xFF));
+        out.write((int) ((value >>> 24) & 0xFF));
+    }
+}
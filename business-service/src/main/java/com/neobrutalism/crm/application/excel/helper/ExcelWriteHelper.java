@@ -1,6 +1,7 @@
 package com.neobrutalism.crm.application.excel.helper;
 
-import com.neobrutalism.crm.utils.cache.ReflectionCache;
+import com.neobrutalism.crm.utils.cache.CellExtractor;
+import com.neobrutalism.crm.utils.cache.EnhancedReflectionCache;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
@@ -8,12 +9,16 @@ import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper class for low-level Excel writing operations
@@ -41,7 +46,7 @@ import java.util.concurrent.ConcurrentMap;
 @Component
 public class ExcelWriteHelper {
 
-    private final ReflectionCache reflectionCache = ReflectionCache.getInstance();
+    private final EnhancedReflectionCache reflectionCache = EnhancedReflectionCache.getInstance();
 
     // ========== XSSF (Standard Workbook) Operations ==========
 
@@ -64,15 +69,14 @@ public class ExcelWriteHelper {
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
 
             Sheet sheet = workbook.createSheet("Sheet1");
-            ConcurrentMap<String, Field> excelFields = reflectionCache.getExcelColumnFields(beanClass);
-            List<String> columnNames = new ArrayList<>(excelFields.keySet());
+            CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
 
             // Write header always (even when data is empty)
-            writeHeader(workbook, sheet, columnNames, 0);
+            writeHeader(workbook, sheet, CellExtractor.columnNames(extractors), 0);
 
             // Write data rows if present
             if (data != null && !data.isEmpty()) {
-                writeDataRows(sheet, data, columnNames, excelFields, 1, 0);
+                writeDataRows(sheet, data, extractors, 1, 0);
             }
 
             workbook.write(out);
@@ -98,15 +102,14 @@ public class ExcelWriteHelper {
              FileOutputStream fos = new FileOutputStream(fileName)) {
 
             Sheet sheet = workbook.createSheet("Sheet1");
-            ConcurrentMap<String, Field> excelFields = reflectionCache.getExcelColumnFields(beanClass);
-            List<String> columnNames = new ArrayList<>(excelFields.keySet());
+            CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
 
             // Write header always (even when data is empty)
-            writeHeader(workbook, sheet, columnNames, rowStart, columnStart);
+            writeHeader(workbook, sheet, CellExtractor.columnNames(extractors), rowStart, columnStart);
 
             // Write data rows if present
             if (data != null && !data.isEmpty()) {
-                writeDataRows(sheet, data, columnNames, excelFields, rowStart + 1, columnStart);
+                writeDataRows(sheet, data, extractors, rowStart + 1, columnStart);
             }
 
             workbook.write(fos);
@@ -135,15 +138,14 @@ public class ExcelWriteHelper {
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
 
             Sheet sheet = workbook.createSheet("Sheet1");
-            ConcurrentMap<String, Field> excelFields = reflectionCache.getExcelColumnFields(beanClass);
-            List<String> columnNames = new ArrayList<>(excelFields.keySet());
+            CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
 
             // Write header always (even when data is empty)
-            writeHeader(workbook, sheet, columnNames, 0);
+            writeHeader(workbook, sheet, CellExtractor.columnNames(extractors), 0);
 
             // Write data rows if present
             if (data != null && !data.isEmpty()) {
-                writeDataRows(sheet, data, columnNames, excelFields, 1, 0);
+                writeDataRows(sheet, data, extractors, 1, 0);
             }
 
             workbook.write(out);
@@ -171,15 +173,14 @@ public class ExcelWriteHelper {
              FileOutputStream fos = new FileOutputStream(fileName)) {
 
             Sheet sheet = workbook.createSheet("Sheet1");
-            ConcurrentMap<String, Field> excelFields = reflectionCache.getExcelColumnFields(beanClass);
-            List<String> columnNames = new ArrayList<>(excelFields.keySet());
+            CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
 
             // Write header always (even when data is empty)
-            writeHeader(workbook, sheet, columnNames, rowStart, columnStart);
+            writeHeader(workbook, sheet, CellExtractor.columnNames(extractors), rowStart, columnStart);
 
             // Write data rows if present
             if (data != null && !data.isEmpty()) {
-                writeDataRows(sheet, data, columnNames, excelFields, rowStart + 1, columnStart);
+                writeDataRows(sheet, data, extractors, rowStart + 1, columnStart);
             }
 
             workbook.write(fos);
@@ -187,6 +188,114 @@ public class ExcelWriteHelper {
         }
     }
 
+    // ========== SXSSF Cursor Operations ==========
+
+    /**
+     * Write rows pulled from an iterator to a file using SXSSF
+     *
+     * Rows are read one at a time and flushed to the temp sheet once they leave the window,
+     * so memory is bounded by windowSize regardless of how many rows the cursor yields.
+     *
+     * @param fileName Output file name
+     * @param rows Row cursor (consumed once)
+     * @param beanClass Row type (header and field mapping)
+     * @param rowStart Starting row index
+     * @param columnStart Starting column index
+     * @param windowSize SXSSF window size
+     * @param <T> Type of objects to write
+     * @return Number of data rows written
+     * @throws Exception if writing fails
+     */
+    public <T> long writeToFileSXSSF(String fileName, Iterator<? extends T> rows, Class<T> beanClass,
+                                     int rowStart, int columnStart, int windowSize) throws Exception {
+        try (FileOutputStream fos = new FileOutputStream(fileName)) {
+            return writeToStreamSXSSF(fos, rows, beanClass, rowStart, columnStart, windowSize);
+        }
+    }
+
+    /**
+     * Write rows pulled from an iterator to an output stream using SXSSF
+     *
+     * The output stream is not closed.
+     *
+     * @param out Destination stream
+     * @param rows Row cursor (consumed once)
+     * @param beanClass Row type (header and field mapping)
+     * @param rowStart Starting row index
+     * @param columnStart Starting column index
+     * @param windowSize SXSSF window size
+     * @param <T> Type of objects to write
+     * @return Number of data rows written
+     * @throws Exception if writing fails
+     */
+    public <T> long writeToStreamSXSSF(OutputStream out, Iterator<? extends T> rows, Class<T> beanClass,
+                                       int rowStart, int columnStart, int windowSize) throws Exception {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(windowSize)) {
+            Sheet sheet = workbook.createSheet("Sheet1");
+            CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
+
+            writeHeader(workbook, sheet, CellExtractor.columnNames(extractors), rowStart, columnStart);
+            long written = writeDataRows(sheet, rows, extractors, rowStart + 1, columnStart);
+
+            workbook.write(out);
+            workbook.dispose(); // Clean up temporary files
+            return written;
+        }
+    }
+
+    // ========== CSV Cursor Operations ==========
+
+    /**
+     * Write rows pulled from an iterator to an output stream as UTF-8 CSV
+     *
+     * Rows are appended to a batch buffer and handed to the stream every batchSize rows,
+     * so the first bytes leave as soon as the first batch is full and heap usage is one batch.
+     * The output stream is flushed but not closed.
+     *
+     * @param out Destination stream (file, servlet response, gzip wrapper)
+     * @param rows Row cursor (consumed once)
+     * @param beanClass Row type (header and field mapping)
+     * @param bufferSize Writer buffer size in chars
+     * @param batchSize Rows per batch write
+     * @param <T> Type of objects to write
+     * @return Number of data rows written
+     * @throws IOException if the stream fails
+     */
+    public <T> long writeToStreamCSV(OutputStream out, Iterator<? extends T> rows, Class<T> beanClass,
+                                     int bufferSize, int batchSize) throws IOException {
+        CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+        writeCSVHeader(writer, CellExtractor.columnNames(extractors));
+
+        StringBuilder batchBuffer = new StringBuilder(batchSize * 200);
+        int inBatch = 0;
+        long written = 0;
+
+        while (rows.hasNext()) {
+            appendCSVRow(batchBuffer, rows.next(), extractors);
+            inBatch++;
+            written++;
+
+            if (inBatch >= batchSize) {
+                writer.write(batchBuffer.toString());
+                batchBuffer.setLength(0);
+                inBatch = 0;
+            }
+
+            if (written % 100_000 == 0) {
+                log.info("Written {} CSV records", written);
+            }
+        }
+
+        if (inBatch > 0) {
+            writer.write(batchBuffer.toString());
+        }
+
+        writer.flush();
+        return written;
+    }
+
     // ========== HELPER METHODS ==========
 
     @SuppressWarnings("unchecked")
@@ -208,7 +317,7 @@ public class ExcelWriteHelper {
      * @param columnNames Column names
      * @param rowStart Starting row index
      */
-    private void writeHeader(Workbook workbook, Sheet sheet, List<String> columnNames, int rowStart) {
+    private void writeHeader(Workbook workbook, Sheet sheet, String[] columnNames, int rowStart) {
         writeHeader(workbook, sheet, columnNames, rowStart, 0);
     }
 
@@ -221,13 +330,13 @@ public class ExcelWriteHelper {
      * @param rowStart Starting row index
      * @param columnStart Starting column index
      */
-    private void writeHeader(Workbook workbook, Sheet sheet, List<String> columnNames, int rowStart, int columnStart) {
+    private void writeHeader(Workbook workbook, Sheet sheet, String[] columnNames, int rowStart, int columnStart) {
         Row headerRow = sheet.createRow(rowStart);
         CellStyle headerStyle = createHeaderStyle(workbook);
 
-        for (int i = 0; i < columnNames.size(); i++) {
+        for (int i = 0; i < columnNames.length; i++) {
             Cell cell = headerRow.createCell(columnStart + i);
-            cell.setCellValue(columnNames.get(i));
+            cell.setCellValue(columnNames[i]);
             cell.setCellStyle(headerStyle);
         }
     }
@@ -237,44 +346,58 @@ public class ExcelWriteHelper {
      *
      * @param sheet Sheet to write to
      * @param data Data to write
-     * @param columnNames Column names (order)
-     * @param excelFields Field mapping
+     * @param extractors Compiled column extractors (column order)
      * @param rowStart Starting row index
      * @param columnStart Starting column index
      * @param <T> Type of objects to write
-     * @throws IllegalAccessException if field access fails
      */
-    private <T> void writeDataRows(Sheet sheet, List<T> data, List<String> columnNames,
-                                    ConcurrentMap<String, Field> excelFields,
-                                    int rowStart, int columnStart) throws IllegalAccessException {
+    private <T> void writeDataRows(Sheet sheet, List<T> data, CellExtractor[] extractors,
+                                    int rowStart, int columnStart) {
+        writeDataRows(sheet, data.iterator(), extractors, rowStart, columnStart);
+    }
+
+    /**
+     * Write data rows pulled from an iterator
+     *
+     * @return Number of rows written
+     */
+    private <T> long writeDataRows(Sheet sheet, Iterator<? extends T> rows, CellExtractor[] extractors,
+                                   int rowStart, int columnStart) {
         int currentRow = rowStart;
-        for (T item : data) {
+        while (rows.hasNext()) {
             Row row = sheet.createRow(currentRow++);
-            writeRowData(row, item, columnNames, excelFields, columnStart);
+            writeRowData(row, rows.next(), extractors, columnStart);
         }
+        return currentRow - rowStart;
     }
 
     /**
      * Write single row data
      *
+     * The cell writer is chosen from the column's declared type; only DYNAMIC columns
+     * (declared as Object, Number, ...) inspect the runtime value.
+     *
      * @param row Row to write to
      * @param item Data item
-     * @param columnNames Column names
-     * @param excelFields Field mapping
+     * @param extractors Compiled column extractors
      * @param columnStart Starting column index
-     * @throws IllegalAccessException if field access fails
      */
-    private void writeRowData(Row row, Object item, List<String> columnNames,
-                              ConcurrentMap<String, Field> excelFields,
-                              int columnStart) throws IllegalAccessException {
-        for (int i = 0; i < columnNames.size(); i++) {
-            String columnName = columnNames.get(i);
-            Field field = excelFields.get(columnName);
-            if (field != null) {
-                field.setAccessible(true);
-                Object value = field.get(item);
-                Cell cell = row.createCell(columnStart + i);
-                setCellValue(cell, value);
+    private void writeRowData(Row row, Object item, CellExtractor[] extractors, int columnStart) {
+        for (int i = 0; i < extractors.length; i++) {
+            CellExtractor extractor = extractors[i];
+            Object value = extractor.get(item);
+            Cell cell = row.createCell(columnStart + i);
+            if (value == null) {
+                cell.setCellValue("");
+                continue;
+            }
+            switch (extractor.getKind()) {
+                case STRING -> cell.setCellValue((String) value);
+                case LONG, DOUBLE -> cell.setCellValue(((Number) value).doubleValue());
+                case BOOLEAN -> cell.setCellValue((Boolean) value);
+                case DATE -> cell.setCellValue((java.util.Date) value);
+                case TEXT -> cell.setCellValue(value.toString());
+                case DYNAMIC -> setCellValue(cell, value);
             }
         }
     }
@@ -323,4 +446,51 @@ public class ExcelWriteHelper {
         style.setFont(font);
         return style;
     }
+
+    /**
+     * Write CSV header line
+     */
+    private void writeCSVHeader(Writer writer, String[] columnNames) throws IOException {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < columnNames.length; i++) {
+            if (i > 0) {
+                header.append(',');
+            }
+            appendCSVValue(header, columnNames[i]);
+        }
+        header.append('\n');
+        writer.write(header.toString());
+    }
+
+    /**
+     * Append one CSV row to the batch buffer
+     */
+    private void appendCSVRow(StringBuilder buffer, Object item, CellExtractor[] extractors) {
+        for (int i = 0; i < extractors.length; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            Object value = extractors[i].get(item);
+            if (value != null) {
+                appendCSVValue(buffer, extractors[i].getKind() == CellExtractor.ValueKind.STRING
+                    ? (String) value
+                    : value.toString());
+            }
+        }
+        buffer.append('\n');
+    }
+
+    /**
+     * Append a value, quoting it when it contains a separator, quote or newline
+     */
+    private void appendCSVValue(StringBuilder buffer, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+        } else {
+            buffer.append(value);
+        }
+    }
 }
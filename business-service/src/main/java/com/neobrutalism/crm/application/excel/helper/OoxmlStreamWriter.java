@@ -0,0 +1,584 @@
+package com.neobrutalism.crm.application.excel.helper;
+
+import com.neobrutalism.crm.utils.cache.CellExtractor;
+import com.neobrutalism.crm.utils.cache.EnhancedReflectionCache;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.writer.cache.CellStyleCache;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Direct OOXML (.xlsx) writer
+ *
+ * Writes the SpreadsheetML package parts and the sheet XML straight into a ZipOutputStream:
+ * - no POI Row/Cell objects per value, no SXSSF temp sheet, no second zip pass
+ * - markup comes from pre-encoded byte templates, text is XML-escaped directly into a byte buffer
+ * - strings are written inline (t="inlineStr"), so nothing is kept per distinct value
+ * - styles.xml is produced once per write from CellStyleCache (header, date) in an empty XSSFWorkbook
+ * - columns are read through compiled CellExtractors and the cell encoder is picked per column
+ *
+ * Cell typing mirrors ExcelWriteHelper.setCellValue (numbers, booleans, java.util.Date, else text),
+ * so switching between SXSSF and this writer does not change the values in the file. Text longer than
+ * 32,767 characters is rejected with the same IllegalArgumentException as POI.
+ *
+ * The sheet entry is streamed: the first compressed bytes reach the output after the first buffer
+ * (64KB of XML), whatever the row count.
+ *
+ * Multi-sheet workbooks can also be built in two steps: each sheet is deflated on its own
+ * ({@link #writeSheetPart}, safe to run concurrently) and the parts are stitched into the package
+ * without re-compression ({@link #writePackage}).
+ */
+@Slf4j
+@Component
+public class OoxmlStreamWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+    private static final int MAX_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private static final String SHEET_NAME = "Sheet1";
+
+    // ========== Package parts ==========
+
+    private static final byte[] XML_DECLARATION = ascii(
+        "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+
+    private static final String CONTENT_TYPES_HEAD =
+        "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+        + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+        + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+        + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+        + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>";
+
+    private static final byte[] ROOT_RELS = ascii(
+        "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+        + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+        + "</Relationships>");
+
+    // ========== Sheet templates ==========
+
+    private static final byte[] WORKSHEET_START = ascii(
+        "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+    private static final byte[] SHEET_DATA_START = ascii("<sheetData>");
+    private static final byte[] SHEET_END = ascii("</sheetData></worksheet>");
+    private static final byte[] ROW_START = ascii("<row r=\"");
+    private static final byte[] ROW_OPEN_END = ascii("\">");
+    private static final byte[] ROW_END = ascii("</row>");
+    private static final byte[] CELL_REF_END = ascii("\"");
+    private static final byte[] STYLE_ATTR = ascii(" s=\"");
+    private static final byte[] INLINE_STR_OPEN = ascii(" t=\"inlineStr\"><is><t>");
+    private static final byte[] INLINE_STR_OPEN_PRESERVE = ascii(" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+    private static final byte[] INLINE_STR_CLOSE = ascii("</t></is></c>");
+    private static final byte[] VALUE_OPEN = ascii("><v>");
+    private static final byte[] VALUE_CLOSE = ascii("</v></c>");
+    private static final byte[] BOOLEAN_TRUE = ascii(" t=\"b\"><v>1</v></c>");
+    private static final byte[] BOOLEAN_FALSE = ascii(" t=\"b\"><v>0</v></c>");
+
+    private final EnhancedReflectionCache reflectionCache = EnhancedReflectionCache.getInstance();
+
+    /**
+     * Style indices resolved for one write, with the styles.xml part that defines them
+     */
+    public record Styles(byte[] stylesXml, int headerStyle, int dateStyle) {
+    }
+
+    /**
+     * Worksheet XML deflated on its own (raw deflate) into a temp file, ready for {@link #writePackage}
+     *
+     * @param file Temp file with the compressed XML (deleted by the caller)
+     * @param crc CRC-32 of the uncompressed XML
+     * @param size Uncompressed size
+     * @param compressedSize Compressed size
+     * @param rows Data rows in the sheet
+     */
+    public record DeflatedPart(Path file, long crc, long size, long compressedSize, long rows) {
+    }
+
+    /**
+     * Write rows pulled from an iterator to a file
+     *
+     * @param fileName Output file name
+     * @param rows Row cursor (consumed once)
+     * @param beanClass Row type (header and field mapping)
+     * @param rowStart Starting row index (0-based, header row)
+     * @param columnStart Starting column index (0-based)
+     * @param config Excel configuration (compressOutput)
+     * @param <T> Type of objects to write
+     * @return Number of data rows written
+     * @throws IOException if writing fails
+     */
+    public <T> long writeToFile(String fileName, Iterator<? extends T> rows, Class<T> beanClass,
+                                int rowStart, int columnStart, ExcelConfig config)
+            throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(fileName)) {
+            return writeToStream(fos, rows, beanClass, rowStart, columnStart, config);
+        }
+    }
+
+    /**
+     * Write rows pulled from an iterator to an output stream as a single-sheet workbook
+     *
+     * The output stream is not closed.
+     *
+     * @return Number of data rows written
+     */
+    public <T> long writeToStream(OutputStream out, Iterator<? extends T> rows, Class<T> beanClass,
+                                  int rowStart, int columnStart, ExcelConfig config)
+            throws IOException {
+        Styles styles = buildStyles(config);
+
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zip.setLevel(config.isCompressOutput() ? Deflater.BEST_SPEED : Deflater.NO_COMPRESSION);
+
+        writePackageParts(zip, List.of(SHEET_NAME), styles);
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        long written = writeSheet(zip, rows, beanClass, rowStart, columnStart, styles);
+        zip.closeEntry();
+
+        zip.finish();
+        out.flush();
+        return written;
+    }
+
+    /**
+     * Build styles.xml with the cached header and date styles
+     */
+    public Styles buildStyles(ExcelConfig config) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            CellStyleCache styleCache = new CellStyleCache(config);
+            int headerStyle = styleCache.getHeaderStyle(workbook).getIndex();
+            int dateStyle = styleCache.getDateStyle(workbook).getIndex();
+
+            ByteArrayOutputStream stylesXml = new ByteArrayOutputStream();
+            workbook.getStylesSource().writeTo(stylesXml);
+            return new Styles(stylesXml.toByteArray(), headerStyle, dateStyle);
+        }
+    }
+
+    /**
+     * Write [Content_Types].xml, relationships, workbook.xml and styles.xml
+     *
+     * Sheet i (1-based) is expected at xl/worksheets/sheet{i}.xml.
+     */
+    public void writePackageParts(ZipOutputStream zip, List<String> sheetNames, Styles styles) throws IOException {
+        for (Map.Entry<String, byte[]> part : packageParts(sheetNames, styles).entrySet()) {
+            zip.putNextEntry(new ZipEntry(part.getKey()));
+            zip.write(part.getValue());
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * Serialize and deflate one worksheet into a temp file
+     *
+     * Independent of any other sheet, so several can run concurrently (one Deflater each).
+     * The temp file is deleted here if writing fails; otherwise the caller owns it.
+     *
+     * @param level Deflate level (Deflater.BEST_SPEED, Deflater.NO_COMPRESSION, ...)
+     */
+    public DeflatedPart writeSheetPart(Iterator<?> rows, CellExtractor[] extractors, String[] headers,
+                                       Styles styles, int level, boolean freezeHeader) throws IOException {
+        Path file = Files.createTempFile("ooxml-sheet-", ".deflate");
+        Deflater deflater = new Deflater(level, true);
+        CRC32 crc = new CRC32();
+        try {
+            long written;
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+                 DeflaterOutputStream deflated = new DeflaterOutputStream(fileOut, deflater, BUFFER_SIZE)) {
+                written = writeSheet(new CheckedOutputStream(deflated, crc), rows, extractors, headers,
+                                     0, 0, styles, freezeHeader);
+                deflated.finish();
+            }
+            return new DeflatedPart(file, crc.getValue(), deflater.getBytesRead(), deflater.getBytesWritten(), written);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Stitch sheets deflated by {@link #writeSheetPart} into a workbook
+     *
+     * Package parts are deflated here; sheet parts are copied without being inflated again.
+     * Sheet i of sheetNames is taken from parts.get(i). The output stream is flushed but not closed.
+     *
+     * @param level Deflate level for the package parts (match the level of the sheet parts)
+     */
+    public void writePackage(OutputStream out, List<String> sheetNames, Styles styles,
+                             List<DeflatedPart> parts, int level) throws IOException {
+        if (sheetNames.size() != parts.size()) {
+            throw new IllegalArgumentException(sheetNames.size() + " sheet names for " + parts.size() + " sheet parts");
+        }
+
+        DeflatedZipWriter zip = new DeflatedZipWriter(new BufferedOutputStream(out, BUFFER_SIZE));
+        for (Map.Entry<String, byte[]> part : packageParts(sheetNames, styles).entrySet()) {
+            zip.writeEntry(part.getKey(), part.getValue(), level);
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            DeflatedPart part = parts.get(i);
+            try (InputStream data = Files.newInputStream(part.file())) {
+                zip.writeDeflatedEntry("xl/worksheets/sheet" + (i + 1) + ".xml",
+                                       part.crc(), part.size(), part.compressedSize(), data);
+            }
+        }
+        zip.finish();
+    }
+
+    /**
+     * Package parts other than the worksheets, in zip order (name -> bytes)
+     */
+    private Map<String, byte[]> packageParts(List<String> sheetNames, Styles styles) {
+        StringBuilder contentTypes = new StringBuilder(CONTENT_TYPES_HEAD);
+        StringBuilder workbook = new StringBuilder(
+            "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+            + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        StringBuilder workbookRels = new StringBuilder(
+            "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+
+        for (int i = 1; i <= sheetNames.size(); i++) {
+            contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            workbook.append("<sheet name=\"").append(escapeAttribute(sheetNames.get(i - 1)))
+                .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+            workbookRels.append("<Relationship Id=\"rId").append(i)
+                .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+                .append(i).append(".xml\"/>");
+        }
+        contentTypes.append("</Types>");
+        workbook.append("</sheets></workbook>");
+        workbookRels.append("<Relationship Id=\"rId").append(sheetNames.size() + 1)
+            .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>")
+            .append("</Relationships>");
+
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        parts.put("[Content_Types].xml", xmlPart(contentTypes.toString().getBytes(StandardCharsets.UTF_8)));
+        parts.put("_rels/.rels", xmlPart(ROOT_RELS));
+        parts.put("xl/workbook.xml", xmlPart(workbook.toString().getBytes(StandardCharsets.UTF_8)));
+        parts.put("xl/_rels/workbook.xml.rels", xmlPart(workbookRels.toString().getBytes(StandardCharsets.UTF_8)));
+        parts.put("xl/styles.xml", styles.stylesXml());
+        return parts;
+    }
+
+    /**
+     * Write one worksheet XML (header row + data rows) to the current zip entry
+     *
+     * @return Number of data rows written
+     */
+    public <T> long writeSheet(OutputStream out, Iterator<? extends T> rows, Class<T> beanClass,
+                               int rowStart, int columnStart, Styles styles)
+            throws IOException {
+        CellExtractor[] extractors = reflectionCache.getCellExtractors(beanClass);
+        return writeSheet(out, rows, extractors, CellExtractor.columnNames(extractors),
+                          rowStart, columnStart, styles, false);
+    }
+
+    /**
+     * Write one worksheet XML with the given columns
+     *
+     * @param extractors Column extractors (column order)
+     * @param headers Header row values, one per extractor (no header row when empty)
+     * @param freezeHeader Freeze the rows above the first data row
+     * @return Number of data rows written
+     */
+    public long writeSheet(OutputStream out, Iterator<?> rows, CellExtractor[] extractors, String[] headers,
+                           int rowStart, int columnStart, Styles styles, boolean freezeHeader)
+            throws IOException {
+        byte[][] cellRefs = new byte[extractors.length][];
+        for (int i = 0; i < extractors.length; i++) {
+            cellRefs[i] = ascii("<c r=\"" + CellReference.convertNumToColString(columnStart + i));
+        }
+        byte[] headerStyle = ascii(Integer.toString(styles.headerStyle()));
+        byte[] dateStyle = ascii(Integer.toString(styles.dateStyle()));
+
+        XmlSink sink = new XmlSink(out);
+        sink.raw(XML_DECLARATION);
+        sink.raw(WORKSHEET_START);
+        if (freezeHeader && headers.length > 0) {
+            String topLeft = CellReference.convertNumToColString(columnStart) + (rowStart + 2);
+            sink.ascii("<sheetViews><sheetView workbookViewId=\"0\"><pane ySplit=\"" + (rowStart + 1)
+                + "\" topLeftCell=\"" + topLeft + "\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+                + "<selection pane=\"bottomLeft\" activeCell=\"" + topLeft + "\" sqref=\"" + topLeft + "\"/>"
+                + "</sheetView></sheetViews>");
+        }
+        sink.raw(SHEET_DATA_START);
+
+        // Header row
+        int rowNumber = rowStart + 1;
+        if (headers.length > 0) {
+            sink.raw(ROW_START);
+            sink.number(rowNumber);
+            sink.raw(ROW_OPEN_END);
+            for (int i = 0; i < headers.length; i++) {
+                openCell(sink, cellRefs[i], rowNumber);
+                sink.raw(CELL_REF_END);
+                sink.raw(STYLE_ATTR);
+                sink.raw(headerStyle);
+                sink.raw(CELL_REF_END);
+                inlineString(sink, headers[i]);
+            }
+            sink.raw(ROW_END);
+        }
+
+        long written = 0;
+        while (rows.hasNext()) {
+            Object item = rows.next();
+            rowNumber++;
+            if (rowNumber > MAX_ROWS) {
+                throw new IllegalStateException("Sheet exceeds the .xlsx limit of " + MAX_ROWS + " rows");
+            }
+
+            sink.raw(ROW_START);
+            sink.number(rowNumber);
+            sink.raw(ROW_OPEN_END);
+            for (int i = 0; i < extractors.length; i++) {
+                CellExtractor extractor = extractors[i];
+                Object value = extractor.get(item);
+                if (value == null) {
+                    continue;
+                }
+                openCell(sink, cellRefs[i], rowNumber);
+                switch (extractor.getKind()) {
+                    case STRING -> {
+                        sink.raw(CELL_REF_END);
+                        inlineString(sink, (String) value);
+                    }
+                    case LONG -> writeLong(sink, ((Number) value).longValue());
+                    case DOUBLE -> writeDouble(sink, ((Number) value).doubleValue());
+                    case BOOLEAN -> {
+                        sink.raw(CELL_REF_END);
+                        sink.raw((Boolean) value ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+                    }
+                    case DATE -> writeDate(sink, (java.util.Date) value, dateStyle);
+                    case TEXT -> {
+                        sink.raw(CELL_REF_END);
+                        inlineString(sink, value.toString());
+                    }
+                    case DYNAMIC -> writeValue(sink, value, dateStyle);
+                }
+            }
+            sink.raw(ROW_END);
+            written++;
+        }
+
+        sink.raw(SHEET_END);
+        sink.flush();
+        return written;
+    }
+
+    // ========== Cell encoding ==========
+
+    private static void openCell(XmlSink sink, byte[] cellRef, int rowNumber) throws IOException {
+        sink.raw(cellRef);
+        sink.number(rowNumber);
+    }
+
+    /**
+     * Write the rest of a cell after {@code <c r="A1}, typed like ExcelWriteHelper.setCellValue
+     *
+     * Used for DYNAMIC columns, whose declared type does not fix the cell type.
+     */
+    private static void writeValue(XmlSink sink, Object value, byte[] dateStyle) throws IOException {
+        if (value instanceof String s) {
+            sink.raw(CELL_REF_END);
+            inlineString(sink, s);
+        } else if (value instanceof Integer || value instanceof Long) {
+            writeLong(sink, ((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(sink, ((Number) value).doubleValue());
+        } else if (value instanceof Boolean b) {
+            sink.raw(CELL_REF_END);
+            sink.raw(b ? BOOLEAN_TRUE : BOOLEAN_FALSE);
+        } else if (value instanceof java.util.Date date) {
+            writeDate(sink, date, dateStyle);
+        } else {
+            sink.raw(CELL_REF_END);
+            inlineString(sink, value.toString());
+        }
+    }
+
+    private static void writeLong(XmlSink sink, long value) throws IOException {
+        sink.raw(CELL_REF_END);
+        sink.raw(VALUE_OPEN);
+        sink.number(value);
+        sink.raw(VALUE_CLOSE);
+    }
+
+    private static void writeDouble(XmlSink sink, double value) throws IOException {
+        sink.raw(CELL_REF_END);
+        if (Double.isFinite(value)) {
+            sink.raw(VALUE_OPEN);
+            sink.ascii(Double.toString(value));
+            sink.raw(VALUE_CLOSE);
+        } else {
+            inlineString(sink, Double.toString(value));
+        }
+    }
+
+    private static void writeDate(XmlSink sink, java.util.Date date, byte[] dateStyle) throws IOException {
+        sink.raw(CELL_REF_END);
+        sink.raw(STYLE_ATTR);
+        sink.raw(dateStyle);
+        sink.raw(CELL_REF_END);
+        sink.raw(VALUE_OPEN);
+        sink.ascii(Double.toString(DateUtil.getExcelDate(date)));
+        sink.raw(VALUE_CLOSE);
+    }
+
+    private static void inlineString(XmlSink sink, String value) throws IOException {
+        // Same limit and message as XSSFCell.setCellValue
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("The maximum length of cell contents (text) is " + MAX_TEXT_LENGTH + " characters");
+        }
+        boolean preserve = !value.isEmpty()
+            && (Character.isWhitespace(value.charAt(0)) || Character.isWhitespace(value.charAt(value.length() - 1)));
+        sink.raw(preserve ? INLINE_STR_OPEN_PRESERVE : INLINE_STR_OPEN);
+        sink.text(value);
+        sink.raw(INLINE_STR_CLOSE);
+    }
+
+    // ========== Helpers ==========
+
+    private static byte[] xmlPart(byte[] body) {
+        byte[] part = new byte[XML_DECLARATION.length + body.length];
+        System.arraycopy(XML_DECLARATION, 0, part, 0, XML_DECLARATION.length);
+        System.arraycopy(body, 0, part, XML_DECLARATION.length, body.length);
+        return part;
+    }
+
+    private static String escapeAttribute(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Byte buffer in front of the zip stream: UTF-8 encoding and XML escaping without intermediate Strings
+     */
+    private static final class XmlSink {
+
+        private final OutputStream out;
+        private final byte[] buf = new byte[BUFFER_SIZE];
+        private int pos;
+
+        XmlSink(OutputStream out) {
+            this.out = out;
+        }
+
+        void raw(byte[] bytes) throws IOException {
+            if (bytes.length > buf.length - pos) {
+                flush();
+            }
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        void ascii(String s) throws IOException {
+            int len = s.length();
+            if (len > buf.length - pos) {
+                flush();
+            }
+            for (int i = 0; i < len; i++) {
+                buf[pos++] = (byte) s.charAt(i);
+            }
+        }
+
+        void number(long value) throws IOException {
+            if (20 > buf.length - pos) {
+                flush();
+            }
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) {
+                    ascii(Long.toString(value));
+                    return;
+                }
+                buf[pos++] = '-';
+                value = -value;
+            }
+            int start = pos;
+            do {
+                buf[pos++] = (byte) ('0' + (value % 10));
+                value /= 10;
+            } while (value != 0);
+            // Digits were written least significant first
+            for (int i = start, j = pos - 1; i < j; i++, j--) {
+                byte tmp = buf[i];
+                buf[i] = buf[j];
+                buf[j] = tmp;
+            }
+        }
+
+        /**
+         * XML-escape and UTF-8 encode text; characters not allowed in XML 1.0 are dropped
+         */
+        void text(String s) throws IOException {
+            int len = s.length();
+            for (int i = 0; i < len; i++) {
+                if (6 > buf.length - pos) {
+                    flush();
+                }
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    switch (c) {
+                        case '&' -> { buf[pos++] = '&'; buf[pos++] = 'a'; buf[pos++] = 'm'; buf[pos++] = 'p'; buf[pos++] = ';'; }
+                        case '<' -> { buf[pos++] = '&'; buf[pos++] = 'l'; buf[pos++] = 't'; buf[pos++] = ';'; }
+                        case '>' -> { buf[pos++] = '&'; buf[pos++] = 'g'; buf[pos++] = 't'; buf[pos++] = ';'; }
+                        default -> {
+                            if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                                buf[pos++] = (byte) c;
+                            }
+                        }
+                    }
+                } else if (c < 0x800) {
+                    buf[pos++] = (byte) (0xC0 | (c >> 6));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf[pos++] = (byte) (0xF0 | (cp >> 18));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (!Character.isSurrogate(c) && c != 0xFFFE && c != 0xFFFF) {
+                    buf[pos++] = (byte) (0xE0 | (c >> 12));
+                    buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[pos++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            if (pos > 0) {
+                out.write(buf, 0, pos);
+                pos = 0;
+            }
+        }
+    }
+}
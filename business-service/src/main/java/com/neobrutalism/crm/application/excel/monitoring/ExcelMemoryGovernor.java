@@ -0,0 +1,443 @@
+package com.neobrutalism.crm.application.excel.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Single admission controller for Excel read / write / migration work
+ *
+ * Permits:
+ * A job reserves rows x (measured bytes per row for its bean class and workload) out of a budget
+ * (excel.memory.governor.budget-fraction of max heap). Jobs are admitted in arrival order: a job
+ * that does not fit waits in the queue, later jobs do not overtake it. A job larger than the whole
+ * budget runs alone.
+ *
+ * Learning:
+ * MemoryMonitor only sees whole-JVM heap growth, so a permit is learned from only when it ran
+ * alone (no other permit active when it was admitted, none admitted before it closed) and its
+ * caller reported the rows it processed (Permit.recordProcessedRows). The peak heap growth over its
+ * lifetime is divided by those rows - capped at the reserved rows, since a streaming job never holds
+ * more than its window - and folded into the per-class cost (EWMA), so estimates converge on what
+ * the job actually costs (a streaming sheet costs far less per row than a List write).
+ *
+ * Pressure:
+ * Tenured heap pools get a collection usage threshold at high-water of their max: the JVM notifies
+ * when the live set after a GC is still above it, which is the point where GCs stop reclaiming and
+ * start thrashing. Pressure is cleared by the poll once post-GC usage is back under low-water.
+ * Under pressure no job is admitted while another one holds a permit, and throttled() batch
+ * consumers block the thread feeding them (the SAX producer) until pressure clears, bounded by
+ * excel.memory.governor.max-throttle-ms so a stuck pool cannot stall a job forever.
+ *
+ * Permits nest: a thread already holding a permit (a migration calling ExcelFacade) gets a no-op
+ * permit, so the same job is never reserved twice.
+ */
+@Slf4j
+@Component
+public class ExcelMemoryGovernor {
+
+    private static final long DEFAULT_BYTES_PER_ROW = 2_000L; // 2KB per row until measured
+    private static final long MIN_BYTES_PER_ROW = 64L;
+    private static final double COST_SMOOTHING = 0.3;
+
+    public enum Workload { READ, WRITE, MIGRATION }
+
+    public enum Pressure { NORMAL, HIGH }
+
+    private record CostKey(Class<?> beanClass, Workload workload) {
+    }
+
+    private final MemoryMonitor memoryMonitor;
+    private final MeterRegistry meterRegistry;
+    private final double budgetFraction;
+    private final double highWater;
+    private final double lowWater;
+    private final long maxThrottleMs;
+
+    private final Map<CostKey, Long> bytesPerRow = new ConcurrentHashMap<>();
+    private final ThreadLocal<Permit> currentPermit = new ThreadLocal<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<Object> waiting = new ArrayDeque<>();
+    private final List<MemoryPoolMXBean> tenuredPools;
+    private final NotificationListener pressureListener = this::onMemoryNotification;
+
+    private volatile long reservedBytes;
+    private int activePermits;
+    private long admissions;
+    private volatile Pressure pressure = Pressure.NORMAL;
+
+    public ExcelMemoryGovernor(MemoryMonitor memoryMonitor,
+                               MeterRegistry meterRegistry,
+                               @Value("${excel.memory.governor.budget-fraction:0.6}") double budgetFraction,
+                               @Value("${excel.memory.governor.high-water:0.85}") double highWater,
+                               @Value("${excel.memory.governor.low-water:0.70}") double lowWater,
+                               @Value("${excel.memory.governor.max-throttle-ms:30000}") long maxThrottleMs) {
+        this.memoryMonitor = memoryMonitor;
+        this.meterRegistry = meterRegistry;
+        this.budgetFraction = budgetFraction;
+        this.highWater = highWater;
+        this.lowWater = lowWater;
+        this.maxThrottleMs = maxThrottleMs;
+        this.tenuredPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .filter(MemoryPoolMXBean::isUsageThresholdSupported)
+            .filter(MemoryPoolMXBean::isCollectionUsageThresholdSupported)
+            .filter(pool -> pool.getUsage().getMax() > 0)
+            .toList();
+    }
+
+    @PostConstruct
+    void registerPressureListener() {
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            pool.setCollectionUsageThreshold((long) (pool.getUsage().getMax() * highWater));
+            log.info("[Governor] Collection usage threshold on {}: {}MB", pool.getName(),
+                     pool.getCollectionUsageThreshold() / 1024 / 1024);
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+            .addNotificationListener(pressureListener, null, null);
+
+        Gauge.builder("excel.memory.governor.reserved.bytes", this, ExcelMemoryGovernor::getReservedBytes)
+            .description("Heap reserved by admitted Excel jobs")
+            .register(meterRegistry);
+        Gauge.builder("excel.memory.governor.budget.bytes", this, ExcelMemoryGovernor::getBudgetBytes)
+            .description("Heap budget shared by Excel jobs")
+            .register(meterRegistry);
+        Gauge.builder("excel.memory.governor.queued", this, ExcelMemoryGovernor::getQueuedJobs)
+            .description("Excel jobs waiting for a memory permit")
+            .register(meterRegistry);
+        Gauge.builder("excel.memory.governor.pressure", this, governor -> governor.getPressure() == Pressure.HIGH ? 1 : 0)
+            .description("1 while post-GC heap usage is above the high-water mark")
+            .register(meterRegistry);
+
+        log.info("[Governor] Excel memory budget {}MB ({}% of max heap), {} tenured pool(s) watched",
+                 getBudgetBytes() / 1024 / 1024, Math.round(budgetFraction * 100), tenuredPools.size());
+    }
+
+    @PreDestroy
+    void removePressureListener() {
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(pressureListener);
+        } catch (ListenerNotFoundException ignored) {
+            // Never registered
+        }
+    }
+
+    /**
+     * Reserve memory for a job with a single row type, waiting in line until it fits
+     *
+     * @param jobId Job identifier for logs
+     * @param rows Rows the job holds or streams (in-flight rows for streaming reads)
+     * @return Permit to close when the job ends
+     * @throws InterruptedException if interrupted while queued
+     */
+    public Permit acquire(Workload workload, String jobId, Class<?> beanClass, long rows) throws InterruptedException {
+        return acquire(workload, jobId, Map.of(beanClass, rows));
+    }
+
+    /**
+     * Reserve memory for a job covering several row types (one per sheet), waiting in line until it fits
+     *
+     * @param rowsByClass Rows per bean class
+     * @return Permit to close when the job ends
+     * @throws InterruptedException if interrupted while queued
+     */
+    public Permit acquire(Workload workload, String jobId, Map<Class<?>, Long> rowsByClass) throws InterruptedException {
+        if (currentPermit.get() != null) {
+            return new Permit(this, null, workload, rowsByClass, 0, true, false, 0);
+        }
+
+        long needed = 0;
+        for (Map.Entry<Class<?>, Long> entry : rowsByClass.entrySet()) {
+            needed += Math.max(0, entry.getValue()) * estimateBytesPerRow(entry.getKey(), workload);
+        }
+
+        boolean admittedAlone;
+        long admission;
+        Object ticket = new Object();
+        long waitStart = System.currentTimeMillis();
+        lock.lock();
+        try {
+            waiting.addLast(ticket);
+            try {
+                while (waiting.peekFirst() != ticket || !fits(needed)) {
+                    if (!changed.await(1, TimeUnit.SECONDS)) {
+                        log.debug("[Governor] Job {} waiting for {}MB: reserved={}MB, budget={}MB, pressure={}, queued={}",
+                                  jobId, needed / 1024 / 1024, reservedBytes / 1024 / 1024,
+                                  getBudgetBytes() / 1024 / 1024, pressure, waiting.size());
+                    }
+                }
+            } finally {
+                waiting.remove(ticket);
+                changed.signalAll();
+            }
+            reservedBytes += needed;
+            admittedAlone = activePermits == 0;
+            activePermits++;
+            admission = ++admissions;
+        } finally {
+            lock.unlock();
+        }
+
+        long waitedMs = System.currentTimeMillis() - waitStart;
+        log.info("[Governor] Admitted {} job {}: {}MB reserved (total {}MB / {}MB) after {}ms in queue",
+                 workload, jobId, needed / 1024 / 1024, reservedBytes / 1024 / 1024,
+                 getBudgetBytes() / 1024 / 1024, waitedMs);
+
+        String monitorJobId = "governor-" + jobId + "-" + UUID.randomUUID();
+        memoryMonitor.startMonitoring(monitorJobId);
+        Permit permit = new Permit(this, monitorJobId, workload, rowsByClass, needed, false, admittedAlone, admission);
+        currentPermit.set(permit);
+        return permit;
+    }
+
+    /**
+     * Wrap a batch consumer so the thread producing batches (SAX parser) pauses under heap pressure
+     */
+    public <B> Consumer<B> throttled(Consumer<B> consumer) {
+        return batch -> {
+            awaitHeadroom();
+            consumer.accept(batch);
+        };
+    }
+
+    /**
+     * Block while post-GC heap usage is above the high-water mark (at most max-throttle-ms)
+     */
+    public void awaitHeadroom() {
+        if (pressure == Pressure.NORMAL) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + maxThrottleMs;
+        lock.lock();
+        try {
+            while (pressure == Pressure.HIGH) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("[Governor] Heap pressure persisted {}ms, resuming producer", maxThrottleMs);
+                    return;
+                }
+                changed.await(Math.min(remaining, 500), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-evaluate pressure from post-GC usage; clears pressure the notification raised
+     */
+    @Scheduled(fixedDelayString = "${excel.memory.governor.poll-interval-ms:500}")
+    public void poll() {
+        double ratio = postGcUsageRatio();
+        if (pressure == Pressure.HIGH && ratio < lowWater) {
+            setPressure(Pressure.NORMAL, ratio);
+        } else if (pressure == Pressure.NORMAL && ratio >= highWater) {
+            setPressure(Pressure.HIGH, ratio);
+        }
+    }
+
+    public Pressure getPressure() {
+        return pressure;
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return (long) (Runtime.getRuntime().maxMemory() * budgetFraction);
+    }
+
+    public int getQueuedJobs() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current estimate used for admission (measured, or the 2KB default)
+     */
+    public long estimateBytesPerRow(Class<?> beanClass, Workload workload) {
+        return bytesPerRow.getOrDefault(new CostKey(beanClass, workload), DEFAULT_BYTES_PER_ROW);
+    }
+
+    /**
+     * Post-GC usage of the most loaded tenured pool (whole heap when no pool reports it)
+     */
+    public double postGcUsageRatio() {
+        double ratio = 0;
+        boolean measured = false;
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc != null && afterGc.getMax() > 0) {
+                ratio = Math.max(ratio, (double) afterGc.getUsed() / afterGc.getMax());
+                measured = true;
+            }
+        }
+        if (!measured) {
+            Runtime runtime = Runtime.getRuntime();
+            ratio = (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+        }
+        return ratio;
+    }
+
+    private boolean fits(long needed) {
+        if (activePermits == 0) {
+            // Nothing of ours to wait for: a job larger than the budget runs alone
+            return true;
+        }
+        return pressure == Pressure.NORMAL && reservedBytes + needed <= getBudgetBytes();
+    }
+
+    private void release(Permit permit) {
+        MemoryMonitor.MemorySummary memory = memoryMonitor.stopMonitoring(permit.monitorJobId);
+        boolean ranAlone;
+        lock.lock();
+        try {
+            // Alone for its whole lifetime: nothing active at admission, nothing admitted since
+            ranAlone = permit.admittedAlone && admissions == permit.admission;
+            reservedBytes -= permit.reservedBytes;
+            activePermits--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        currentPermit.remove();
+
+        long reservedRows = permit.rowsByClass.values().stream().mapToLong(Long::longValue).sum();
+        long rows = Math.min(permit.processedRows.sum(), reservedRows);
+        if (memory == null || rows <= 0 || !ranAlone) {
+            log.info("[Governor] Released {}MB (not measured: {})", permit.reservedBytes / 1024 / 1024,
+                     !ranAlone ? "ran alongside other jobs" : "no processed rows reported");
+            return;
+        }
+
+        long peakBytes = Math.max(0, memory.getPeakMemoryMB() - memory.getStartMemoryMB()) * 1024 * 1024;
+        long measured = Math.max(MIN_BYTES_PER_ROW, peakBytes / rows);
+        for (Class<?> beanClass : permit.rowsByClass.keySet()) {
+            bytesPerRow.merge(new CostKey(beanClass, permit.workload), measured,
+                (previous, sample) -> Math.round(previous * (1 - COST_SMOOTHING) + sample * COST_SMOOTHING));
+        }
+        log.info("[Governor] Released {}MB; measured ~{} bytes/row over {} rows (peak +{}MB)",
+                 permit.reservedBytes / 1024 / 1024, measured, rows, peakBytes / 1024 / 1024);
+    }
+
+    private void onMemoryNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(type)
+                || MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)) {
+            Counter.builder("excel.memory.governor.pressure.events")
+                .description("Post-GC heap usage crossed the high-water mark")
+                .register(meterRegistry)
+                .increment();
+            setPressure(Pressure.HIGH, postGcUsageRatio());
+        }
+    }
+
+    private void setPressure(Pressure next, double ratio) {
+        lock.lock();
+        try {
+            if (pressure == next) {
+                return;
+            }
+            pressure = next;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (next == Pressure.HIGH) {
+            log.warn("[Governor] Heap pressure HIGH: post-GC usage {}%, throttling Excel producers and admissions",
+                     Math.round(ratio * 100));
+        } else {
+            log.info("[Governor] Heap pressure cleared: post-GC usage {}%", Math.round(ratio * 100));
+        }
+    }
+
+    /**
+     * Reservation held by a running job; close it on the acquiring thread when the job ends
+     * (try-with-resources)
+     */
+    public static final class Permit implements AutoCloseable {
+        private final ExcelMemoryGovernor governor;
+        private final String monitorJobId;
+        private final Workload workload;
+        private final Map<Class<?>, Long> rowsByClass;
+        private final long reservedBytes;
+        private final boolean nested;
+        private final LongAdder processedRows = new LongAdder();
+        private final boolean admittedAlone;
+        private final long admission;
+        private boolean closed;
+
+        private Permit(ExcelMemoryGovernor governor, String monitorJobId, Workload workload,
+                       Map<Class<?>, Long> rowsByClass, long reservedBytes, boolean nested,
+                       boolean admittedAlone, long admission) {
+            this.governor = governor;
+            this.monitorJobId = monitorJobId;
+            this.workload = workload;
+            this.rowsByClass = rowsByClass;
+            this.reservedBytes = reservedBytes;
+            this.nested = nested;
+            this.admittedAlone = admittedAlone;
+            this.admission = admission;
+        }
+
+        public long getReservedBytes() {
+            return reservedBytes;
+        }
+
+        /**
+         * Report rows the job actually processed (may be called from any thread, several times)
+         *
+         * Without it the permit's heap growth is not learned from. Ignored on nested permits:
+         * the outer job reports its own rows.
+         */
+        public void recordProcessedRows(long rows) {
+            if (!nested && rows > 0) {
+                processedRows.add(rows);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed || nested) {
+                return;
+            }
+            closed = true;
+            governor.release(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.neobrutalism.crm.application.excel.monitoring;
+
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint (/actuator/excelstrategies) exposing the adaptive strategy selector's state:
+ * per-strategy measured throughput / heap and the most recent decisions with their predictions.
+ */
+@Component
+@Endpoint(id = "excelstrategies")
+@RequiredArgsConstructor
+public class ExcelStrategyEndpoint {
+
+    private final StrategyPerformanceRegistry performanceRegistry;
+    private final MemoryMonitor memoryMonitor;
+
+    @ReadOperation
+    public Map<String, Object> decisionTable() {
+        Map<String, Object> table = new LinkedHashMap<>();
+        table.put("heapHeadroomMB", memoryMonitor.getHeadroomMB());
+        table.put("strategies", performanceRegistry.getStats());
+        table.put("decisions", performanceRegistry.getDecisions());
+        return table;
+    }
+}
@@ -2,6 +2,7 @@ package com.neobrutalism.crm.application.excel.monitoring;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.lang.management.ManagementFactory;
@@ -29,6 +30,7 @@ public class MemoryMonitor {
         snapshot.setJobId(jobId);
         snapshot.setStartTime(System.currentTimeMillis());
         snapshot.setStartMemoryMB(getUsedMemoryMB());
+        snapshot.setPeakMemoryMB(snapshot.getStartMemoryMB());
         snapshots.put(jobId, snapshot);
         log.debug("[Memory] Start monitoring job={} start={}MB", jobId, snapshot.getStartMemoryMB());
     }
@@ -67,7 +69,7 @@ public class MemoryMonitor {
         MemorySummary summary = new MemorySummary();
         summary.setJobId(jobId);
         summary.setStartMemoryMB(snapshot.getStartMemoryMB());
-        summary.setPeakMemoryMB(snapshot.getPeakMemoryMB());
+        summary.setPeakMemoryMB(Math.max(snapshot.getPeakMemoryMB(), endMB));
         summary.setEndMemoryMB(endMB);
         summary.setDurationMs(System.currentTimeMillis() - snapshot.getStartTime());
         summary.setMemoryIncreaseMB(endMB - snapshot.getStartMemoryMB());
@@ -75,6 +77,30 @@ public class MemoryMonitor {
         return summary;
     }
 
+    /**
+     * Refresh the peak of every monitored job; without it a peak is only seen when a caller
+     * happens to check the threshold. Used heap is process-wide, so concurrent jobs share peaks.
+     */
+    @Scheduled(fixedDelayString = "${excel.memory.sample-interval-ms:250}")
+    public void samplePeaks() {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        long currentMB = getUsedMemoryMB();
+        for (MemorySnapshot snapshot : snapshots.values()) {
+            if (currentMB > snapshot.getPeakMemoryMB()) {
+                snapshot.setPeakMemoryMB(currentMB);
+            }
+        }
+    }
+
+    /**
+     * Heap that can still be allocated before reaching -Xmx
+     */
+    public long getHeadroomMB() {
+        return (runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) / (1024 * 1024);
+    }
+
     public long getUsedMemoryMB() {
         return (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
     }
@@ -13,6 +13,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
@@ -156,6 +157,31 @@ public class ExcelReadingService {
         return strategy.execute(inputStream, beanClass, config, wrapped);
     }
 
+    /**
+     * Read an Excel file already on disk with custom configuration and automatic strategy selection
+     *
+     * The workbook is opened file-backed, so it is never buffered in heap.
+     *
+     * @param excelFile Excel file on disk
+     * @param beanClass Class type to map Excel rows to
+     * @param config Custom Excel configuration
+     * @param batchProcessor Consumer that processes each batch
+     * @return ProcessingResult with statistics
+     * @throws ExcelProcessException if reading fails
+     */
+    public <T> TrueStreamingSAXProcessor.ProcessingResult readWithConfig(
+        Path excelFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        log.debug("Reading Excel file {} with custom config for class: {}", excelFile.getFileName(), beanClass.getSimpleName());
+
+        ReadStrategy<T> strategy = readStrategySelector.selectStrategy(config);
+        Consumer<List<T>> wrapped = decorateBatchProcessor(config, batchProcessor);
+        return strategy.execute(excelFile, beanClass, config, wrapped);
+    }
+
     /**
      * Read Excel file with default small file configuration
      *
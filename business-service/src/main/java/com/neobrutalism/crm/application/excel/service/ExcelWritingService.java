@@ -1,6 +1,7 @@
 package com.neobrutalism.crm.application.excel.service;
 
 import com.neobrutalism.crm.application.excel.helper.ExcelWriteHelper;
+import com.neobrutalism.crm.application.excel.helper.OoxmlStreamWriter;
 import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
 import com.neobrutalism.crm.application.excel.strategy.selector.WriteStrategySelector;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
@@ -10,7 +11,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service for writing Excel files with automatic strategy selection
@@ -22,7 +26,7 @@ import java.util.List;
  * Strategy Selection (Phase 2):
  * - Uses WriteStrategySelector to automatically choose the best strategy
  * - XSSFWriteStrategy: Small files (< 50K records, < 1M cells)
- * - SXSSFWriteStrategy: Medium files (50K - 2M records, 1M - 5M cells)
+ * - OoxmlWriteStrategy / SXSSFWriteStrategy: Medium files (50K - 2M records, 1M - 5M cells)
  * - CSVWriteStrategy: Large files (> 2M records, > 5M cells)
  *
  * IMPORTANT: All strategies delegate to the existing ExcelUtil methods
@@ -42,9 +46,19 @@ public class ExcelWritingService {
     // Helper for low-level POI operations (Phase 2 refactoring)
     private final ExcelWriteHelper writeHelper;
 
+    // Direct OOXML writer for cursor-fed .xlsx output
+    private final OoxmlStreamWriter ooxmlWriter;
+
     // Default configuration optimized for writing
     private static final ExcelConfig DEFAULT_CONFIG = ExcelConfigFactory.createProductionConfig();
 
+    // SXSSF window for cursor-fed writes to bytes / output streams
+    private static final int STREAMING_WINDOW_SIZE = 100;
+
+    // CSV to output streams: small batches so the first bytes leave early (HTTP time-to-first-byte)
+    private static final int STREAMING_CSV_BUFFER_SIZE = 65_536;
+    private static final int STREAMING_CSV_BATCH_SIZE = 500;
+
     /**
      * Write data to Excel file with automatic strategy selection
      *
@@ -224,4 +238,103 @@ public class ExcelWritingService {
 
         log.info("Successfully wrote large file: {} records to {}", data.size(), fileName);
     }
+
+    // ========== CURSOR-FED (STREAMING) WRITES ==========
+
+    /**
+     * Write rows pulled lazily from a cursor to a file
+     *
+     * Feed this from a Spring Data {@code Stream<T>} query (fetch size hint, read-only
+     * transaction) or any other server-side cursor. Only streaming strategies (SXSSF, CSV)
+     * are selected, so heap usage is bounded by the write window rather than the row count.
+     * The caller closes the stream.
+     *
+     * @param fileName Output file name
+     * @param rows Rows to write
+     * @param beanClass Row type (header and field mapping)
+     * @param estimatedRows Expected row count (e.g. a COUNT query), used for strategy selection
+     * @param config Excel configuration
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    public <T> long writeStream(String fileName, Stream<T> rows, Class<T> beanClass,
+                                long estimatedRows, ExcelConfig config) throws ExcelProcessException {
+        log.debug("Streaming ~{} records to Excel file: {}", estimatedRows, fileName);
+
+        WriteStrategy<T> strategy = writeStrategySelector.selectStreamingStrategy(estimatedRows, config);
+        long written = strategy.executeStreaming(fileName, rows, beanClass, config);
+
+        log.info("Successfully streamed {} records to {}", written, fileName);
+        return written;
+    }
+
+    /**
+     * Write rows pulled lazily from a cursor to an output stream as .xlsx
+     *
+     * Uses the direct OOXML writer (sheet XML streamed into the zip as rows arrive), or SXSSF
+     * when config.useDirectOoxmlWriter is off. The output stream is not closed.
+     *
+     * @param out Destination stream
+     * @param rows Rows to write
+     * @param beanClass Row type (header and field mapping)
+     * @param config Excel configuration
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    public <T> long writeToStream(OutputStream out, Stream<T> rows, Class<T> beanClass,
+                                  ExcelConfig config) throws ExcelProcessException {
+        try {
+            if (config.isUseDirectOoxmlWriter()) {
+                return ooxmlWriter.writeToStream(out, rows.iterator(), beanClass, 0, 0, config);
+            }
+            int windowSize = config.getSxssfRowAccessWindowSize() > 0
+                ? config.getSxssfRowAccessWindowSize()
+                : STREAMING_WINDOW_SIZE;
+            return writeHelper.writeToStreamSXSSF(out, rows.iterator(), beanClass, 0, 0, windowSize);
+        } catch (Exception e) {
+            throw new ExcelProcessException("Failed to stream Excel", e);
+        }
+    }
+
+    /**
+     * Write rows pulled lazily from a cursor to an output stream as UTF-8 CSV
+     *
+     * Rows go out in small batches, so the first bytes reach the client after the first
+     * batch regardless of the total size. The output stream is flushed but not closed.
+     *
+     * @param out Destination stream
+     * @param rows Rows to write
+     * @param beanClass Row type (header and field mapping)
+     * @param config Excel configuration (csvBufferSize / csvBatchSize override the streaming defaults)
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    public <T> long writeCsvToStream(OutputStream out, Stream<T> rows, Class<T> beanClass,
+                                     ExcelConfig config) throws ExcelProcessException {
+        int bufferSize = config.getCsvBufferSize() > 0 ? Math.min(config.getCsvBufferSize(), STREAMING_CSV_BUFFER_SIZE) : STREAMING_CSV_BUFFER_SIZE;
+        int batchSize = config.getCsvBatchSize() > 0 ? Math.min(config.getCsvBatchSize(), STREAMING_CSV_BATCH_SIZE) : STREAMING_CSV_BATCH_SIZE;
+        try {
+            return writeHelper.writeToStreamCSV(out, rows.iterator(), beanClass, bufferSize, batchSize);
+        } catch (Exception e) {
+            throw new ExcelProcessException("Failed to stream CSV", e);
+        }
+    }
+
+    /**
+     * Write rows pulled lazily from a cursor to Excel bytes
+     *
+     * Rows are never materialized; only the compressed workbook is buffered.
+     *
+     * @param rows Rows to write
+     * @param beanClass Row type (header and field mapping)
+     * @param config Excel configuration
+     * @return Excel file as byte array
+     * @throws ExcelProcessException if writing fails
+     */
+    public <T> byte[] writeToBytes(Stream<T> rows, Class<T> beanClass, ExcelConfig config) throws ExcelProcessException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = writeToStream(out, rows, beanClass, config);
+        log.debug("Streamed {} records to Excel bytes ({} bytes)", written, out.size());
+        return out.toByteArray();
+    }
 }
@@ -0,0 +1,163 @@
+package com.neobrutalism.crm.application.excel.service;
+
+import com.neobrutalism.crm.common.multitenancy.TenantContext;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.config.ExcelConfigFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports written straight to the HTTP response
+ *
+ * The controller returns a {@link StreamingResponseBody}; on the async thread the rows are pulled
+ * from a database cursor inside a read-only transaction and written to the servlet output stream
+ * (chunked transfer, no Content-Length). Nothing is buffered as byte[] or staged in an export file:
+ * - CSV: rows leave in small batches, time-to-first-byte does not depend on the row count
+ * - XLSX: sheet XML is deflated into the response as rows arrive (direct OOXML writer)
+ *
+ * The tenant of the request is re-bound on the async thread, so repository tenant filters still apply.
+ */
+@Slf4j
+@Service
+public class StreamingExportService {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final int GZIP_BUFFER_SIZE = 65_536;
+
+    /**
+     * Export file format
+     */
+    public enum Format {
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        CSV("csv", "text/csv;charset=UTF-8");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private final ExcelWritingService excelWritingService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StreamingExportService(ExcelWritingService excelWritingService, PlatformTransactionManager transactionManager) {
+        this.excelWritingService = excelWritingService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Build a streaming download response
+     *
+     * @param baseName File name prefix (timestamp and extension are appended)
+     * @param format Output format
+     * @param gzip Gzip the body (CSV only; served as .csv.gz)
+     * @param query Opens the entity cursor (e.g. a repository {@code Stream<E>} query with a fetch size hint)
+     * @param mapper Entity to export row mapping
+     * @param rowClass Export row type ({@code @ExcelColumn} fields)
+     * @param <E> Entity type
+     * @param <R> Export row type
+     * @return Response whose body is written on the async request thread
+     */
+    public <E, R> ResponseEntity<StreamingResponseBody> export(
+        String baseName,
+        Format format,
+        boolean gzip,
+        Supplier<Stream<E>> query,
+        Function<E, R> mapper,
+        Class<R> rowClass
+    ) {
+        boolean compress = gzip && format == Format.CSV;
+        String fileName = baseName + "_" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + format.getExtension()
+            + (compress ? ".gz" : "");
+        String tenantId = TenantContext.getCurrentTenant();
+
+        StreamingResponseBody body = out -> {
+            if (tenantId != null) {
+                TenantContext.setCurrentTenant(tenantId);
+            }
+            long start = System.currentTimeMillis();
+            try {
+                long written;
+                if (compress) {
+                    GZIPOutputStream gzipOut = new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true);
+                    written = write(gzipOut, format, query, mapper, rowClass);
+                    gzipOut.finish();
+                } else {
+                    written = write(out, format, query, mapper, rowClass);
+                }
+                log.info("Streamed {} {} rows to {} in {} ms", written, rowClass.getSimpleName(), fileName,
+                         System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                // Headers are already committed; the container aborts the response
+                log.error("Streaming export {} failed after {} ms", fileName, System.currentTimeMillis() - start, e);
+                throw e;
+            } finally {
+                if (tenantId != null) {
+                    TenantContext.clear();
+                }
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(compress ? "application/gzip" : format.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName).build());
+        headers.setCacheControl("no-store");
+        // Ask reverse proxies not to buffer the chunked body
+        headers.set("X-Accel-Buffering", "no");
+
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private <E, R> long write(OutputStream out, Format format, Supplier<Stream<E>> query,
+                              Function<E, R> mapper, Class<R> rowClass) {
+        ExcelConfig config = ExcelConfigFactory.createProductionConfig();
+        config.setOutputBeanClassName(rowClass.getName());
+
+        Long written = readOnlyTransaction.execute(status -> {
+            try (Stream<E> entities = query.get()) {
+                Stream<R> rows = entities.map(entity -> {
+                    R row = mapper.apply(entity);
+                    // Detach once mapped so the persistence context does not grow with the cursor
+                    entityManager.detach(entity);
+                    return row;
+                });
+                return format == Format.CSV
+                    ? excelWritingService.writeCsvToStream(out, rows, rowClass, config)
+                    : excelWritingService.writeToStream(out, rows, rowClass, config);
+            }
+        });
+        return written != null ? written : 0L;
+    }
+}
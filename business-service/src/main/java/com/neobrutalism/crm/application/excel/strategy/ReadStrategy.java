@@ -4,7 +4,10 @@ import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.function.Consumer;
 import java.util.List;
 
@@ -41,6 +44,33 @@ public interface ReadStrategy<T> {
         Consumer<List<T>> batchProcessor
     ) throws ExcelProcessException;
 
+    /**
+     * Execute the read strategy on a workbook already on disk
+     *
+     * The package is opened file-backed (TrueStreamingSAXProcessor.processExcelFile), so the
+     * workbook is never buffered in heap. The default streams the file into
+     * {@link #execute(InputStream, Class, ExcelConfig, Consumer)}.
+     *
+     * @param excelFile Excel file on disk
+     * @param beanClass Class type to map Excel rows to
+     * @param config Excel configuration
+     * @param batchProcessor Consumer that processes each batch
+     * @return ProcessingResult with statistics
+     * @throws ExcelProcessException if reading fails
+     */
+    default TrueStreamingSAXProcessor.ProcessingResult execute(
+        Path excelFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        try (InputStream inputStream = Files.newInputStream(excelFile)) {
+            return execute(inputStream, beanClass, config, batchProcessor);
+        } catch (IOException e) {
+            throw new ExcelProcessException("Failed to open Excel file " + excelFile, e);
+        }
+    }
+
     /**
      * Check if this strategy supports the given configuration
      *
@@ -4,6 +4,7 @@ import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Strategy interface for writing Excel files
@@ -35,6 +36,42 @@ public interface WriteStrategy<T> {
         ExcelConfig config
     ) throws ExcelProcessException;
 
+    /**
+     * Execute the write strategy pulling rows lazily from a cursor
+     *
+     * Rows are consumed once, in order. The caller owns the stream (and the JDBC cursor /
+     * read-only transaction behind it) and closes it after this returns.
+     *
+     * Default implementation materializes the rows and calls {@link #execute};
+     * streaming strategies override it so memory is bounded by the write window, not the row count.
+     *
+     * @param fileName Output file name
+     * @param rows Rows to write (e.g. a Spring Data {@code Stream<T>} query with a fetch size)
+     * @param beanClass Row type, used for the header (a stream cannot be peeked without consuming it)
+     * @param config Excel configuration
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    default long executeStreaming(
+        String fileName,
+        Stream<T> rows,
+        Class<T> beanClass,
+        ExcelConfig config
+    ) throws ExcelProcessException {
+        List<T> data = rows.toList();
+        execute(fileName, data, config);
+        return data.size();
+    }
+
+    /**
+     * Whether {@link #executeStreaming} pulls rows lazily instead of materializing them
+     *
+     * @return true if streaming writes are bounded in memory
+     */
+    default boolean supportsStreaming() {
+        return false;
+    }
+
     /**
      * Check if this strategy supports the given data size
      *
@@ -47,6 +84,22 @@ public interface WriteStrategy<T> {
      */
     boolean supports(int dataSize, long cellCount, ExcelConfig config);
 
+    /**
+     * Check if this strategy can produce a correct file for the given data size at all
+     *
+     * Wider than {@link #supports}: supports() encodes the hand-tuned size band where the
+     * strategy is preferred, canHandle() only the hard limits (format row limit, required config).
+     * The adaptive selector chooses among these candidates from measured performance.
+     *
+     * @param dataSize Number of records
+     * @param cellCount Total number of cells (rows × columns)
+     * @param config Excel configuration
+     * @return true if this strategy can write the data (default: same as supports)
+     */
+    default boolean canHandle(int dataSize, long cellCount, ExcelConfig config) {
+        return supports(dataSize, cellCount, config);
+    }
+
     /**
      * Get the name of this strategy for logging
      *
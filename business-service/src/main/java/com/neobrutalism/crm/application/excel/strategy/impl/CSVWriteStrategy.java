@@ -1,19 +1,19 @@
 package com.neobrutalism.crm.application.excel.strategy.impl;
 
+import com.neobrutalism.crm.application.excel.helper.ExcelWriteHelper;
 import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
-import com.neobrutalism.crm.utils.cache.ReflectionCache;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
 
 /**
  * CSV write strategy for very large files
@@ -61,8 +61,11 @@ import java.util.concurrent.ConcurrentMap;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CSVWriteStrategy<T> implements WriteStrategy<T> {
 
+    private final ExcelWriteHelper writeHelper;
+
     // Thresholds for CSV strategy selection (tuned for large exports)
     private static final int MIN_RECORDS = 500_000; // prefer CSV from 500K rows
     private static final long MIN_CELLS = 2_000_000L; // prefer CSV from 2M cells
@@ -107,111 +110,80 @@ public class CSVWriteStrategy<T> implements WriteStrategy<T> {
         String csvFileName = fileName.replaceAll("\\.(xlsx|xls)$", ".csv");
 
         try {
-            // Resolve header order and field mapping once
-            ReflectionCache reflectionCache = ReflectionCache.getInstance();
             @SuppressWarnings("unchecked")
             Class<T> beanClass = (Class<T>) data.get(0).getClass();
-            ConcurrentMap<String, Field> excelFields = reflectionCache.getExcelColumnFields(beanClass);
-            List<String> columnNames = new ArrayList<>(excelFields.keySet());
-
-            // Prepare ordered Field[] and set accessible once to reduce reflection overhead
-            Field[] orderedFields = new Field[columnNames.size()];
-            for (int i = 0; i < columnNames.size(); i++) {
-                Field f = excelFields.get(columnNames.get(i));
-                if (f != null) {
-                    f.setAccessible(true);
-                }
-                orderedFields[i] = f;
-            }
-
-            int bufferSize = DEFAULT_BUFFER_SIZE;
-            int batchSize = DEFAULT_BATCH_SIZE;
-            if (config != null) {
-                try {
-                    if (config.getCsvBufferSize() > 0) bufferSize = config.getCsvBufferSize();
-                    if (config.getCsvBatchSize() > 0) batchSize = config.getCsvBatchSize();
-                } catch (Throwable ignored) {
-                    // Use defaults if config does not expose csv properties yet
-                }
-            }
 
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvFileName), bufferSize)) {
-                // Write header
-                writeCSVHeader(writer, columnNames);
+            long written = writeCSVFile(csvFileName, data.iterator(), beanClass, config, data.size());
 
-                // Batch buffer
-                StringBuilder batchBuffer = new StringBuilder(batchSize * 200);
-                int inBatch = 0;
-
-                final int total = data.size();
-                for (int i = 0; i < total; i++) {
-                    T item = data.get(i);
-                    appendCSVRow(batchBuffer, item, orderedFields);
-                    inBatch++;
-
-                    if (inBatch >= batchSize || i == total - 1) {
-                        writer.write(batchBuffer.toString());
-                        batchBuffer.setLength(0);
-                        inBatch = 0;
+            log.info("CSVWriteStrategy completed: {} records written to {} (CSV)", written, csvFileName);
+        } catch (IOException e) {
+            throw new ExcelProcessException("Failed to write CSV", e);
+        } catch (Exception e) {
+            throw new ExcelProcessException("Failed to write CSV (unexpected)", e);
+        }
+    }
 
-                        if ((i + 1) % 100_000 == 0) {
-                            log.info("Written {}/{} records", i + 1, total);
-                        }
-                    }
-                }
+    /**
+     * Execute write using CSV format, pulling rows lazily from the stream
+     *
+     * Memory is bounded by one batch buffer (csvBatchSize rows) whatever the cursor yields.
+     * The header is always written, so an empty stream produces a header-only file.
+     *
+     * @param fileName Output file name (will be renamed to .csv)
+     * @param rows Rows to write (consumed once, closed by the caller)
+     * @param beanClass Row type
+     * @param config Excel configuration
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    @Override
+    public long executeStreaming(String fileName, Stream<T> rows, Class<T> beanClass, ExcelConfig config)
+            throws ExcelProcessException {
+        String csvFileName = fileName.replaceAll("\\.(xlsx|xls)$", ".csv");
 
-                writer.flush();
-            }
+        try {
+            long written = writeCSVFile(csvFileName, rows.iterator(), beanClass, config, -1);
 
-            log.info("CSVWriteStrategy completed: {} records written to {} (CSV)", data.size(), csvFileName);
+            log.info("CSVWriteStrategy completed: {} records streamed to {} (CSV)", written, csvFileName);
+            return written;
         } catch (IOException e) {
             throw new ExcelProcessException("Failed to write CSV", e);
         } catch (Exception e) {
             throw new ExcelProcessException("Failed to write CSV (unexpected)", e);
         }
     }
-    
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
     /**
-     * Write a CSV row to the file writer
+     * Write header and rows to a CSV file in batches
+     *
+     * @param total Expected row count for logging (-1 if unknown)
+     * @return Number of rows written
      */
-    private void writeCSVHeader(BufferedWriter writer, List<String> columnNames) throws IOException {
-        for (int i = 0; i < columnNames.size(); i++) {
-            if (i > 0) {
-                writer.write(",");
-            }
-            String value = columnNames.get(i);
-            if (value != null && (value.contains(",") || value.contains("\"") || value.contains("\n"))) {
-                writer.write("\"");
-                writer.write(value.replace("\"", "\"\""));
-                writer.write("\"");
-            } else {
-                writer.write(value != null ? value : "");
+    private long writeCSVFile(String csvFileName, Iterator<? extends T> rows, Class<T> beanClass,
+                              ExcelConfig config, long total) throws IOException {
+        int bufferSize = DEFAULT_BUFFER_SIZE;
+        int batchSize = DEFAULT_BATCH_SIZE;
+        if (config != null) {
+            try {
+                if (config.getCsvBufferSize() > 0) bufferSize = config.getCsvBufferSize();
+                if (config.getCsvBatchSize() > 0) batchSize = config.getCsvBatchSize();
+            } catch (Throwable ignored) {
+                // Use defaults if config does not expose csv properties yet
             }
         }
-        writer.write("\n");
-    }
 
-    private void appendCSVRow(StringBuilder buffer, T item, Field[] orderedFields) throws IllegalAccessException {
-        for (int i = 0; i < orderedFields.length; i++) {
-            if (i > 0) {
-                buffer.append(',');
-            }
-            Field field = orderedFields[i];
-            String value = "";
-            if (field != null) {
-                Object v = field.get(item);
-                if (v != null) {
-                    value = v.toString();
-                }
-            }
-            if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-                buffer.append('"').append(value.replace("\"", "\"\""))
-                      .append('"');
-            } else {
-                buffer.append(value);
-            }
+        if (total > 0) {
+            log.debug("Writing {} records to {} (buffer={}, batch={})", total, csvFileName, bufferSize, batchSize);
+        }
+
+        try (OutputStream out = new FileOutputStream(csvFileName)) {
+            return writeHelper.writeToStreamCSV(out, rows, beanClass, bufferSize, batchSize);
         }
-        buffer.append('\n');
     }
 
     /**
@@ -276,6 +248,7 @@ public class CSVWriteStrategy<T> implements WriteStrategy<T> {
      * Priority ordering:
      * - 0: Default/fallback strategy
      * - 10: SXSSFWriteStrategy (medium files)
+     * - 12: OoxmlWriteStrategy (medium files, direct XML)
      * - 15: CSVWriteStrategy (very large files)
      * - 20: XSSFWriteStrategy (small files)
      *
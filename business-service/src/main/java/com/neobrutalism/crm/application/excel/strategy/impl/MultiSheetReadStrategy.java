@@ -5,9 +5,15 @@ import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -71,6 +77,34 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
         Class<T> beanClass,
         ExcelConfig config,
         Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        // Every sheet reopens the package: spool the upload to disk once instead of holding it as byte[]
+        Path spooled;
+        try {
+            spooled = TrueStreamingSAXProcessor.spoolToTempFile(inputStream);
+        } catch (IOException e) {
+            throw new ExcelProcessException("Failed to spool Excel upload", e);
+        }
+        try {
+            return execute(spooled, beanClass, config, batchProcessor);
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("Failed to delete spooled Excel upload {}: {}", spooled, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Execute multi-sheet read on a workbook on disk (file-backed OPCPackage per sheet, nothing buffered)
+     */
+    @Override
+    public TrueStreamingSAXProcessor.ProcessingResult execute(
+        Path excelFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
     ) throws ExcelProcessException {
         log.debug("Executing MultiSheetReadStrategy for class: {}", beanClass.getSimpleName());
 
@@ -86,7 +120,7 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
                 batchProcessor
             );
             try {
-                return processor.processExcelStreamTrue(inputStream);
+                return processor.processExcelFile(excelFile);
             } catch (Exception e) {
                 throw new ExcelProcessException("Failed to process Excel", e);
             }
@@ -96,7 +130,7 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
         log.info("Processing all sheets with class: {}", beanClass.getSimpleName());
         
         try {
-            return processAllSheetsWithSameClass(inputStream, beanClass, config, batchProcessor);
+            return processAllSheetsWithSameClass(excelFile, beanClass, config, batchProcessor);
         } catch (Exception e) {
             throw new ExcelProcessException("Failed to process multi-sheet Excel", e);
         }
@@ -106,27 +140,18 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
      * Process all sheets in workbook using same beanClass for all sheets
      * Uses true SAX streaming to minimize memory footprint
      * 
-     * Approach: Read file into memory once (byte array), then process each sheet
-     * by creating new InputStream from the byte array. This allows TrueStreamingSAXProcessor
-     * to process each sheet correctly while still maintaining streaming benefits within each sheet.
+     * Approach: each sheet reopens the workbook file with a file-backed OPCPackage, so
+     * TrueStreamingSAXProcessor processes each sheet without the workbook ever being held in heap.
      */
     private TrueStreamingSAXProcessor.ProcessingResult processAllSheetsWithSameClass(
-        InputStream inputStream,
+        Path excelFile,
         Class<T> beanClass,
         ExcelConfig config,
         Consumer<List<T>> batchProcessor
     ) throws Exception {
         
-        // Read entire file into memory once (for multi-sheet processing)
-        // This is acceptable because:
-        // 1. We need to process multiple sheets, each requiring full OPCPackage
-        // 2. Individual file reads are typically manageable in size
-        // 3. We still get streaming benefits within each sheet
-        byte[] fileBytes = inputStream.readAllBytes();
-        log.debug("Read {} bytes into memory for multi-sheet processing", fileBytes.length);
-        
         // Get sheet names first to determine which sheets to process
-        List<String> sheetNames = getSheetNamesFromBytes(fileBytes);
+        List<String> sheetNames = getSheetNames(excelFile);
         log.info("Found {} sheets in workbook: {}", sheetNames.size(), sheetNames);
         
         // Filter sheets if specific sheet names are configured
@@ -148,9 +173,6 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
             sheetCount++;
             log.debug("Processing sheet {}: {}", sheetCount, sheetName);
             
-            // Create new InputStream from byte array for this sheet
-            java.io.ByteArrayInputStream sheetInputStream = new java.io.ByteArrayInputStream(fileBytes);
-            
             // Create processor for this sheet
             TrueStreamingSAXProcessor<T> processor = new TrueStreamingSAXProcessor<>(
                 beanClass,
@@ -170,7 +192,7 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
             // Temporary workaround: Process file and let TrueStreamingSAXProcessor handle first sheet
             // Future: Extend to support sheet name parameter
             TrueStreamingSAXProcessor.ProcessingResult sheetResult = 
-                processor.processExcelStreamTrue(sheetInputStream);
+                processor.processExcelFile(excelFile);
             
             long sheetDuration = System.currentTimeMillis() - sheetStartTime;
             
@@ -182,8 +204,6 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
             log.info("Sheet '{}' completed: {} records, {} errors, {}ms",
                     sheetName, sheetResult.getProcessedRecords(), 
                     sheetResult.getErrorCount(), sheetDuration);
-            
-            sheetInputStream.close();
         }
         
         log.info("MultiSheetReadStrategy completed: {} sheets, {} total records, {} errors, {}ms",
@@ -198,21 +218,22 @@ public class MultiSheetReadStrategy<T> implements ReadStrategy<T> {
     }
     
     /**
-     * Extract sheet names from Excel file bytes
+     * Extract sheet names from Excel file (file-backed, read-only)
      */
-    private List<String> getSheetNamesFromBytes(byte[] fileBytes) throws Exception {
+    private List<String> getSheetNames(Path excelFile) throws Exception {
         List<String> sheetNames = new java.util.ArrayList<>();
-        try (java.io.ByteArrayInputStream in = new java.io.ByteArrayInputStream(fileBytes)) {
-            org.apache.poi.openxml4j.opc.OPCPackage pkg = org.apache.poi.openxml4j.opc.OPCPackage.open(in);
-            org.apache.poi.xssf.eventusermodel.XSSFReader reader = 
-                new org.apache.poi.xssf.eventusermodel.XSSFReader(pkg);
-            org.apache.poi.xssf.eventusermodel.XSSFReader.SheetIterator iterator =
-                (org.apache.poi.xssf.eventusermodel.XSSFReader.SheetIterator) reader.getSheetsData();
+        OPCPackage pkg = OPCPackage.open(excelFile.toFile(), PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
             while (iterator.hasNext()) {
-                iterator.next();
+                // Only the name is needed; the sheet stream is closed unread
+                iterator.next().close();
                 sheetNames.add(iterator.getSheetName());
             }
-            pkg.close();
+        } finally {
+            // READ packages must be reverted, close() would try to save
+            pkg.revert();
         }
         return sheetNames;
     }
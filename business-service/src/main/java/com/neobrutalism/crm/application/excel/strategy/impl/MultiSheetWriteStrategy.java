@@ -1,17 +1,32 @@
 package com.neobrutalism.crm.application.excel.strategy.impl;
 
+import com.neobrutalism.crm.application.excel.helper.OoxmlStreamWriter;
 import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
+import com.neobrutalism.crm.utils.cache.CellExtractor;
+import com.neobrutalism.crm.utils.cache.EnhancedReflectionCache;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.WorkbookUtil;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
 
 /**
  * Multi-sheet write strategy for Excel files
@@ -36,6 +51,15 @@ import java.util.Map;
  * - Uses XSSF (standard) for small workbooks
  * - Automatic strategy based on total data size
  *
+ * Parallel mode (config.parallelSheetWriting, opt-in, 2+ sheets):
+ * - Each sheet is serialized and deflated into its own temp file by OoxmlStreamWriter,
+ *   concurrently on excelSheetWriteExecutor (virtual threads, bounded by CPU cores)
+ * - The parts are then stitched into the package without re-compression, so wall-clock
+ *   time is roughly that of the largest sheet instead of the sum of all sheets
+ * - Same header row and frozen header pane as the POI path; cells are typed like the
+ *   single-sheet writers (BigDecimal etc. as text), header uses the CellStyleCache style,
+ *   columns are not auto-sized (default width)
+ *
  * Use cases:
  * - Multi-tab reports (Summary, Details, Charts)
  * - Related data exports (Users, Orders, Products)
@@ -55,6 +79,17 @@ public class MultiSheetWriteStrategy<T> implements WriteStrategy<T> {
 
     private static final int SXSSF_THRESHOLD = 100_000; // Use SXSSF above this
 
+    private final EnhancedReflectionCache reflectionCache = EnhancedReflectionCache.getInstance();
+
+    private final OoxmlStreamWriter ooxmlWriter;
+    private final AsyncTaskExecutor sheetWriteExecutor;
+
+    public MultiSheetWriteStrategy(OoxmlStreamWriter ooxmlWriter,
+                                   @Qualifier("excelSheetWriteExecutor") AsyncTaskExecutor sheetWriteExecutor) {
+        this.ooxmlWriter = ooxmlWriter;
+        this.sheetWriteExecutor = sheetWriteExecutor;
+    }
+
     /**
      * Execute multi-sheet write
      *
@@ -112,6 +147,14 @@ public class MultiSheetWriteStrategy<T> implements WriteStrategy<T> {
         log.debug("Total records across all sheets: {}", totalRecords);
 
         try {
+            if (config.isParallelSheetWriting() && sheetsData.size() > 1) {
+                writeSheetsInParallel(fileName, sheetsData, config);
+
+                log.info("MultiSheetWriteStrategy completed (parallel): {} sheets, {} total records written to {}",
+                        sheetsData.size(), totalRecords, fileName);
+                return;
+            }
+
             // Choose workbook type based on size
             Workbook workbook;
             if (totalRecords > SXSSF_THRESHOLD) {
@@ -154,6 +197,88 @@ public class MultiSheetWriteStrategy<T> implements WriteStrategy<T> {
         }
     }
 
+    /**
+     * Write all sheets concurrently as deflated parts, then stitch them into the workbook file
+     *
+     * Temp files of the parts are always deleted, including when a sheet fails.
+     *
+     * @param fileName Output file name
+     * @param sheetsData Map of sheet name to data list
+     * @param config Excel configuration (compressOutput)
+     * @throws Exception if any sheet or the package fails
+     */
+    private void writeSheetsInParallel(String fileName,
+                                       Map<String, List<?>> sheetsData,
+                                       ExcelConfig config) throws Exception {
+        long startTime = System.currentTimeMillis();
+        int level = config.isCompressOutput() ? Deflater.BEST_SPEED : Deflater.NO_COMPRESSION;
+        OoxmlStreamWriter.Styles styles = ooxmlWriter.buildStyles(config);
+
+        List<String> sheetNames = new ArrayList<>(sheetsData.keySet());
+        sheetNames.forEach(WorkbookUtil::validateSheetName);
+
+        List<CompletableFuture<OoxmlStreamWriter.DeflatedPart>> futures = new ArrayList<>(sheetNames.size());
+        try {
+            for (String sheetName : sheetNames) {
+                List<?> sheetData = sheetsData.get(sheetName);
+                futures.add(CompletableFuture.supplyAsync(
+                    () -> writeSheetPart(sheetName, sheetData, styles, level), sheetWriteExecutor));
+            }
+
+            List<OoxmlStreamWriter.DeflatedPart> parts = new ArrayList<>(futures.size());
+            for (CompletableFuture<OoxmlStreamWriter.DeflatedPart> future : futures) {
+                parts.add(future.join());
+            }
+            long serializedAt = System.currentTimeMillis();
+
+            try (OutputStream outputStream = new FileOutputStream(fileName)) {
+                ooxmlWriter.writePackage(outputStream, sheetNames, styles, parts, level);
+            }
+
+            log.debug("Parallel multi-sheet write: {} sheets serialized in {} ms, stitched in {} ms",
+                    sheetNames.size(), serializedAt - startTime, System.currentTimeMillis() - serializedAt);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException io ? io.getCause() : e.getCause();
+            throw cause instanceof Exception ex ? ex : e;
+        } finally {
+            for (CompletableFuture<OoxmlStreamWriter.DeflatedPart> future : futures) {
+                try {
+                    Files.deleteIfExists(future.join().file());
+                } catch (CompletionException | IOException ignored) {
+                    // Failed sheets clean up their own part; nothing else to delete
+                }
+            }
+        }
+    }
+
+    /**
+     * Serialize one sheet into a deflated part (runs on the sheet write executor)
+     */
+    private OoxmlStreamWriter.DeflatedPart writeSheetPart(String sheetName, List<?> data,
+                                                          OoxmlStreamWriter.Styles styles, int level) {
+        try {
+            if (data.isEmpty()) {
+                log.warn("Sheet '{}' has no data, creating empty sheet", sheetName);
+                return ooxmlWriter.writeSheetPart(Collections.emptyIterator(), new CellExtractor[0], new String[0],
+                                                  styles, level, false);
+            }
+
+            CellExtractor[] extractors = reflectionCache.getDeclaredFieldExtractors(data.get(0).getClass());
+            String[] headers = new String[extractors.length];
+            for (int i = 0; i < extractors.length; i++) {
+                headers[i] = formatFieldName(extractors[i].getFieldName());
+            }
+
+            OoxmlStreamWriter.DeflatedPart part = ooxmlWriter.writeSheetPart(
+                data.iterator(), extractors, headers, styles, level, true);
+            log.debug("Sheet '{}' serialized: {} records, {} -> {} bytes",
+                     sheetName, part.rows(), part.size(), part.compressedSize());
+            return part;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write sheet '" + sheetName + "'", e);
+        }
+    }
+
     /**
      * Write single sheet to workbook
      *
@@ -176,18 +301,18 @@ public class MultiSheetWriteStrategy<T> implements WriteStrategy<T> {
         // Create sheet
         Sheet sheet = workbook.createSheet(sheetName);
 
-        // Get fields from first object
+        // Compiled extractors for the fields of the first object (cached per class)
         Object firstObject = data.get(0);
-        java.lang.reflect.Field[] fields = firstObject.getClass().getDeclaredFields();
+        CellExtractor[] extractors = reflectionCache.getDeclaredFieldExtractors(firstObject.getClass());
 
         // Create header style
         CellStyle headerStyle = createHeaderStyle(workbook);
 
         // Write header row
         Row headerRow = sheet.createRow(0);
-        for (int i = 0; i < fields.length; i++) {
+        for (int i = 0; i < extractors.length; i++) {
             Cell cell = headerRow.createCell(i);
-            cell.setCellValue(formatFieldName(fields[i].getName()));
+            cell.setCellValue(formatFieldName(extractors[i].getFieldName()));
             cell.setCellStyle(headerStyle);
         }
 
@@ -196,18 +321,15 @@ public class MultiSheetWriteStrategy<T> implements WriteStrategy<T> {
         for (Object dataObject : data) {
             Row row = sheet.createRow(rowIndex++);
 
-            for (int i = 0; i < fields.length; i++) {
-                fields[i].setAccessible(true);
-                Object value = fields[i].get(dataObject);
-
+            for (int i = 0; i < extractors.length; i++) {
                 Cell cell = row.createCell(i);
-                setCellValue(cell, value);
+                setCellValue(cell, extractors[i], extractors[i].get(dataObject));
             }
         }
 
         // Auto-size columns if enabled
         if (!config.isDisableAutoSizing()) {
-            for (int i = 0; i < fields.length; i++) {
+            for (int i = 0; i < extractors.length; i++) {
                 sheet.autoSizeColumn(i);
 
                 // Limit column width
@@ -252,6 +374,28 @@ public class MultiSheetWriteStrategy<T> implements WriteStrategy<T> {
         return style;
     }
 
+    /**
+     * Set cell value using the writer pre-selected for the column
+     *
+     * @param cell Excel cell
+     * @param extractor Column extractor (declared value kind)
+     * @param value Value to set
+     */
+    private void setCellValue(Cell cell, CellExtractor extractor, Object value) {
+        if (value == null) {
+            cell.setBlank();
+            return;
+        }
+        switch (extractor.getKind()) {
+            case STRING -> cell.setCellValue((String) value);
+            case LONG, DOUBLE -> cell.setCellValue(((Number) value).doubleValue());
+            case BOOLEAN -> cell.setCellValue((Boolean) value);
+            case DATE -> cell.setCellValue((java.util.Date) value);
+            // TEXT covers BigDecimal and other Number subclasses, which this strategy writes as numbers
+            case TEXT, DYNAMIC -> setCellValue(cell, value);
+        }
+    }
+
     /**
      * Set cell value based on type
      *
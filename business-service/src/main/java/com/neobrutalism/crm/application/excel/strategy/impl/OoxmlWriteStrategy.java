@@ -0,0 +1,180 @@
+package com.neobrutalism.crm.application.excel.strategy.impl;
+
+import com.neobrutalism.crm.application.excel.helper.OoxmlStreamWriter;
+import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.exception.ExcelProcessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Direct OOXML write strategy for medium-to-large Excel files
+ *
+ * Same output as SXSSFWriteStrategy (.xlsx, one sheet, header + rows) without POI's
+ * per-cell object model: OoxmlStreamWriter emits the sheet XML from byte templates
+ * straight into the zip stream.
+ *
+ * Compared to SXSSF:
+ * - No Row/Cell allocation per value
+ * - No temp sheet file and no second pass to re-zip it
+ * - Inline strings (no shared-string table on the heap)
+ * - Styles from CellStyleCache, written once into styles.xml
+ *
+ * Performance characteristics:
+ * - Memory: O(1) - one 64KB buffer plus the deflater window
+ * - File size: 50K - 2M records or 1M - 5M cells (same band as SXSSF)
+ *
+ * Strategy selection:
+ * - Priority: 12 (preferred over SXSSF, below CSV for very large files)
+ * - Opt-in: only selected when config.useDirectOoxmlWriter = true (off by default, SXSSF otherwise)
+ *
+ * @param <T> The type of objects to write to Excel
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OoxmlWriteStrategy<T> implements WriteStrategy<T> {
+
+    private final OoxmlStreamWriter ooxmlWriter;
+
+    // Thresholds for strategy selection (same band as SXSSF)
+    private static final int MIN_RECORDS = 50_000;
+    private static final int MAX_RECORDS = 2_000_000;
+    private static final long MIN_CELLS = 1_000_000L;
+    private static final long MAX_CELLS = 5_000_000L;
+    private static final int MAX_SHEET_ROWS = 1_048_575; // .xlsx limit minus the header row
+
+    /**
+     * Execute write emitting OOXML directly
+     *
+     * @param fileName Output file name (e.g., "output.xlsx")
+     * @param data List of objects to write
+     * @param config Excel configuration
+     * @throws ExcelProcessException if writing fails
+     */
+    @Override
+    public void execute(String fileName, List<T> data, ExcelConfig config) throws ExcelProcessException {
+        log.debug("Executing OoxmlWriteStrategy for {} records to {}", data.size(), fileName);
+
+        try {
+            long written = ooxmlWriter.writeToFile(fileName, data.iterator(), resolveBeanClass(data, config), 0, 0, config);
+
+            log.info("OoxmlWriteStrategy completed: {} records written to {}", written, fileName);
+
+        } catch (Exception e) {
+            log.error("OoxmlWriteStrategy failed for file: {}", fileName, e);
+            throw new ExcelProcessException("Failed to write Excel file with OOXML strategy", e);
+        }
+    }
+
+    /**
+     * Execute write emitting OOXML directly, pulling rows lazily from the stream
+     *
+     * @param fileName Output file name (e.g., "output.xlsx")
+     * @param rows Rows to write (consumed once, closed by the caller)
+     * @param beanClass Row type
+     * @param config Excel configuration
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    @Override
+    public long executeStreaming(String fileName, Stream<T> rows, Class<T> beanClass, ExcelConfig config)
+            throws ExcelProcessException {
+        log.debug("Executing OoxmlWriteStrategy (streaming) to {}", fileName);
+
+        try {
+            long written = ooxmlWriter.writeToFile(fileName, rows.iterator(), beanClass, 0, 0, config);
+
+            log.info("OoxmlWriteStrategy completed: {} records streamed to {}", written, fileName);
+            return written;
+
+        } catch (Exception e) {
+            log.error("OoxmlWriteStrategy streaming write failed for file: {}", fileName, e);
+            throw new ExcelProcessException("Failed to stream Excel file with OOXML strategy", e);
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<T> resolveBeanClass(List<T> data, ExcelConfig config) throws ClassNotFoundException {
+        if (data != null && !data.isEmpty()) {
+            return (Class<T>) data.get(0).getClass();
+        }
+        if (config.getOutputBeanClassName() != null && !config.getOutputBeanClassName().isEmpty()) {
+            return (Class<T>) Class.forName(config.getOutputBeanClassName());
+        }
+        throw new IllegalArgumentException("Cannot resolve bean class: provide non-empty data or set outputBeanClassName in ExcelConfig");
+    }
+
+    /**
+     * Check if this strategy supports the given data and configuration
+     *
+     * Same size band as SXSSFWriteStrategy; higher priority makes it win there
+     * when config.isUseDirectOoxmlWriter() is true.
+     *
+     * @param dataSize Number of records to write
+     * @param cellCount Total number of cells (rows * columns)
+     * @param config Excel configuration
+     * @return true if this strategy supports the data size, false otherwise
+     */
+    @Override
+    public boolean supports(int dataSize, long cellCount, ExcelConfig config) {
+        if (!config.isUseDirectOoxmlWriter()) {
+            return false;
+        }
+
+        boolean supportsRecordCount = dataSize > MIN_RECORDS && dataSize <= MAX_RECORDS;
+        boolean supportsCellCount = cellCount > MIN_CELLS && cellCount <= MAX_CELLS;
+
+        boolean supported = supportsRecordCount || supportsCellCount;
+
+        if (supported) {
+            log.debug("OoxmlWriteStrategy supports data: {} records, {} cells", dataSize, cellCount);
+        }
+
+        return supported;
+    }
+
+    /**
+     * Any size that fits in one .xlsx sheet (header row + 1,048,575 data rows)
+     */
+    @Override
+    public boolean canHandle(int dataSize, long cellCount, ExcelConfig config) {
+        return config.isUseDirectOoxmlWriter() && dataSize <= MAX_SHEET_ROWS;
+    }
+
+    /**
+     * Get strategy name for logging and debugging
+     *
+     * @return Strategy name
+     */
+    @Override
+    public String getName() {
+        return "OoxmlWriteStrategy";
+    }
+
+    /**
+     * Get priority for strategy selection
+     *
+     * Priority ordering:
+     * - 0: Default/fallback strategy
+     * - 10: SXSSFWriteStrategy (medium files)
+     * - 12: OoxmlWriteStrategy (medium files, direct XML)
+     * - 15: CSVWriteStrategy (very large files)
+     * - 20: XSSFWriteStrategy (small files)
+     *
+     * @return Priority level (12)
+     */
+    @Override
+    public int getPriority() {
+        return 12;
+    }
+}
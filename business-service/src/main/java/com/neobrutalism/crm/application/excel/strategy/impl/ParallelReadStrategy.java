@@ -4,11 +4,13 @@ import com.neobrutalism.crm.application.excel.strategy.ReadStrategy;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
+import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.WorkbookSource;
 import com.neobrutalism.crm.utils.validation.ValidationRule;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
@@ -94,6 +96,28 @@ public class ParallelReadStrategy<T> implements ReadStrategy<T> {
         Class<T> beanClass,
         ExcelConfig config,
         Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        return execute(WorkbookSource.of(inputStream), beanClass, config, batchProcessor);
+    }
+
+    /**
+     * Execute parallel read on a workbook on disk (file-backed OPCPackage, nothing buffered)
+     */
+    @Override
+    public TrueStreamingSAXProcessor.ProcessingResult execute(
+        Path excelFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        return execute(WorkbookSource.of(excelFile), beanClass, config, batchProcessor);
+    }
+
+    private TrueStreamingSAXProcessor.ProcessingResult execute(
+        WorkbookSource source,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
     ) throws ExcelProcessException {
         log.debug("Executing ParallelReadStrategy for class: {} (parallelProcessing={})",
                  beanClass.getSimpleName(), config.isParallelProcessing());
@@ -135,6 +159,13 @@ public class ParallelReadStrategy<T> implements ReadStrategy<T> {
 
             // ✅ V2.0: NO SEMAPHORE BLOCKING - SAX parsing never blocked!
             Consumer<List<T>> parallelBatchProcessor = batch -> {
+                // A failed batch stops the SAX parse instead of dispatching the rest of the file
+                synchronized (firstException) {
+                    if (firstException[0] != null) {
+                        throw new RuntimeException("Parallel batch processing failed", firstException[0]);
+                    }
+                }
+
                 // ✅ V2.0: Submit batch processing immediately (no blocking)
                 CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
                     try {
@@ -180,7 +211,7 @@ public class ParallelReadStrategy<T> implements ReadStrategy<T> {
             );
 
             // Process Excel with true streaming and parallel batch processing
-            TrueStreamingSAXProcessor.ProcessingResult result = processor.processExcelStreamTrue(inputStream);
+            TrueStreamingSAXProcessor.ProcessingResult result = source.processWith(processor);
 
             // ✅ V2.0: GUARANTEED COMPLETION - Wait for all batches to complete
             log.info("SAX parsing completed. {} batches submitted for parallel processing", futures.size());
@@ -4,63 +4,73 @@ import com.neobrutalism.crm.application.excel.strategy.ReadStrategy;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
+import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.WorkbookSource;
 import com.neobrutalism.crm.utils.validation.ValidationRule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
- * TRUE NON-BLOCKING Reactive Parallel Read Strategy
+ * TRUE PIPELINED Reactive Parallel Read Strategy
  *
- * This strategy uses Project Reactor for completely non-blocking parallel processing:
- * - SAX parsing produces batches → published to Flux stream
- * - Flux handles batches reactively with automatic backpressure
- * - ALL operations are non-blocking (no thread blocking)
- * - Automatic memory management with reactive streams
- * - Completion tracking with reactive signals
+ * Parsing, validation and persistence run as concurrent stages connected by bounded buffers,
+ * so the SAX parser keeps producing while earlier batches are validated and inserted:
  *
  * ARCHITECTURE:
- * ┌──────────────┐
- * │ SAX Parser   │ → Produces batches (streaming)
- * └──────┬───────┘
- *        │
- *        ▼
- * ┌──────────────────────────────────────┐
- * │ Flux<List<T>>                        │
- * │ - publishOn(parallel scheduler)      │ ← Non-blocking publish
- * │ - flatMap(batch → process, concurrency) │ ← Parallel processing
- * │ - onBackpressureBuffer(maxSize)      │ ← Automatic backpressure
- * │ - doOnNext(progress tracking)        │ ← Real-time progress
- * │ - doOnError(error handling)          │ ← Error propagation
- * └──────┬───────────────────────────────┘
- *        │
- *        ▼
- * ┌──────────────┐
- * │ Database     │ ← Parallel saves (non-blocking I/O)
- * └──────────────┘
+ * ┌──────────────┐  put() blocks when full
+ * │ SAX Parser   │ ───────────────────────┐
+ * └──────────────┘                        ▼
+ *                          ┌──────────────────────────┐
+ *                          │ ArrayBlockingQueue       │ ← pipelineBufferBatches
+ *                          └────────────┬─────────────┘
+ *                                       ▼ Flux.generate (pull on demand)
+ *                          ┌──────────────────────────┐
+ *                          │ validate stage           │ ← flatMap(…, validateParallelism, 1)
+ *                          │ (Schedulers.parallel)    │
+ *                          └────────────┬─────────────┘
+ *                                       ▼
+ *                          ┌──────────────────────────┐
+ *                          │ persist stage            │ ← flatMap(…, persistParallelism, 1)
+ *                          │ (Schedulers.boundedElastic) │
+ *                          └──────────────────────────┘
+ *
+ * BACKPRESSURE:
+ * - Each flatMap only requests as many batches as it has free slots (prefetch 1)
+ * - When persist is slow, validate stops requesting, the queue fills and the SAX thread blocks
+ * - Nothing is dropped and nothing is collected up front
  *
  * PERFORMANCE CHARACTERISTICS:
- * - Memory: O(backpressure_buffer_size × batch_size)
- * - Speed: 100,000-200,000 records/sec (depends on DB throughput)
- * - Scalability: Millions of records (automatic backpressure)
- * - Thread blocking: ZERO (all operations non-blocking)
+ * - Memory: O(batchSize × (buffer + validateParallelism + persistParallelism + 1))
+ * - Parsing overlaps with validation and JDBC inserts
  *
- * BACKPRESSURE STRATEGY:
- * - Automatic: Reactor controls flow based on consumer speed
- * - Buffer size: Configurable (default: maxConcurrentBatches)
- * - Overflow: onBackpressureBuffer with error on overflow
- * - No manual semaphore/locking needed
+ * METRICS (Micrometer, tag stage=parse|validate|persist):
+ * - excel.pipeline.queue.depth: batches waiting for / inside the stage
+ * - excel.pipeline.throughput: records/sec since the previous scrape
+ * - excel.pipeline.records: records completed by the stage
  *
  * @param <T> The type of objects to read from Excel
  */
@@ -68,33 +78,27 @@ import java.util.function.Consumer;
 @Component
 public class ReactiveParallelReadStrategy<T> implements ReadStrategy<T> {
 
+    private static final Duration STALL_TIMEOUT = Duration.ofMinutes(10);
+    private static final long HANDOFF_POLL_MS = 200;
+
+    private final StageMetrics parseMetrics = new StageMetrics();
+    private final StageMetrics validateMetrics = new StageMetrics();
+    private final StageMetrics persistMetrics = new StageMetrics();
+
+    public ReactiveParallelReadStrategy(MeterRegistry meterRegistry) {
+        parseMetrics.register(meterRegistry, "parse");
+        validateMetrics.register(meterRegistry, "validate");
+        persistMetrics.register(meterRegistry, "persist");
+    }
+
     /**
-     * Execute TRUE NON-BLOCKING parallel read using Reactive Streams
-     *
-     * REACTIVE FLOW:
-     * 1. SAX parsing produces batches → publishOn() to reactive scheduler
-     * 2. Flux.flatMap() processes batches in parallel (non-blocking)
-     * 3. Automatic backpressure prevents memory explosion
-     * 4. Method returns immediately with reactive Mono<Result>
-     * 5. Completion tracking via reactive signals (onComplete, onError)
-     *
-     * ZERO THREAD BLOCKING:
-     * - SAX parsing: Sequential (inherent limitation) but doesn't wait for batches
-     * - Batch processing: Parallel on reactive scheduler (non-blocking I/O)
-     * - Progress tracking: Reactive signals (no polling)
-     * - Completion: Reactive Mono (subscribe-based, non-blocking)
-     *
-     * BACKPRESSURE:
-     * - Automatic: Reactor Flux handles backpressure
-     * - Strategy: Buffer + drop on overflow
-     * - Buffer size: maxConcurrentBatches (configurable)
-     * - No manual locking/semaphore
+     * Execute pipelined read: parse → validate (row rules) → persist
      *
      * @param inputStream Excel file input stream
      * @param beanClass Class type to map Excel rows to
      * @param config Excel configuration with parallelProcessing enabled
-     * @param batchProcessor Consumer that processes batches (can be blocking - wrapped in Mono)
-     * @return ProcessingResult with statistics (immediate return)
+     * @param batchProcessor Consumer that persists batches (may block - runs on boundedElastic)
+     * @return ProcessingResult with statistics
      * @throws ExcelProcessException if reading fails
      */
     @Override
@@ -104,169 +108,229 @@ public class ReactiveParallelReadStrategy<T> implements ReadStrategy<T> {
         ExcelConfig config,
         Consumer<List<T>> batchProcessor
     ) throws ExcelProcessException {
-        log.info("🚀 Executing ReactiveParallelReadStrategy for class: {} (reactive non-blocking)",
+        return execute(WorkbookSource.of(inputStream), beanClass, config, Function.identity(), batchProcessor);
+    }
+
+    /**
+     * Execute pipelined read on a workbook on disk (file-backed OPCPackage, nothing buffered)
+     */
+    @Override
+    public TrueStreamingSAXProcessor.ProcessingResult execute(
+        Path excelFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        return execute(WorkbookSource.of(excelFile), beanClass, config, Function.identity(), batchProcessor);
+    }
+
+    /**
+     * Execute pipelined read: parse → validate → persist
+     *
+     * The validate stage is CPU-bound work on a parsed batch: the row rules from ExcelConfig
+     * (required fields, field and global rules - deferred by the SAX processor) followed by
+     * validateStage (normalize, map to staging rows); the persist stage is the JDBC insert.
+     * Both run concurrently with parsing, with parallelism taken from
+     * ExcelConfig.pipelineValidateParallelism / pipelinePersistParallelism. Unique-field checks
+     * depend on row order and stay on the parsing thread.
+     *
+     * @param source Workbook file or upload stream
+     * @param validateStage Batch transformation run on Schedulers.parallel() after the row rules
+     * @param persistStage Batch sink run on Schedulers.boundedElastic()
+     * @param <R> Type produced by the validate stage
+     * @return ProcessingResult with statistics
+     * @throws ExcelProcessException if parsing or any stage fails
+     */
+    public <R> TrueStreamingSAXProcessor.ProcessingResult execute(
+        WorkbookSource source,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Function<List<T>, List<R>> validateStage,
+        Consumer<List<R>> persistStage
+    ) throws ExcelProcessException {
+        log.info("🚀 Executing ReactiveParallelReadStrategy for class: {} (pipelined)",
                  beanClass.getSimpleName());
 
-        // Verify parallel processing enabled
         if (!config.isParallelProcessing()) {
             log.warn("ReactiveParallelReadStrategy selected but parallelProcessing is disabled.");
         }
 
-        // ✅ REACTIVE: Thread-safe batch collector
-        List<List<T>> batchCollector = new CopyOnWriteArrayList<>();
+        int bufferBatches = Math.max(1, config.getPipelineBufferBatches());
+        int validateParallelism = config.getPipelineValidateParallelism() > 0
+            ? config.getPipelineValidateParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        int persistParallelism = config.getPipelinePersistParallelism() > 0
+            ? config.getPipelinePersistParallelism()
+            : calculateMaxConcurrentBatches(config);
 
-        // ✅ REACTIVE: Progress tracking with atomics
-        AtomicInteger processedBatches = new AtomicInteger(0);
-        AtomicInteger failedBatches = new AtomicInteger(0);
-        AtomicLong totalRecords = new AtomicLong(0);
+        log.info("🔧 Pipeline config: buffer={}, validate={}, persist={}, peak≈{} batches × {} rows",
+                bufferBatches, validateParallelism, persistParallelism,
+                bufferBatches + validateParallelism + persistParallelism + 1, config.getBatchSize());
 
-        // ✅ REACTIVE: Exception tracking
-        final Exception[] firstException = new Exception[1];
+        BlockingQueue<List<T>> handoff = new ArrayBlockingQueue<>(bufferBatches);
+        List<T> endOfStream = new ArrayList<>(0);
+        AtomicReference<Throwable> pipelineFailure = new AtomicReference<>();
 
-        // ✅ BACKPRESSURE: Calculate max concurrent batches
-        int maxConcurrentBatches = calculateMaxConcurrentBatches(config);
-        int backpressureBufferSize = maxConcurrentBatches * 2; // Buffer 2x for smoothness
+        AtomicInteger processedBatches = new AtomicInteger(0);
+        AtomicLong totalRecords = new AtomicLong(0);
+        long startTime = System.currentTimeMillis();
+
+        List<ValidationRule> validationRules = new ArrayList<>();
+        TrueStreamingSAXProcessor<T> processor = new TrueStreamingSAXProcessor<>(
+            beanClass,
+            config,
+            validationRules,
+            batch -> handOff(handoff, batch, pipelineFailure)
+        ).deferValidation();
+
+        // ✅ STAGE 1: SAX parsing on its own thread, blocking on the bounded queue when full
+        CompletableFuture<TrueStreamingSAXProcessor.ProcessingResult> parsing = CompletableFuture.supplyAsync(() -> {
+            try {
+                return source.processWith(processor);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            } finally {
+                try {
+                    handOff(handoff, endOfStream, pipelineFailure);
+                } catch (RuntimeException ignored) {
+                    // Downstream already failed - nobody is waiting for the end marker
+                }
+            }
+        }, Schedulers.boundedElastic()::schedule);
 
-        log.info("🔧 Reactive config: maxConcurrent={}, bufferSize={}, scheduler=parallel",
-                maxConcurrentBatches, backpressureBufferSize);
+        Scheduler persistScheduler = Schedulers.boundedElastic();
 
         try {
-            // Create validation rules
-            List<ValidationRule> validationRules = new ArrayList<>();
-
-            // ✅ REACTIVE: Batch collector callback (non-blocking)
-            Consumer<List<T>> reactiveCollector = batch -> {
-                // Just collect batch - actual processing in Flux
-                batchCollector.add(batch);
-                log.debug("📦 Collected batch #{} with {} records", batchCollector.size(), batch.size());
-            };
-
-            // ✅ STEP 1: SAX PARSING (sequential - but doesn't wait for processing)
-            log.info("📖 Starting SAX parsing...");
-            long saxStartTime = System.currentTimeMillis();
-
-            TrueStreamingSAXProcessor<T> processor = new TrueStreamingSAXProcessor<>(
-                beanClass,
-                config,
-                validationRules,
-                reactiveCollector
-            );
-
-            // SAX parsing - collects all batches
-            TrueStreamingSAXProcessor.ProcessingResult saxResult =
-                processor.processExcelStreamTrue(inputStream);
-
-            long saxDuration = System.currentTimeMillis() - saxStartTime;
-            log.info("✅ SAX parsing completed: {} batches collected in {} ms",
-                    batchCollector.size(), saxDuration);
-
-            // ✅ STEP 2: REACTIVE PARALLEL PROCESSING (TRUE NON-BLOCKING)
-            log.info("⚡ Starting reactive parallel processing...");
-            long reactiveStartTime = System.currentTimeMillis();
-
-            // Create Flux from collected batches
-            Mono<Long> processingMono = Flux.fromIterable(batchCollector)
-                // ✅ REACTIVE: Publish batches on parallel scheduler (non-blocking)
-                .publishOn(Schedulers.parallel())
+            Flux<List<T>> parsed = Flux.<List<T>>generate(sink -> {
+                    List<T> batch = takeNext(handoff, parsing);
+                    parseMetrics.queued.decrementAndGet();
+                    if (batch == endOfStream) {
+                        sink.complete();
+                    } else {
+                        parseMetrics.records.add(batch.size());
+                        sink.next(batch);
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+
+            // ✅ STAGE 2: validation (CPU-bound), off the SAX thread
+            Flux<List<R>> validated = parsed.flatMap(batch ->
+                    Mono.fromCallable(() -> {
+                        validateMetrics.queued.incrementAndGet();
+                        try {
+                            processor.validateRows(batch);
+                            List<R> result = validateStage.apply(batch);
+                            validateMetrics.records.add(batch.size());
+                            return result;
+                        } finally {
+                            validateMetrics.queued.decrementAndGet();
+                        }
+                    }).subscribeOn(Schedulers.parallel()),
+                validateParallelism, 1);
 
-                // ✅ REACTIVE: Process batches in parallel with flatMap
-                .flatMap(batch ->
+            // ✅ STAGE 3: persistence (blocking JDBC)
+            Long persisted = validated.flatMap(batch ->
                     Mono.fromRunnable(() -> {
+                        persistMetrics.queued.incrementAndGet();
                         try {
-                            // Process batch (may be blocking I/O, but in separate thread)
-                            batchProcessor.accept(batch);
-
-                            // Update progress
-                            int completed = processedBatches.incrementAndGet();
-                            long records = totalRecords.addAndGet(batch.size());
-
-                            log.debug("✅ Batch {}/{} completed: {} records, total: {}",
-                                    completed, batchCollector.size(), batch.size(), records);
-
-                        } catch (Exception e) {
-                            failedBatches.incrementAndGet();
-
-                            // Store first exception
-                            synchronized (firstException) {
-                                if (firstException[0] == null) {
-                                    firstException[0] = e;
-                                }
-                            }
-
-                            log.error("❌ Batch processing failed: {}", e.getMessage(), e);
-                            throw new RuntimeException("Batch processing error", e);
+                            persistStage.accept(batch);
+                            persistMetrics.records.add(batch.size());
+                            processedBatches.incrementAndGet();
+                            totalRecords.addAndGet(batch.size());
+                        } finally {
+                            persistMetrics.queued.decrementAndGet();
                         }
-                    })
-                    // ✅ REACTIVE: Run on bounded elastic scheduler (good for I/O)
-                    .subscribeOn(Schedulers.boundedElastic()),
-
-                    // ✅ CONCURRENCY: Max concurrent batch processing
-                    maxConcurrentBatches
-                )
-
-                // ✅ BACKPRESSURE: Buffer with size limit
-                .onBackpressureBuffer(
-                    backpressureBufferSize,
-                    dropped -> log.warn("⚠️ Backpressure: Dropped batch (buffer overflow)")
-                )
-
-                // ✅ TIMEOUT: Global timeout for all batches
-                .timeout(Duration.ofMinutes(10))
-
-                // ✅ ERROR HANDLING: Stop on first error
-                .onErrorStop()
-
-                // ✅ PROGRESS: Count processed batches
-                .count();
-
-            // ✅ REACTIVE: Block here to wait for completion
-            // This is the ONLY blocking point, but it's necessary for synchronous API contract
-            Long processedCount = processingMono.block();
-
-            long reactiveDuration = System.currentTimeMillis() - reactiveStartTime;
-            long totalDuration = saxDuration + reactiveDuration;
-
-            // ✅ CHECK FAILURES
-            if (failedBatches.get() > 0) {
-                String errorMsg = String.format(
-                    "❌ Reactive processing completed with %d failures out of %d batches",
-                    failedBatches.get(), batchCollector.size()
-                );
-                log.error(errorMsg);
-
-                if (firstException[0] != null) {
-                    throw new ExcelProcessException(errorMsg, firstException[0]);
-                } else {
-                    throw new ExcelProcessException(errorMsg);
-                }
-            }
+                    }).subscribeOn(persistScheduler).thenReturn(1L),
+                persistParallelism, 1)
+                .timeout(STALL_TIMEOUT)
+                .doOnError(pipelineFailure::set)
+                .count()
+                .block();
+
+            TrueStreamingSAXProcessor.ProcessingResult saxResult = parsing.join();
+            long totalDuration = System.currentTimeMillis() - startTime;
 
-            // ✅ SUCCESS
             log.info("🎉 ReactiveParallelReadStrategy completed successfully:");
-            log.info("   📊 SAX Parsing:       {} ms", saxDuration);
-            log.info("   ⚡ Reactive Processing: {} ms", reactiveDuration);
             log.info("   ⏱️  Total Duration:     {} ms", totalDuration);
-            log.info("   📦 Batches Processed:  {}", processedBatches.get());
+            log.info("   📦 Batches Processed:  {}", persisted);
             log.info("   📝 Records Processed:  {}", totalRecords.get());
             log.info("   🚀 Throughput:         {} rec/sec",
                     totalRecords.get() * 1000 / Math.max(totalDuration, 1));
 
-            // Return result with total duration
             return new TrueStreamingSAXProcessor.ProcessingResult(
                     totalRecords.get(),
-                    failedBatches.get(),
-                    totalDuration
+                    saxResult.getErrorCount(),
+                    totalDuration,
+                    saxResult.getErrors()
             );
 
-        } catch (ExcelProcessException e) {
-            throw e;
-
         } catch (Exception e) {
-            log.error("❌ ReactiveParallelReadStrategy failed: {}", e.getMessage(), e);
-            throw new ExcelProcessException("Reactive parallel processing failed", e);
+            pipelineFailure.compareAndSet(null, e);
+            parsing.cancel(true);
+            parseMetrics.queued.addAndGet(-handoff.drainTo(new ArrayList<>()));
+
+            Throwable cause = unwrap(e);
+            String errorMsg = String.format(
+                "❌ Pipelined processing failed after %d batches: %s",
+                processedBatches.get(), cause.getMessage());
+            log.error(errorMsg, cause);
+            throw new ExcelProcessException(errorMsg, cause);
+        }
+    }
+
+    /**
+     * Put batch into the handoff queue, blocking while full; aborts parsing if downstream failed
+     *
+     * The exception thrown here ends the SAX parse (TrueStreamingSAXProcessor stops on a failed
+     * batch) - cancelling the parsing future alone would not interrupt it.
+     */
+    private void handOff(BlockingQueue<List<T>> handoff, List<T> batch, AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                if (failure != null && failure.get() != null) {
+                    throw new RuntimeException("Pipeline aborted downstream", failure.get());
+                }
+                if (handoff.offer(batch, HANDOFF_POLL_MS, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            }
+            parseMetrics.queued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while handing off batch", e);
         }
     }
 
+    /**
+     * Take next batch, surfacing parser failures instead of waiting forever
+     */
+    private List<T> takeNext(BlockingQueue<List<T>> handoff,
+                             CompletableFuture<TrueStreamingSAXProcessor.ProcessingResult> parsing) {
+        try {
+            while (true) {
+                List<T> batch = handoff.poll(HANDOFF_POLL_MS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    return batch;
+                }
+                if (parsing.isCompletedExceptionally()) {
+                    parsing.join(); // throws the parser failure
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for parsed batch", e);
+        }
+    }
+
+    private Throwable unwrap(Throwable e) {
+        Throwable current = Exceptions.unwrap(e);
+        while (current.getCause() != null
+               && (current instanceof CompletionException || current.getClass() == RuntimeException.class)) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
     /**
      * Calculate optimal max concurrent batches based on system resources
      *
@@ -309,4 +373,42 @@ public class ReactiveParallelReadStrategy<T> implements ReadStrategy<T> {
         // Higher priority than standard ParallelReadStrategy
         return 15;
     }
+
+    /**
+     * Per-stage counters shared by all concurrent executions of this strategy
+     */
+    private static class StageMetrics {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder records = new LongAdder();
+        private long lastSampleCount;
+        private long lastSampleNanos = System.nanoTime();
+
+        void register(MeterRegistry registry, String stage) {
+            Gauge.builder("excel.pipeline.queue.depth", queued, AtomicInteger::get)
+                .tag("stage", stage)
+                .description("Batches waiting for or inside the pipeline stage")
+                .register(registry);
+
+            Gauge.builder("excel.pipeline.throughput", this, StageMetrics::sampleThroughput)
+                .tag("stage", stage)
+                .description("Records/sec completed by the pipeline stage since the previous sample")
+                .baseUnit("records/s")
+                .register(registry);
+
+            FunctionCounter.builder("excel.pipeline.records", records, LongAdder::sum)
+                .tag("stage", stage)
+                .description("Records completed by the pipeline stage")
+                .register(registry);
+        }
+
+        synchronized double sampleThroughput() {
+            long now = System.nanoTime();
+            long count = records.sum();
+            double seconds = (now - lastSampleNanos) / 1_000_000_000d;
+            double rate = seconds > 0 ? (count - lastSampleCount) / seconds : 0d;
+            lastSampleCount = count;
+            lastSampleNanos = now;
+            return rate;
+        }
+    }
 }
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * SXSSF write strategy for medium-to-large Excel files
@@ -54,6 +55,10 @@ public class SXSSFWriteStrategy<T> implements WriteStrategy<T> {
     private static final int MAX_RECORDS = 2_000_000;
     private static final long MIN_CELLS = 1_000_000L;
     private static final long MAX_CELLS = 5_000_000L;
+    private static final int MAX_SHEET_ROWS = 1_048_575; // .xlsx limit minus the header row
+
+    // Window for cursor-fed writes (row count unknown up front, keep the heap footprint small)
+    private static final int STREAMING_WINDOW_SIZE = 100;
 
     /**
      * Execute write using SXSSF (streaming) workbook
@@ -94,6 +99,44 @@ public class SXSSFWriteStrategy<T> implements WriteStrategy<T> {
         }
     }
 
+    /**
+     * Execute write using SXSSF, pulling rows lazily from the stream
+     *
+     * Only the SXSSF window of rows is on the heap at any time; earlier rows are
+     * already flushed to the temp sheet, later rows are still in the cursor.
+     *
+     * @param fileName Output file name (e.g., "output.xlsx")
+     * @param rows Rows to write (consumed once, closed by the caller)
+     * @param beanClass Row type
+     * @param config Excel configuration
+     * @return Number of rows written
+     * @throws ExcelProcessException if writing fails
+     */
+    @Override
+    public long executeStreaming(String fileName, Stream<T> rows, Class<T> beanClass, ExcelConfig config)
+            throws ExcelProcessException {
+        int windowSize = config.getSxssfRowAccessWindowSize() > 0
+            ? config.getSxssfRowAccessWindowSize()
+            : STREAMING_WINDOW_SIZE;
+        log.debug("Executing SXSSFWriteStrategy (streaming, window={}) to {}", windowSize, fileName);
+
+        try {
+            long written = writeHelper.writeToFileSXSSF(fileName, rows.iterator(), beanClass, 0, 0, windowSize);
+
+            log.info("SXSSFWriteStrategy completed: {} records streamed to {}", written, fileName);
+            return written;
+
+        } catch (Exception e) {
+            log.error("SXSSFWriteStrategy streaming write failed for file: {}", fileName, e);
+            throw new ExcelProcessException("Failed to stream Excel file with SXSSF strategy", e);
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
     /**
      * Calculate optimal window size for SXSSF based on data size
      */
@@ -149,6 +192,14 @@ public class SXSSFWriteStrategy<T> implements WriteStrategy<T> {
         return supported;
     }
 
+    /**
+     * Any size that fits in one .xlsx sheet (header row + 1,048,575 data rows)
+     */
+    @Override
+    public boolean canHandle(int dataSize, long cellCount, ExcelConfig config) {
+        return dataSize <= MAX_SHEET_ROWS;
+    }
+
     /**
      * Get strategy name for logging and debugging
      *
@@ -168,6 +219,7 @@ public class SXSSFWriteStrategy<T> implements WriteStrategy<T> {
      * Priority ordering:
      * - 0: Default/fallback strategy
      * - 10: SXSSFWriteStrategy (medium files)
+     * - 12: OoxmlWriteStrategy (medium files, direct XML)
      * - 15: CSVWriteStrategy (large files)
      * - 20: XSSFWriteStrategy (small files)
      *
@@ -4,11 +4,13 @@ import com.neobrutalism.crm.application.excel.strategy.ReadStrategy;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
 import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
+import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.WorkbookSource;
 import com.neobrutalism.crm.utils.validation.ValidationRule;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
@@ -68,6 +70,28 @@ public class StreamingReadStrategy<T> implements ReadStrategy<T> {
         Class<T> beanClass,
         ExcelConfig config,
         Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        return execute(WorkbookSource.of(inputStream), beanClass, config, batchProcessor);
+    }
+
+    /**
+     * Execute streaming read on a workbook on disk (file-backed OPCPackage, nothing buffered)
+     */
+    @Override
+    public TrueStreamingSAXProcessor.ProcessingResult execute(
+        Path excelFile,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
+    ) throws ExcelProcessException {
+        return execute(WorkbookSource.of(excelFile), beanClass, config, batchProcessor);
+    }
+
+    private TrueStreamingSAXProcessor.ProcessingResult execute(
+        WorkbookSource source,
+        Class<T> beanClass,
+        ExcelConfig config,
+        Consumer<List<T>> batchProcessor
     ) throws ExcelProcessException {
         log.debug("Executing StreamingReadStrategy for class: {}", beanClass.getSimpleName());
 
@@ -84,7 +108,7 @@ public class StreamingReadStrategy<T> implements ReadStrategy<T> {
             );
             
             // Process Excel with true streaming
-            TrueStreamingSAXProcessor.ProcessingResult result = processor.processExcelStreamTrue(inputStream);
+            TrueStreamingSAXProcessor.ProcessingResult result = source.processWith(processor);
             
             log.info("StreamingReadStrategy completed: {} records in {} ms ({} rec/sec)",
                     result.getProcessedRecords(),
@@ -50,6 +50,7 @@ public class XSSFWriteStrategy<T> implements WriteStrategy<T> {
     // Thresholds for XSSF strategy selection
     private static final int MAX_RECORDS = 50_000;
     private static final long MAX_CELLS = 1_000_000L;
+    private static final int MAX_SHEET_ROWS = 1_048_575; // .xlsx limit minus the header row
 
     /**
      * Execute write using XSSF (standard) workbook
@@ -118,6 +119,15 @@ public class XSSFWriteStrategy<T> implements WriteStrategy<T> {
         return supported;
     }
 
+    /**
+     * Sizes that fit in one .xlsx sheet (header row + 1,048,575 data rows) and stay within
+     * MAX_CELLS: the whole workbook is built in heap, so larger writes are never candidates
+     */
+    @Override
+    public boolean canHandle(int dataSize, long cellCount, ExcelConfig config) {
+        return dataSize <= MAX_SHEET_ROWS && cellCount <= MAX_CELLS;
+    }
+
     /**
      * Get strategy name for logging and debugging
      *
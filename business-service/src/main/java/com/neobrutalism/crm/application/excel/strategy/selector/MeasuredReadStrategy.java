@@ -0,0 +1,131 @@
+package com.neobrutalism.crm.application.excel.strategy.selector;
+
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor;
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor.Workload;
+import com.neobrutalism.crm.application.excel.monitoring.MemoryMonitor;
+import com.neobrutalism.crm.application.excel.strategy.ReadStrategy;
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry.Kind;
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry.Sample;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.exception.ExcelProcessException;
+import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * ReadStrategy decorator that records each successful execution in the StrategyPerformanceRegistry
+ *
+ * Input bytes are counted on the way through (file size for a workbook on disk), so bytes/sec is
+ * measured on the compressed workbook.
+ * Executions run under an ExcelMemoryGovernor permit sized on the rows in flight (a streaming read
+ * never holds the whole file), and batches are throttled under heap pressure.
+ */
+final class MeasuredReadStrategy<T> implements ReadStrategy<T> {
+
+    private final ReadStrategy<T> delegate;
+    private final StrategyPerformanceRegistry registry;
+    private final MemoryMonitor memoryMonitor;
+    private final ExcelMemoryGovernor memoryGovernor;
+
+    MeasuredReadStrategy(ReadStrategy<T> delegate, StrategyPerformanceRegistry registry,
+                         MemoryMonitor memoryMonitor, ExcelMemoryGovernor memoryGovernor) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.memoryMonitor = memoryMonitor;
+        this.memoryGovernor = memoryGovernor;
+    }
+
+    @Override
+    public TrueStreamingSAXProcessor.ProcessingResult execute(InputStream inputStream, Class<T> beanClass,
+                                                              ExcelConfig config, Consumer<List<T>> batchProcessor)
+            throws ExcelProcessException {
+        CountingInputStream counting = new CountingInputStream(inputStream);
+        return measure(beanClass, config, batchProcessor,
+                       throttled -> delegate.execute(counting, beanClass, config, throttled),
+                       counting::getByteCount);
+    }
+
+    @Override
+    public TrueStreamingSAXProcessor.ProcessingResult execute(Path excelFile, Class<T> beanClass,
+                                                              ExcelConfig config, Consumer<List<T>> batchProcessor)
+            throws ExcelProcessException {
+        return measure(beanClass, config, batchProcessor,
+                       throttled -> delegate.execute(excelFile, beanClass, config, throttled),
+                       () -> fileSize(excelFile));
+    }
+
+    private TrueStreamingSAXProcessor.ProcessingResult measure(
+            Class<T> beanClass, ExcelConfig config, Consumer<List<T>> batchProcessor,
+            Function<Consumer<List<T>>, TrueStreamingSAXProcessor.ProcessingResult> read,
+            LongSupplier bytesRead) throws ExcelProcessException {
+        String jobId = "strategy-" + UUID.randomUUID();
+        try (ExcelMemoryGovernor.Permit permit = acquirePermit(jobId, beanClass, config)) {
+            memoryMonitor.startMonitoring(jobId);
+            long start = System.nanoTime();
+
+            TrueStreamingSAXProcessor.ProcessingResult result;
+            try {
+                result = read.apply(memoryGovernor.throttled(batchProcessor));
+            } catch (RuntimeException e) {
+                memoryMonitor.stopMonitoring(jobId);
+                throw e;
+            }
+
+            long nanos = System.nanoTime() - start;
+            permit.recordProcessedRows(result.getProcessedRecords());
+            MemoryMonitor.MemorySummary memory = memoryMonitor.stopMonitoring(jobId);
+            long peakHeapMB = memory != null ? Math.max(0, memory.getPeakMemoryMB() - memory.getStartMemoryMB()) : 0;
+            registry.record(Kind.READ, delegate.getName(),
+                            new Sample(result.getProcessedRecords(), 0, bytesRead.getAsLong(), nanos, peakHeapMB, Instant.now()));
+            return result;
+        }
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Rows in flight: one batch per worker plus one being delivered
+     */
+    private ExcelMemoryGovernor.Permit acquirePermit(String jobId, Class<T> beanClass, ExcelConfig config)
+            throws ExcelProcessException {
+        int workers = config.isParallelProcessing() ? Math.max(1, config.getThreadPoolSize()) : 1;
+        long inFlightRows = (long) config.getBatchSize() * (workers + 1);
+        try {
+            return memoryGovernor.acquire(Workload.READ, jobId, beanClass, inFlightRows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelProcessException("Interrupted while waiting for memory to read " + beanClass.getSimpleName(), e);
+        }
+    }
+
+    @Override
+    public boolean supports(ExcelConfig config) {
+        return delegate.supports(config);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public int getPriority() {
+        return delegate.getPriority();
+    }
+}
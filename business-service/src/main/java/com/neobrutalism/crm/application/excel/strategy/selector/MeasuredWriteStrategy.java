@@ -0,0 +1,152 @@
+package com.neobrutalism.crm.application.excel.strategy.selector;
+
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor;
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor.Workload;
+import com.neobrutalism.crm.application.excel.monitoring.MemoryMonitor;
+import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry.Kind;
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry.Sample;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.exception.ExcelProcessException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * WriteStrategy decorator that records each successful execution in the StrategyPerformanceRegistry
+ *
+ * Executions run under an ExcelMemoryGovernor permit sized on the rows to write. Everything else
+ * is delegated, so callers see the selected strategy's name and behaviour.
+ */
+final class MeasuredWriteStrategy<T> implements WriteStrategy<T> {
+
+    private final WriteStrategy<T> delegate;
+    private final StrategyPerformanceRegistry registry;
+    private final MemoryMonitor memoryMonitor;
+    private final ExcelMemoryGovernor memoryGovernor;
+    private final int columns;
+
+    /**
+     * @param columns Columns per row used to turn written rows into cells
+     */
+    MeasuredWriteStrategy(WriteStrategy<T> delegate, StrategyPerformanceRegistry registry,
+                          MemoryMonitor memoryMonitor, ExcelMemoryGovernor memoryGovernor, int columns) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.memoryMonitor = memoryMonitor;
+        this.memoryGovernor = memoryGovernor;
+        this.columns = columns;
+    }
+
+    @Override
+    public void execute(String fileName, List<T> data, ExcelConfig config) throws ExcelProcessException {
+        Class<?> beanClass = data.isEmpty() ? Object.class : data.get(0).getClass();
+        try (ExcelMemoryGovernor.Permit permit = acquirePermit(fileName, beanClass, data.size())) {
+            String jobId = startJob();
+            long start = System.nanoTime();
+            try {
+                delegate.execute(fileName, data, config);
+            } catch (RuntimeException e) {
+                memoryMonitor.stopMonitoring(jobId);
+                throw e;
+            }
+            permit.recordProcessedRows(data.size());
+            record(jobId, start, fileName, data.size());
+        }
+    }
+
+    @Override
+    public long executeStreaming(String fileName, Stream<T> rows, Class<T> beanClass, ExcelConfig config)
+            throws ExcelProcessException {
+        // A cursor is written through a bounded window: reserve for one flush batch, not the row count
+        long windowRows = Math.max(config.getBatchSize(), config.getFlushInterval());
+        try (ExcelMemoryGovernor.Permit permit = acquirePermit(fileName, beanClass, windowRows)) {
+            String jobId = startJob();
+            long start = System.nanoTime();
+            long written;
+            try {
+                written = delegate.executeStreaming(fileName, rows, beanClass, config);
+            } catch (RuntimeException e) {
+                memoryMonitor.stopMonitoring(jobId);
+                throw e;
+            }
+            permit.recordProcessedRows(written);
+            record(jobId, start, fileName, written);
+            return written;
+        }
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return delegate.supportsStreaming();
+    }
+
+    @Override
+    public boolean supports(int dataSize, long cellCount, ExcelConfig config) {
+        return delegate.supports(dataSize, cellCount, config);
+    }
+
+    @Override
+    public boolean canHandle(int dataSize, long cellCount, ExcelConfig config) {
+        return delegate.canHandle(dataSize, cellCount, config);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public int getPriority() {
+        return delegate.getPriority();
+    }
+
+    @Override
+    public long estimateProcessingTime(int dataSize) {
+        return delegate.estimateProcessingTime(dataSize);
+    }
+
+    private ExcelMemoryGovernor.Permit acquirePermit(String fileName, Class<?> beanClass, long rows)
+            throws ExcelProcessException {
+        try {
+            return memoryGovernor.acquire(Workload.WRITE, fileName, beanClass, rows);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelProcessException("Interrupted while waiting for memory to write " + fileName, e);
+        }
+    }
+
+    private String startJob() {
+        String jobId = "strategy-" + UUID.randomUUID();
+        memoryMonitor.startMonitoring(jobId);
+        return jobId;
+    }
+
+    private void record(String jobId, long start, String fileName, long rows) {
+        long nanos = System.nanoTime() - start;
+        MemoryMonitor.MemorySummary memory = memoryMonitor.stopMonitoring(jobId);
+        long peakHeapMB = memory != null ? Math.max(0, memory.getPeakMemoryMB() - memory.getStartMemoryMB()) : 0;
+        registry.record(Kind.WRITE, delegate.getName(),
+                        new Sample(rows, rows * columns, outputBytes(fileName), nanos, peakHeapMB, Instant.now()));
+    }
+
+    /**
+     * Size of the written file; CSV output is renamed from .xlsx/.xls to .csv by the strategy
+     */
+    private static long outputBytes(String fileName) {
+        try {
+            Path file = Path.of(fileName);
+            if (!Files.exists(file)) {
+                file = Path.of(fileName.replaceAll("\\.(xlsx|xls)$", ".csv"));
+            }
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+}
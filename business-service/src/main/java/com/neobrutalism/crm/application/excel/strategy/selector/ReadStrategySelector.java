@@ -1,6 +1,9 @@
 package com.neobrutalism.crm.application.excel.strategy.selector;
 
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor;
+import com.neobrutalism.crm.application.excel.monitoring.MemoryMonitor;
 import com.neobrutalism.crm.application.excel.strategy.ReadStrategy;
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry.Kind;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +11,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Selector for automatic read strategy selection
@@ -28,6 +33,12 @@ import java.util.List;
  * - Priority 10: ParallelReadStrategy (when parallel enabled)
  * - Priority 0: StreamingReadStrategy (always available fallback)
  *
+ * Adaptive mode (config.adaptiveStrategySelection):
+ * A read has no size before it starts, so supported strategies are ranked by
+ * StrategyPerformanceRegistry on measured bytes/sec, excluding those whose p90 peak heap
+ * does not fit the current headroom. Multi-sheet reads stay static. Selected strategies are
+ * always returned wrapped so each execution is measured.
+ *
  * Example usage:
  * <pre>
  * ReadStrategy<User> strategy = readStrategySelector.selectStrategy(config);
@@ -46,6 +57,9 @@ public class ReadStrategySelector {
 
     // Spring automatically injects all ReadStrategy implementations
     private final List<ReadStrategy<?>> strategies;
+    private final StrategyPerformanceRegistry performanceRegistry;
+    private final MemoryMonitor memoryMonitor;
+    private final ExcelMemoryGovernor memoryGovernor;
 
     /**
      * Select the best read strategy for the given configuration
@@ -74,7 +88,7 @@ public class ReadStrategySelector {
         if (supportedStrategies.isEmpty()) {
             // This should never happen since StreamingReadStrategy always supports any config
             log.error("No read strategy found for config! Using first available strategy as fallback.");
-            return (ReadStrategy<T>) strategies.get(0);
+            return new MeasuredReadStrategy<>((ReadStrategy<T>) strategies.get(0), performanceRegistry, memoryMonitor, memoryGovernor);
         }
 
         // Select the highest priority strategy
@@ -86,7 +100,20 @@ public class ReadStrategySelector {
                 supportedStrategies.size(),
                 strategies.size());
 
-        return (ReadStrategy<T>) selected;
+        boolean multiSheet = config.isReadAllSheets()
+            || (config.getSheetNames() != null && config.getSheetNames().size() > 1);
+        if (config.isAdaptiveStrategySelection() && !multiSheet && supportedStrategies.size() > 1) {
+            List<String> candidates = supportedStrategies.stream().map(ReadStrategy::getName).toList();
+            Set<String> staticallySupported = candidates.stream().collect(Collectors.toSet());
+            String chosen = performanceRegistry.choose(Kind.READ, candidates, staticallySupported,
+                                                       selected.getName(), 0, 0);
+            selected = supportedStrategies.stream()
+                .filter(strategy -> strategy.getName().equals(chosen))
+                .findFirst()
+                .orElse(selected);
+        }
+
+        return new MeasuredReadStrategy<>((ReadStrategy<T>) selected, performanceRegistry, memoryMonitor, memoryGovernor);
     }
 
     /**
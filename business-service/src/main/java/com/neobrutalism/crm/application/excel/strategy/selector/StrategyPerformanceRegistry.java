@@ -0,0 +1,314 @@
+package com.neobrutalism.crm.application.excel.strategy.selector;
+
+import com.neobrutalism.crm.application.excel.monitoring.MemoryMonitor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measured performance of every read / write strategy, and the adaptive choice built on it
+ *
+ * Each completed execution is recorded as a sample (rows, cells, bytes, wall time, peak heap
+ * growth from MemoryMonitor) in a rolling window per strategy, so old hardware / data shapes age
+ * out. Samples are bucketed by size band (floor(log2(cells))); a prediction for a write uses the
+ * samples of the same band and its two neighbours:
+ * - latency: cells / median(cells per second)
+ * - peak heap: cells * p90(heap MB per cell)
+ *
+ * choose() picks the candidate with the lowest predicted latency whose predicted peak fits in the
+ * current heap headroom (80% of max - used). A candidate with fewer than MIN_SAMPLES samples in
+ * the band has no trusted prediction: the static choice is taken while it warms up, and other
+ * candidates are tried with probability excel.strategy.adaptive.exploration-rate, only when their
+ * heap extrapolated from other bands fits (or the static thresholds already allow them).
+ *
+ * A heap prediction needs MIN_SAMPLES samples and a non-zero p90; otherwise it is unknown (-1) and
+ * the candidate only fits the headroom when the static thresholds allow it - a zero reading (GC
+ * during the run, sampling missed the peak) must not make an untested strategy look free.
+ *
+ * Reads are not sized before they start (a stream has no row count), so they are ranked on bytes
+ * per second over all samples and their heap prediction is the p90 absolute peak growth.
+ *
+ * Heap growth is measured on the whole JVM: concurrent jobs inflate each other's samples, which
+ * errs on the safe side. The last DECISION_HISTORY decisions are kept for the actuator endpoint.
+ */
+@Slf4j
+@Component
+public class StrategyPerformanceRegistry {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int MIN_SAMPLES = 5;
+    private static final int DECISION_HISTORY = 50;
+    private static final double HEADROOM_SAFETY_FACTOR = 0.8;
+
+    public enum Kind { READ, WRITE }
+
+    /**
+     * One completed execution
+     *
+     * @param cells Rows x columns for writes, 0 for reads
+     * @param bytes Output file size (writes) or input bytes consumed (reads)
+     * @param peakHeapMB Peak heap growth over the execution
+     */
+    public record Sample(long rows, long cells, long bytes, long nanos, long peakHeapMB, Instant at) {
+
+        double rowsPerSecond() {
+            return nanos > 0 ? rows * 1e9 / nanos : 0;
+        }
+
+        double cellsPerSecond() {
+            return nanos > 0 ? cells * 1e9 / nanos : 0;
+        }
+
+        double bytesPerSecond() {
+            return nanos > 0 ? bytes * 1e9 / nanos : 0;
+        }
+
+        double heapMBPerCell() {
+            return cells > 0 ? (double) peakHeapMB / cells : 0;
+        }
+    }
+
+    /**
+     * Prediction for one candidate at decision time
+     *
+     * @param samples Samples the prediction is based on (band samples for writes, all for reads)
+     * @param predictedMillis Predicted latency, -1 if unknown (reads, or not enough samples)
+     * @param predictedPeakHeapMB Predicted peak heap growth, -1 if unknown (under-sampled or zero)
+     * @param fitsHeadroom Predicted peak fits the headroom; when unknown, whether statically supported
+     */
+    public record Prediction(String strategy, boolean staticallySupported, int samples,
+                             double rowsPerSecond, double bytesPerSecond,
+                             long predictedMillis, long predictedPeakHeapMB, boolean fitsHeadroom) {
+
+        boolean trusted() {
+            return samples >= MIN_SAMPLES;
+        }
+    }
+
+    public record Decision(Instant at, Kind kind, long rows, long cells, long headroomMB,
+                           String staticChoice, String selected, String reason, List<Prediction> candidates) {
+    }
+
+    /**
+     * Summary of one strategy's window for the actuator endpoint
+     */
+    public record StrategyStats(Kind kind, String strategy, int samples,
+                                double medianRowsPerSecond, double medianBytesPerSecond, long p90PeakHeapMB) {
+    }
+
+    private record Key(Kind kind, String strategy) {
+    }
+
+    private final MemoryMonitor memoryMonitor;
+    private final double explorationRate;
+    private final Map<Key, SampleWindow> windows = new ConcurrentHashMap<>();
+    private final Deque<Decision> decisions = new ArrayDeque<>();
+
+    public StrategyPerformanceRegistry(MemoryMonitor memoryMonitor,
+                                       @Value("${excel.strategy.adaptive.exploration-rate:0.05}") double explorationRate) {
+        this.memoryMonitor = memoryMonitor;
+        this.explorationRate = explorationRate;
+    }
+
+    public void record(Kind kind, String strategy, Sample sample) {
+        windows.computeIfAbsent(new Key(kind, strategy), key -> new SampleWindow()).add(sample);
+        log.debug("[Strategy] {} {} rows={} cells={} bytes={} {}ms peakHeap=+{}MB",
+                 kind, strategy, sample.rows(), sample.cells(), sample.bytes(),
+                 sample.nanos() / 1_000_000, sample.peakHeapMB());
+    }
+
+    /**
+     * Choose among candidates by predicted latency within the heap headroom
+     *
+     * @param candidates Strategies able to run this job (static thresholds aside)
+     * @param staticallySupported Names the static thresholds would allow
+     * @param staticChoice What the static priority selection picked
+     * @param rows Rows to write (0 for reads)
+     * @param cells Cells to write (0 for reads)
+     * @return Name of the chosen strategy
+     */
+    public String choose(Kind kind, List<String> candidates, Set<String> staticallySupported,
+                         String staticChoice, long rows, long cells) {
+        long headroomMB = (long) (memoryMonitor.getHeadroomMB() * HEADROOM_SAFETY_FACTOR);
+        List<Prediction> predictions = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            predictions.add(predict(kind, candidate, staticallySupported.contains(candidate), cells, headroomMB));
+        }
+
+        String selected;
+        String reason;
+        Prediction staticPrediction = predictions.stream()
+            .filter(p -> p.strategy().equals(staticChoice))
+            .findFirst()
+            .orElse(null);
+        List<Prediction> explorable = predictions.stream()
+            .filter(p -> !p.trusted() && !p.strategy().equals(staticChoice))
+            .filter(Prediction::fitsHeadroom)
+            .toList();
+        List<Prediction> measured = predictions.stream()
+            .filter(Prediction::trusted)
+            .filter(Prediction::fitsHeadroom)
+            .filter(p -> kind == Kind.READ || p.predictedMillis() >= 0)
+            .toList();
+
+        if (staticPrediction != null && !staticPrediction.trusted()) {
+            selected = staticChoice;
+            reason = "warming up static choice (" + staticPrediction.samples() + "/" + MIN_SAMPLES + " samples)";
+        } else if (!explorable.isEmpty() && ThreadLocalRandom.current().nextDouble() < explorationRate) {
+            selected = explorable.get(ThreadLocalRandom.current().nextInt(explorable.size())).strategy();
+            reason = "exploring under-sampled candidate";
+        } else if (!measured.isEmpty()) {
+            Prediction best = measured.stream().min(costOrder(kind)).get();
+            selected = best.strategy();
+            reason = kind == Kind.WRITE
+                ? "lowest predicted latency (" + best.predictedMillis() + " ms)"
+                : "highest measured throughput (" + Math.round(best.bytesPerSecond()) + " B/s)";
+        } else {
+            Prediction leanest = predictions.stream()
+                .filter(p -> p.predictedPeakHeapMB() >= 0)
+                .min(Comparator.comparingLong(Prediction::predictedPeakHeapMB))
+                .orElse(null);
+            selected = leanest != null ? leanest.strategy() : staticChoice;
+            reason = leanest != null
+                ? "no measured candidate fits " + headroomMB + "MB headroom, lowest predicted heap"
+                : "no measurements, static choice";
+        }
+
+        Decision decision = new Decision(Instant.now(), kind, rows, cells, headroomMB,
+                                         staticChoice, selected, reason, List.copyOf(predictions));
+        synchronized (decisions) {
+            if (decisions.size() == DECISION_HISTORY) {
+                decisions.removeFirst();
+            }
+            decisions.addLast(decision);
+        }
+        log.info("[Strategy] Adaptive {} selection: {} ({}; static={}, rows={}, cells={}, headroom={}MB)",
+                kind, selected, reason, staticChoice, rows, cells, headroomMB);
+        return selected;
+    }
+
+    /**
+     * Most recent decisions, newest first
+     */
+    public List<Decision> getDecisions() {
+        synchronized (decisions) {
+            List<Decision> recent = new ArrayList<>(decisions);
+            Collections.reverse(recent);
+            return recent;
+        }
+    }
+
+    public List<StrategyStats> getStats() {
+        List<StrategyStats> stats = new ArrayList<>();
+        windows.forEach((key, window) -> {
+            List<Sample> samples = window.snapshot();
+            stats.add(new StrategyStats(
+                key.kind(),
+                key.strategy(),
+                samples.size(),
+                percentile(samples.stream().mapToDouble(Sample::rowsPerSecond).toArray(), 0.5),
+                percentile(samples.stream().mapToDouble(Sample::bytesPerSecond).toArray(), 0.5),
+                Math.round(percentile(samples.stream().mapToDouble(Sample::peakHeapMB).toArray(), 0.9))));
+        });
+        stats.sort(Comparator.comparing(StrategyStats::kind).thenComparing(StrategyStats::strategy));
+        return stats;
+    }
+
+    private Prediction predict(Kind kind, String strategy, boolean staticallySupported, long cells, long headroomMB) {
+        SampleWindow window = windows.get(new Key(kind, strategy));
+        List<Sample> all = window != null ? window.snapshot() : List.of();
+
+        if (kind == Kind.READ) {
+            long peakMB = all.size() < MIN_SAMPLES ? -1
+                : knownPeak(Math.round(percentile(all.stream().mapToDouble(Sample::peakHeapMB).toArray(), 0.9)));
+            return new Prediction(strategy, staticallySupported, all.size(),
+                percentile(all.stream().mapToDouble(Sample::rowsPerSecond).toArray(), 0.5),
+                percentile(all.stream().mapToDouble(Sample::bytesPerSecond).toArray(), 0.5),
+                -1, peakMB, fitsHeadroom(peakMB, headroomMB, staticallySupported));
+        }
+
+        int band = band(cells);
+        List<Sample> inBand = all.stream()
+            .filter(s -> Math.abs(band(s.cells()) - band) <= 1)
+            .toList();
+        // Heap scales with cells: fall back to every sample of the strategy for the extrapolation
+        List<Sample> heapBasis = inBand.size() >= MIN_SAMPLES ? inBand : all;
+        long peakMB = heapBasis.size() < MIN_SAMPLES ? -1
+            : knownPeak((long) Math.ceil(cells * percentile(heapBasis.stream().mapToDouble(Sample::heapMBPerCell).toArray(), 0.9)));
+
+        double cellsPerSecond = percentile(inBand.stream().mapToDouble(Sample::cellsPerSecond).toArray(), 0.5);
+        long predictedMillis = inBand.size() >= MIN_SAMPLES && cellsPerSecond > 0
+            ? Math.round(cells * 1000.0 / cellsPerSecond)
+            : -1;
+
+        return new Prediction(strategy, staticallySupported, inBand.size(),
+            percentile(inBand.stream().mapToDouble(Sample::rowsPerSecond).toArray(), 0.5),
+            percentile(inBand.stream().mapToDouble(Sample::bytesPerSecond).toArray(), 0.5),
+            predictedMillis, peakMB, fitsHeadroom(peakMB, headroomMB, staticallySupported));
+    }
+
+    /**
+     * A zero peak is a missed measurement, not a free strategy
+     */
+    private static long knownPeak(long peakMB) {
+        return peakMB > 0 ? peakMB : -1;
+    }
+
+    private static boolean fitsHeadroom(long peakMB, long headroomMB, boolean staticallySupported) {
+        return peakMB >= 0 ? peakMB <= headroomMB : staticallySupported;
+    }
+
+    private static Comparator<Prediction> costOrder(Kind kind) {
+        return kind == Kind.WRITE
+            ? Comparator.comparingLong(Prediction::predictedMillis)
+            : Comparator.comparingDouble(Prediction::bytesPerSecond).reversed();
+    }
+
+    private static int band(long cells) {
+        return 63 - Long.numberOfLeadingZeros(Math.max(1, cells));
+    }
+
+    private static double percentile(double[] values, double quantile) {
+        if (values.length == 0) {
+            return 0;
+        }
+        Arrays.sort(values);
+        return values[(int) Math.min(values.length - 1, Math.floor(quantile * values.length))];
+    }
+
+    /**
+     * Fixed-size ring of the most recent samples
+     */
+    private static final class SampleWindow {
+        private final Sample[] samples = new Sample[WINDOW_SIZE];
+        private int next;
+        private int size;
+
+        synchronized void add(Sample sample) {
+            samples[next] = sample;
+            next = (next + 1) % WINDOW_SIZE;
+            size = Math.min(size + 1, WINDOW_SIZE);
+        }
+
+        synchronized List<Sample> snapshot() {
+            List<Sample> copy = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                copy.add(samples[i]);
+            }
+            return copy;
+        }
+    }
+}
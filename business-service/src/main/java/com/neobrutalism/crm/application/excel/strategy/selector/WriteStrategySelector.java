@@ -1,6 +1,9 @@
 package com.neobrutalism.crm.application.excel.strategy.selector;
 
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor;
+import com.neobrutalism.crm.application.excel.monitoring.MemoryMonitor;
 import com.neobrutalism.crm.application.excel.strategy.WriteStrategy;
+import com.neobrutalism.crm.application.excel.strategy.selector.StrategyPerformanceRegistry.Kind;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,6 +11,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Selector for automatic write strategy selection
@@ -28,6 +33,7 @@ import java.util.List;
  * Strategy priority order:
  * - Priority 20: XSSFWriteStrategy (small files < 50K records)
  * - Priority 15: CSVWriteStrategy (very large files > 2M records)
+ * - Priority 12: OoxmlWriteStrategy (medium files 50K - 2M records, direct XML; config.useDirectOoxmlWriter)
  * - Priority 10: SXSSFWriteStrategy (medium files 50K - 2M records)
  * - Priority 0: Fallback strategy (should never be needed)
  *
@@ -36,6 +42,13 @@ import java.util.List;
  * - 1M - 5M cells: SXSSF (streaming workbook)
  * - > 5M cells: CSV (10x faster)
  *
+ * Adaptive mode (config.adaptiveStrategySelection):
+ * The static pick above becomes the baseline; every strategy that can handle the size
+ * (WriteStrategy.canHandle) is ranked by StrategyPerformanceRegistry on measured latency and
+ * peak heap for that size band, within the current heap headroom. Multi-sheet writes stay static.
+ * Selected strategies are always returned wrapped so each execution is measured, which keeps
+ * the performance table warm even while adaptive mode is off.
+ *
  * Example usage:
  * <pre>
  * WriteStrategy<User> strategy = writeStrategySelector.selectStrategy(users.size(), config);
@@ -54,10 +67,16 @@ public class WriteStrategySelector {
 
     // Spring automatically injects all WriteStrategy implementations
     private final List<WriteStrategy<?>> strategies;
+    private final StrategyPerformanceRegistry performanceRegistry;
+    private final MemoryMonitor memoryMonitor;
+    private final ExcelMemoryGovernor memoryGovernor;
 
     // Estimated columns per row for cell count calculation
     private static final int ESTIMATED_COLUMNS = 20;
 
+    // Smallest size considered for cursor-fed writes (lower bound of the SXSSF / OOXML band)
+    private static final int STREAMING_MIN_ROWS = 50_001;
+
     /**
      * Select the best write strategy for the given data and configuration
      *
@@ -93,7 +112,7 @@ public class WriteStrategySelector {
             // Fallback to first available strategy if none match
             log.warn("No write strategy found for {} records! Using first available strategy as fallback.",
                     dataSize);
-            return (WriteStrategy<T>) strategies.get(0);
+            return measured(strategies.get(0), strategies, dataSize, estimatedCellCount, config);
         }
 
         // Select the highest priority strategy
@@ -107,7 +126,7 @@ public class WriteStrategySelector {
                 dataSize,
                 estimatedCellCount);
 
-        return (WriteStrategy<T>) selected;
+        return measured(selected, strategies, dataSize, estimatedCellCount, config);
     }
 
     /**
@@ -139,7 +158,7 @@ public class WriteStrategySelector {
             // Fallback to first available strategy if none match
             log.warn("No write strategy found for {} records ({} cells)! Using first available strategy as fallback.",
                     dataSize, cellCount);
-            return (WriteStrategy<T>) strategies.get(0);
+            return measured(strategies.get(0), strategies, dataSize, cellCount, config);
         }
 
         // Select the highest priority strategy
@@ -153,7 +172,88 @@ public class WriteStrategySelector {
                 dataSize,
                 cellCount);
 
-        return (WriteStrategy<T>) selected;
+        return measured(selected, strategies, dataSize, cellCount, config);
+    }
+
+    /**
+     * Select the best write strategy for a cursor-fed (streaming) write
+     *
+     * Only strategies that pull rows lazily are considered, so the chosen strategy never
+     * materializes the cursor. The row count of a cursor is usually an estimate (COUNT query)
+     * and is only used to pick between streaming strategies (SXSSF vs CSV).
+     *
+     * @param estimatedRows Expected number of records
+     * @param config Excel configuration
+     * @param <T> Type of objects to write
+     * @return Selected streaming write strategy (never null)
+     * @throws IllegalStateException if no streaming strategy is registered
+     */
+    @SuppressWarnings("unchecked")
+    public <T> WriteStrategy<T> selectStreamingStrategy(long estimatedRows, ExcelConfig config) {
+        // A cursor is never written in memory, so size the selection at least at the streaming band
+        int dataSize = (int) Math.min(Math.max(estimatedRows, STREAMING_MIN_ROWS), Integer.MAX_VALUE);
+        long estimatedCellCount = estimateCellCount(dataSize);
+
+        List<WriteStrategy<?>> streamingStrategies = strategies.stream()
+            .filter(WriteStrategy::supportsStreaming)
+            .sorted(Comparator.<WriteStrategy<?>>comparingInt(WriteStrategy::getPriority).reversed())
+            .toList();
+
+        if (streamingStrategies.isEmpty()) {
+            throw new IllegalStateException("No streaming write strategy registered");
+        }
+
+        WriteStrategy<?> selected = streamingStrategies.stream()
+            .filter(strategy -> strategy.supports(dataSize, estimatedCellCount, config))
+            .findFirst()
+            .orElse(streamingStrategies.get(streamingStrategies.size() - 1));
+
+        log.info("Selected streaming write strategy: {} (priority={}, estimatedRows={}, cells=~{})",
+                selected.getName(),
+                selected.getPriority(),
+                estimatedRows,
+                estimatedCellCount);
+
+        return measured(selected, streamingStrategies, dataSize, estimatedCellCount, config);
+    }
+
+    /**
+     * Wrap the statically selected strategy for measurement, re-choosing it first in adaptive mode
+     *
+     * @param staticChoice Strategy picked by priority
+     * @param pool Strategies allowed for this call (all, or streaming only)
+     */
+    @SuppressWarnings("unchecked")
+    private <T> WriteStrategy<T> measured(WriteStrategy<?> staticChoice, List<WriteStrategy<?>> pool,
+                                          int dataSize, long cellCount, ExcelConfig config) {
+        WriteStrategy<?> selected = staticChoice;
+
+        boolean multiSheet = config.getSheetNames() != null && config.getSheetNames().size() > 1;
+        if (config.isAdaptiveStrategySelection() && !multiSheet) {
+            List<WriteStrategy<?>> candidates = pool.stream()
+                .filter(strategy -> strategy.canHandle(dataSize, cellCount, config))
+                .toList();
+            if (candidates.size() > 1) {
+                Set<String> staticallySupported = candidates.stream()
+                    .filter(strategy -> strategy.supports(dataSize, cellCount, config))
+                    .map(WriteStrategy::getName)
+                    .collect(Collectors.toSet());
+                String chosen = performanceRegistry.choose(
+                    Kind.WRITE,
+                    candidates.stream().map(WriteStrategy::getName).toList(),
+                    staticallySupported,
+                    staticChoice.getName(),
+                    dataSize,
+                    cellCount);
+                selected = candidates.stream()
+                    .filter(strategy -> strategy.getName().equals(chosen))
+                    .findFirst()
+                    .orElse(staticChoice);
+            }
+        }
+
+        int columns = dataSize > 0 ? (int) Math.max(1, cellCount / dataSize) : ESTIMATED_COLUMNS;
+        return new MeasuredWriteStrategy<>((WriteStrategy<T>) selected, performanceRegistry, memoryMonitor, memoryGovernor, columns);
     }
 
     /**
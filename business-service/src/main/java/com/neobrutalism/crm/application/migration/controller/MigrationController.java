@@ -17,6 +17,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -50,6 +53,10 @@ public class MigrationController {
     @Qualifier("fileUploadExecutor")
     private final ThreadPoolTaskExecutor fileUploadExecutor;
 
+    // Retry-After for uploads rejected because the migration queue is full
+    @Value("${excel.migration.retry-after-seconds:60}")
+    private long retryAfterSeconds;
+
     /**
      * Upload Excel file and start migration (Async)
      * Uses DeferredResult for async processing to prevent request timeout on large files
@@ -79,6 +86,11 @@ public class MigrationController {
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error during file processing"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Migration queue full, job marked FAILED; retry after the Retry-After header",
+            content = @Content(schema = @Schema(implementation = MigrationJob.class))
         )
     })
     @PostMapping(
@@ -125,7 +137,17 @@ public class MigrationController {
 
                 // Start migration asynchronously
                 log.info("Starting migration for job: {}", job.getId());
-                migrationService.startMigration(job.getId());
+                try {
+                    migrationService.startMigration(job.getId());
+                } catch (TaskRejectedException e) {
+                    // ✅ Queue full: fail the job instead of leaving it PENDING, client retries later
+                    log.warn("Migration queue full, rejecting job: {}", job.getId());
+                    MigrationJob rejected = migrationService.rejectMigration(job.getId(),
+                        "Migration queue is full, upload the file again later");
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                        .body(rejected);
+                }
 
                 return ResponseEntity.accepted().body(job);
 
@@ -78,6 +78,23 @@ public class MigrationSheet {
     
     @Column(name = "last_heartbeat")
     private Instant lastHeartbeat;
+
+    // Checkpoint of the last committed staging batch, written only by SheetCheckpointService (JDBC)
+    @Column(name = "checkpoint_row", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long checkpointRow = 0L;
+
+    @Column(name = "checkpoint_batch", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Integer checkpointBatch = 0;
+
+    @Column(name = "checkpoint_valid_rows", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long checkpointValidRows = 0L;
+
+    @Column(name = "checkpoint_invalid_rows", nullable = false, insertable = false, updatable = false)
+    @Builder.Default
+    private Long checkpointInvalidRows = 0L;
     
     @Column(name = "created_at", nullable = false)
     @Builder.Default
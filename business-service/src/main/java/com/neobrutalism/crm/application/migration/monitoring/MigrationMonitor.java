@@ -1,5 +1,6 @@
 package com.neobrutalism.crm.application.migration.monitoring;
 
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -29,6 +30,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class MigrationMonitor {
 
     private final MeterRegistry meterRegistry;
+    private final ExcelMemoryGovernor memoryGovernor;
     
     // Metrics storage
     private final ConcurrentHashMap<UUID, SheetMetrics> sheetMetricsMap = new ConcurrentHashMap<>();
@@ -38,10 +40,10 @@ public class MigrationMonitor {
     // Alert thresholds
     private static final long SLOW_BATCH_THRESHOLD_MS = 10_000; // 10 seconds
     private static final long HIGH_MEMORY_THRESHOLD_PERCENT = 80; // 80%
-    private static final long CRITICAL_MEMORY_THRESHOLD_PERCENT = 90; // 90%
     
-    public MigrationMonitor(MeterRegistry meterRegistry) {
+    public MigrationMonitor(MeterRegistry meterRegistry, ExcelMemoryGovernor memoryGovernor) {
         this.meterRegistry = meterRegistry;
+        this.memoryGovernor = memoryGovernor;
         registerGauges();
     }
     
@@ -149,6 +151,10 @@ public class MigrationMonitor {
     /**
      * Monitor memory usage and alert if thresholds exceeded
      * Called periodically by scheduled task
+     *
+     * Critical level is the governor's heap pressure (post-GC usage above its high-water mark),
+     * so alerts match what throttles the migration producers. No GC is forced here: the governor
+     * pauses producers and admissions until the collector catches up.
      */
     @Scheduled(fixedDelay = 5000) // Every 5 seconds
     public void monitorMemoryUsage() {
@@ -157,19 +163,16 @@ public class MigrationMonitor {
         long usedPercent = getCurrentMemoryUsagePercent();
         
         // Alert on high memory
-        if (usedPercent >= CRITICAL_MEMORY_THRESHOLD_PERCENT) {
-            log.error("🔴 CRITICAL: Memory usage at {}% ({} MB / {} MB) - OOM risk!",
-                      usedPercent, usedMemory / 1024 / 1024, maxMemory / 1024 / 1024);
-            
+        if (memoryGovernor.getPressure() == ExcelMemoryGovernor.Pressure.HIGH) {
+            log.error("🔴 CRITICAL: Post-GC memory usage at {}% ({} MB / {} MB) - Excel jobs throttled",
+                      Math.round(memoryGovernor.postGcUsageRatio() * 100),
+                      usedMemory / 1024 / 1024, maxMemory / 1024 / 1024);
+
             Counter.builder("migration.alerts.critical_memory")
                 .description("Number of critical memory alerts")
                 .register(meterRegistry)
                 .increment();
-            
-            // Suggest GC
-            System.gc();
-            log.info("Triggered System.gc() to reclaim memory");
-            
+
         } else if (usedPercent >= HIGH_MEMORY_THRESHOLD_PERCENT) {
             log.warn("⚠️ WARNING: Memory usage at {}% ({} MB / {} MB)",
                      usedPercent, usedMemory / 1024 / 1024, maxMemory / 1024 / 1024);
@@ -6,6 +6,7 @@ import com.neobrutalism.crm.application.migration.entity.StagingHSBGTap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
 import org.springframework.stereotype.Component;
 
 import jakarta.persistence.EntityManager;
@@ -15,7 +16,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * JDBC Batch Insert Helper
@@ -27,7 +30,10 @@ import java.util.List;
  * - Direct JDBC PreparedStatement batching
  * - No Hibernate overhead (dirty checking, caching, etc.)
  * - Optimized for write-heavy operations
- * - Manual commit control for better throughput
+ * - Runs in the caller's Spring transaction: nothing is committed here, so a failed
+ *   batch rolls back with the rest of the caller's work (checkpoint, error rows)
+ * - insertHopDong / insertCif / insertTap take a plain JDBC connection for callers
+ *   outside a JPA session (benchmarks, tools); they do not commit either
  */
 @Slf4j
 @Component
@@ -37,75 +43,52 @@ public class JdbcBatchInsertHelper {
     @PersistenceContext
     private EntityManager entityManager;
 
-    private static final int BATCH_COMMIT_SIZE = 500;
+    private static final int BATCH_EXECUTE_SIZE = 500;
+
+    // ========== Staging column lists (V201 schema, shared with StagingBulkLoader COPY) ==========
+    // created_at is filled by the column default
+
+    static final String HOP_DONG_COLUMNS = """
+            id, job_id, sheet_id, row_number, kho_vpbank, ma_don_vi,
+            trach_nhiem_ban_giao, so_hop_dong, ten_tap, so_luong_tap,
+            so_cif_cccd_cmt, ten_khach_hang, phan_khach_khach_hang,
+            ngay_phai_ban_giao, ngay_ban_giao, ngay_giai_ngan, ngay_den_han,
+            loai_ho_so, luong_ho_so, phan_han_cap_td,
+            ngay_du_kien_tieu_huy, san_pham, trang_thai_case_pdm, ghi_chu,
+            ma_thung, ngay_nhap_kho_vpbank, ngay_chuyen_kho_crown,
+            khu_vuc, hang, cot, tinh_trang_thung, trang_thai_thung, thoi_han_cap_td,
+            ma_dao, ma_ts, rrt_id, ma_nq, duplicate_key,
+            is_duplicate, validation_status""";
+
+    static final String CIF_COLUMNS = """
+            id, job_id, sheet_id, row_number, kho_vpbank, ma_don_vi,
+            trach_nhiem_ban_giao, so_cif, ten_khach_hang, ten_tap,
+            so_luong_tap, phan_khach_khach_hang, ngay_phai_ban_giao, ngay_ban_giao,
+            ngay_giai_ngan, loai_ho_so, luong_ho_so, phan_han_cap_td,
+            san_pham, trang_thai_case_pdm, ghi_chu, ma_nq, ma_thung,
+            ngay_nhap_kho_vpbank, ngay_chuyen_kho_crown,
+            khu_vuc, hang, cot, tinh_trang_thung, trang_thai_thung, duplicate_key,
+            is_duplicate, validation_status""";
+
+    static final String TAP_COLUMNS = """
+            id, job_id, sheet_id, row_number, kho_vpbank, ma_don_vi,
+            trach_nhiem_ban_giao, thang_phat_sinh, ten_tap, so_luong_tap,
+            ngay_phai_ban_giao, ngay_ban_giao, loai_ho_so, luong_ho_so,
+            phan_han_cap_td, ngay_du_kien_tieu_huy, san_pham, trang_thai_case_pdm,
+            ghi_chu, ma_thung, ngay_nhap_kho_vpbank, ngay_chuyen_kho_crown,
+            khu_vuc, hang, cot, tinh_trang_thung, trang_thai_thung, duplicate_key,
+            is_duplicate, validation_status""";
 
     /**
      * Batch insert for StagingHSBGHopDong
-     * Uses JDBC batch with manual commits every 500 records
+     * Uses JDBC batch, sent to the database every 500 records
      * 
      * @param records List of staging records to insert
      * @return Number of records inserted
      */
     @Transactional
     public int batchInsertHopDong(List<StagingHSBGHopDong> records) {
-        if (records.isEmpty()) {
-            return 0;
-        }
-
-        String sql = """
-            INSERT INTO staging_hsbg_hop_dong
-            (id, job_id, sheet_id, row_number, warehouse_vpbank, unit_code,
-             delivery_responsibility, contract_number, volume_name, volume_quantity,
-             customer_cif_cccd_cmt, customer_name, customer_segment,
-             required_delivery_date, delivery_date, disbursement_date, due_date,
-             document_type, document_flow, credit_term_category,
-             expected_destruction_date, product, pdm_case_status, notes,
-             box_code, vpbank_warehouse_entry_date, crown_warehouse_transfer_date,
-             area, row, column, box_condition, box_status, credit_term_months,
-             dao_code, ts_code, rrt_id, nq_code, duplicate_key,
-             validation_status, created_at, updated_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
-                    ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
-                    CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-            """;
-
-        Session session = entityManager.unwrap(Session.class);
-        final int[] insertedCount = {0};
-
-        session.doWork(connection -> {
-            connection.setAutoCommit(false);
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                int count = 0;
-
-                for (StagingHSBGHopDong record : records) {
-                    setPreparedStatementHopDong(pstmt, record);
-                    pstmt.addBatch();
-
-                    // Commit every BATCH_COMMIT_SIZE records
-                    if (++count % BATCH_COMMIT_SIZE == 0) {
-                        pstmt.executeBatch();
-                        connection.commit();
-                        insertedCount[0] += BATCH_COMMIT_SIZE;
-                        log.trace("Committed {} HopDong records", count);
-                    }
-                }
-
-                // Execute remaining records
-                int[] results = pstmt.executeBatch();
-                connection.commit();
-                insertedCount[0] += results.length;
-
-                log.debug("Batch inserted {} HopDong records using JDBC", insertedCount[0]);
-
-            } catch (SQLException e) {
-                connection.rollback();
-                log.error("Failed to batch insert HopDong records", e);
-                throw new RuntimeException("JDBC batch insert failed for HopDong", e);
-            }
-        });
-
-        return insertedCount[0];
+        return inSession("HopDong", records, connection -> insertHopDong(connection, records));
     }
 
     /**
@@ -113,125 +96,91 @@ public class JdbcBatchInsertHelper {
      */
     @Transactional
     public int batchInsertCif(List<StagingHSBGCif> records) {
-        if (records.isEmpty()) {
-            return 0;
-        }
-
-        String sql = """
-            INSERT INTO staging_hsbg_cif
-            (id, job_id, sheet_id, row_number, warehouse_vpbank, unit_code,
-             delivery_responsibility, customer_cif, customer_name, volume_name,
-             volume_quantity, customer_segment, required_delivery_date, delivery_date,
-             disbursement_date, document_type, document_flow, credit_term_category,
-             product, pdm_case_status, notes, nq_code, box_code,
-             vpbank_warehouse_entry_date, crown_warehouse_transfer_date,
-             area, row, column, box_condition, box_status, duplicate_key,
-             validation_status, created_at, updated_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
-                    ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-            """;
-
-        Session session = entityManager.unwrap(Session.class);
-        final int[] insertedCount = {0};
-
-        session.doWork(connection -> {
-            connection.setAutoCommit(false);
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                int count = 0;
-
-                for (StagingHSBGCif record : records) {
-                    setPreparedStatementCif(pstmt, record);
-                    pstmt.addBatch();
+        return inSession("Cif", records, connection -> insertCif(connection, records));
+    }
 
-                    if (++count % BATCH_COMMIT_SIZE == 0) {
-                        pstmt.executeBatch();
-                        connection.commit();
-                        insertedCount[0] += BATCH_COMMIT_SIZE;
-                        log.trace("Committed {} Cif records", count);
-                    }
-                }
+    /**
+     * Batch insert for StagingHSBGTap
+     */
+    @Transactional
+    public int batchInsertTap(List<StagingHSBGTap> records) {
+        return inSession("Tap", records, connection -> insertTap(connection, records));
+    }
 
-                int[] results = pstmt.executeBatch();
-                connection.commit();
-                insertedCount[0] += results.length;
+    // ========== Connection entry points (no commit, the caller owns the transaction) ==========
 
-                log.debug("Batch inserted {} Cif records using JDBC", insertedCount[0]);
+    public int insertHopDong(Connection connection, List<StagingHSBGHopDong> records) throws SQLException {
+        return executeBatches(connection, insertSql("staging_hsbg_hop_dong", HOP_DONG_COLUMNS),
+                              records, this::setPreparedStatementHopDong, "HopDong");
+    }
 
-            } catch (SQLException e) {
-                connection.rollback();
-                log.error("Failed to batch insert Cif records", e);
-                throw new RuntimeException("JDBC batch insert failed for Cif", e);
-            }
-        });
+    public int insertCif(Connection connection, List<StagingHSBGCif> records) throws SQLException {
+        return executeBatches(connection, insertSql("staging_hsbg_cif", CIF_COLUMNS),
+                              records, this::setPreparedStatementCif, "Cif");
+    }
 
-        return insertedCount[0];
+    public int insertTap(Connection connection, List<StagingHSBGTap> records) throws SQLException {
+        return executeBatches(connection, insertSql("staging_hsbg_tap", TAP_COLUMNS),
+                              records, this::setPreparedStatementTap, "Tap");
     }
 
     /**
-     * Batch insert for StagingHSBGTap
+     * Run an insert on the connection of the current Hibernate session
      */
-    @Transactional
-    public int batchInsertTap(List<StagingHSBGTap> records) {
+    private int inSession(String label, List<?> records, ReturningWork<Integer> work) {
         if (records.isEmpty()) {
             return 0;
         }
-
-        String sql = """
-            INSERT INTO staging_hsbg_tap
-            (id, job_id, sheet_id, row_number, warehouse_vpbank, unit_code,
-             delivery_responsibility, occurrence_month, volume_name, volume_quantity,
-             required_delivery_date, delivery_date, document_type, document_flow,
-             credit_term_category, expected_destruction_date, product, pdm_case_status,
-             notes, box_code, vpbank_warehouse_entry_date, crown_warehouse_transfer_date,
-             area, row, column, box_condition, box_status, duplicate_key,
-             validation_status, created_at, updated_at)
-            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?,
-                    ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
-            """;
-
         Session session = entityManager.unwrap(Session.class);
-        final int[] insertedCount = {0};
-
-        session.doWork(connection -> {
-            connection.setAutoCommit(false);
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                int count = 0;
+        try {
+            return session.doReturningWork(work);
+        } catch (RuntimeException e) {
+            log.error("Failed to batch insert {} records", label, e);
+            throw new RuntimeException("JDBC batch insert failed for " + label, e);
+        }
+    }
 
-                for (StagingHSBGTap record : records) {
-                    setPreparedStatementTap(pstmt, record);
-                    pstmt.addBatch();
+    private interface StatementSetter<T> {
+        void set(PreparedStatement pstmt, T record) throws SQLException;
+    }
 
-                    if (++count % BATCH_COMMIT_SIZE == 0) {
-                        pstmt.executeBatch();
-                        connection.commit();
-                        insertedCount[0] += BATCH_COMMIT_SIZE;
-                        log.trace("Committed {} Tap records", count);
-                    }
+    private static <T> int executeBatches(Connection connection, String sql, List<T> records,
+                                          StatementSetter<T> setter, String label) throws SQLException {
+        int insertedCount = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int count = 0;
+
+            for (T record : records) {
+                setter.set(pstmt, record);
+                pstmt.addBatch();
+
+                // Send every BATCH_EXECUTE_SIZE records
+                if (++count % BATCH_EXECUTE_SIZE == 0) {
+                    pstmt.executeBatch();
+                    insertedCount += BATCH_EXECUTE_SIZE;
+                    log.trace("Executed {} {} records", count, label);
                 }
-
-                int[] results = pstmt.executeBatch();
-                connection.commit();
-                insertedCount[0] += results.length;
-
-                log.debug("Batch inserted {} Tap records using JDBC", insertedCount[0]);
-
-            } catch (SQLException e) {
-                connection.rollback();
-                log.error("Failed to batch insert Tap records", e);
-                throw new RuntimeException("JDBC batch insert failed for Tap", e);
             }
-        });
 
-        return insertedCount[0];
+            // Execute remaining records
+            int[] results = pstmt.executeBatch();
+            insertedCount += results.length;
+        }
+        log.debug("Batch inserted {} {} records using JDBC", insertedCount, label);
+        return insertedCount;
+    }
+
+    private static String insertSql(String table, String columns) {
+        int columnCount = columns.split(",").length;
+        return "INSERT INTO " + table + " (" + columns + ") VALUES ("
+            + String.join(", ", Collections.nCopies(columnCount, "?")) + ")";
     }
 
     // ========== PreparedStatement Setters ==========
 
     private void setPreparedStatementHopDong(PreparedStatement pstmt, StagingHSBGHopDong record) throws SQLException {
         int idx = 1;
-        pstmt.setObject(idx++, record.getId());
+        pstmt.setObject(idx++, record.getId() != null ? record.getId() : UUID.randomUUID());
         pstmt.setObject(idx++, record.getJobId());
         pstmt.setObject(idx++, record.getSheetId());
         pstmt.setLong(idx++, record.getRowNumber());
@@ -269,12 +218,13 @@ public class JdbcBatchInsertHelper {
         pstmt.setString(idx++, record.getRrtId());
         pstmt.setString(idx++, record.getNqCode());
         pstmt.setString(idx++, record.getDuplicateKey());
+        pstmt.setBoolean(idx++, Boolean.TRUE.equals(record.getIsDuplicate()));
         pstmt.setString(idx++, record.getValidationStatus());
     }
 
     private void setPreparedStatementCif(PreparedStatement pstmt, StagingHSBGCif record) throws SQLException {
         int idx = 1;
-        pstmt.setObject(idx++, record.getId());
+        pstmt.setObject(idx++, record.getId() != null ? record.getId() : UUID.randomUUID());
         pstmt.setObject(idx++, record.getJobId());
         pstmt.setObject(idx++, record.getSheetId());
         pstmt.setLong(idx++, record.getRowNumber());
@@ -305,12 +255,13 @@ public class JdbcBatchInsertHelper {
         pstmt.setString(idx++, record.getBoxCondition());
         pstmt.setString(idx++, record.getBoxStatus());
         pstmt.setString(idx++, record.getDuplicateKey());
+        pstmt.setBoolean(idx++, Boolean.TRUE.equals(record.getIsDuplicate()));
         pstmt.setString(idx++, record.getValidationStatus());
     }
 
     private void setPreparedStatementTap(PreparedStatement pstmt, StagingHSBGTap record) throws SQLException {
         int idx = 1;
-        pstmt.setObject(idx++, record.getId());
+        pstmt.setObject(idx++, record.getId() != null ? record.getId() : UUID.randomUUID());
         pstmt.setObject(idx++, record.getJobId());
         pstmt.setObject(idx++, record.getSheetId());
         pstmt.setLong(idx++, record.getRowNumber());
@@ -338,6 +289,7 @@ public class JdbcBatchInsertHelper {
         pstmt.setString(idx++, record.getBoxCondition());
         pstmt.setString(idx++, record.getBoxStatus());
         pstmt.setString(idx++, record.getDuplicateKey());
+        pstmt.setBoolean(idx++, Boolean.TRUE.equals(record.getIsDuplicate()));
         pstmt.setString(idx++, record.getValidationStatus());
     }
 }
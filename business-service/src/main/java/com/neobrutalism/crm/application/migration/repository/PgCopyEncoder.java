@@ -0,0 +1,233 @@
+package com.neobrutalism.crm.application.migration.repository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Encoder for PostgreSQL COPY ... FROM STDIN (FORMAT text)
+ *
+ * Rows are written straight into a reusable UTF-8 byte buffer:
+ * - columns separated by TAB, rows terminated by LF
+ * - NULL written as \N
+ * - backslash, TAB, LF, CR escaped as \\, \t, \n, \r
+ *
+ * No intermediate String / CSV line is built per row.
+ */
+public final class PgCopyEncoder {
+
+    private static final byte[] NULL = {'\\', 'N'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    private byte[] buffer;
+    private int length;
+    private int rows;
+    private boolean rowStart = true;
+
+    public PgCopyEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 1024)];
+    }
+
+    public PgCopyEncoder text(String value) {
+        separator();
+        if (value == null) {
+            write(NULL);
+            return this;
+        }
+        ensure(value.length() * 3 + 2);
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> { buffer[length++] = '\\'; buffer[length++] = '\\'; }
+                case '\t' -> { buffer[length++] = '\\'; buffer[length++] = 't'; }
+                case '\n' -> { buffer[length++] = '\\'; buffer[length++] = 'n'; }
+                case '\r' -> { buffer[length++] = '\\'; buffer[length++] = 'r'; }
+                default -> {
+                    if (c < 0x80) {
+                        buffer[length++] = (byte) c;
+                    } else if (c < 0x800) {
+                        buffer[length++] = (byte) (0xC0 | (c >> 6));
+                        buffer[length++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < len
+                               && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(c, value.charAt(++i));
+                        ensure(4);
+                        buffer[length++] = (byte) (0xF0 | (cp >> 18));
+                        buffer[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                        buffer[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                        buffer[length++] = (byte) (0x80 | (cp & 0x3F));
+                    } else {
+                        buffer[length++] = (byte) (0xE0 | (c >> 12));
+                        buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        buffer[length++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    public PgCopyEncoder integer(Integer value) {
+        separator();
+        if (value == null) {
+            write(NULL);
+        } else {
+            digits(value);
+        }
+        return this;
+    }
+
+    public PgCopyEncoder bigint(Long value) {
+        separator();
+        if (value == null) {
+            write(NULL);
+        } else {
+            digits(value);
+        }
+        return this;
+    }
+
+    /**
+     * NOT NULL boolean column: null is written as false
+     */
+    public PgCopyEncoder bool(Boolean value) {
+        separator();
+        ensure(1);
+        buffer[length++] = Boolean.TRUE.equals(value) ? (byte) 't' : (byte) 'f';
+        return this;
+    }
+
+    public PgCopyEncoder date(LocalDate value) {
+        separator();
+        if (value == null) {
+            write(NULL);
+            return this;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // Rare: let LocalDate produce the extended ISO form
+            return raw(value.toString());
+        }
+        ensure(10);
+        fixed(year, 4);
+        buffer[length++] = '-';
+        fixed(value.getMonthValue(), 2);
+        buffer[length++] = '-';
+        fixed(value.getDayOfMonth(), 2);
+        return this;
+    }
+
+    public PgCopyEncoder uuid(UUID value) {
+        separator();
+        if (value == null) {
+            write(NULL);
+            return this;
+        }
+        ensure(36);
+        hex(value.getMostSignificantBits() >>> 32, 8);
+        buffer[length++] = '-';
+        hex(value.getMostSignificantBits() >>> 16, 4);
+        buffer[length++] = '-';
+        hex(value.getMostSignificantBits(), 4);
+        buffer[length++] = '-';
+        hex(value.getLeastSignificantBits() >>> 48, 4);
+        buffer[length++] = '-';
+        hex(value.getLeastSignificantBits(), 12);
+        return this;
+    }
+
+    public void endRow() {
+        ensure(1);
+        buffer[length++] = '\n';
+        rows++;
+        rowStart = true;
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public void reset() {
+        length = 0;
+        rows = 0;
+        rowStart = true;
+    }
+
+    // ========== Internal ==========
+
+    private PgCopyEncoder raw(String ascii) {
+        ensure(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            buffer[length++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    private void separator() {
+        if (rowStart) {
+            rowStart = false;
+        } else {
+            ensure(1);
+            buffer[length++] = '\t';
+        }
+    }
+
+    private void write(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void digits(long value) {
+        ensure(20);
+        if (value == Long.MIN_VALUE) {
+            raw(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        // reverse digits in place
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void fixed(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buffer[length + i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        length += width;
+    }
+
+    private void hex(long value, int nibbles) {
+        for (int i = nibbles - 1; i >= 0; i--) {
+            buffer[length + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        length += nibbles;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.neobrutalism.crm.application.migration.repository;
+
+import com.neobrutalism.crm.application.migration.entity.StagingHSBGCif;
+import com.neobrutalism.crm.application.migration.entity.StagingHSBGHopDong;
+import com.neobrutalism.crm.application.migration.entity.StagingHSBGTap;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Staging Bulk Loader
+ *
+ * Loads staging_hsbg_hop_dong / staging_hsbg_cif / staging_hsbg_tap with PostgreSQL COPY
+ * (text format) when the datasource is PostgreSQL, and falls back to JdbcBatchInsertHelper
+ * (multi-row INSERT batches) on other databases such as H2.
+ *
+ * COPY path:
+ * - Each staging row is encoded into a byte buffer as soon as it is added (no entity list kept)
+ * - One COPY ... FROM STDIN round trip per batch instead of ~40 bind parameters per row
+ * - Column lists shared with JdbcBatchInsertHelper so both paths write the same columns
+ *
+ * Usage:
+ * <pre>
+ * StagingBatch&lt;StagingHSBGHopDong&gt; batch = stagingBulkLoader.hopDongBatch(1000);
+ * for (...) batch.add(staging);
+ * batch.load();
+ * </pre>
+ */
+@Slf4j
+@Component
+public class StagingBulkLoader {
+
+    private static final String COPY_SQL = "COPY %s (%s) FROM STDIN (FORMAT text)";
+
+    private final DataSource dataSource;
+    private final JdbcBatchInsertHelper jdbcBatchInsertHelper;
+    private final boolean copyEnabled;
+
+    private volatile Boolean copySupported;
+
+    public StagingBulkLoader(DataSource dataSource,
+                             JdbcBatchInsertHelper jdbcBatchInsertHelper,
+                             @Value("${migration.staging.copy-enabled:true}") boolean copyEnabled) {
+        this.dataSource = dataSource;
+        this.jdbcBatchInsertHelper = jdbcBatchInsertHelper;
+        this.copyEnabled = copyEnabled;
+    }
+
+    /**
+     * Batch of staging rows loaded with a single COPY (PostgreSQL) or JDBC batch (fallback)
+     */
+    public interface StagingBatch<T> {
+        void add(T record);
+
+        int size();
+
+        /**
+         * Write buffered rows to the staging table and reset the batch
+         *
+         * @return Number of rows inserted
+         */
+        int load();
+    }
+
+    public StagingBatch<StagingHSBGHopDong> hopDongBatch(int expectedRows) {
+        return isCopySupported()
+            ? new CopyBatch<>("staging_hsbg_hop_dong", JdbcBatchInsertHelper.HOP_DONG_COLUMNS,
+                              StagingBulkLoader::encodeHopDong, expectedRows)
+            : new JdbcBatch<>(jdbcBatchInsertHelper::batchInsertHopDong, expectedRows);
+    }
+
+    public StagingBatch<StagingHSBGCif> cifBatch(int expectedRows) {
+        return isCopySupported()
+            ? new CopyBatch<>("staging_hsbg_cif", JdbcBatchInsertHelper.CIF_COLUMNS,
+                              StagingBulkLoader::encodeCif, expectedRows)
+            : new JdbcBatch<>(jdbcBatchInsertHelper::batchInsertCif, expectedRows);
+    }
+
+    public StagingBatch<StagingHSBGTap> tapBatch(int expectedRows) {
+        return isCopySupported()
+            ? new CopyBatch<>("staging_hsbg_tap", JdbcBatchInsertHelper.TAP_COLUMNS,
+                              StagingBulkLoader::encodeTap, expectedRows)
+            : new JdbcBatch<>(jdbcBatchInsertHelper::batchInsertTap, expectedRows);
+    }
+
+    /**
+     * Check (once) whether the datasource is PostgreSQL and COPY is enabled
+     */
+    public boolean isCopySupported() {
+        Boolean supported = copySupported;
+        if (supported == null) {
+            supported = copyEnabled && detectPostgres();
+            copySupported = supported;
+            log.info("Staging bulk loader: {}", supported ? "PostgreSQL COPY" : "JDBC batch INSERT (fallback)");
+        }
+        return supported;
+    }
+
+    private boolean detectPostgres() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException e) {
+            log.warn("Could not detect database type, using JDBC batch insert: {}", e.getMessage());
+            return false;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Execute COPY with the encoded buffer
+     * Participates in the current Spring transaction if any, otherwise COPY commits on its own
+     */
+    private long copy(String sql, PgCopyEncoder encoder) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            copyIn.writeToCopy(encoder.buffer(), 0, encoder.length());
+            return copyIn.endCopy();
+        } catch (SQLException e) {
+            if (copyIn != null && copyIn.isActive()) {
+                try {
+                    copyIn.cancelCopy();
+                } catch (SQLException cancelError) {
+                    e.addSuppressed(cancelError);
+                }
+            }
+            throw new RuntimeException("COPY failed: " + sql, e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    // ========== Batch implementations ==========
+
+    private class CopyBatch<T> implements StagingBatch<T> {
+        private final String sql;
+        private final String table;
+        private final BiConsumer<PgCopyEncoder, T> rowEncoder;
+        private final PgCopyEncoder encoder;
+
+        CopyBatch(String table, String columns, BiConsumer<PgCopyEncoder, T> rowEncoder, int expectedRows) {
+            this.table = table;
+            this.sql = String.format(COPY_SQL, table, columns.replaceAll("\\s+", " ").trim());
+            this.rowEncoder = rowEncoder;
+            // ~400 bytes per staging row on average
+            this.encoder = new PgCopyEncoder(Math.max(expectedRows, 1) * 400);
+        }
+
+        @Override
+        public void add(T record) {
+            rowEncoder.accept(encoder, record);
+        }
+
+        @Override
+        public int size() {
+            return encoder.rows();
+        }
+
+        @Override
+        public int load() {
+            int rows = encoder.rows();
+            if (rows == 0) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            long inserted = copy(sql, encoder);
+            long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+            log.debug("COPY {} rows ({} KB) into {} in {} ms ({} rows/sec)",
+                      inserted, encoder.length() / 1024, table, elapsedNanos / 1_000_000,
+                      inserted * 1_000_000_000L / elapsedNanos);
+            encoder.reset();
+            return (int) inserted;
+        }
+    }
+
+    private static class JdbcBatch<T> implements StagingBatch<T> {
+        private final ToIntFunction<List<T>> inserter;
+        private final List<T> records;
+
+        JdbcBatch(ToIntFunction<List<T>> inserter, int expectedRows) {
+            this.inserter = inserter;
+            this.records = new ArrayList<>(Math.max(expectedRows, 16));
+        }
+
+        @Override
+        public void add(T record) {
+            records.add(record);
+        }
+
+        @Override
+        public int size() {
+            return records.size();
+        }
+
+        @Override
+        public int load() {
+            if (records.isEmpty()) {
+                return 0;
+            }
+            long start = System.nanoTime();
+            int inserted = inserter.applyAsInt(records);
+            long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+            log.debug("JDBC batch inserted {} staging rows in {} ms ({} rows/sec)",
+                      inserted, elapsedNanos / 1_000_000, inserted * 1_000_000_000L / elapsedNanos);
+            records.clear();
+            return inserted;
+        }
+    }
+
+    // ========== Row encoders (column order = JdbcBatchInsertHelper.*_COLUMNS) ==========
+
+    private static UUID idOf(UUID id) {
+        return id != null ? id : UUID.randomUUID();
+    }
+
+    static void encodeHopDong(PgCopyEncoder out, StagingHSBGHopDong r) {
+        out.uuid(idOf(r.getId()))
+           .uuid(r.getJobId())
+           .uuid(r.getSheetId())
+           .bigint(r.getRowNumber())
+           .text(r.getWarehouseVpbank())
+           .text(r.getUnitCode())
+           .text(r.getDeliveryResponsibility())
+           .text(r.getContractNumber())
+           .text(r.getVolumeName())
+           .integer(r.getVolumeQuantity())
+           .text(r.getCustomerCifCccdCmt())
+           .text(r.getCustomerName())
+           .text(r.getCustomerSegment())
+           .date(r.getRequiredDeliveryDate())
+           .date(r.getDeliveryDate())
+           .date(r.getDisbursementDate())
+           .date(r.getDueDate())
+           .text(r.getDocumentType())
+           .text(r.getDocumentFlow())
+           .text(r.getCreditTermCategory())
+           .date(r.getExpectedDestructionDate())
+           .text(r.getProduct())
+           .text(r.getPdmCaseStatus())
+           .text(r.getNotes())
+           .text(r.getBoxCode())
+           .date(r.getVpbankWarehouseEntryDate())
+           .date(r.getCrownWarehouseTransferDate())
+           .text(r.getArea())
+           .text(r.getRow())
+           .text(r.getColumn())
+           .text(r.getBoxCondition())
+           .text(r.getBoxStatus())
+           .integer(r.getCreditTermMonths())
+           .text(r.getDaoCode())
+           .text(r.getTsCode())
+           .text(r.getRrtId())
+           .text(r.getNqCode())
+           .text(r.getDuplicateKey())
+           .bool(r.getIsDuplicate())
+           .text(r.getValidationStatus())
+           .endRow();
+    }
+
+    static void encodeCif(PgCopyEncoder out, StagingHSBGCif r) {
+        out.uuid(idOf(r.getId()))
+           .uuid(r.getJobId())
+           .uuid(r.getSheetId())
+           .bigint(r.getRowNumber())
+           .text(r.getWarehouseVpbank())
+           .text(r.getUnitCode())
+           .text(r.getDeliveryResponsibility())
+           .text(r.getCustomerCif())
+           .text(r.getCustomerName())
+           .text(r.getVolumeName())
+           .integer(r.getVolumeQuantity())
+           .text(r.getCustomerSegment())
+           .date(r.getRequiredDeliveryDate())
+           .date(r.getDeliveryDate())
+           .date(r.getDisbursementDate())
+           .text(r.getDocumentType())
+           .text(r.getDocumentFlow())
+           .text(r.getCreditTermCategory())
+           .text(r.getProduct())
+           .text(r.getPdmCaseStatus())
+           .text(r.getNotes())
+           .text(r.getNqCode())
+           .text(r.getBoxCode())
+           .date(r.getVpbankWarehouseEntryDate())
+           .date(r.getCrownWarehouseTransferDate())
+           .text(r.getArea())
+           .text(r.getRow())
+           .text(r.getColumn())
+           .text(r.getBoxCondition())
+           .text(r.getBoxStatus())
+           .text(r.getDuplicateKey())
+           .bool(r.getIsDuplicate())
+           .text(r.getValidationStatus())
+           .endRow();
+    }
+
+    static void encodeTap(PgCopyEncoder out, StagingHSBGTap r) {
+        out.uuid(idOf(r.getId()))
+           .uuid(r.getJobId())
+           .uuid(r.getSheetId())
+           .bigint(r.getRowNumber())
+           .text(r.getWarehouseVpbank())
+           .text(r.getUnitCode())
+           .text(r.getDeliveryResponsibility())
+           .date(r.getOccurrenceMonth())
+           .text(r.getVolumeName())
+           .integer(r.getVolumeQuantity())
+           .date(r.getRequiredDeliveryDate())
+           .date(r.getDeliveryDate())
+           .text(r.getDocumentType())
+           .text(r.getDocumentFlow())
+           .text(r.getCreditTermCategory())
+           .date(r.getExpectedDestructionDate())
+           .text(r.getProduct())
+           .text(r.getPdmCaseStatus())
+           .text(r.getNotes())
+           .text(r.getBoxCode())
+           .date(r.getVpbankWarehouseEntryDate())
+           .date(r.getCrownWarehouseTransferDate())
+           .text(r.getArea())
+           .text(r.getRow())
+           .text(r.getColumn())
+           .text(r.getBoxCondition())
+           .text(r.getBoxStatus())
+           .text(r.getDuplicateKey())
+           .bool(r.getIsDuplicate())
+           .text(r.getValidationStatus())
+           .endRow();
+    }
+}
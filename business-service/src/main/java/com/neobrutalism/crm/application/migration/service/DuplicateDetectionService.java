@@ -1,14 +1,32 @@
 package com.neobrutalism.crm.application.migration.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobrutalism.crm.application.migration.model.MigrationJob;
 import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.application.migration.repository.MigrationJobRepository;
+import com.neobrutalism.crm.application.migration.repository.MigrationSheetRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Service for detecting duplicates within file and against master data
@@ -20,7 +38,110 @@ import java.util.UUID;
 public class DuplicateDetectionService {
 
     private final JdbcTemplate jdbcTemplate;
-    
+    private final ObjectMapper objectMapper;
+    private final MasterKeyFilterService masterKeyFilterService;
+    private final MigrationSheetRepository sheetRepository;
+    private final MigrationJobRepository jobRepository;
+
+    // ✅ Inline detection: duplicate keys are checked while streaming, no post-load self-join
+    @Value("${migration.duplicates.inline-enabled:true}")
+    private boolean inlineEnabled;
+
+    // Legacy self-join EXISTS + jsonb_agg pass, still runs for sheets without inline detection
+    @Value("${migration.duplicates.post-load-sql-enabled:false}")
+    private boolean postLoadSqlEnabled;
+
+    @Value("${migration.duplicates.memory-budget-mb:64}")
+    private long memoryBudgetMb;
+
+    @Value("${migration.duplicates.spill-dir:${java.io.tmpdir}/migration-duplicates}")
+    private String spillDir;
+
+    private static final int MARK_CHUNK_SIZE = 1000;
+    private static final int SCREEN_CHUNK_SIZE = 10_000;
+    /** Rows listed in conflicting_rows of one in-file duplicate error (group_size has the full count) */
+    private static final int MAX_CONFLICTING_ROWS = 100;
+
+    private final Map<UUID, DuplicateFingerprintSet> inlineSets = new ConcurrentHashMap<>();
+    private final Set<UUID> resumedSheets = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Start inline duplicate detection for a sheet (no-op when disabled)
+     */
+    public void beginInlineDetection(UUID sheetId) {
+        if (inlineEnabled) {
+            DuplicateFingerprintSet previous = inlineSets.put(sheetId,
+                new DuplicateFingerprintSet(memoryBudgetMb * 1024 * 1024, Path.of(spillDir)));
+            if (previous != null) {
+                previous.close();
+            }
+        }
+    }
+
+    /**
+     * Mark a sheet that continues after its checkpoint
+     *
+     * Keys of the checkpointed rows are not in memory, so nothing is tracked inline; the rows loaded
+     * before the restart may already carry inline marks, which the legacy self-join (VALID rows
+     * only) would not group with their first-seen row. The sheet is finished with the windowed
+     * group pass of {@link #writeInlineDuplicates} instead.
+     */
+    public void resumeDuplicateDetection(UUID sheetId) {
+        resumedSheets.add(sheetId);
+    }
+
+    /**
+     * Register the duplicate key of a VALID row while streaming
+     *
+     * @return first-seen row number when the row duplicates an earlier one,
+     *         otherwise {@link DuplicateFingerprintSet#NOT_SEEN} (also when the decision is deferred
+     *         to {@link #completeDuplicateDetection} because the key's partition was spilled)
+     */
+    public long trackDuplicateKey(UUID sheetId, String duplicateKey, long rowNumber) {
+        DuplicateFingerprintSet set = inlineSets.get(sheetId);
+        if (set == null || duplicateKey == null) {
+            return DuplicateFingerprintSet.NOT_SEEN;
+        }
+        return set.add(duplicateKey, rowNumber);
+    }
+
+    /**
+     * Finish duplicate detection after the sheet is loaded to staging:
+     * - inline: resolve spilled partitions; when duplicates were seen, mark their groups in SQL
+     *   and write errors in batches
+     * - resumed: mark and log every group in SQL, including rows marked inline before the restart
+     * - post-load SQL: when enabled, or when the sheet was neither tracked inline nor resumed
+     */
+    public void completeDuplicateDetection(UUID sheetId, SheetType sheetType) {
+        DuplicateFingerprintSet set = inlineSets.remove(sheetId);
+        boolean resumed = resumedSheets.remove(sheetId);
+        if (set != null) {
+            try {
+                writeInlineDuplicates(sheetId, sheetType, set.resolve());
+            } finally {
+                set.close();
+            }
+        } else if (resumed) {
+            DuplicateGroups groups = writeDuplicateGroups(sheetId, sheetType);
+            log.info("Duplicates for resumed {} sheet {}: {} groups, {} rows marked after load, {} errors logged",
+                     sheetType, sheetId, groups.groups(), groups.marked(), groups.errors());
+        }
+        if ((set == null && !resumed) || postLoadSqlEnabled) {
+            checkDuplicatesInFile(sheetId, sheetType);
+        }
+    }
+
+    /**
+     * Drop inline state of a sheet that failed before completion
+     */
+    public void discardInlineDetection(UUID sheetId) {
+        resumedSheets.remove(sheetId);
+        DuplicateFingerprintSet set = inlineSets.remove(sheetId);
+        if (set != null) {
+            set.close();
+        }
+    }
+
     /**
      * Check duplicates within file based on sheet type
      */
@@ -257,149 +378,325 @@ public class DuplicateDetectionService {
     }
     
     /**
-     * Check duplicates against master data (no locking - uses EXISTS)
+     * Check duplicates against master data (no locking)
+     * Keys are pre-screened by the tenant's Bloom filter; only filter hits are probed in batches
      */
-    @Transactional(readOnly = true)
+    @Transactional
     public void checkDuplicatesAgainstMaster(UUID sheetId, SheetType sheetType) {
         log.info("Checking duplicates against master data for sheet: {}", sheetId);
-        
-        // This will check against master data tables using EXISTS queries
-        // No locking because we're only reading
+
         switch (sheetType) {
             case HSBG_THEO_HOP_DONG -> checkDuplicatesAgainstMasterHopDong(sheetId);
             case HSBG_THEO_CIF -> checkDuplicatesAgainstMasterCif(sheetId);
             case HSBG_THEO_TAP -> checkDuplicatesAgainstMasterTap(sheetId);
         }
     }
-    
+
     private void checkDuplicatesAgainstMasterHopDong(UUID sheetId) {
         log.info("Checking duplicates against master data (contracts) for sheet: {}", sheetId);
-        
-        String updateSql = """
-            UPDATE staging_hsbg_hop_dong s
-            SET master_data_exists = TRUE,
-                validation_status = 'DUPLICATE'
-            WHERE s.sheet_id = ?
-              AND s.validation_status = 'VALID'
-              AND EXISTS (
-                  SELECT 1 FROM contracts m
-                  WHERE m.contract_number = s.so_hop_dong
-                    AND m.is_deleted = FALSE
-                    AND m.tenant_id = (SELECT tenant_id FROM migration_jobs WHERE id = s.job_id)
-              )
-            """;
-        
-        int updated = jdbcTemplate.update(updateSql, sheetId);
-        log.info("Marked {} HopDong records as duplicates against master data", updated);
-        
-        // Log errors for duplicates
-        if (updated > 0) {
-            String logErrorSql = """
-                INSERT INTO migration_errors (id, job_id, sheet_id, staging_record_id, row_number, error_type, error_message, created_at)
-                SELECT 
-                    gen_random_uuid(),
-                    s.job_id,
-                    s.sheet_id,
-                    s.id,
-                    s.row_number,
-                    'DUPLICATE',
-                    CONCAT('Contract ', s.so_hop_dong, ' already exists in master data'),
-                    CURRENT_TIMESTAMP
-                FROM staging_hsbg_hop_dong s
-                WHERE s.sheet_id = ?
-                  AND s.master_data_exists = TRUE
-                  AND s.validation_status = 'DUPLICATE'
-                """;
-            
-            jdbcTemplate.update(logErrorSql, sheetId);
-        }
+        checkDuplicatesAgainstMaster(sheetId, MasterCheck.HOP_DONG);
     }
-    
+
     private void checkDuplicatesAgainstMasterCif(UUID sheetId) {
         log.info("Checking duplicates against master data (customers) for sheet: {}", sheetId);
-        
-        String updateSql = """
-            UPDATE staging_hsbg_cif s
-            SET master_data_exists = TRUE,
-                validation_status = 'DUPLICATE'
-            WHERE s.sheet_id = ?
-              AND s.validation_status = 'VALID'
-              AND EXISTS (
-                  SELECT 1 FROM customers m
-                  WHERE m.code = s.so_cif
-                    AND m.deleted = FALSE
-                    AND m.tenant_id = (SELECT CAST(tenant_id AS TEXT) FROM migration_jobs WHERE id = s.job_id)
-              )
-            """;
-        
-        int updated = jdbcTemplate.update(updateSql, sheetId);
-        log.info("Marked {} CIF records as duplicates against master data", updated);
-        
-        // Log errors for duplicates
-        if (updated > 0) {
-            String logErrorSql = """
-                INSERT INTO migration_errors (id, job_id, sheet_id, staging_record_id, row_number, error_type, error_message, created_at)
-                SELECT 
-                    gen_random_uuid(),
-                    s.job_id,
-                    s.sheet_id,
-                    s.id,
-                    s.row_number,
-                    'DUPLICATE',
-                    CONCAT('Customer CIF ', s.so_cif, ' already exists in master data'),
-                    CURRENT_TIMESTAMP
-                FROM staging_hsbg_cif s
-                WHERE s.sheet_id = ?
-                  AND s.master_data_exists = TRUE
-                  AND s.validation_status = 'DUPLICATE'
-                """;
-            
-            jdbcTemplate.update(logErrorSql, sheetId);
-        }
+        checkDuplicatesAgainstMaster(sheetId, MasterCheck.CIF);
     }
-    
+
     private void checkDuplicatesAgainstMasterTap(UUID sheetId) {
         log.info("Checking duplicates against master data (document volumes) for sheet: {}", sheetId);
-        
-        String updateSql = """
-            UPDATE staging_hsbg_tap s
-            SET master_data_exists = TRUE,
-                validation_status = 'DUPLICATE'
-            WHERE s.sheet_id = ?
-              AND s.validation_status = 'VALID'
-              AND EXISTS (
-                  SELECT 1 FROM document_volumes m
-                  WHERE m.volume_name = s.ten_tap
-                    AND m.box_code = s.ma_thung
-                    AND m.is_deleted = FALSE
-                    AND m.tenant_id = (SELECT tenant_id FROM migration_jobs WHERE id = s.job_id)
-              )
-            """;
-        
-        int updated = jdbcTemplate.update(updateSql, sheetId);
-        log.info("Marked {} Tap records as duplicates against master data", updated);
-        
-        // Log errors for duplicates
-        if (updated > 0) {
-            String logErrorSql = """
-                INSERT INTO migration_errors (id, job_id, sheet_id, staging_record_id, row_number, error_type, error_message, created_at)
-                SELECT 
-                    gen_random_uuid(),
-                    s.job_id,
-                    s.sheet_id,
-                    s.id,
-                    s.row_number,
-                    'DUPLICATE',
-                    CONCAT('Document volume ', s.ten_tap, ' in box ', s.ma_thung, ' already exists in master data'),
-                    CURRENT_TIMESTAMP
-                FROM staging_hsbg_tap s
-                WHERE s.sheet_id = ?
-                  AND s.master_data_exists = TRUE
-                  AND s.validation_status = 'DUPLICATE'
-                """;
-            
-            jdbcTemplate.update(logErrorSql, sheetId);
+        checkDuplicatesAgainstMaster(sheetId, MasterCheck.TAP);
+    }
+
+    private record StagingKey(UUID id, long rowNumber, String key, String label) {}
+
+    private enum MasterCheck {
+        HOP_DONG("staging_hsbg_hop_dong", "so_hop_dong", MasterKeyFilterService.KeyType.CONTRACT),
+        CIF("staging_hsbg_cif", "so_cif", MasterKeyFilterService.KeyType.CIF),
+        TAP("staging_hsbg_tap", "ten_tap, ma_thung", MasterKeyFilterService.KeyType.VOLUME);
+
+        private final String stagingTable;
+        private final String keyColumns;
+        private final MasterKeyFilterService.KeyType keyType;
+
+        MasterCheck(String stagingTable, String keyColumns, MasterKeyFilterService.KeyType keyType) {
+            this.stagingTable = stagingTable;
+            this.keyColumns = keyColumns;
+            this.keyType = keyType;
+        }
+
+        private StagingKey read(java.sql.ResultSet rs) throws java.sql.SQLException {
+            UUID id = rs.getObject(1, UUID.class);
+            long rowNumber = rs.getLong(2);
+            return switch (this) {
+                case HOP_DONG -> new StagingKey(id, rowNumber, rs.getString(3),
+                    "Contract " + rs.getString(3) + " already exists in master data");
+                case CIF -> new StagingKey(id, rowNumber, rs.getString(3),
+                    "Customer CIF " + rs.getString(3) + " already exists in master data");
+                // master EXISTS matched on box_code equality: rows without ma_thung never match
+                case TAP -> rs.getString(4) == null ? null : new StagingKey(id, rowNumber,
+                    MasterKeyFilterService.volumeKey(rs.getString(3), rs.getString(4)),
+                    "Document volume " + rs.getString(3) + " in box " + rs.getString(4) + " already exists in master data");
+            };
         }
     }
-}
 
+    private void checkDuplicatesAgainstMaster(UUID sheetId, MasterCheck check) {
+        UUID tenantId = tenantOf(sheetId);
+        if (tenantId == null) {
+            log.warn("Cannot check master duplicates for sheet {} - missing tenantId", sheetId);
+            return;
+        }
+
+        // Step 1: Stream VALID staging keys, keep only Bloom filter hits
+        List<StagingKey> hits = new ArrayList<>();
+        List<StagingKey> pending = new ArrayList<>(SCREEN_CHUNK_SIZE);
+        jdbcTemplate.query(
+            "SELECT id, row_number, " + check.keyColumns + " FROM " + check.stagingTable
+                + " WHERE sheet_id = ? AND validation_status = 'VALID'",
+            rs -> {
+                StagingKey key = check.read(rs);
+                if (key != null && key.key() != null) {
+                    pending.add(key);
+                }
+                if (pending.size() >= SCREEN_CHUNK_SIZE) {
+                    hits.addAll(masterKeyFilterService.screen(tenantId, check.keyType, pending, StagingKey::key));
+                    pending.clear();
+                }
+            }, sheetId);
+        hits.addAll(masterKeyFilterService.screen(tenantId, check.keyType, pending, StagingKey::key));
+
+        if (hits.isEmpty()) {
+            log.info("Marked 0 {} records as duplicates against master data (no filter hits)", check);
+            return;
+        }
+
+        // Step 2: One batched probe for the hits
+        Set<String> existing = masterKeyFilterService.probe(tenantId, check.keyType,
+            hits.stream().map(StagingKey::key).toList());
+        List<StagingKey> duplicates = hits.stream().filter(k -> existing.contains(k.key())).toList();
+
+        // Step 3: Mark staging rows
+        int updated = 0;
+        for (int from = 0; from < duplicates.size(); from += MARK_CHUNK_SIZE) {
+            List<StagingKey> chunk = duplicates.subList(from, Math.min(from + MARK_CHUNK_SIZE, duplicates.size()));
+            updated += jdbcTemplate.update(
+                "UPDATE " + check.stagingTable + " SET master_data_exists = TRUE, validation_status = 'DUPLICATE'"
+                    + " WHERE validation_status = 'VALID' AND id IN ("
+                    + chunk.stream().map(k -> "?").collect(Collectors.joining(",")) + ")",
+                chunk.stream().map(StagingKey::id).toArray());
+        }
+        log.info("Marked {} {} records as duplicates against master data ({} filter hits probed)",
+                 updated, check, hits.size());
+
+        // Step 4: Log errors for duplicates in one batch
+        if (!duplicates.isEmpty()) {
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Object[]> errors = new ArrayList<>(duplicates.size());
+            for (StagingKey duplicate : duplicates) {
+                errors.add(new Object[] {
+                    UUID.randomUUID(), sheetId, duplicate.rowNumber(), 0, "DUPLICATE_IN_MASTER",
+                    duplicate.label(), toJson(Map.of("staging_record_id", duplicate.id().toString())), now
+                });
+            }
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO excel_migration_errors (
+                    id, sheet_id, row_number, batch_number, error_code,
+                    error_message, error_data, created_at
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """, errors);
+        }
+    }
+
+    private UUID tenantOf(UUID sheetId) {
+        return sheetRepository.findById(sheetId)
+            .flatMap(sheet -> jobRepository.findById(sheet.getJobId()))
+            .map(MigrationJob::getTenantId)
+            .orElse(null);
+    }
+
+    // ========== Inline detection output ==========
+
+    /**
+     * Mark and log the duplicate groups found inline
+     *
+     * Groups are not held in memory: one windowed UPDATE marks every row of a duplicated key
+     * (first-seen rows and rows resolved from spill partitions; later rows were marked on insert)
+     * and clears rows marked on insert whose exact key turns out to be unique (64-bit fingerprint
+     * collision), then the marked rows are read back ordered by key and errors are written per group
+     * in batches, each listing at most MAX_CONFLICTING_ROWS other rows of its group.
+     */
+    private void writeInlineDuplicates(UUID sheetId, SheetType sheetType,
+                                       DuplicateFingerprintSet.Resolution resolution) {
+        if (resolution.duplicateRows() == 0) {
+            log.info("No duplicates in file for sheet: {} (inline, {} rows spilled)",
+                     sheetId, resolution.spilledRows());
+            return;
+        }
+
+        DuplicateGroups groups = writeDuplicateGroups(sheetId, sheetType);
+        log.info("Inline duplicates for {} sheet {}: {} groups, {} rows re-marked after load, {} errors logged ({} rows spilled)",
+                 sheetType, sheetId, groups.groups(), groups.marked(), groups.errors(), resolution.spilledRows());
+    }
+
+    /**
+     * Mark every row of a key occurring more than once among the VALID or already-marked rows of
+     * the sheet, then write one error per marked row
+     */
+    private DuplicateGroups writeDuplicateGroups(UUID sheetId, SheetType sheetType) {
+        InlineSpec spec = InlineSpec.of(sheetType);
+
+        // Step 1: Mark all rows of keys occurring more than once among the rows tracked inline;
+        // un-mark fingerprint false positives (flagged on insert, exact key occurs once)
+        int marked = jdbcTemplate.update("""
+            UPDATE %1$s s
+            SET is_duplicate = k.occurrences > 1,
+                validation_status = CASE WHEN k.occurrences > 1 THEN 'INVALID' ELSE 'VALID' END
+            FROM (
+                SELECT id, COUNT(*) OVER (PARTITION BY duplicate_key) AS occurrences
+                FROM %1$s
+                WHERE sheet_id = ?
+                  AND duplicate_key IS NOT NULL
+                  AND (validation_status = 'VALID' OR is_duplicate = TRUE)
+            ) k
+            WHERE s.id = k.id
+              AND ((k.occurrences > 1 AND s.is_duplicate IS NOT TRUE)
+                OR (k.occurrences = 1 AND s.is_duplicate = TRUE))
+            """.formatted(spec.table()), sheetId);
+
+        // Step 2: One error per row of each group, conflicting_rows = other rows of the group (capped)
+        InlineErrorWriter writer = new InlineErrorWriter(sheetId, spec);
+        String selectSql = "SELECT duplicate_key, row_number, COUNT(*) OVER (PARTITION BY duplicate_key)"
+            + " FROM " + spec.table()
+            + " WHERE sheet_id = ? AND is_duplicate = TRUE AND duplicate_key IS NOT NULL"
+            + " ORDER BY duplicate_key, row_number";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(selectSql);
+            statement.setFetchSize(SCREEN_CHUNK_SIZE);
+            statement.setObject(1, sheetId);
+            return statement;
+        }, (RowCallbackHandler) rs -> writer.add(rs.getString(1), rs.getLong(2), rs.getLong(3)));
+        writer.finish();
+
+        return new DuplicateGroups(writer.groups, marked, writer.written);
+    }
+
+    private record DuplicateGroups(long groups, int marked, long errors) {}
+
+    /**
+     * Writes the errors of one key at a time (input ordered by key, row) and flushes them in batches
+     *
+     * Only the first MAX_CONFLICTING_ROWS + 1 rows of a group are buffered, so work and heap per
+     * group stay bounded however many rows share a key.
+     */
+    private final class InlineErrorWriter {
+        private final UUID sheetId;
+        private final InlineSpec spec;
+        private final Timestamp now = Timestamp.from(Instant.now());
+        private final List<Object[]> pending = new ArrayList<>(MARK_CHUNK_SIZE);
+        private String currentKey;
+        private long currentGroupSize;
+        private final List<Long> headRows = new ArrayList<>(MAX_CONFLICTING_ROWS + 1);
+        private boolean headWritten;
+        private long groups;
+        private long written;
+
+        private InlineErrorWriter(UUID sheetId, InlineSpec spec) {
+            this.sheetId = sheetId;
+            this.spec = spec;
+        }
+
+        void add(String key, long row, long groupSize) {
+            if (!key.equals(currentKey)) {
+                closeGroup();
+                currentKey = key;
+                currentGroupSize = groupSize;
+            }
+            if (!headWritten) {
+                headRows.add(row);
+                if (headRows.size() > MAX_CONFLICTING_ROWS) {
+                    writeHead();
+                }
+                return;
+            }
+            // Past the head: the head rows are the conflicting rows
+            writeError(row, headRows.subList(0, MAX_CONFLICTING_ROWS));
+        }
+
+        void finish() {
+            closeGroup();
+            flush();
+        }
+
+        private void closeGroup() {
+            if (!headWritten && headRows.size() > 1) {
+                writeHead();
+            }
+            headRows.clear();
+            headWritten = false;
+        }
+
+        private void writeHead() {
+            groups++;
+            headWritten = true;
+            for (long row : headRows) {
+                writeError(row, headRows);
+            }
+        }
+
+        private void writeError(long row, List<Long> groupRows) {
+            List<Long> conflictingRows = groupRows.stream()
+                .filter(r -> r != row)
+                .limit(MAX_CONFLICTING_ROWS)
+                .toList();
+
+            Map<String, Object> errorData = new LinkedHashMap<>();
+            errorData.put("duplicate_key", currentKey);
+            errorData.put("first_seen_row", headRows.get(0));
+            errorData.put("group_size", currentGroupSize);
+            errorData.put("conflicting_rows", conflictingRows);
+            errorData.put("conflicting_rows_truncated", currentGroupSize - 1 > conflictingRows.size());
+            pending.add(new Object[] {
+                UUID.randomUUID(), sheetId, row, 0, "DUPLICATE_IN_FILE",
+                spec.message(), spec.rule(), toJson(errorData), now
+            });
+            if (pending.size() >= MARK_CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("""
+                INSERT INTO excel_migration_errors (
+                    id, sheet_id, row_number, batch_number, error_code,
+                    error_message, validation_rule, error_data, created_at
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, pending);
+            written += pending.size();
+            pending.clear();
+        }
+    }
+
+    private String toJson(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize duplicate error data", e);
+        }
+    }
+
+    private record InlineSpec(String table, String message, String rule) {
+        static InlineSpec of(SheetType sheetType) {
+            return switch (sheetType) {
+                case HSBG_THEO_HOP_DONG -> new InlineSpec("staging_hsbg_hop_dong",
+                    "Trùng lặp trong file: Số hợp đồng + Loại hồ sơ + Ngày giải ngân", "UNIQUE_KEY_CT2");
+                case HSBG_THEO_CIF -> new InlineSpec("staging_hsbg_cif",
+                    "Trùng lặp trong file: CIF + Ngày giải ngân + Loại hồ sơ", "UNIQUE_KEY_CIF");
+                case HSBG_THEO_TAP -> new InlineSpec("staging_hsbg_tap",
+                    "Trùng lặp trong file: Mã ĐV + TNBG + Tháng PS + Sản phẩm", "UNIQUE_KEY_TAP");
+            };
+        }
+    }
+}
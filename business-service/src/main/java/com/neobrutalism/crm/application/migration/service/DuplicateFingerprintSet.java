@@ -0,0 +1,307 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Inline duplicate detector for one sheet
+ *
+ * Duplicate keys (DataNormalizer.generateDuplicateKey) are reduced to a 64-bit fingerprint and kept
+ * in an open-addressing table (linear probing, fingerprint + first-seen row number, 16 bytes/slot):
+ * - while the table fits in the memory budget every add() is answered immediately
+ * - past the budget, hash partitions (top 4 bits of the fingerprint) are evicted to disk;
+ *   rows of an evicted partition are appended to its spill file and resolved in {@link #resolve()}
+ *
+ * Collisions of two different keys on the same 64-bit fingerprint are reported as duplicates
+ * (probability ~ n^2 / 2^65); DuplicateDetectionService clears such rows once it sees that their
+ * exact duplicate_key is unique.
+ *
+ * Only a count of duplicate rows is kept, never the groups: which rows share a key is read back
+ * from staging (duplicate_key) by DuplicateDetectionService, so heap stays within the budget.
+ *
+ * Not thread-safe: one instance per sheet, fed from the sheet's reader thread.
+ */
+public final class DuplicateFingerprintSet implements AutoCloseable {
+
+    /** add() result: key not seen before (or decision deferred to resolve()) */
+    public static final long NOT_SEEN = -1L;
+
+    private static final int PARTITION_BITS = 4;
+    private static final int PARTITIONS = 1 << PARTITION_BITS;
+    private static final int ALL_PARTITIONS = (1 << PARTITIONS) - 1;
+    private static final int SLOT_BYTES = 16;
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    private final long memoryBudgetBytes;
+    private final Path spillRoot;
+
+    private long[] fingerprints;
+    private long[] firstRows;
+    private int size;
+
+    /** Bit p set = partition p lives in memory */
+    private int residentPartitions = ALL_PARTITIONS;
+    private Path spillDirectory;
+    private final DataOutputStream[] spillOut = new DataOutputStream[PARTITIONS];
+    private final long[] spillCounts = new long[PARTITIONS];
+
+    /** Later occurrences found so far (resident and resolved from spill files) */
+    private long duplicateRows;
+
+    public DuplicateFingerprintSet(long memoryBudgetBytes, Path spillRoot) {
+        this.memoryBudgetBytes = Math.max(memoryBudgetBytes, (long) MIN_CAPACITY * SLOT_BYTES);
+        this.spillRoot = spillRoot;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Register a key for a row
+     *
+     * @return first-seen row number when the key is a duplicate of a row held in memory,
+     *         otherwise {@link #NOT_SEEN} (new key, or partition on disk - see {@link #resolve()})
+     */
+    public long add(String key, long rowNumber) {
+        return addFingerprint(fingerprint(key), rowNumber);
+    }
+
+    /**
+     * {@link #add} for a precomputed fingerprint (lets tests force collisions)
+     */
+    long addFingerprint(long fingerprint, long rowNumber) {
+        int partition = partitionOf(fingerprint);
+
+        if ((residentPartitions & (1 << partition)) == 0) {
+            spill(partition, fingerprint, rowNumber);
+            return NOT_SEEN;
+        }
+
+        long firstRow = putIfAbsent(fingerprints, firstRows, fingerprint, rowNumber);
+        if (firstRow != NOT_SEEN) {
+            duplicateRows++;
+            return firstRow;
+        }
+
+        if (++size > fingerprints.length >> 1) {
+            growOrEvict();
+        }
+        return NOT_SEEN;
+    }
+
+    /**
+     * Resolve spilled partitions and count the duplicate rows
+     *
+     * Each spill file is replayed in arrival order into its own table, so first-seen semantics
+     * are the same as for resident partitions.
+     */
+    public Resolution resolve() {
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (spillOut[p] == null) {
+                continue;
+            }
+            try {
+                spillOut[p].close();
+                spillOut[p] = null;
+                resolvePartition(spillFile(p), spillCounts[p]);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to resolve duplicate spill partition " + p, e);
+            }
+        }
+
+        return new Resolution(duplicateRows, spilledRows());
+    }
+
+    public int residentSize() {
+        return size;
+    }
+
+    public long spilledRows() {
+        return Arrays.stream(spillCounts).sum();
+    }
+
+    @Override
+    public void close() {
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (spillOut[p] != null) {
+                try {
+                    spillOut[p].close();
+                } catch (IOException ignored) {
+                    // best effort
+                }
+                spillOut[p] = null;
+            }
+        }
+        if (spillDirectory != null) {
+            try (var files = Files.list(spillDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+                Files.deleteIfExists(spillDirectory);
+            } catch (IOException ignored) {
+                // temp directory, best effort
+            }
+            spillDirectory = null;
+        }
+        fingerprints = null;
+        firstRows = null;
+    }
+
+    // ========== Open addressing ==========
+
+    private void allocate(int capacity) {
+        fingerprints = new long[capacity];
+        firstRows = new long[capacity];
+    }
+
+    /**
+     * @return existing first row when the fingerprint is present, otherwise inserts and returns NOT_SEEN
+     */
+    private static long putIfAbsent(long[] table, long[] rows, long fingerprint, long rowNumber) {
+        int mask = table.length - 1;
+        int slot = (int) fingerprint & mask;
+        while (true) {
+            long current = table[slot];
+            if (current == 0L) {
+                table[slot] = fingerprint;
+                rows[slot] = rowNumber;
+                return NOT_SEEN;
+            }
+            if (current == fingerprint) {
+                return rows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void growOrEvict() {
+        long nextBytes = (long) fingerprints.length * 2 * SLOT_BYTES;
+        if (nextBytes <= memoryBudgetBytes) {
+            rehash(fingerprints.length * 2, residentPartitions);
+            return;
+        }
+
+        // ✅ Over budget: keep the lower half of the resident partitions, spill the rest
+        int resident = Integer.bitCount(residentPartitions);
+        int keep = resident / 2;
+        int newResident = 0;
+        for (int p = 0, kept = 0; p < PARTITIONS && kept < keep; p++) {
+            if ((residentPartitions & (1 << p)) != 0) {
+                newResident |= 1 << p;
+                kept++;
+            }
+        }
+
+        long[] oldFingerprints = fingerprints;
+        long[] oldRows = firstRows;
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            long fingerprint = oldFingerprints[i];
+            if (fingerprint != 0L && (newResident & (1 << partitionOf(fingerprint))) == 0) {
+                // Unique so far
+                spill(partitionOf(fingerprint), fingerprint, oldRows[i]);
+            }
+        }
+        residentPartitions = newResident;
+        rehash(fingerprints.length, newResident);
+    }
+
+    private void rehash(int capacity, int partitionMask) {
+        long[] oldFingerprints = fingerprints;
+        long[] oldRows = firstRows;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            long fingerprint = oldFingerprints[i];
+            if (fingerprint != 0L && (partitionMask & (1 << partitionOf(fingerprint))) != 0) {
+                putIfAbsent(fingerprints, firstRows, fingerprint, oldRows[i]);
+                size++;
+            }
+        }
+    }
+
+    // ========== Spill partitions ==========
+
+    private void spill(int partition, long fingerprint, long rowNumber) {
+        try {
+            DataOutputStream out = spillOut[partition];
+            if (out == null) {
+                if (spillDirectory == null) {
+                    Files.createDirectories(spillRoot);
+                    spillDirectory = Files.createTempDirectory(spillRoot, "dup-");
+                }
+                out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(spillFile(partition)), 64 * 1024));
+                spillOut[partition] = out;
+            }
+            out.writeLong(fingerprint);
+            out.writeLong(rowNumber);
+            spillCounts[partition]++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill duplicate keys to disk", e);
+        }
+    }
+
+    private void resolvePartition(Path file, long count) throws IOException {
+        int capacity = MIN_CAPACITY;
+        while (capacity < count * 2 && capacity < 1 << 30) {
+            capacity <<= 1;
+        }
+        long[] table = new long[capacity];
+        long[] rows = new long[capacity];
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            while (true) {
+                long fingerprint;
+                try {
+                    fingerprint = in.readLong();
+                } catch (EOFException eof) {
+                    break;
+                }
+                long rowNumber = in.readLong();
+
+                if (putIfAbsent(table, rows, fingerprint, rowNumber) != NOT_SEEN) {
+                    duplicateRows++;
+                }
+            }
+        }
+        Files.deleteIfExists(file);
+    }
+
+    private Path spillFile(int partition) {
+        return spillDirectory.resolve("partition-" + partition + ".bin");
+    }
+
+    // ========== Hashing ==========
+
+    static long fingerprint(String key) {
+        // FNV-1a over UTF-16 code units + murmur3 fmix64 finalizer
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, len = key.length(); i < len; i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0L ? 1L : h; // 0 marks an empty slot
+    }
+
+    private static int partitionOf(long fingerprint) {
+        return (int) (fingerprint >>> (64 - PARTITION_BITS));
+    }
+
+    /**
+     * @param duplicateRows later occurrences of a key (first-seen rows not counted)
+     * @param spilledRows   number of rows that went through disk partitions
+     */
+    public record Resolution(long duplicateRows, long spilledRows) {
+    }
+}
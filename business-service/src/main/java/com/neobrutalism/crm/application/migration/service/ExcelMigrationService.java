@@ -2,7 +2,8 @@ package com.neobrutalism.crm.application.migration.service;
 
 import com.neobrutalism.crm.common.audit.AuditAction;
 import com.neobrutalism.crm.common.audit.Audited;
-import com.neobrutalism.crm.application.excel.ExcelFacade;
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor;
+import com.neobrutalism.crm.application.excel.monitoring.ExcelMemoryGovernor.Workload;
 import com.neobrutalism.crm.application.migration.dto.HSBGCifDTO;
 import com.neobrutalism.crm.application.migration.dto.HSBGHopDongDTO;
 import com.neobrutalism.crm.application.migration.dto.HSBGTapDTO;
@@ -18,25 +19,15 @@ import com.neobrutalism.crm.application.migration.entity.StagingHSBGCif;
 import com.neobrutalism.crm.application.migration.entity.StagingHSBGTap;
 import com.neobrutalism.crm.application.migration.repository.MigrationJobRepository;
 import com.neobrutalism.crm.application.migration.repository.MigrationSheetRepository;
-import com.neobrutalism.crm.application.migration.repository.StagingHSBGHopDongRepository;
-import com.neobrutalism.crm.application.migration.repository.StagingHSBGCifRepository;
-import com.neobrutalism.crm.application.migration.repository.StagingHSBGTapRepository;
+import com.neobrutalism.crm.application.migration.repository.StagingBulkLoader;
+import com.neobrutalism.crm.application.migration.repository.StagingBulkLoader.StagingBatch;
 import com.neobrutalism.crm.application.migration.validation.ValidationResult;
 import com.neobrutalism.crm.application.migration.validation.impl.HSBGHopDongValidator;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.config.ExcelConfigFactory;
-import com.neobrutalism.crm.domain.customer.model.Customer;
-import com.neobrutalism.crm.domain.customer.model.CustomerStatus;
-import com.neobrutalism.crm.domain.customer.model.CustomerType;
-import com.neobrutalism.crm.domain.customer.repository.CustomerRepository;
-import com.neobrutalism.crm.domain.contract.model.Contract;
-import com.neobrutalism.crm.domain.contract.repository.ContractRepository;
-import com.neobrutalism.crm.domain.document.model.DocumentVolume;
-import com.neobrutalism.crm.domain.document.repository.DocumentVolumeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -52,8 +43,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -66,44 +55,38 @@ public class ExcelMigrationService {
 
     private final MigrationJobRepository jobRepository;
     private final MigrationSheetRepository sheetRepository;
-    private final ExcelFacade excelFacade;
     private final DataNormalizer dataNormalizer;
     private final DuplicateDetectionService duplicateDetectionService;
     private final MigrationProgressService progressService;
     private final MigrationFileStorageService fileStorageService;
     private final ExcelMetadataParser metadataParser;
-    private final StagingHSBGHopDongRepository stagingHopDongRepository;
-    private final StagingHSBGCifRepository stagingCifRepository;
-    private final StagingHSBGTapRepository stagingTapRepository;
-    private final com.neobrutalism.crm.application.migration.repository.JdbcBatchInsertHelper jdbcBatchInsertHelper;
+    private final StagingBulkLoader stagingBulkLoader;
     private final HSBGHopDongValidator hopDongValidator;
     private final com.neobrutalism.crm.application.migration.validation.impl.HSBGCifValidator cifValidator;
     private final com.neobrutalism.crm.application.migration.validation.impl.HSBGTapValidator tapValidator;
     private final MigrationErrorLogger errorLogger;
     private final com.neobrutalism.crm.application.migration.monitoring.MigrationMonitor migrationMonitor;
     private final org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
-    
-    // Master data repositories for transformation
-    private final CustomerRepository customerRepository;
-    private final ContractRepository contractRepository;
-    private final DocumentVolumeRepository documentVolumeRepository;
+    private final StagingPromotionService stagingPromotionService;
+    private final SheetCheckpointService checkpointService;
+    private final ExcelMemoryGovernor memoryGovernor;
+
+    // Batches alive while a sheet streams: the one the SAX handler fills and the one being staged
+    private static final int IN_FLIGHT_BATCHES = 2;
+
+    // false: set-based promotion (StagingPromotionService); true: migrate_hsbg_* stored procedures
+    @Value("${migration.promotion.use-stored-procedures:false}")
+    private boolean useStoredProcedures;
 
     /**
      * Memory-aware concurrency control
-     * 
-     * Instead of fixed semaphore (max 4 sheets), we track actual memory usage
-     * This prevents OOM by ensuring total memory usage stays under limit
-     * 
-     * Configuration:
-     * - MAX_MEMORY_BYTES: 2GB limit for all sheet processing combined
-     * - ESTIMATED_MEMORY_PER_ROW: 2KB per row (conservative estimate)
-     * - Sheet will wait if adding it would exceed memory limit
+     *
+     * Jobs and sheets take a permit from ExcelMemoryGovernor (shared with every other Excel
+     * read/write) sized on their rows and the measured per-row cost of their DTO, and wait in
+     * its queue until it fits. Batch consumers are throttled so the SAX producer pauses while
+     * post-GC heap usage is above the high-water mark.
      */
-    private final AtomicLong currentMemoryUsage = new AtomicLong(0);
-    private static final long MAX_MEMORY_BYTES = 2L * 1024 * 1024 * 1024; // 2GB limit
-    private static final long ESTIMATED_MEMORY_PER_ROW = 2000L; // 2KB per row
-    private static final long MEMORY_CHECK_INTERVAL_MS = 1000L; // Check every 1 second
-    
+
     /**
      * Create migration job from uploaded file
      * 
@@ -241,6 +224,19 @@ public class ExcelMigrationService {
         return processJobWithMultiSheet(jobId);
     }
 
+    /**
+     * Mark a job FAILED whose start was rejected because the migration queue is full
+     * (excel.migration.queue-capacity); the stored file stays, a new upload starts over
+     */
+    public MigrationJob rejectMigration(UUID jobId, String reason) {
+        MigrationJob job = jobRepository.findById(jobId)
+            .orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
+        job.setStatus(MigrationStatus.FAILED);
+        job.setErrorMessage(reason);
+        job.setCompletedAt(Instant.now());
+        return jobRepository.save(job);
+    }
+
     /**
      * Start migration for a job using legacy per-sheet processing
      *
@@ -331,37 +327,19 @@ public class ExcelMigrationService {
             return CompletableFuture.completedFuture(null);
         }
 
-        // ✅ PHASE 2: Calculate total memory for ALL sheets
-        long totalEstimatedMemory = sheets.stream()
-            .mapToLong(s -> s.getTotalRows() * ESTIMATED_MEMORY_PER_ROW)
-            .sum();
+        ExcelConfig config = ExcelConfigFactory.createLargeFileConfig();
 
-        try {
-            // ✅ Wait for memory availability (aggregate)
-            long waitStartTime = System.currentTimeMillis();
-            while (currentMemoryUsage.get() + totalEstimatedMemory > MAX_MEMORY_BYTES) {
-                log.info("Waiting for memory for job {}: current={}MB, needed={}MB, limit={}MB",
-                         jobId,
-                         currentMemoryUsage.get() / 1024 / 1024,
-                         totalEstimatedMemory / 1024 / 1024,
-                         MAX_MEMORY_BYTES / 1024 / 1024);
-
-                Thread.sleep(MEMORY_CHECK_INTERVAL_MS);
-
-                if (System.currentTimeMillis() - waitStartTime > 300_000) {
-                    log.warn("Memory wait timeout for job {}, proceeding anyway", jobId);
-                    break;
-                }
-            }
+        // ✅ PHASE 2: In-flight rows per DTO class for ALL sheets, reserved once for the job
+        Map<Class<?>, Long> rowsByClass = new HashMap<>();
+        sheets.forEach(s -> rowsByClass.merge(dtoClass(s.getSheetType()), inFlightRows(s.getTotalRows(), config),
+                                              Long::sum));
 
-            // ✅ Reserve memory once for entire job
-            currentMemoryUsage.addAndGet(totalEstimatedMemory);
-            log.info("Reserved {}MB memory for job {} ({} sheets, total: {}MB / {}MB)",
-                     totalEstimatedMemory / 1024 / 1024,
-                     jobId,
-                     sheets.size(),
-                     currentMemoryUsage.get() / 1024 / 1024,
-                     MAX_MEMORY_BYTES / 1024 / 1024);
+        ExcelMemoryGovernor.Permit permit = null;
+        try {
+            // ✅ Wait in the governor queue until the job fits
+            permit = memoryGovernor.acquire(Workload.MIGRATION, jobId.toString(), rowsByClass);
+            log.info("Reserved {}MB memory for job {} ({} sheets)",
+                     permit.getReservedBytes() / 1024 / 1024, jobId, sheets.size());
 
             // Mark all sheets as processing
             sheets.forEach(sheet -> {
@@ -369,58 +347,47 @@ public class ExcelMigrationService {
                 sheet.setStartedAt(Instant.now());
                 sheet.setLastHeartbeat(Instant.now());
                 sheetRepository.save(sheet);
+                duplicateDetectionService.beginInlineDetection(sheet.getId());
             });
+            progressService.startTracking(job, sheets);
 
             // ✅ PHASE 1: Build dynamic sheet mapping
             Map<String, Class<?>> sheetClassMap = new HashMap<>();
             Map<String, Consumer<List<?>>> sheetProcessors = new HashMap<>();
             Map<String, UUID> sheetNameToIdMap = new HashMap<>();
-            Map<String, AtomicInteger> batchCounters = new HashMap<>();
 
             for (MigrationSheet sheet : sheets) {
-                String sheetName = sheet.getSheetName();
-                UUID sheetId = sheet.getId();
-                AtomicInteger batchNumber = new AtomicInteger(0);
-
-                sheetNameToIdMap.put(sheetName, sheetId);
-                batchCounters.put(sheetName, batchNumber);
-
-                switch (sheet.getSheetType()) {
-                    case HSBG_THEO_HOP_DONG -> {
-                        sheetClassMap.put(sheetName, HSBGHopDongDTO.class);
-                        sheetProcessors.put(sheetName, batch ->
-                            processBatchHopDong(sheetId, (List<HSBGHopDongDTO>) batch,
-                                batchNumber.getAndIncrement()));
-                    }
-                    case HSBG_THEO_CIF -> {
-                        sheetClassMap.put(sheetName, HSBGCifDTO.class);
-                        sheetProcessors.put(sheetName, batch ->
-                            processBatchCif(sheetId, (List<HSBGCifDTO>) batch,
-                                batchNumber.getAndIncrement()));
-                    }
-                    case HSBG_THEO_TAP -> {
-                        sheetClassMap.put(sheetName, HSBGTapDTO.class);
-                        sheetProcessors.put(sheetName, batch ->
-                            processBatchTap(sheetId, (List<HSBGTapDTO>) batch,
-                                batchNumber.getAndIncrement()));
-                    }
-                }
+                sheetNameToIdMap.put(sheet.getSheetName(), sheet.getId());
+
+                registerSheet(sheet, new SheetCheckpointService.BatchCursor(SheetCheckpointService.Checkpoint.START),
+                              sheetClassMap, sheetProcessors);
             }
 
-            // ✅ FIX: Use try-with-resources to ensure InputStream is closed
-            try (InputStream inputStream = fileStorageService.retrieveFile(jobId, job.getFileName())) {
-                ExcelConfig config = ExcelConfigFactory.createLargeFileConfig();
+            // ✅ MEMORY: Open the stored file directly (ZipFile-backed package, spilled shared strings)
+            // instead of inflating the whole zip from an InputStream into heap
+            try {
+                java.nio.file.Path excelFile = fileStorageService.getFilePath(jobId, job.getFileName());
 
                 // ✅ PHASE 1: Process with TrueStreamingMultiSheetProcessor
+                // Row counts already parsed by ExcelMetadataParser at upload time
+                Map<String, Long> expectedRowCounts = new HashMap<>();
+                sheets.forEach(s -> expectedRowCounts.put(s.getSheetName(), s.getTotalRows()));
+
                 com.neobrutalism.crm.utils.sax.TrueStreamingMultiSheetProcessor processor =
                     new com.neobrutalism.crm.utils.sax.TrueStreamingMultiSheetProcessor(
-                        sheetClassMap, sheetProcessors, config);
+                        sheetClassMap, sheetProcessors, config, expectedRowCounts);
 
                 Map<String, com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.ProcessingResult> results =
-                    processor.processTrueStreaming(inputStream);
-
-                log.info("Multi-sheet processing completed for job: {}, processed {} sheets",
-                         jobId, results.size());
+                    processor.processTrueStreaming(excelFile);
+                permit.recordProcessedRows(results.values().stream()
+                    .mapToLong(com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.ProcessingResult::getProcessedRecords)
+                    .sum());
+
+                long heapSavedBytes = results.values().stream()
+                    .mapToLong(com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.ProcessingResult::getHeapBytesSaved)
+                    .sum();
+                log.info("Multi-sheet processing completed for job: {}, processed {} sheets (~{}MB heap saved by streaming)",
+                         jobId, results.size(), heapSavedBytes / 1024 / 1024);
             } catch (IOException ioException) {
                 log.error("Failed to read file for job: {}", jobId, ioException);
                 throw new RuntimeException("Failed to read migration file", ioException);
@@ -429,14 +396,15 @@ public class ExcelMigrationService {
             // ✅ PHASE 3: Update each sheet status independently
             for (MigrationSheet sheet : sheets) {
                 try {
-                    // Post-validation: check duplicates
-                    duplicateDetectionService.checkDuplicatesInFile(sheet.getId(), sheet.getSheetType());
+                    // Post-validation: finish duplicate detection (inline groups / optional SQL pass)
+                    duplicateDetectionService.completeDuplicateDetection(sheet.getId(), sheet.getSheetType());
 
                     // Insert to master data
                     insertToMaster(sheet.getId(), sheet.getSheetType());
 
                     sheet.setStatus(SheetStatus.COMPLETED);
                     sheet.setCompletedAt(Instant.now());
+                    progressService.finishSheet(sheet);
                     sheetRepository.save(sheet);
 
                     log.info("Sheet {} ({}) completed successfully",
@@ -448,6 +416,7 @@ public class ExcelMigrationService {
                               sheet.getSheetName(), sheet.getId(), e.getMessage(), e);
                     sheet.setStatus(SheetStatus.FAILED);
                     sheet.setErrorMessage(e.getMessage());
+                    progressService.finishSheet(sheet);
                     sheetRepository.save(sheet);
                 }
             }
@@ -481,6 +450,7 @@ public class ExcelMigrationService {
             sheets.forEach(sheet -> {
                 sheet.setStatus(SheetStatus.FAILED);
                 sheet.setErrorMessage("Processing interrupted: " + e.getMessage());
+                progressService.finishSheet(sheet);
                 sheetRepository.save(sheet);
             });
 
@@ -496,6 +466,7 @@ public class ExcelMigrationService {
                 if (sheet.getStatus() != SheetStatus.COMPLETED) {
                     sheet.setStatus(SheetStatus.FAILED);
                     sheet.setErrorMessage(e.getMessage());
+                    progressService.finishSheet(sheet);
                     sheetRepository.save(sheet);
                 }
             });
@@ -505,13 +476,16 @@ public class ExcelMigrationService {
             jobRepository.save(job);
 
         } finally {
+            // Inline duplicate state of sheets that did not complete (spill files included)
+            sheets.forEach(sheet -> duplicateDetectionService.discardInlineDetection(sheet.getId()));
+
+            // ✅ Final progress flush, job progress is served from the DB again
+            progressService.stopTracking(jobId);
+
             // ✅ PHASE 2: Release memory once for entire job
-            currentMemoryUsage.addAndGet(-totalEstimatedMemory);
-            log.info("Released {}MB memory for job {} (available: {}MB / {}MB)",
-                     totalEstimatedMemory / 1024 / 1024,
-                     jobId,
-                     (MAX_MEMORY_BYTES - currentMemoryUsage.get()) / 1024 / 1024,
-                     MAX_MEMORY_BYTES / 1024 / 1024);
+            if (permit != null) {
+                permit.close();
+            }
 
             // ✅ FIX: Delete temp file after processing to free disk space
             try {
@@ -525,81 +499,122 @@ public class ExcelMigrationService {
         return CompletableFuture.completedFuture(null);
     }
 
+    private static Class<?> dtoClass(SheetType sheetType) {
+        return switch (sheetType) {
+            case HSBG_THEO_HOP_DONG -> HSBGHopDongDTO.class;
+            case HSBG_THEO_CIF -> HSBGCifDTO.class;
+            case HSBG_THEO_TAP -> HSBGTapDTO.class;
+        };
+    }
+
+    /**
+     * Rows of a streamed sheet held at once (batch size x IN_FLIGHT_BATCHES, at most the sheet)
+     */
+    private static long inFlightRows(long rows, ExcelConfig config) {
+        return Math.min(rows, (long) config.getBatchSize() * IN_FLIGHT_BATCHES);
+    }
+
+    /**
+     * Register the DTO class and batch consumer of a sheet for TrueStreamingMultiSheetProcessor
+     * Each batch is staged and checkpointed in one transaction; rows are numbered from the cursor
+     */
+    private void registerSheet(MigrationSheet sheet, SheetCheckpointService.BatchCursor cursor,
+                               Map<String, Class<?>> sheetClassMap,
+                               Map<String, Consumer<List<?>>> sheetProcessors) {
+        String sheetName = sheet.getSheetName();
+        UUID sheetId = sheet.getId();
+
+        switch (sheet.getSheetType()) {
+            case HSBG_THEO_HOP_DONG -> registerSheet(sheetName, HSBGHopDongDTO.class, cursor,
+                (rows, fromRow, batchNumber) -> processBatchHopDong(sheetId, rows, fromRow, batchNumber),
+                sheetClassMap, sheetProcessors);
+            case HSBG_THEO_CIF -> registerSheet(sheetName, HSBGCifDTO.class, cursor,
+                (rows, fromRow, batchNumber) -> processBatchCif(sheetId, rows, fromRow, batchNumber),
+                sheetClassMap, sheetProcessors);
+            case HSBG_THEO_TAP -> registerSheet(sheetName, HSBGTapDTO.class, cursor,
+                (rows, fromRow, batchNumber) -> processBatchTap(sheetId, rows, fromRow, batchNumber),
+                sheetClassMap, sheetProcessors);
+        }
+    }
+
+    private <T> void registerSheet(String sheetName, Class<T> dtoClass,
+                                   SheetCheckpointService.BatchCursor cursor,
+                                   SheetCheckpointService.BatchWriter<T> writer,
+                                   Map<String, Class<?>> sheetClassMap,
+                                   Map<String, Consumer<List<?>>> sheetProcessors) {
+        sheetClassMap.put(sheetName, dtoClass);
+        sheetProcessors.put(sheetName, memoryGovernor.throttled(batch -> {
+            // The processor builds this sheet's rows from dtoClass
+            @SuppressWarnings("unchecked")
+            List<T> rows = (List<T>) batch;
+            checkpointService.commitBatch(cursor, rows, writer);
+        }));
+    }
+
     /**
      * Process a single sheet with memory-aware concurrency control (LEGACY)
      * Uses memory tracking instead of fixed semaphore to prevent OOM
      *
      * NOTE: Consider using processJobWithMultiSheet() for better performance
      * when processing jobs with multiple sheets
+     *
+     * ✅ RESUME: a sheet that was started before (RecoveryService) continues after its checkpoint -
+     * rows past the checkpoint are dropped from staging, checkpointed rows are skipped while streaming
+     *
+     * A batch that fails to stage stops the stream and fails the sheet; the checkpoint stays at
+     * the last committed batch.
      */
     @Async("excelMigrationExecutor")
     public CompletableFuture<Void> processSheet(UUID sheetId) {
         MigrationSheet sheet = sheetRepository.findById(sheetId)
             .orElseThrow();
 
-        // ✅ Estimate memory needed for this sheet
-        long estimatedMemory = sheet.getTotalRows() * ESTIMATED_MEMORY_PER_ROW;
-        
+        boolean resuming = sheet.getStartedAt() != null;
+        SheetCheckpointService.Checkpoint checkpoint = resuming
+            ? checkpointService.resume(sheet)
+            : SheetCheckpointService.Checkpoint.START;
+
+        // ✅ Rows still to process; only the batches in flight are held at once
+        long remainingRows = Math.max(0, sheet.getTotalRows() - checkpoint.row());
+        ExcelConfig config = ExcelConfigFactory.createLargeFileConfig();
+
+        ExcelMemoryGovernor.Permit permit = null;
         try {
-            // ✅ Wait until enough memory is available
-            long waitStartTime = System.currentTimeMillis();
-            while (currentMemoryUsage.get() + estimatedMemory > MAX_MEMORY_BYTES) {
-                log.info("Waiting for memory to be available for sheet {}: current={}MB, needed={}MB, limit={}MB",
-                         sheetId,
-                         currentMemoryUsage.get() / 1024 / 1024,
-                         estimatedMemory / 1024 / 1024,
-                         MAX_MEMORY_BYTES / 1024 / 1024);
-                
-                Thread.sleep(MEMORY_CHECK_INTERVAL_MS);
-                
-                // Safety timeout: wait max 5 minutes
-                if (System.currentTimeMillis() - waitStartTime > 300_000) {
-                    log.warn("Memory wait timeout for sheet {}, proceeding anyway", sheetId);
-                    break;
-                }
-            }
-            
-            // ✅ Reserve memory
-            currentMemoryUsage.addAndGet(estimatedMemory);
-            log.info("Reserved {}MB memory for sheet {} (total: {}MB / {}MB)",
-                     estimatedMemory / 1024 / 1024,
-                     sheetId,
-                     currentMemoryUsage.get() / 1024 / 1024,
-                     MAX_MEMORY_BYTES / 1024 / 1024);
+            // ✅ Wait in the governor queue until the sheet's in-flight window fits
+            permit = memoryGovernor.acquire(Workload.MIGRATION, sheetId.toString(),
+                                            dtoClass(sheet.getSheetType()), inFlightRows(remainingRows, config));
+            log.info("Reserved {}MB memory for sheet {}", permit.getReservedBytes() / 1024 / 1024, sheetId);
 
             sheet.setStatus(SheetStatus.PROCESSING);
-            sheet.setStartedAt(Instant.now());
+            if (!resuming) {
+                sheet.setStartedAt(Instant.now());
+            }
             sheet.setLastHeartbeat(Instant.now());
             sheetRepository.save(sheet);
+            if (resuming) {
+                // Inline keys of the checkpointed rows are not in memory - groups are marked in SQL after load
+                progressService.resumeSheet(sheet);
+                duplicateDetectionService.resumeDuplicateDetection(sheetId);
+            } else {
+                duplicateDetectionService.beginInlineDetection(sheetId);
+            }
 
             // Get input stream from file storage
             MigrationJob job = jobRepository.findById(sheet.getJobId())
                 .orElseThrow();
 
-            // ✅ FIX: Use try-with-resources to ensure InputStream is closed
-            try (InputStream inputStream = fileStorageService.retrieveFile(sheet.getJobId(), job.getFileName())) {
-                // Process based on sheet type
-                ExcelConfig config = ExcelConfigFactory.createLargeFileConfig();
-
-                // Process based on sheet type with proper generics
-                switch (sheet.getSheetType()) {
-                    case HSBG_THEO_HOP_DONG -> processSheetHopDong(sheetId, inputStream, config);
-                    case HSBG_THEO_CIF -> processSheetCif(sheetId, inputStream, config);
-                    case HSBG_THEO_TAP -> processSheetTap(sheetId, inputStream, config);
-                }
-            } catch (IOException e) {
-                log.error("Failed to retrieve or process file for sheet: {}", sheetId, e);
-                throw new RuntimeException("Failed to retrieve file for job: " + sheet.getJobId(), e);
-            }
+            // ✅ One reader delivering batches in row order, so each batch knows its source rows
+            permit.recordProcessedRows(streamSheet(sheet, job, checkpoint, config));
 
-            // Post-validation: check duplicates
-            duplicateDetectionService.checkDuplicatesInFile(sheetId, sheet.getSheetType());
+            // Post-validation: finish duplicate detection (inline groups / optional SQL pass)
+            duplicateDetectionService.completeDuplicateDetection(sheetId, sheet.getSheetType());
 
             // Insert to master data
             insertToMaster(sheetId, sheet.getSheetType());
 
             sheet.setStatus(SheetStatus.COMPLETED);
             sheet.setCompletedAt(Instant.now());
+            progressService.finishSheet(sheet);
             sheetRepository.save(sheet);
 
         } catch (InterruptedException e) {
@@ -607,63 +622,57 @@ public class ExcelMigrationService {
             Thread.currentThread().interrupt();
             sheet.setStatus(SheetStatus.FAILED);
             sheet.setErrorMessage("Processing interrupted: " + e.getMessage());
+            progressService.finishSheet(sheet);
             sheetRepository.save(sheet);
         } catch (Exception e) {
             log.error("Error processing sheet: {}", sheetId, e);
             sheet.setStatus(SheetStatus.FAILED);
             sheet.setErrorMessage(e.getMessage());
+            progressService.finishSheet(sheet);
             sheetRepository.save(sheet);
         } finally {
+            duplicateDetectionService.discardInlineDetection(sheetId);
+
             // ✅ Always release the reserved memory
-            currentMemoryUsage.addAndGet(-estimatedMemory);
-            log.info("Released {}MB memory for sheet {} (available: {}MB / {}MB)",
-                     estimatedMemory / 1024 / 1024,
-                     sheetId,
-                     (MAX_MEMORY_BYTES - currentMemoryUsage.get()) / 1024 / 1024,
-                     MAX_MEMORY_BYTES / 1024 / 1024);
+            if (permit != null) {
+                permit.close();
+            }
         }
 
         return CompletableFuture.completedFuture(null);
     }
     
-    private void processSheetHopDong(UUID sheetId, InputStream inputStream, ExcelConfig config) {
-        int[] batchNumber = {0};
-        excelFacade.readExcelWithConfig(
-            inputStream,
-            HSBGHopDongDTO.class,
-            config,
-            (Consumer<List<HSBGHopDongDTO>>) batch -> {
-                processBatchHopDong(sheetId, batch, batchNumber[0]++);
-            }
-        );
-    }
-    
-    private void processSheetCif(UUID sheetId, InputStream inputStream, ExcelConfig config) {
-        int[] batchNumber = {0};
-        excelFacade.readExcelWithConfig(
-            inputStream,
-            HSBGCifDTO.class,
-            config,
-            (Consumer<List<HSBGCifDTO>>) batch -> {
-                processBatchCif(sheetId, batch, batchNumber[0]++);
-            }
-        );
-    }
-    
-    private void processSheetTap(UUID sheetId, InputStream inputStream, ExcelConfig config) {
-        int[] batchNumber = {0};
-        excelFacade.readExcelWithConfig(
-            inputStream,
-            HSBGTapDTO.class,
-            config,
-            (Consumer<List<HSBGTapDTO>>) batch -> {
-                processBatchTap(sheetId, batch, batchNumber[0]++);
-            }
-        );
+    /**
+     * Stream a sheet from the stored file: sheet addressed by name, the first checkpoint.row()
+     * data rows skipped in the SAX handler, batches numbered from the checkpoint
+     *
+     * @return Data rows processed by this run (checkpointed rows not included)
+     */
+    private long streamSheet(MigrationSheet sheet, MigrationJob job,
+                             SheetCheckpointService.Checkpoint checkpoint, ExcelConfig config) throws Exception {
+        Map<String, Class<?>> sheetClassMap = new HashMap<>();
+        Map<String, Consumer<List<?>>> sheetProcessors = new HashMap<>();
+        registerSheet(sheet, new SheetCheckpointService.BatchCursor(checkpoint), sheetClassMap, sheetProcessors);
+
+        com.neobrutalism.crm.utils.sax.TrueStreamingMultiSheetProcessor processor =
+            new com.neobrutalism.crm.utils.sax.TrueStreamingMultiSheetProcessor(
+                sheetClassMap, sheetProcessors, config,
+                Map.of(sheet.getSheetName(), sheet.getTotalRows()),
+                Map.of(sheet.getSheetName(), checkpoint.row()));
+
+        Map<String, com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.ProcessingResult> results =
+            processor.processTrueStreaming(fileStorageService.getFilePath(job.getId(), job.getFileName()));
+
+        if (!results.containsKey(sheet.getSheetName())) {
+            throw new IllegalStateException("Sheet not found in file: " + sheet.getSheetName());
+        }
+        log.info("Streamed sheet {} ({}) from row {}: {}",
+                 sheet.getSheetName(), sheet.getId(), checkpoint.row(), results.get(sheet.getSheetName()));
+        return results.get(sheet.getSheetName()).getProcessedRecords();
     }
     
     @Transactional
-    private void processBatchHopDong(UUID sheetId, List<HSBGHopDongDTO> batch, int batchNumber) {
+    private void processBatchHopDong(UUID sheetId, List<HSBGHopDongDTO> batch, long rowOffset, int batchNumber) {
         MigrationSheet sheet = sheetRepository.findById(sheetId)
             .orElseThrow();
         
@@ -676,17 +685,19 @@ public class ExcelMigrationService {
         int totalValidCount = 0;
         int totalInvalidCount = 0;
         
+        // ✅ COPY buffer (PostgreSQL) / JDBC list (fallback), reused across sub-batches
+        StagingBatch<StagingHSBGHopDong> stagingRecords = stagingBulkLoader.hopDongBatch(SUB_BATCH_SIZE);
+        
         for (int i = 0; i < batch.size(); i += SUB_BATCH_SIZE) {
             int end = Math.min(i + SUB_BATCH_SIZE, batch.size());
             List<HSBGHopDongDTO> subBatch = batch.subList(i, end);
             
-            List<StagingHSBGHopDong> stagingRecords = new ArrayList<>(SUB_BATCH_SIZE);
             int validCount = 0;
             int invalidCount = 0;
             
             for (int j = 0; j < subBatch.size(); j++) {
                 HSBGHopDongDTO dto = subBatch.get(j);
-                long rowNumber = sheet.getLastProcessedRow() + i + j + 1;
+                long rowNumber = rowOffset + i + j + 1;
                 
                 try {
                     // 1. Normalize
@@ -702,17 +713,19 @@ public class ExcelMigrationService {
                     
                     // 4. Create staging record
                     StagingHSBGHopDong staging = mapToStagingHopDong(normalized, sheet.getJobId(), sheetId, rowNumber);
-                    staging.setValidationStatus(validationResult.isValid() ? "VALID" : "INVALID");
+                    
+                    // 5. Generate duplicate key + inline duplicate check (VALID rows only)
+                    staging.setDuplicateKey(dataNormalizer.generateDuplicateKey(normalized));
+                    boolean valid = validationResult.isValid() && !isInlineDuplicate(sheetId, staging.getDuplicateKey(), rowNumber);
+                    staging.setIsDuplicate(validationResult.isValid() && !valid);
+                    staging.setValidationStatus(valid ? "VALID" : "INVALID");
 
-                    if (!validationResult.isValid()) {
+                    if (!valid) {
                         invalidCount++;
                     } else {
                         validCount++;
                     }
                     
-                    // 5. Generate duplicate key
-                    staging.setDuplicateKey(dataNormalizer.generateDuplicateKey(normalized));
-                    
                     stagingRecords.add(staging);
                     
                 } catch (Exception e) {
@@ -721,25 +734,20 @@ public class ExcelMigrationService {
                 }
             }
             
-            // ✅ Save sub-batch using JDBC batch insert (5-10x faster than JPA)
-            if (!stagingRecords.isEmpty()) {
-                jdbcBatchInsertHelper.batchInsertHopDong(stagingRecords);
-                stagingRecords.clear(); // Free memory immediately
-            }
+            // ✅ Save sub-batch with COPY (PostgreSQL) or JDBC batch insert (fallback)
+            stagingRecords.load();
             
             totalValidCount += validCount;
             totalInvalidCount += invalidCount;
             
-            // ✅ Clear sub-batch to help GC
-            subBatch.clear();
-            
             log.trace("Processed sub-batch {}/{} for batch {}: {} valid, {} invalid", 
                       (i / SUB_BATCH_SIZE) + 1, 
                       (batch.size() + SUB_BATCH_SIZE - 1) / SUB_BATCH_SIZE,
                       batchNumber, validCount, invalidCount);
         }
         
-        // 6. Update progress with total counts
+        // 6. Checkpoint (same transaction as the staged rows) + progress with total counts
+        checkpointService.advance(sheetId, rowOffset, batch.size(), batchNumber, totalValidCount, totalInvalidCount);
         progressService.updateProgress(sheetId, batchNumber, batch.size(), totalValidCount, totalInvalidCount);
         
         // ✅ Record batch metrics
@@ -752,7 +760,7 @@ public class ExcelMigrationService {
     }
     
     @Transactional
-    private void processBatchCif(UUID sheetId, List<HSBGCifDTO> batch, int batchNumber) {
+    private void processBatchCif(UUID sheetId, List<HSBGCifDTO> batch, long rowOffset, int batchNumber) {
         MigrationSheet sheet = sheetRepository.findById(sheetId)
             .orElseThrow();
         
@@ -761,17 +769,19 @@ public class ExcelMigrationService {
         int totalValidCount = 0;
         int totalInvalidCount = 0;
         
+        // ✅ COPY buffer (PostgreSQL) / JDBC list (fallback), reused across sub-batches
+        StagingBatch<StagingHSBGCif> stagingRecords = stagingBulkLoader.cifBatch(SUB_BATCH_SIZE);
+        
         for (int i = 0; i < batch.size(); i += SUB_BATCH_SIZE) {
             int end = Math.min(i + SUB_BATCH_SIZE, batch.size());
             List<HSBGCifDTO> subBatch = batch.subList(i, end);
             
-            List<StagingHSBGCif> stagingRecords = new ArrayList<>(SUB_BATCH_SIZE);
             int validCount = 0;
             int invalidCount = 0;
             
             for (int j = 0; j < subBatch.size(); j++) {
                 HSBGCifDTO dto = subBatch.get(j);
-                long rowNumber = sheet.getLastProcessedRow() + i + j + 1;
+                long rowNumber = rowOffset + i + j + 1;
                 
                 try {
                     // 1. Normalize
@@ -787,17 +797,19 @@ public class ExcelMigrationService {
                     
                     // 4. Create staging record
                     StagingHSBGCif staging = mapToStagingCif(normalized, sheet.getJobId(), sheetId, rowNumber);
-                    staging.setValidationStatus(validationResult.isValid() ? "VALID" : "INVALID");
+                    
+                    // 5. Generate duplicate key + inline duplicate check (VALID rows only)
+                    staging.setDuplicateKey(dataNormalizer.generateDuplicateKey(normalized));
+                    boolean valid = validationResult.isValid() && !isInlineDuplicate(sheetId, staging.getDuplicateKey(), rowNumber);
+                    staging.setIsDuplicate(validationResult.isValid() && !valid);
+                    staging.setValidationStatus(valid ? "VALID" : "INVALID");
 
-                    if (!validationResult.isValid()) {
+                    if (!valid) {
                         invalidCount++;
                     } else {
                         validCount++;
                     }
                     
-                    // 5. Generate duplicate key
-                    staging.setDuplicateKey(dataNormalizer.generateDuplicateKey(normalized));
-                    
                     stagingRecords.add(staging);
                     
                 } catch (Exception e) {
@@ -808,25 +820,20 @@ public class ExcelMigrationService {
                 }
             }
             
-            // ✅ Save sub-batch using JDBC batch insert (5-10x faster than JPA)
-            if (!stagingRecords.isEmpty()) {
-                jdbcBatchInsertHelper.batchInsertCif(stagingRecords);
-                stagingRecords.clear(); // Free memory immediately
-            }
+            // ✅ Save sub-batch with COPY (PostgreSQL) or JDBC batch insert (fallback)
+            stagingRecords.load();
             
             totalValidCount += validCount;
             totalInvalidCount += invalidCount;
             
-            // ✅ Clear sub-batch to help GC
-            subBatch.clear();
-            
             log.trace("Processed sub-batch {}/{} for CIF batch {}: {} valid, {} invalid", 
                       (i / SUB_BATCH_SIZE) + 1, 
                       (batch.size() + SUB_BATCH_SIZE - 1) / SUB_BATCH_SIZE,
                       batchNumber, validCount, invalidCount);
         }
         
-        // 6. Update progress with total counts
+        // 6. Checkpoint (same transaction as the staged rows) + progress with total counts
+        checkpointService.advance(sheetId, rowOffset, batch.size(), batchNumber, totalValidCount, totalInvalidCount);
         progressService.updateProgress(sheetId, batchNumber, batch.size(), totalValidCount, totalInvalidCount);
         
         log.debug("Processed batch {} for CIF sheet {}: {} valid, {} invalid", 
@@ -834,7 +841,7 @@ public class ExcelMigrationService {
     }
     
     @Transactional
-    private void processBatchTap(UUID sheetId, List<HSBGTapDTO> batch, int batchNumber) {
+    private void processBatchTap(UUID sheetId, List<HSBGTapDTO> batch, long rowOffset, int batchNumber) {
         MigrationSheet sheet = sheetRepository.findById(sheetId)
             .orElseThrow();
         
@@ -843,17 +850,19 @@ public class ExcelMigrationService {
         int totalValidCount = 0;
         int totalInvalidCount = 0;
         
+        // ✅ COPY buffer (PostgreSQL) / JDBC list (fallback), reused across sub-batches
+        StagingBatch<StagingHSBGTap> stagingRecords = stagingBulkLoader.tapBatch(SUB_BATCH_SIZE);
+        
         for (int i = 0; i < batch.size(); i += SUB_BATCH_SIZE) {
             int end = Math.min(i + SUB_BATCH_SIZE, batch.size());
             List<HSBGTapDTO> subBatch = batch.subList(i, end);
             
-            List<StagingHSBGTap> stagingRecords = new ArrayList<>(SUB_BATCH_SIZE);
             int validCount = 0;
             int invalidCount = 0;
             
             for (int j = 0; j < subBatch.size(); j++) {
                 HSBGTapDTO dto = subBatch.get(j);
-                long rowNumber = sheet.getLastProcessedRow() + i + j + 1;
+                long rowNumber = rowOffset + i + j + 1;
                 
                 try {
                     // 1. Normalize
@@ -869,17 +878,19 @@ public class ExcelMigrationService {
                     
                     // 4. Create staging record
                     StagingHSBGTap staging = mapToStagingTap(normalized, sheet.getJobId(), sheetId, rowNumber);
-                    staging.setValidationStatus(validationResult.isValid() ? "VALID" : "INVALID");
+                    
+                    // 5. Generate duplicate key + inline duplicate check (VALID rows only)
+                    staging.setDuplicateKey(dataNormalizer.generateDuplicateKey(normalized));
+                    boolean valid = validationResult.isValid() && !isInlineDuplicate(sheetId, staging.getDuplicateKey(), rowNumber);
+                    staging.setIsDuplicate(validationResult.isValid() && !valid);
+                    staging.setValidationStatus(valid ? "VALID" : "INVALID");
 
-                    if (!validationResult.isValid()) {
+                    if (!valid) {
                         invalidCount++;
                     } else {
                         validCount++;
                     }
                     
-                    // 5. Generate duplicate key
-                    staging.setDuplicateKey(dataNormalizer.generateDuplicateKey(normalized));
-                    
                     stagingRecords.add(staging);
                     
                 } catch (Exception e) {
@@ -890,31 +901,35 @@ public class ExcelMigrationService {
                 }
             }
             
-            // ✅ Save sub-batch using JDBC batch insert (5-10x faster than JPA)
-            if (!stagingRecords.isEmpty()) {
-                jdbcBatchInsertHelper.batchInsertTap(stagingRecords);
-                stagingRecords.clear(); // Free memory immediately
-            }
+            // ✅ Save sub-batch with COPY (PostgreSQL) or JDBC batch insert (fallback)
+            stagingRecords.load();
             
             totalValidCount += validCount;
             totalInvalidCount += invalidCount;
             
-            // ✅ Clear sub-batch to help GC
-            subBatch.clear();
-            
             log.trace("Processed sub-batch {}/{} for Tap batch {}: {} valid, {} invalid", 
                       (i / SUB_BATCH_SIZE) + 1, 
                       (batch.size() + SUB_BATCH_SIZE - 1) / SUB_BATCH_SIZE,
                       batchNumber, validCount, invalidCount);
         }
         
-        // 6. Update progress with total counts
+        // 6. Checkpoint (same transaction as the staged rows) + progress with total counts
+        checkpointService.advance(sheetId, rowOffset, batch.size(), batchNumber, totalValidCount, totalInvalidCount);
         progressService.updateProgress(sheetId, batchNumber, batch.size(), totalValidCount, totalInvalidCount);
         
         log.debug("Processed batch {} for Tap sheet {}: {} valid, {} invalid", 
                   batchNumber, sheetId, totalValidCount, totalInvalidCount);
     }
     
+    /**
+     * Inline duplicate check: later occurrences are stored as duplicates directly,
+     * the first-seen row is marked when the sheet completes
+     */
+    private boolean isInlineDuplicate(UUID sheetId, String duplicateKey, long rowNumber) {
+        return duplicateDetectionService.trackDuplicateKey(sheetId, duplicateKey, rowNumber)
+            != DuplicateFingerprintSet.NOT_SEEN;
+    }
+
     private StagingHSBGHopDong mapToStagingHopDong(HSBGHopDongDTO dto, UUID jobId, UUID sheetId, long rowNumber) {
         return StagingHSBGHopDong.builder()
             .jobId(jobId)
@@ -1033,116 +1048,52 @@ public class ExcelMigrationService {
     }
     
     /**
-     * Insert valid staging records to master data using optimized stored procedure
-     * Uses PostgreSQL procedure with row-level locking and batch commits
+     * Insert valid staging records to master data (contracts)
+     * Set-based promotion by default; stored procedure when migration.promotion.use-stored-procedures=true
      */
     private void insertToMasterHopDong(UUID sheetId) {
-        log.info("Starting migration to master data for HSBG_HOP_DONG sheet: {}", sheetId);
-
-        try {
-            // Get job_id from sheet
-            MigrationSheet sheet = sheetRepository.findById(sheetId)
-                .orElseThrow(() -> new RuntimeException("Sheet not found: " + sheetId));
-            UUID jobId = sheet.getJobId();
-
-            // Call optimized PostgreSQL procedure
-            MigrationResult result = callMigrationProcedure(jobId, "migrate_hsbg_hop_dong", 1000);
-
-            log.info("Migration completed for sheet: {} | Total: {} | Migrated: {} | Duplicates: {} | Errors: {} | Warnings: {}",
-                     sheetId,
-                     result.getTotalProcessed(),
-                     result.getMigratedCount(),
-                     result.getDuplicateCount(),
-                     result.getErrorCount(),
-                     result.getWarningCount());
-
-            // Update sheet statistics
-            updateSheetStatistics(sheetId, result);
-
-        } catch (Exception e) {
-            log.error("Failed to migrate HSBG_HOP_DONG sheet: {}", sheetId, e);
-            throw new RuntimeException("Migration failed for sheet: " + sheetId, e);
-        }
+        promoteToMaster(sheetId, "HSBG_HOP_DONG", "migrate_hsbg_hop_dong", stagingPromotionService::promoteHopDong);
     }
 
     /**
-     * Insert a single batch in its own transaction
-     * This prevents large transactions that cause deadlocks
-     */
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-    private int insertBatchHopDong(UUID sheetId, List<StagingHSBGHopDong> batch) {
-        try {
-            // Transform to master data entities and batch insert
-            List<UUID> insertedIds = transformAndInsertHopDong(batch);
-
-            // Mark as inserted within the same transaction
-            stagingHopDongRepository.markAsInserted(insertedIds, Instant.now());
-
-            return insertedIds.size();
-        } catch (Exception e) {
-            log.error("Failed to insert batch for sheet: {}, batch size: {}", sheetId, batch.size(), e);
-            // Don't propagate - continue with next batch
-            return 0;
-        }
-    }
-    
-    /**
-     * Insert valid staging records to master data using optimized stored procedure for CIF
+     * Insert valid staging records to master data (customers)
      */
     private void insertToMasterCif(UUID sheetId) {
-        log.info("Starting migration to master data for HSBG_CIF sheet: {}", sheetId);
-
-        try {
-            MigrationSheet sheet = sheetRepository.findById(sheetId)
-                .orElseThrow(() -> new RuntimeException("Sheet not found: " + sheetId));
-            UUID jobId = sheet.getJobId();
-
-            // Call optimized PostgreSQL procedure for CIF
-            MigrationResult result = callMigrationProcedure(jobId, "migrate_hsbg_cif", 1000);
-
-            log.info("CIF migration completed for sheet: {} | Total: {} | Migrated: {} | Duplicates: {} | Errors: {} | Warnings: {}",
-                     sheetId,
-                     result.getTotalProcessed(),
-                     result.getMigratedCount(),
-                     result.getDuplicateCount(),
-                     result.getErrorCount(),
-                     result.getWarningCount());
-
-            updateSheetStatistics(sheetId, result);
-
-        } catch (Exception e) {
-            log.error("Failed to migrate HSBG_CIF sheet: {}", sheetId, e);
-            throw new RuntimeException("CIF migration failed for sheet: " + sheetId, e);
-        }
-    }
-
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-    private int insertBatchCif(UUID sheetId, List<StagingHSBGCif> batch) {
-        try {
-            List<UUID> insertedIds = transformAndInsertCif(batch);
-            stagingCifRepository.markAsInserted(insertedIds, Instant.now());
-            return insertedIds.size();
-        } catch (Exception e) {
-            log.error("Failed to insert CIF batch for sheet: {}, batch size: {}", sheetId, batch.size(), e);
-            return 0;
-        }
+        promoteToMaster(sheetId, "HSBG_CIF", "migrate_hsbg_cif", stagingPromotionService::promoteCif);
     }
 
     /**
-     * Insert valid staging records to master data using optimized stored procedure for TAP
+     * Insert valid staging records to master data (document volumes)
      */
     private void insertToMasterTap(UUID sheetId) {
-        log.info("Starting migration to master data for HSBG_TAP sheet: {}", sheetId);
+        promoteToMaster(sheetId, "HSBG_TAP", "migrate_hsbg_tap", stagingPromotionService::promoteTap);
+    }
+
+    private void promoteToMaster(UUID sheetId, String sheetType, String procedureName,
+                                 java.util.function.BiFunction<UUID, UUID, MigrationResult> setBasedPromotion) {
+        log.info("Starting migration to master data for {} sheet: {}", sheetType, sheetId);
 
         try {
             MigrationSheet sheet = sheetRepository.findById(sheetId)
                 .orElseThrow(() -> new RuntimeException("Sheet not found: " + sheetId));
             UUID jobId = sheet.getJobId();
 
-            // Call optimized PostgreSQL procedure for TAP
-            MigrationResult result = callMigrationProcedure(jobId, "migrate_hsbg_tap", 1000);
+            MigrationResult result;
+            if (useStoredProcedures) {
+                result = callMigrationProcedure(jobId, procedureName, 1000);
+            } else {
+                UUID tenantId = jobRepository.findById(jobId)
+                    .map(MigrationJob::getTenantId)
+                    .orElse(null);
+                if (tenantId == null) {
+                    log.warn("Cannot promote {} sheet {} - missing tenantId", sheetType, sheetId);
+                    return;
+                }
+                result = setBasedPromotion.apply(sheetId, tenantId);
+            }
 
-            log.info("TAP migration completed for sheet: {} | Total: {} | Migrated: {} | Duplicates: {} | Errors: {} | Warnings: {}",
+            log.info("{} migration completed for sheet: {} | Total: {} | Migrated: {} | Duplicates: {} | Errors: {} | Warnings: {}",
+                     sheetType,
                      sheetId,
                      result.getTotalProcessed(),
                      result.getMigratedCount(),
@@ -1153,294 +1104,9 @@ public class ExcelMigrationService {
             updateSheetStatistics(sheetId, result);
 
         } catch (Exception e) {
-            log.error("Failed to migrate HSBG_TAP sheet: {}", sheetId, e);
-            throw new RuntimeException("TAP migration failed for sheet: " + sheetId, e);
-        }
-    }
-
-    // Legacy batch insert methods - kept for backward compatibility but no longer used
-    private void insertToMasterTapLegacy(UUID sheetId) {
-        int batchSize = 1000; // Mini-transactions
-        int totalInserted = 0;
-        int page = 0;
-
-        while (true) {
-            Pageable pageable = PageRequest.of(page, batchSize);
-            List<StagingHSBGTap> batch = stagingTapRepository.findValidRecordsForInsert(sheetId, pageable);
-
-            if (batch.isEmpty()) {
-                break;
-            }
-
-            // Process batch in separate transaction
-            int inserted = insertBatchTap(sheetId, batch);
-            totalInserted += inserted;
-
-            log.info("Inserted batch {} ({} records) to master data for Tap sheet: {} (total: {})",
-                     page, inserted, sheetId, totalInserted);
-
-            if (totalInserted > 2_000_000) {
-                log.warn("Reached maximum insert limit for sheet: {}", sheetId);
-                break;
-            }
-        }
-
-        log.info("Completed inserting to master data for Tap sheet: {}, total: {}", sheetId, totalInserted);
-    }
-
-    @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-    private int insertBatchTap(UUID sheetId, List<StagingHSBGTap> batch) {
-        try {
-            List<UUID> insertedIds = transformAndInsertTap(batch);
-            stagingTapRepository.markAsInserted(insertedIds, Instant.now());
-            return insertedIds.size();
-        } catch (Exception e) {
-            log.error("Failed to insert Tap batch for sheet: {}, batch size: {}", sheetId, batch.size(), e);
-            return 0;
-        }
-    }
-    
-    /**
-     * Transform staging records to master data entities and insert
-     * Converts HSBG contract data to master Contract entities
-     */
-    private List<UUID> transformAndInsertHopDong(List<StagingHSBGHopDong> batch) {
-        List<UUID> insertedIds = new ArrayList<>();
-        UUID tenantId = null;
-        
-        // Get tenantId from first valid record
-        if (!batch.isEmpty()) {
-            MigrationJob job = jobRepository.findById(batch.get(0).getJobId()).orElse(null);
-            if (job != null) {
-                tenantId = job.getTenantId();
-            }
+            log.error("Failed to migrate {} sheet: {}", sheetType, sheetId, e);
+            throw new RuntimeException(sheetType + " migration failed for sheet: " + sheetId, e);
         }
-        
-        if (tenantId == null) {
-            log.warn("Cannot transform HopDong batch - missing tenantId");
-            return insertedIds;
-        }
-        
-        List<Contract> contracts = new ArrayList<>();
-        final UUID finalTenantId = tenantId;
-        
-        for (StagingHSBGHopDong staging : batch) {
-            try {
-                // Check if already exists
-                if (staging.getContractNumber() != null && 
-                    contractRepository.existsByContractNumberAndTenantId(staging.getContractNumber(), finalTenantId)) {
-                    log.debug("Contract {} already exists, skipping", staging.getContractNumber());
-                    staging.setMasterDataExists(true);
-                    continue;
-                }
-                
-                Contract contract = Contract.builder()
-                    .tenantId(finalTenantId)
-                    .contractNumber(staging.getContractNumber())
-                    .customerCif(staging.getCustomerCifCccdCmt())
-                    .customerName(staging.getCustomerName())
-                    .customerSegment(staging.getCustomerSegment())
-                    .unitCode(staging.getUnitCode())
-                    .warehouseVpbank(staging.getWarehouseVpbank())
-                    .deliveryResponsibility(staging.getDeliveryResponsibility())
-                    .documentType(staging.getDocumentType())
-                    .documentFlow(staging.getDocumentFlow())
-                    .volumeName(staging.getVolumeName())
-                    .volumeQuantity(staging.getVolumeQuantity())
-                    .product(staging.getProduct())
-                    .creditTermCategory(staging.getCreditTermCategory())
-                    .creditTermMonths(staging.getCreditTermMonths())
-                    .requiredDeliveryDate(staging.getRequiredDeliveryDate())
-                    .deliveryDate(staging.getDeliveryDate())
-                    .disbursementDate(staging.getDisbursementDate())
-                    .dueDate(staging.getDueDate())
-                    .expectedDestructionDate(staging.getExpectedDestructionDate())
-                    .pdmCaseStatus(staging.getPdmCaseStatus())
-                    .boxCode(staging.getBoxCode())
-                    .vpbankWarehouseEntryDate(staging.getVpbankWarehouseEntryDate())
-                    .crownWarehouseTransferDate(staging.getCrownWarehouseTransferDate())
-                    .area(staging.getArea())
-                    .storageRow(staging.getRow())
-                    .storageColumn(staging.getColumn())
-                    .boxCondition(staging.getBoxCondition())
-                    .boxStatus(staging.getBoxStatus())
-                    .daoCode(staging.getDaoCode())
-                    .tsCode(staging.getTsCode())
-                    .rrtId(staging.getRrtId())
-                    .nqCode(staging.getNqCode())
-                    .notes(staging.getNotes())
-                    .sourceSystem("MIGRATION")
-                    .migrationJobId(staging.getJobId())
-                    .build();
-                
-                contracts.add(contract);
-                insertedIds.add(staging.getId());
-                staging.setInsertedToMaster(true);
-                staging.setInsertedAt(Instant.now());
-                
-            } catch (Exception e) {
-                log.error("Failed to transform HopDong record {}: {}", staging.getId(), e.getMessage(), e);
-            }
-        }
-        
-        // Batch save all contracts
-        if (!contracts.isEmpty()) {
-            contractRepository.saveAll(contracts);
-            log.info("Inserted {} contracts to master data", contracts.size());
-        }
-        
-        // Update staging records
-        stagingHopDongRepository.saveAll(batch);
-        
-        return insertedIds;
-    }
-    
-    private List<UUID> transformAndInsertCif(List<StagingHSBGCif> batch) {
-        List<UUID> insertedIds = new ArrayList<>();
-        UUID tenantId = null;
-        
-        // Get tenantId from first valid record
-        if (!batch.isEmpty()) {
-            MigrationJob job = jobRepository.findById(batch.get(0).getJobId()).orElse(null);
-            if (job != null) {
-                tenantId = job.getTenantId();
-            }
-        }
-        
-        if (tenantId == null) {
-            log.warn("Cannot transform CIF batch - missing tenantId");
-            return insertedIds;
-        }
-        
-        List<Customer> customers = new ArrayList<>();
-        final UUID finalTenantId = tenantId;
-        
-        for (StagingHSBGCif staging : batch) {
-            try {
-                // Check if customer already exists
-                if (staging.getCustomerCif() != null &&
-                    customerRepository.findByCodeAndTenantId(staging.getCustomerCif(), finalTenantId.toString()).isPresent()) {
-                    log.debug("Customer {} already exists, skipping", staging.getCustomerCif());
-                    staging.setMasterDataExists(true);
-                    continue;
-                }
-                
-                Customer customer = new Customer();
-                customer.setTenantId(finalTenantId.toString());
-                customer.setCode(staging.getCustomerCif() != null ? staging.getCustomerCif() : "CIF-" + UUID.randomUUID());
-                customer.setCompanyName(staging.getCustomerName() != null ? staging.getCustomerName() : "Unknown");
-                customer.setCustomerType(CustomerType.B2B); // Default from migration
-                customer.setStatus(CustomerStatus.ACTIVE);
-                
-                // Map additional fields that exist in Customer entity
-                customer.setTags(staging.getCustomerSegment());
-                customer.setNotes(staging.getNotes());
-                
-                customers.add(customer);
-                insertedIds.add(staging.getId());
-                staging.setInsertedToMaster(true);
-                staging.setInsertedAt(Instant.now());
-                
-            } catch (Exception e) {
-                log.error("Failed to transform CIF record {}: {}", staging.getId(), e.getMessage(), e);
-            }
-        }
-        
-        // Batch save all customers
-        if (!customers.isEmpty()) {
-            customerRepository.saveAll(customers);
-            log.info("Inserted {} customers to master data", customers.size());
-        }
-        
-        // Update staging records
-        stagingCifRepository.saveAll(batch);
-        
-        return insertedIds;
-    }
-    
-    private List<UUID> transformAndInsertTap(List<StagingHSBGTap> batch) {
-        List<UUID> insertedIds = new ArrayList<>();
-        UUID tenantId = null;
-        
-        // Get tenantId from first valid record
-        if (!batch.isEmpty()) {
-            MigrationJob job = jobRepository.findById(batch.get(0).getJobId()).orElse(null);
-            if (job != null) {
-                tenantId = job.getTenantId();
-            }
-        }
-        
-        if (tenantId == null) {
-            log.warn("Cannot transform Tap batch - missing tenantId");
-            return insertedIds;
-        }
-        
-        List<DocumentVolume> volumes = new ArrayList<>();
-        final UUID finalTenantId = tenantId;
-        
-        for (StagingHSBGTap staging : batch) {
-            try {
-                // Check if volume already exists
-                if (staging.getVolumeName() != null && staging.getBoxCode() != null &&
-                    documentVolumeRepository.existsByVolumeNameAndBoxCodeAndTenantId(
-                        staging.getVolumeName(), staging.getBoxCode(), finalTenantId)) {
-                    log.debug("DocumentVolume {} already exists, skipping", staging.getVolumeName());
-                    staging.setMasterDataExists(true);
-                    continue;
-                }
-                
-                DocumentVolume volume = DocumentVolume.builder()
-                    .tenantId(finalTenantId)
-                    .volumeName(staging.getVolumeName())
-                    .volumeQuantity(staging.getVolumeQuantity())
-                    .customerCif(staging.getCustomerCif())
-                    .customerName(staging.getCustomerName())
-                    .customerSegment(staging.getCustomerSegment())
-                    .unitCode(staging.getUnitCode())
-                    .warehouseVpbank(staging.getWarehouseVpbank())
-                    .deliveryResponsibility(staging.getDeliveryResponsibility())
-                    .documentType(staging.getDocumentType())
-                    .documentFlow(staging.getDocumentFlow())
-                    .creditTermCategory(staging.getCreditTermCategory())
-                    .requiredDeliveryDate(staging.getRequiredDeliveryDate())
-                    .deliveryDate(staging.getDeliveryDate())
-                    .disbursementDate(staging.getDisbursementDate())
-                    .product(staging.getProduct())
-                    .pdmCaseStatus(staging.getPdmCaseStatus())
-                    .boxCode(staging.getBoxCode())
-                    .vpbankWarehouseEntryDate(staging.getVpbankWarehouseEntryDate())
-                    .crownWarehouseTransferDate(staging.getCrownWarehouseTransferDate())
-                    .area(staging.getArea())
-                    .storageRow(staging.getRow())
-                    .storageColumn(staging.getColumn())
-                    .boxCondition(staging.getBoxCondition())
-                    .boxStatus(staging.getBoxStatus())
-                    .nqCode(staging.getNqCode())
-                    .notes(staging.getNotes())
-                    .sourceSystem("MIGRATION")
-                    .migrationJobId(staging.getJobId())
-                    .build();
-                
-                volumes.add(volume);
-                insertedIds.add(staging.getId());
-                staging.setInsertedToMaster(true);
-                staging.setInsertedAt(Instant.now());
-                
-            } catch (Exception e) {
-                log.error("Failed to transform Tap record {}: {}", staging.getId(), e.getMessage(), e);
-            }
-        }
-        
-        // Batch save all volumes
-        if (!volumes.isEmpty()) {
-            documentVolumeRepository.saveAll(volumes);
-            log.info("Inserted {} document volumes to master data", volumes.size());
-        }
-        
-        // Update staging records
-        stagingTapRepository.saveAll(batch);
-        
-        return insertedIds;
     }
 
     /**
@@ -0,0 +1,106 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over master-data keys of one tenant
+ *
+ * - k probes by double hashing (Kirsch-Mitzenmacher) of a 64-bit key fingerprint
+ * - lock-free adds (AtomicLongArray), safe to read while promotion threads add keys
+ * - "false" is definite: the key is not in master data (as of the last refresh)
+ */
+public final class MasterKeyBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final double targetFpp;
+    private final AtomicLong insertions = new AtomicLong();
+
+    public MasterKeyBloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(expectedInsertions, 1L);
+        double p = Math.min(Math.max(fpp, 1e-6), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1L, (bits + 63) >>> 6));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / n * Math.log(2))));
+        this.expectedInsertions = n;
+        this.targetFpp = p;
+    }
+
+    /**
+     * @return true when at least one bit changed (key was not already present)
+     */
+    public boolean add(String key) {
+        long h1 = DuplicateFingerprintSet.fingerprint(key);
+        long h2 = Long.rotateLeft(h1, 32) * 0x9E3779B97F4A7C15L | 1L;
+        long combined = h1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+                current = words.get(word);
+            }
+            combined += h2;
+        }
+        // Re-added keys (refresh overlap, promotion + refresh) do not count towards saturation
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = DuplicateFingerprintSet.fingerprint(key);
+        long h2 = Long.rotateLeft(h1, 32) * 0x9E3779B97F4A7C15L | 1L;
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    public long insertions() {
+        return insertions.get();
+    }
+
+    /**
+     * More keys than the filter was sized for - false-positive rate is above target
+     */
+    public boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+
+    /**
+     * Expected false-positive rate for the current number of insertions
+     */
+    public double expectedFpp() {
+        long n = insertions.get();
+        if (n == 0) {
+            return 0.0;
+        }
+        return Math.pow(1 - Math.exp(-(double) hashCount * n / bitCount), hashCount);
+    }
+
+    public double targetFpp() {
+        return targetFpp;
+    }
+}
@@ -0,0 +1,440 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-tenant Bloom filters over master-data keys (contracts, customer CIF, document volumes)
+ *
+ * Pre-screen for "already exists in master data" checks:
+ * - filter miss  -> key is definitely new, no DB probe
+ * - filter hit   -> checked with one batched = ANY(?) query per chunk
+ *
+ * Freshness:
+ * - built lazily per (tenant, key type) by streaming the master table
+ * - promotion adds the keys it inserts ({@link #record})
+ * - incremental refresh every refresh-interval (rows with created_at past the watermark),
+ *   full rebuild every rebuild-interval or when the filter is saturated (also drops deleted keys)
+ *
+ * The filter only decides which keys are probed; unique indexes / ON CONFLICT stay authoritative.
+ * Customers have no tenant-level unique key on code (only code + organization_id), and rows
+ * restored or inserted outside migration are missing from the filter until the next refresh,
+ * so CIF promotion checks existence with {@link #findExistingExact} instead.
+ */
+@Slf4j
+@Service
+public class MasterKeyFilterService {
+
+    /**
+     * Master key sources; tenant_id is UUID on master_data tables, VARCHAR on customers
+     */
+    public enum KeyType {
+        CONTRACT("contracts", "contract_number", "is_deleted = FALSE", false),
+        CIF("customers", "code", "deleted = FALSE", true),
+        VOLUME("document_volumes", "volume_name", "is_deleted = FALSE", false);
+
+        private final String table;
+        private final String keyColumn;
+        private final String activePredicate;
+        private final boolean textTenant;
+
+        KeyType(String table, String keyColumn, String activePredicate, boolean textTenant) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+            this.activePredicate = activePredicate;
+            this.textTenant = textTenant;
+        }
+
+        private String selectColumns() {
+            return this == VOLUME ? "volume_name, box_code" : keyColumn;
+        }
+
+        private String keyOf(ResultSet rs) throws SQLException {
+            return this == VOLUME ? volumeKey(rs.getString(1), rs.getString(2)) : rs.getString(1);
+        }
+
+        private Object tenant(UUID tenantId) {
+            return textTenant ? tenantId.toString() : tenantId;
+        }
+    }
+
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final int PG_PROBE_CHUNK = 10_000;
+    private static final int IN_LIST_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${migration.master-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${migration.master-filter.fpp:0.01}")
+    private double fpp;
+
+    @Value("${migration.master-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    @Value("${migration.master-filter.refresh-interval:PT1M}")
+    private Duration refreshInterval;
+
+    @Value("${migration.master-filter.rebuild-interval:PT6H}")
+    private Duration rebuildInterval;
+
+    // Overlap for the incremental watermark: rows committed late with an earlier created_at
+    @Value("${migration.master-filter.refresh-overlap:PT2M}")
+    private Duration refreshOverlap;
+
+    private final Map<FilterKey, TenantFilter> filters = new ConcurrentHashMap<>();
+    private final Map<KeyType, TypeMetrics> metrics = new EnumMap<>(KeyType.class);
+
+    private volatile Boolean postgres;
+
+    public MasterKeyFilterService(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        for (KeyType type : KeyType.values()) {
+            metrics.put(type, new TypeMetrics(type));
+        }
+    }
+
+    /**
+     * Key used for document volumes: volume name + box code
+     */
+    public static String volumeKey(String volumeName, String boxCode) {
+        return volumeName + '\u001F' + (boxCode != null ? boxCode : "");
+    }
+
+    /**
+     * Keys of {@code keys} that already exist in master data for the tenant
+     * Filter misses are skipped, hits are probed in batches
+     */
+    public Set<String> findExisting(UUID tenantId, KeyType type, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<String> candidates = screen(tenantId, type, keys, Function.identity());
+        if (candidates.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return probe(tenantId, type, candidates);
+    }
+
+    /**
+     * Items whose key might exist in master data (all items when the filter is disabled)
+     */
+    public <T> List<T> screen(UUID tenantId, KeyType type, Collection<T> items, Function<T, String> keyOf) {
+        if (!enabled) {
+            return new ArrayList<>(items);
+        }
+        MasterKeyBloomFilter filter = filter(tenantId, type);
+        List<T> hits = new ArrayList<>();
+        for (T item : items) {
+            String key = keyOf.apply(item);
+            if (key != null && filter.mightContain(key)) {
+                hits.add(item);
+            }
+        }
+        TypeMetrics typeMetrics = metrics.get(type);
+        typeMetrics.checks.increment(items.size());
+        typeMetrics.hits.increment(hits.size());
+        typeMetrics.probesSaved.increment(items.size() - hits.size());
+        return hits;
+    }
+
+    /**
+     * Keys of {@code keys} that exist in master data for the tenant, queried for every key
+     * (no filter screening) - for writers without a unique key to fall back on
+     */
+    public Set<String> findExistingExact(UUID tenantId, KeyType type, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return lookup(tenantId, type, new ArrayList<>(new HashSet<>(keys)));
+    }
+
+    /**
+     * Batched existence check for filter hits: = ANY(?) on PostgreSQL, IN list otherwise
+     */
+    public Set<String> probe(UUID tenantId, KeyType type, Collection<String> keys) {
+        List<String> distinct = new ArrayList<>(new HashSet<>(keys));
+        Set<String> found = lookup(tenantId, type, distinct);
+        if (enabled) {
+            metrics.get(type).falsePositives.increment(distinct.size() - found.size());
+        }
+        return found;
+    }
+
+    private Set<String> lookup(UUID tenantId, KeyType type, List<String> distinct) {
+        Set<String> probeValues = new HashSet<>();
+        for (String key : distinct) {
+            probeValues.add(type == KeyType.VOLUME ? key.substring(0, key.indexOf('\u001F')) : key);
+        }
+        List<String> values = new ArrayList<>(probeValues);
+
+        Set<String> found = new HashSet<>();
+        RowCallbackHandler collect = rs -> found.add(type.keyOf(rs));
+        String base = "SELECT " + type.selectColumns() + " FROM " + type.table
+            + " WHERE tenant_id = ? AND " + type.activePredicate + " AND " + type.keyColumn;
+        boolean pg = isPostgres();
+        int chunk = pg ? PG_PROBE_CHUNK : IN_LIST_CHUNK;
+        for (int from = 0; from < values.size(); from += chunk) {
+            List<String> slice = values.subList(from, Math.min(from + chunk, values.size()));
+            if (pg) {
+                jdbcTemplate.query(base + " = ANY(?::text[])", collect,
+                    type.tenant(tenantId), slice.toArray(String[]::new));
+            } else {
+                Object[] args = new Object[slice.size() + 1];
+                args[0] = type.tenant(tenantId);
+                for (int i = 0; i < slice.size(); i++) {
+                    args[i + 1] = slice.get(i);
+                }
+                jdbcTemplate.query(base + " IN (" + String.join(", ", Collections.nCopies(slice.size(), "?")) + ")",
+                    collect, args);
+            }
+        }
+
+        found.retainAll(new HashSet<>(distinct));
+        return found;
+    }
+
+    /**
+     * Add keys just inserted into master data (no-op until the tenant's filter is built)
+     */
+    public void record(UUID tenantId, KeyType type, Collection<String> keys) {
+        TenantFilter entry = filters.get(new FilterKey(tenantId, type));
+        MasterKeyBloomFilter filter = entry != null ? entry.filter : null;
+        if (filter == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (key != null) {
+                filter.add(key);
+            }
+        }
+    }
+
+    /**
+     * Add keys of staging rows promoted by a set-based INSERT … SELECT
+     */
+    public void recordPromoted(UUID sheetId, UUID tenantId, KeyType type) {
+        TenantFilter entry = filters.get(new FilterKey(tenantId, type));
+        MasterKeyBloomFilter filter = entry != null ? entry.filter : null;
+        if (filter == null) {
+            return;
+        }
+        String sql = switch (type) {
+            case CONTRACT -> "SELECT so_hop_dong FROM staging_hsbg_hop_dong WHERE sheet_id = ? AND inserted_to_master = TRUE";
+            case VOLUME -> "SELECT ten_tap, ma_thung FROM staging_hsbg_tap WHERE sheet_id = ? AND inserted_to_master = TRUE";
+            case CIF -> "SELECT so_cif FROM staging_hsbg_cif WHERE sheet_id = ? AND inserted_to_master = TRUE";
+        };
+        jdbcTemplate.query(sql, rs -> {
+            String key = type.keyOf(rs);
+            if (key != null) {
+                filter.add(key);
+            }
+        }, sheetId);
+    }
+
+    // ========== Build / refresh ==========
+
+    private record FilterKey(UUID tenantId, KeyType type) {}
+
+    private static final class TenantFilter {
+        private volatile MasterKeyBloomFilter filter;
+        private volatile Timestamp watermark;
+        private volatile long builtAt;
+        private volatile long refreshedAt;
+    }
+
+    private MasterKeyBloomFilter filter(UUID tenantId, KeyType type) {
+        TenantFilter entry = filters.computeIfAbsent(new FilterKey(tenantId, type), k -> new TenantFilter());
+        long now = System.currentTimeMillis();
+        MasterKeyBloomFilter current = entry.filter;
+        if (current != null && !current.isSaturated()
+                && now - entry.builtAt < rebuildInterval.toMillis()
+                && now - entry.refreshedAt < refreshInterval.toMillis()) {
+            return current;
+        }
+        synchronized (entry) {
+            current = entry.filter;
+            now = System.currentTimeMillis();
+            if (current == null || current.isSaturated() || now - entry.builtAt >= rebuildInterval.toMillis()) {
+                rebuild(entry, tenantId, type);
+            } else if (now - entry.refreshedAt >= refreshInterval.toMillis()) {
+                refresh(entry, tenantId, type);
+            }
+            return entry.filter;
+        }
+    }
+
+    private void rebuild(TenantFilter entry, UUID tenantId, KeyType type) {
+        long start = System.currentTimeMillis();
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM " + type.table + " WHERE tenant_id = ? AND " + type.activePredicate,
+            Long.class, type.tenant(tenantId));
+        long existing = count != null ? count : 0L;
+
+        // ✅ Headroom for keys added by upcoming migrations before the next rebuild
+        MasterKeyBloomFilter filter = new MasterKeyBloomFilter(Math.max(minCapacity, existing * 2), fpp);
+        Timestamp watermark = load(filter, tenantId, type, null);
+
+        entry.filter = filter;
+        entry.watermark = watermark;
+        entry.builtAt = System.currentTimeMillis();
+        entry.refreshedAt = entry.builtAt;
+        log.info("Built {} master key filter for tenant {}: {} keys, {} KB, expected fpp {} ({} ms)",
+                 type, tenantId, filter.insertions(), filter.bitSize() / 8 / 1024,
+                 String.format("%.4f", filter.expectedFpp()), System.currentTimeMillis() - start);
+    }
+
+    private void refresh(TenantFilter entry, UUID tenantId, KeyType type) {
+        Timestamp since = entry.watermark != null
+            ? new Timestamp(entry.watermark.getTime() - refreshOverlap.toMillis())
+            : null;
+        Timestamp watermark = load(entry.filter, tenantId, type, since);
+        if (watermark != null) {
+            entry.watermark = watermark;
+        }
+        entry.refreshedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Stream master keys into the filter (cursor-based on PostgreSQL: fetch size inside a transaction)
+     *
+     * @return max created_at seen, null when no row matched
+     */
+    private Timestamp load(MasterKeyBloomFilter filter, UUID tenantId, KeyType type, Timestamp since) {
+        String sql = "SELECT " + type.selectColumns() + ", created_at FROM " + type.table
+            + " WHERE tenant_id = ? AND " + type.activePredicate
+            + (since != null ? " AND created_at > ?" : "");
+        Object[] args = since != null
+            ? new Object[] {type.tenant(tenantId), since}
+            : new Object[] {type.tenant(tenantId)};
+        int column = type == KeyType.VOLUME ? 3 : 2;
+
+        Timestamp[] max = {null};
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql);
+            statement.setFetchSize(LOAD_FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            String key = type.keyOf(rs);
+            if (key != null) {
+                filter.add(key);
+            }
+            Timestamp createdAt = rs.getTimestamp(column);
+            if (createdAt != null && (max[0] == null || createdAt.after(max[0]))) {
+                max[0] = createdAt;
+            }
+        }));
+        return max[0];
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+
+    // ========== Metrics ==========
+
+    private final class TypeMetrics {
+        private final Counter checks;
+        private final Counter hits;
+        private final Counter probesSaved;
+        private final Counter falsePositives;
+
+        private TypeMetrics(KeyType type) {
+            String tag = type.name().toLowerCase();
+            this.checks = Counter.builder("migration.master_filter.checks")
+                .description("Keys screened by the master key filter")
+                .tag("type", tag).register(meterRegistry);
+            this.hits = Counter.builder("migration.master_filter.hits")
+                .description("Keys the filter could not rule out (probed in DB)")
+                .tag("type", tag).register(meterRegistry);
+            this.probesSaved = Counter.builder("migration.master_filter.probes_saved")
+                .description("Master data probes skipped because the filter ruled the key out")
+                .tag("type", tag).register(meterRegistry);
+            this.falsePositives = Counter.builder("migration.master_filter.false_positives")
+                .description("Filter hits not found in master data")
+                .tag("type", tag).register(meterRegistry);
+
+            Gauge.builder("migration.master_filter.size_bits", () -> sum(type, MasterKeyBloomFilter::bitSize))
+                .description("Total bits of the master key filters")
+                .tag("type", tag).register(meterRegistry);
+            Gauge.builder("migration.master_filter.keys", () -> sum(type, MasterKeyBloomFilter::insertions))
+                .description("Keys inserted into the master key filters")
+                .tag("type", tag).register(meterRegistry);
+            Gauge.builder("migration.master_filter.expected_fpp", () -> maxFpp(type))
+                .description("Highest expected false-positive rate across tenants")
+                .tag("type", tag).register(meterRegistry);
+            Gauge.builder("migration.master_filter.observed_fpp", this::observedFpp)
+                .description("False positives / keys absent from master data")
+                .tag("type", tag).register(meterRegistry);
+        }
+
+        private double observedFpp() {
+            double absent = checks.count() - (hits.count() - falsePositives.count());
+            return absent > 0 ? falsePositives.count() / absent : 0.0;
+        }
+    }
+
+    private double sum(KeyType type, java.util.function.ToLongFunction<MasterKeyBloomFilter> value) {
+        long total = 0;
+        for (Map.Entry<FilterKey, TenantFilter> e : filters.entrySet()) {
+            MasterKeyBloomFilter filter = e.getValue().filter;
+            if (e.getKey().type() == type && filter != null) {
+                total += value.applyAsLong(filter);
+            }
+        }
+        return total;
+    }
+
+    private double maxFpp(KeyType type) {
+        double max = 0.0;
+        for (Map.Entry<FilterKey, TenantFilter> e : filters.entrySet()) {
+            MasterKeyBloomFilter filter = e.getValue().filter;
+            if (e.getKey().type() == type && filter != null) {
+                max = Math.max(max, filter.expectedFpp());
+            }
+        }
+        return max;
+    }
+}
@@ -137,6 +137,21 @@ public class MigrationFileStorageService {
         return new java.io.BufferedInputStream(Files.newInputStream(filePath));
     }
     
+    /**
+     * Resolve stored file path by job ID
+     * Used by file-backed readers (ZipFile/FileChannel) that should not go through an InputStream
+     */
+    public Path getFilePath(UUID jobId, String originalFileName) throws IOException {
+        String fileName = jobId.toString() + "_" + originalFileName;
+        Path filePath = Paths.get(storagePath).resolve(fileName);
+
+        if (!Files.exists(filePath)) {
+            throw new IOException("File not found: " + fileName);
+        }
+
+        return filePath;
+    }
+    
     /**
      * Delete file after migration is complete
      */
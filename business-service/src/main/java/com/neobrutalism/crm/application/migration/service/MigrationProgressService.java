@@ -2,28 +2,47 @@ package com.neobrutalism.crm.application.migration.service;
 
 import com.neobrutalism.crm.application.migration.dto.JobProgressInfo;
 import com.neobrutalism.crm.application.migration.dto.ProgressInfo;
+import com.neobrutalism.crm.application.migration.model.MigrationJob;
 import com.neobrutalism.crm.application.migration.model.MigrationSheet;
+import com.neobrutalism.crm.application.migration.model.MigrationStatus;
+import com.neobrutalism.crm.application.migration.model.SheetStatus;
 import com.neobrutalism.crm.application.migration.repository.MigrationJobRepository;
 import com.neobrutalism.crm.application.migration.repository.MigrationSheetRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
  * Service for tracking migration progress in real-time
+ *
+ * ✅ Write-behind: batch progress is accumulated in memory per sheet (LongAdder counters)
+ * and flushed to excel_migration_sheets with one batched UPDATE
+ * - every migration.progress.flush-interval-ms, or
+ * - as soon as a sheet has migration.progress.flush-rows unflushed rows
+ * Progress of jobs running on this instance is served from memory; other jobs from the DB.
+ * Heartbeats are the time of the last processed batch, so StuckDetectionService still sees hung sheets.
  */
 @Slf4j
 @Service
@@ -32,142 +51,392 @@ public class MigrationProgressService {
 
     private final MigrationSheetRepository sheetRepository;
     private final MigrationJobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
     private final CacheManager cacheManager;
 
-    // Counter to track batch updates - evict cache every 10 batches
-    private final AtomicInteger batchUpdateCounter = new AtomicInteger(0);
-    
+    @Value("${migration.progress.flush-rows:50000}")
+    private long flushRows;
+
+    private final Map<UUID, SheetProgress> activeSheets = new ConcurrentHashMap<>();
+    private final Map<UUID, TrackedJob> trackedJobs = new ConcurrentHashMap<>();
+
+    /**
+     * Start serving a job's progress from memory (call once its sheets are PROCESSING)
+     */
+    public void startTracking(MigrationJob job, List<MigrationSheet> sheets) {
+        List<UUID> sheetIds = new ArrayList<>(sheets.size());
+        for (MigrationSheet sheet : sheets) {
+            activeSheets.put(sheet.getId(), new SheetProgress(sheet));
+            sheetIds.add(sheet.getId());
+        }
+        trackedJobs.put(job.getId(), new TrackedJob(job.getFileName(), sheetIds));
+        evictCachedProgress(job.getId());
+    }
+
+    /**
+     * Flush a sheet that reached a terminal state and copy the live counters onto the entity,
+     * so the caller's save() does not overwrite them with stale values
+     */
+    public void finishSheet(MigrationSheet sheet) {
+        SheetProgress progress = activeSheets.get(sheet.getId());
+        if (progress == null) {
+            return;
+        }
+        flush(List.of(progress));
+        progress.applyTo(sheet);
+        progress.status = sheet.getStatus();
+    }
+
+    /**
+     * Stop serving a job from memory (after its final status is saved)
+     */
+    public void stopTracking(UUID jobId) {
+        TrackedJob job = trackedJobs.remove(jobId);
+        if (job == null) {
+            return;
+        }
+        List<SheetProgress> remaining = new ArrayList<>();
+        for (UUID sheetId : job.sheetIds()) {
+            SheetProgress progress = activeSheets.remove(sheetId);
+            if (progress != null) {
+                remaining.add(progress);
+            }
+        }
+        flush(remaining);
+        evictCachedProgress(jobId);
+    }
+
+    /**
+     * Re-baseline a sheet resumed from its checkpoint (drops live counters of the interrupted run)
+     */
+    public void resumeSheet(MigrationSheet sheet) {
+        activeSheets.put(sheet.getId(), new SheetProgress(sheet));
+    }
+
+    public boolean isTracked(UUID jobId) {
+        return trackedJobs.containsKey(jobId);
+    }
+
+    /**
+     * Last processed row of a sheet (live value when the sheet is running on this instance)
+     */
+    public long lastProcessedRow(UUID sheetId) {
+        SheetProgress progress = activeSheets.get(sheetId);
+        if (progress != null) {
+            return progress.lastProcessedRow();
+        }
+        return sheetRepository.findById(sheetId)
+            .map(MigrationSheet::getLastProcessedRow)
+            .orElseThrow(() -> new IllegalArgumentException("Sheet not found: " + sheetId));
+    }
+
     /**
      * Get real-time progress for a sheet
      */
     @Transactional(readOnly = true)
     public ProgressInfo getSheetProgress(UUID sheetId) {
+        SheetProgress progress = activeSheets.get(sheetId);
+        if (progress != null) {
+            return progress.toProgressInfo();
+        }
+
         MigrationSheet sheet = sheetRepository.findById(sheetId)
             .orElseThrow(() -> new IllegalArgumentException("Sheet not found: " + sheetId));
-        
+        return progressOf(sheet);
+    }
+
+    private ProgressInfo progressOf(MigrationSheet sheet) {
+        SheetProgress progress = activeSheets.get(sheet.getId());
+        if (progress != null) {
+            return progress.toProgressInfo();
+        }
+        return toProgressInfo(sheet.getId(), sheet.getSheetName(), sheet.getTotalRows(),
+                              sheet.getProcessedRows(), sheet.getValidRows(), sheet.getInvalidRows(),
+                              sheet.getSkippedRows(), sheet.getStatus(), sheet.getStartedAt(),
+                              sheet.getLastHeartbeat());
+    }
+
+    /**
+     * Get overall job progress
+     * - jobs running on this instance: straight from memory (no cache, no DB)
+     * - others: DB with Redis caching, key "migration-progress::{jobId}", TTL 5 seconds
+     */
+    @Cacheable(value = "migration-progress", key = "#jobId",
+               condition = "!@migrationProgressService.isTracked(#jobId)",
+               unless = "#result.status.terminal")
+    @Transactional(readOnly = true)
+    public JobProgressInfo getJobProgress(UUID jobId) {
+        TrackedJob tracked = trackedJobs.get(jobId);
+        if (tracked != null) {
+            List<ProgressInfo> sheetProgresses = new ArrayList<>(tracked.sheetIds().size());
+            for (UUID sheetId : tracked.sheetIds()) {
+                SheetProgress progress = activeSheets.get(sheetId);
+                if (progress != null) {
+                    sheetProgresses.add(progress.toProgressInfo());
+                }
+            }
+            if (sheetProgresses.size() == tracked.sheetIds().size()) {
+                return toJobProgress(jobId, tracked.fileName(), MigrationStatus.PROCESSING, sheetProgresses);
+            }
+            // Tracking stopped concurrently - fall through to the DB
+        }
+
+        log.debug("Fetching job progress from database for job: {}", jobId);
+
+        var job = jobRepository.findById(jobId)
+            .orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
+
+        List<ProgressInfo> sheetProgresses = sheetRepository.findByJobId(jobId).stream()
+            .map(this::progressOf)
+            .collect(Collectors.toList());
+
+        return toJobProgress(jobId, job.getFileName(), job.getStatus(), sheetProgresses);
+    }
+
+    /**
+     * Record a processed batch (memory only; flushed by threshold or timer)
+     */
+    public void updateProgress(UUID sheetId, int batchNumber, int batchSize,
+                              int validCount, int invalidCount) {
+        SheetProgress progress = activeSheets.computeIfAbsent(sheetId, id -> new SheetProgress(
+            sheetRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Sheet not found: " + id))));
+
+        progress.processed.add(batchSize);
+        progress.valid.add(validCount);
+        progress.invalid.add(invalidCount);
+        progress.lastHeartbeat = Instant.now();
+
+        if (progress.unflushedRows.addAndGet(batchSize) >= flushRows) {
+            flush(List.of(progress));
+        }
+    }
+
+    /**
+     * Periodic write-behind flush of all sheets with unflushed progress
+     */
+    @Scheduled(fixedDelayString = "${migration.progress.flush-interval-ms:2000}")
+    public void flushProgress() {
+        List<SheetProgress> dirty = new ArrayList<>();
+        for (SheetProgress progress : activeSheets.values()) {
+            if (progress.unflushedRows.get() > 0 || progress.heartbeatPending()) {
+                dirty.add(progress);
+            }
+        }
+        flush(dirty);
+
+        // Untracked sheets (legacy processSheet path) are dropped once finished and flushed
+        activeSheets.values().removeIf(p -> p.status.isTerminal() && p.unflushedRows.get() == 0
+            && trackedJobs.values().stream().noneMatch(job -> job.sheetIds().contains(p.sheetId)));
+    }
+
+    /**
+     * Manually evict cache for a specific job
+     * Used when job status changes (completed, failed, cancelled)
+     */
+    @CacheEvict(value = "migration-progress", key = "#jobId")
+    public void evictJobProgressCache(UUID jobId) {
+        log.debug("Cache evicted for job: {}", jobId);
+    }
+
+    // ========== Write-behind ==========
+
+    private void evictCachedProgress(UUID jobId) {
+        Cache cache = cacheManager.getCache("migration-progress");
+        if (cache != null) {
+            cache.evict(jobId);
+        }
+    }
+
+    /**
+     * One batched UPDATE with absolute values (idempotent, order-independent)
+     * Synchronized so timer and threshold flushes do not both consume the same unflushed rows
+     */
+    private synchronized void flush(List<SheetProgress> sheets) {
+        if (sheets.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(sheets.size());
+        List<Long> flushed = new ArrayList<>(sheets.size());
+        Timestamp now = Timestamp.from(Instant.now());
+        for (SheetProgress progress : sheets) {
+            long pending = progress.unflushedRows.get();
+            Instant heartbeat = progress.lastHeartbeat;
+            args.add(new Object[] {
+                progress.processedRows(), progress.validRows(), progress.invalidRows(),
+                progress.lastProcessedRow(), progress.progressPercent(),
+                heartbeat != null ? Timestamp.from(heartbeat) : null, now, progress.sheetId
+            });
+            flushed.add(pending);
+            progress.flushedHeartbeat = heartbeat;
+        }
+
+        jdbcTemplate.batchUpdate("""
+            UPDATE excel_migration_sheets
+            SET processed_rows = ?,
+                valid_rows = ?,
+                invalid_rows = ?,
+                last_processed_row = ?,
+                progress_percent = ?,
+                last_heartbeat = COALESCE(?, last_heartbeat),
+                updated_at = ?
+            WHERE id = ?
+            """, args);
+
+        for (int i = 0; i < sheets.size(); i++) {
+            sheets.get(i).unflushedRows.addAndGet(-flushed.get(i));
+        }
+        log.trace("Flushed progress of {} sheet(s)", sheets.size());
+    }
+
+    private record TrackedJob(String fileName, List<UUID> sheetIds) {}
+
+    /**
+     * Live counters of one sheet: DB baseline at registration + in-memory deltas
+     */
+    private static final class SheetProgress {
+        private final UUID sheetId;
+        private final String sheetName;
+        private final long totalRows;
+        private final long baseProcessed;
+        private final long baseValid;
+        private final long baseInvalid;
+        private final long baseLastProcessedRow;
+        private final long skippedRows;
+        private final Instant startedAt;
+
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder valid = new LongAdder();
+        private final LongAdder invalid = new LongAdder();
+        private final AtomicLong unflushedRows = new AtomicLong();
+        private volatile Instant lastHeartbeat;
+        private volatile Instant flushedHeartbeat;
+        private volatile SheetStatus status;
+
+        private SheetProgress(MigrationSheet sheet) {
+            this.sheetId = sheet.getId();
+            this.sheetName = sheet.getSheetName();
+            this.totalRows = sheet.getTotalRows();
+            this.baseProcessed = sheet.getProcessedRows();
+            this.baseValid = sheet.getValidRows();
+            this.baseInvalid = sheet.getInvalidRows();
+            this.baseLastProcessedRow = sheet.getLastProcessedRow();
+            this.skippedRows = sheet.getSkippedRows();
+            this.startedAt = sheet.getStartedAt() != null ? sheet.getStartedAt() : Instant.now();
+            this.lastHeartbeat = sheet.getLastHeartbeat();
+            this.flushedHeartbeat = sheet.getLastHeartbeat();
+            this.status = sheet.getStatus() != null ? sheet.getStatus() : SheetStatus.PROCESSING;
+        }
+
+        private long processedRows() {
+            return baseProcessed + processed.sum();
+        }
+
+        private long validRows() {
+            return baseValid + valid.sum();
+        }
+
+        private long invalidRows() {
+            return baseInvalid + invalid.sum();
+        }
+
+        private long lastProcessedRow() {
+            return baseLastProcessedRow + processed.sum();
+        }
+
+        private boolean heartbeatPending() {
+            return lastHeartbeat != null && !lastHeartbeat.equals(flushedHeartbeat);
+        }
+
+        private BigDecimal progressPercent() {
+            double progress = totalRows > 0 ? (double) processedRows() / totalRows * 100.0 : 0.0;
+            return BigDecimal.valueOf(Math.min(progress, 100.0)).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        private void applyTo(MigrationSheet sheet) {
+            sheet.setProcessedRows(processedRows());
+            sheet.setValidRows(validRows());
+            sheet.setInvalidRows(invalidRows());
+            sheet.setLastProcessedRow(lastProcessedRow());
+            sheet.setProgressPercent(progressPercent());
+            if (lastHeartbeat != null) {
+                sheet.setLastHeartbeat(lastHeartbeat);
+            }
+        }
+
+        private ProgressInfo toProgressInfo() {
+            return MigrationProgressService.toProgressInfo(sheetId, sheetName, totalRows, processedRows(),
+                validRows(), invalidRows(), skippedRows, status, startedAt, lastHeartbeat);
+        }
+    }
+
+    // ========== DTO mapping ==========
+
+    private static ProgressInfo toProgressInfo(UUID sheetId, String sheetName, long totalRows, long processedRows,
+                                               long validRows, long invalidRows, long skippedRows,
+                                               SheetStatus status, Instant startedAt, Instant lastHeartbeat) {
         // Calculate progress percent
         double progressPercent = 0.0;
-        if (sheet.getTotalRows() > 0) {
-            progressPercent = (double) sheet.getProcessedRows() / sheet.getTotalRows() * 100.0;
+        if (totalRows > 0) {
+            progressPercent = (double) processedRows / totalRows * 100.0;
         }
-        
+
         // Calculate ETA
         Duration elapsed = Duration.ZERO;
         Duration estimatedRemaining = Duration.ZERO;
-        
-        if (sheet.getStartedAt() != null) {
-            elapsed = Duration.between(sheet.getStartedAt(), Instant.now());
-            
-            if (sheet.getProcessedRows() > 0) {
-                long remainingRows = sheet.getTotalRows() - sheet.getProcessedRows();
-                long rowsPerSecond = sheet.getProcessedRows() / Math.max(1, elapsed.getSeconds());
+
+        if (startedAt != null) {
+            elapsed = Duration.between(startedAt, Instant.now());
+
+            if (processedRows > 0) {
+                long remainingRows = totalRows - processedRows;
+                long rowsPerSecond = processedRows / Math.max(1, elapsed.getSeconds());
                 if (rowsPerSecond > 0) {
                     estimatedRemaining = Duration.ofSeconds(remainingRows / rowsPerSecond);
                 }
             }
         }
-        
+
         return ProgressInfo.builder()
             .sheetId(sheetId)
-            .sheetName(sheet.getSheetName())
-            .totalRows(sheet.getTotalRows())
-            .processedRows(sheet.getProcessedRows())
-            .validRows(sheet.getValidRows())
-            .invalidRows(sheet.getInvalidRows())
-            .skippedRows(sheet.getSkippedRows())
+            .sheetName(sheetName)
+            .totalRows(totalRows)
+            .processedRows(processedRows)
+            .validRows(validRows)
+            .invalidRows(invalidRows)
+            .skippedRows(skippedRows)
             .progressPercent(BigDecimal.valueOf(progressPercent)
                 .setScale(2, RoundingMode.HALF_UP))
-            .status(sheet.getStatus())
+            .status(status)
             .elapsedTime(elapsed)
             .estimatedRemaining(estimatedRemaining)
-            .lastHeartbeat(sheet.getLastHeartbeat())
+            .lastHeartbeat(lastHeartbeat)
             .build();
     }
-    
-    /**
-     * Get overall job progress with Redis caching
-     * Cache key: "migration-progress::{jobId}"
-     * TTL: 5 seconds (defined in cache config)
-     */
-    @Cacheable(value = "migration-progress", key = "#jobId", unless = "#result.status.terminal")
-    @Transactional(readOnly = true)
-    public JobProgressInfo getJobProgress(UUID jobId) {
-        log.debug("Fetching job progress from database for job: {}", jobId);
 
-        var job = jobRepository.findById(jobId)
-            .orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
-
-        List<MigrationSheet> sheets = sheetRepository.findByJobId(jobId);
-        
+    private static JobProgressInfo toJobProgress(UUID jobId, String fileName, MigrationStatus status,
+                                                 List<ProgressInfo> sheets) {
         long totalRows = sheets.stream()
-            .mapToLong(MigrationSheet::getTotalRows)
+            .mapToLong(ProgressInfo::getTotalRows)
             .sum();
-        
+
         long processedRows = sheets.stream()
-            .mapToLong(MigrationSheet::getProcessedRows)
+            .mapToLong(ProgressInfo::getProcessedRows)
             .sum();
-        
-        double overallProgress = totalRows > 0 
-            ? (double) processedRows / totalRows * 100.0 
+
+        double overallProgress = totalRows > 0
+            ? (double) processedRows / totalRows * 100.0
             : 0.0;
-        
-        List<ProgressInfo> sheetProgresses = sheets.stream()
-            .map(sheet -> getSheetProgress(sheet.getId()))
-            .collect(Collectors.toList());
-        
+
         return JobProgressInfo.builder()
             .jobId(jobId)
-            .fileName(job.getFileName())
+            .fileName(fileName)
             .totalSheets(sheets.size())
             .totalRows(totalRows)
             .processedRows(processedRows)
             .overallProgress(BigDecimal.valueOf(overallProgress)
                 .setScale(2, RoundingMode.HALF_UP))
-            .sheets(sheetProgresses)
-            .status(job.getStatus())
+            .sheets(sheets)
+            .status(status)
             .build();
     }
-    
-    /**
-     * Update sheet progress with smart cache eviction
-     * Evicts cache every 10 batches to balance freshness and performance
-     */
-    @Transactional
-    public void updateProgress(UUID sheetId, int batchNumber, int batchSize,
-                              int validCount, int invalidCount) {
-        MigrationSheet sheet = sheetRepository.findById(sheetId)
-            .orElseThrow();
-
-        sheet.setProcessedRows(sheet.getProcessedRows() + batchSize);
-        sheet.setValidRows(sheet.getValidRows() + validCount);
-        sheet.setInvalidRows(sheet.getInvalidRows() + invalidCount);
-        sheet.setLastProcessedRow(sheet.getLastProcessedRow() + batchSize);
-        sheet.setLastHeartbeat(Instant.now());
-
-        // Calculate progress percent
-        if (sheet.getTotalRows() > 0) {
-            double progress = (double) sheet.getProcessedRows() / sheet.getTotalRows() * 100.0;
-            sheet.setProgressPercent(BigDecimal.valueOf(progress)
-                .setScale(2, RoundingMode.HALF_UP));
-        }
-
-        sheetRepository.save(sheet);
-
-        // Evict cache every 10 batches to keep progress updates reasonably fresh
-        // This reduces cache evictions from ~20 per sheet to ~2 per sheet
-        if (batchUpdateCounter.incrementAndGet() % 10 == 0) {
-            evictJobProgressCache(sheet.getJobId());
-            log.debug("Evicted cache for job: {} after {} batches", sheet.getJobId(), batchUpdateCounter.get());
-        }
-    }
-
-    /**
-     * Manually evict cache for a specific job
-     * Used when job status changes (completed, failed, cancelled)
-     */
-    @CacheEvict(value = "migration-progress", key = "#jobId")
-    public void evictJobProgressCache(UUID jobId) {
-        log.debug("Cache evicted for job: {}", jobId);
-    }
 }
-
@@ -54,8 +54,8 @@ public class RecoveryService {
             return;
         }
         
-        log.info("Recovering stuck sheet: {} (last processed row: {})", 
-                 sheetId, sheet.getLastProcessedRow());
+        log.info("Recovering stuck sheet: {} (last processed row: {}, checkpoint row: {})",
+                 sheetId, sheet.getLastProcessedRow(), sheet.getCheckpointRow());
         
         // Check if sheet is actually stuck or just slow
         if (sheet.getLastHeartbeat() != null) {
@@ -78,11 +78,11 @@ public class RecoveryService {
         sheet.setErrorMessage(null);
         sheetRepository.save(sheet);
         
-        log.info("Resuming processing for sheet: {} from row {}",
-                 sheetId, sheet.getLastProcessedRow());
+        log.info("Resuming processing for sheet: {} after checkpoint row {} (batch {})",
+                 sheetId, sheet.getCheckpointRow(), sheet.getCheckpointBatch());
 
         // Resume processing by calling processSheet again
-        // It will check lastProcessedRow and continue from there
+        // The sheet was started before, so it continues after its checkpoint (SheetCheckpointService)
         try {
             migrationService.processSheet(sheetId);
             log.info("Successfully resumed processing for sheet: {}", sheetId);
@@ -0,0 +1,161 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import com.neobrutalism.crm.application.migration.model.MigrationSheet;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Checkpoints for resumable sheet ingestion
+ *
+ * Every staged batch commits in one transaction with the sheet checkpoint
+ * (data rows and batches committed, valid / invalid counters), so checkpoint_row is always
+ * the longest prefix of the sheet that is fully in staging.
+ *
+ * Batches must be delivered in source order by one reader: a {@link BatchCursor} numbers each
+ * batch's rows from the sheet's own committed position and only moves once the batch commits.
+ * A batch that fails rolls back with its checkpoint and fails the sheet.
+ *
+ * A resumed sheet:
+ * - drops row errors past the checkpoint (validation errors are logged REQUIRES_NEW, so a
+ *   rolled-back batch can leave them behind; its staging rows are gone with the batch)
+ * - restores its progress counters from the checkpoint
+ * - skips the first checkpoint_row data rows in the SAX handler without building beans
+ */
+@Slf4j
+@Service
+public class SheetCheckpointService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+
+    public SheetCheckpointService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Committed position of a sheet
+     *
+     * @param row data rows committed to staging (= last staged row number)
+     * @param batch batches committed (= number of the next batch)
+     */
+    public record Checkpoint(long row, int batch, long validRows, long invalidRows) {
+        public static final Checkpoint START = new Checkpoint(0, 0, 0, 0);
+    }
+
+    /**
+     * Position of the next batch of a sheet being streamed
+     *
+     * Advanced only by {@link #commitBatch} after the batch's transaction committed, so the
+     * first row of a batch is always the row after the last committed one.
+     */
+    public static final class BatchCursor {
+        private long row;
+        private int batch;
+
+        public BatchCursor(Checkpoint checkpoint) {
+            this.row = checkpoint.row();
+            this.batch = checkpoint.batch();
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public int getBatch() {
+            return batch;
+        }
+
+        private void committed(int rows) {
+            row += rows;
+            batch++;
+        }
+    }
+
+    /**
+     * Stages one batch with its checkpoint (joins the batch transaction)
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        /**
+         * @param fromRow data rows of the sheet before this batch (row numbers start at fromRow + 1)
+         */
+        void write(List<T> batch, long fromRow, int batchNumber);
+    }
+
+    /**
+     * Run one batch (staging COPY / JDBC inserts + {@link #advance}) in its own transaction and
+     * move the cursor past it once committed; a failure propagates with the cursor unchanged
+     */
+    public <T> void commitBatch(BatchCursor cursor, List<T> batch, BatchWriter<T> writer) {
+        synchronized (cursor) {
+            long fromRow = cursor.getRow();
+            int batchNumber = cursor.getBatch();
+            batchTransaction.executeWithoutResult(status -> writer.write(batch, fromRow, batchNumber));
+            cursor.committed(batch.size());
+        }
+    }
+
+    /**
+     * Move the checkpoint past a staged batch (joins the batch transaction)
+     *
+     * The checkpoint must still be at fromRow; otherwise the rows were numbered from a position
+     * that was never committed and the batch is rolled back.
+     *
+     * @throws IllegalStateException when the checkpoint is not at fromRow
+     */
+    public void advance(UUID sheetId, long fromRow, int rows, int batchNumber, int validRows, int invalidRows) {
+        int updated = jdbcTemplate.update("""
+            UPDATE excel_migration_sheets
+            SET checkpoint_row = ?,
+                checkpoint_batch = ?,
+                checkpoint_valid_rows = checkpoint_valid_rows + ?,
+                checkpoint_invalid_rows = checkpoint_invalid_rows + ?
+            WHERE id = ? AND checkpoint_row = ?
+            """, fromRow + rows, batchNumber + 1, validRows, invalidRows, sheetId, fromRow);
+
+        if (updated == 0) {
+            throw new IllegalStateException("Checkpoint of sheet " + sheetId + " is not at row " + fromRow
+                + ", batch " + batchNumber + " rolled back");
+        }
+    }
+
+    /**
+     * Prepare a previously started sheet for resumption and return where to continue
+     *
+     * Cost is bounded by the errors past the checkpoint (indexed range delete), not the sheet size.
+     * Counters are applied to the entity; the caller's save() persists them.
+     */
+    public Checkpoint resume(MigrationSheet sheet) {
+        Checkpoint checkpoint = new Checkpoint(sheet.getCheckpointRow(), sheet.getCheckpointBatch(),
+            sheet.getCheckpointValidRows(), sheet.getCheckpointInvalidRows());
+
+        int errorRows = jdbcTemplate.update(
+            "DELETE FROM excel_migration_errors WHERE sheet_id = ? AND row_number > ?",
+            sheet.getId(), checkpoint.row());
+
+        sheet.setProcessedRows(checkpoint.row());
+        sheet.setLastProcessedRow(checkpoint.row());
+        sheet.setValidRows(checkpoint.validRows());
+        sheet.setInvalidRows(checkpoint.invalidRows());
+        sheet.setProgressPercent(sheet.getTotalRows() > 0
+            ? BigDecimal.valueOf(Math.min(checkpoint.row() * 100.0 / sheet.getTotalRows(), 100.0))
+                .setScale(2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO);
+
+        log.info("Resuming sheet {} after row {} (batch {}), dropped {} error(s) past the checkpoint",
+                 sheet.getId(), checkpoint.row(), checkpoint.batch(), errorRows);
+        return checkpoint;
+    }
+}
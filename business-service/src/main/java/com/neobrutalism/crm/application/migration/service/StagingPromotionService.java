@@ -0,0 +1,508 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import com.neobrutalism.crm.application.migration.dto.MigrationResult;
+import com.neobrutalism.crm.application.migration.monitoring.MigrationMonitor;
+import com.neobrutalism.crm.domain.customer.model.Customer;
+import com.neobrutalism.crm.domain.customer.model.CustomerStatus;
+import com.neobrutalism.crm.domain.customer.model.CustomerType;
+import com.neobrutalism.crm.domain.customer.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Set-based staging → master promotion
+ *
+ * Promotes valid staging rows without per-row existence checks or JPA dirty-checking.
+ * Valid staging rows are split into row_number key ranges (chunks); each chunk is promoted
+ * with a fixed number of statements regardless of its size:
+ *
+ * PostgreSQL (one statement per chunk, chunks run in parallel):
+ *   WITH candidates AS (SELECT ... FROM staging WHERE chunk),
+ *        inserted   AS (INSERT INTO master SELECT ... ON CONFLICT DO NOTHING RETURNING key),
+ *        marked     AS (UPDATE staging ... FROM candidates LEFT JOIN inserted ... RETURNING ...)
+ *   SELECT counts FROM marked
+ *
+ * Other databases (H2): anti-join (mark existing → INSERT ... SELECT ... → mark inserted),
+ * chunks run sequentially because there is no ON CONFLICT to arbitrate concurrent inserts.
+ *
+ * Customers (CIF) are full aggregate roots (version, audit columns, domain events) so they are
+ * still saved through JPA, but the existence check is one IN query per chunk instead of one per row.
+ *
+ * Per-chunk latency is reported through MigrationMonitor.recordBatchProcessing.
+ */
+@Slf4j
+@Service
+public class StagingPromotionService {
+
+    private static final Pattern STAGING_ALIAS = Pattern.compile("\\bs\\.");
+
+    /**
+     * Mapping of one staging table to its master table
+     *
+     * @param masterColumns master columns (excluding tenant_id, source_system, migration_job_id)
+     * @param stagingColumns staging expressions aligned with masterColumns, written against alias "s"
+     * @param required staging predicate a row must satisfy to be promotable (alias "s")
+     * @param partitionKey staging natural key used to keep the first-seen row within a chunk (alias "s")
+     * @param conflictTarget master unique index columns for ON CONFLICT
+     * @param masterMatch predicate matching master alias "m" to staging alias "s" on the natural key
+     * @param returningKey master key column returned by the INSERT
+     * @param returningMatch predicate matching RETURNING alias "i" to staging alias "s"
+     */
+    private record PromotionSpec(
+        String name,
+        String stagingTable,
+        String masterTable,
+        String masterColumns,
+        String stagingColumns,
+        String required,
+        String partitionKey,
+        String conflictTarget,
+        String masterMatch,
+        String returningKey,
+        String returningMatch
+    ) {}
+
+    private static final PromotionSpec HOP_DONG = new PromotionSpec(
+        "HSBG_HOP_DONG",
+        "staging_hsbg_hop_dong",
+        "contracts",
+        """
+            contract_number, customer_cif, customer_name, customer_segment,
+            unit_code, warehouse_vpbank, delivery_responsibility,
+            document_type, document_flow, volume_name, volume_quantity,
+            product, credit_term_category, credit_term_months,
+            required_delivery_date, delivery_date, disbursement_date, due_date, expected_destruction_date,
+            pdm_case_status, box_code, vpbank_warehouse_entry_date, crown_warehouse_transfer_date,
+            area, "row", "column", box_condition, box_status,
+            dao_code, ts_code, rrt_id, nq_code, notes""",
+        """
+            s.so_hop_dong, s.so_cif_cccd_cmt, s.ten_khach_hang, s.phan_khach_khach_hang,
+            s.ma_don_vi, s.kho_vpbank, s.trach_nhiem_ban_giao,
+            s.loai_ho_so, s.luong_ho_so, s.ten_tap, s.so_luong_tap,
+            s.san_pham, s.phan_han_cap_td, s.thoi_han_cap_td,
+            s.ngay_phai_ban_giao, s.ngay_ban_giao, s.ngay_giai_ngan, s.ngay_den_han, s.ngay_du_kien_tieu_huy,
+            s.trang_thai_case_pdm, s.ma_thung, s.ngay_nhap_kho_vpbank, s.ngay_chuyen_kho_crown,
+            s.khu_vuc, s.hang, s.cot, s.tinh_trang_thung, s.trang_thai_thung,
+            s.ma_dao, s.ma_ts, s.rrt_id, s.ma_nq, s.ghi_chu""",
+        "s.so_hop_dong IS NOT NULL AND s.so_cif_cccd_cmt IS NOT NULL",
+        "s.so_hop_dong",
+        "contract_number, tenant_id",
+        "m.contract_number = s.so_hop_dong",
+        "contract_number",
+        "i.contract_number = s.so_hop_dong"
+    );
+
+    private static final PromotionSpec TAP = new PromotionSpec(
+        "HSBG_TAP",
+        "staging_hsbg_tap",
+        "document_volumes",
+        """
+            volume_name, volume_quantity,
+            unit_code, warehouse_vpbank, delivery_responsibility,
+            document_type, document_flow, credit_term_category,
+            required_delivery_date, delivery_date,
+            product, pdm_case_status,
+            box_code, vpbank_warehouse_entry_date, crown_warehouse_transfer_date,
+            area, "row", "column", box_condition, box_status, notes""",
+        """
+            s.ten_tap, s.so_luong_tap,
+            s.ma_don_vi, s.kho_vpbank, s.trach_nhiem_ban_giao,
+            s.loai_ho_so, s.luong_ho_so, s.phan_han_cap_td,
+            s.ngay_phai_ban_giao, s.ngay_ban_giao,
+            s.san_pham, s.trang_thai_case_pdm,
+            s.ma_thung, s.ngay_nhap_kho_vpbank, s.ngay_chuyen_kho_crown,
+            s.khu_vuc, s.hang, s.cot, s.tinh_trang_thung, s.trang_thai_thung, s.ghi_chu""",
+        "s.ten_tap IS NOT NULL",
+        "s.ten_tap, s.ma_thung",
+        "tenant_id, volume_name, box_code",
+        "m.volume_name = s.ten_tap AND m.box_code = s.ma_thung",
+        "volume_name, box_code",
+        "i.volume_name = s.ten_tap AND i.box_code IS NOT DISTINCT FROM s.ma_thung"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final ThreadPoolTaskExecutor promotionExecutor;
+    private final MigrationMonitor migrationMonitor;
+    private final CustomerRepository customerRepository;
+    private final MasterKeyFilterService masterKeyFilterService;
+
+    @Value("${migration.promotion.chunk-size:5000}")
+    private int chunkSize;
+
+    private volatile Boolean postgres;
+
+    public StagingPromotionService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Qualifier("migrationPromotionExecutor") ThreadPoolTaskExecutor promotionExecutor,
+                                   MigrationMonitor migrationMonitor,
+                                   CustomerRepository customerRepository,
+                                   MasterKeyFilterService masterKeyFilterService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.promotionExecutor = promotionExecutor;
+        this.migrationMonitor = migrationMonitor;
+        this.customerRepository = customerRepository;
+        this.masterKeyFilterService = masterKeyFilterService;
+    }
+
+    /**
+     * Promote valid HSBG_HOP_DONG staging rows of a sheet to contracts
+     */
+    public MigrationResult promoteHopDong(UUID sheetId, UUID tenantId) {
+        MigrationResult result = promote(sheetId, HOP_DONG.name(), HOP_DONG.stagingTable(), isPostgres(),
+                                         range -> promoteChunk(HOP_DONG, sheetId, tenantId, range));
+        masterKeyFilterService.recordPromoted(sheetId, tenantId, MasterKeyFilterService.KeyType.CONTRACT);
+        return result;
+    }
+
+    /**
+     * Promote valid HSBG_TAP staging rows of a sheet to document_volumes
+     */
+    public MigrationResult promoteTap(UUID sheetId, UUID tenantId) {
+        MigrationResult result = promote(sheetId, TAP.name(), TAP.stagingTable(), isPostgres(),
+                                         range -> promoteChunk(TAP, sheetId, tenantId, range));
+        masterKeyFilterService.recordPromoted(sheetId, tenantId, MasterKeyFilterService.KeyType.VOLUME);
+        return result;
+    }
+
+    /**
+     * Promote valid HSBG_CIF staging rows of a sheet to customers
+     * Sequential: customers have no unique (tenant_id, code) index to arbitrate concurrent chunks
+     */
+    public MigrationResult promoteCif(UUID sheetId, UUID tenantId) {
+        return promote(sheetId, "HSBG_CIF", "staging_hsbg_cif", false,
+                       range -> promoteCifChunk(sheetId, tenantId, range));
+    }
+
+    // ========== Chunk orchestration ==========
+
+    private record KeyRange(long from, long to) {}
+
+    private record ChunkOutcome(int migrated, int skipped, int failed) {}
+
+    @FunctionalInterface
+    private interface ChunkPromoter {
+        ChunkOutcome promote(KeyRange range);
+    }
+
+    /**
+     * Split pending rows into row_number ranges and promote them (parallel on PostgreSQL)
+     */
+    private MigrationResult promote(UUID sheetId, String name, String stagingTable, boolean parallel,
+                                    ChunkPromoter promoter) {
+        List<KeyRange> ranges = keyRanges(sheetId, stagingTable);
+        if (ranges.isEmpty()) {
+            log.info("No pending {} rows to promote for sheet: {}", name, sheetId);
+            return MigrationResult.builder()
+                .totalProcessed(0).migratedCount(0).duplicateCount(0).errorCount(0).warningCount(0)
+                .build();
+        }
+
+        log.info("Promoting {} sheet {} in {} chunks of {} rows ({})",
+                 name, sheetId, ranges.size(), chunkSize, parallel ? "parallel" : "sequential");
+
+        long start = System.currentTimeMillis();
+        List<ChunkOutcome> outcomes = new ArrayList<>(ranges.size());
+        if (parallel) {
+            List<CompletableFuture<ChunkOutcome>> futures = new ArrayList<>(ranges.size());
+            for (KeyRange range : ranges) {
+                futures.add(CompletableFuture.supplyAsync(
+                    () -> timedChunk(sheetId, name, range, promoter), promotionExecutor));
+            }
+            futures.forEach(future -> outcomes.add(future.join()));
+        } else {
+            for (KeyRange range : ranges) {
+                outcomes.add(timedChunk(sheetId, name, range, promoter));
+            }
+        }
+
+        int migrated = outcomes.stream().mapToInt(ChunkOutcome::migrated).sum();
+        int skipped = outcomes.stream().mapToInt(ChunkOutcome::skipped).sum();
+        int failed = outcomes.stream().mapToInt(ChunkOutcome::failed).sum();
+
+        log.info("Promoted {} sheet {} in {} ms: migrated={}, existing/duplicate={}, failed chunks={}",
+                 name, sheetId, System.currentTimeMillis() - start, migrated, skipped, failed);
+
+        return MigrationResult.builder()
+            .totalProcessed(migrated + skipped)
+            .migratedCount(migrated)
+            .duplicateCount(skipped)
+            .errorCount(failed)
+            .warningCount(0)
+            .build();
+    }
+
+    private ChunkOutcome timedChunk(UUID sheetId, String name, KeyRange range, ChunkPromoter promoter) {
+        long chunkStart = System.currentTimeMillis();
+        ChunkOutcome outcome;
+        try {
+            outcome = chunkTransaction.execute(status -> promoter.promote(range));
+        } catch (Exception e) {
+            // Don't propagate - the chunk's rows stay pending (inserted_to_master = false) for a retry
+            log.error("Failed to promote {} chunk [{}, {}) for sheet: {}", name, range.from(), range.to(), sheetId, e);
+            outcome = new ChunkOutcome(0, 0, 1);
+        }
+        long duration = System.currentTimeMillis() - chunkStart;
+        migrationMonitor.recordBatchProcessing(sheetId, outcome.migrated() + outcome.skipped(), duration,
+                                               outcome.migrated(), outcome.skipped());
+        log.debug("{} chunk [{}, {}) promoted in {} ms: migrated={}, skipped={}",
+                  name, range.from(), range.to(), duration, outcome.migrated(), outcome.skipped());
+        return outcome;
+    }
+
+    private List<KeyRange> keyRanges(UUID sheetId, String stagingTable) {
+        String sql = """
+            SELECT MIN(s.row_number), MAX(s.row_number)
+            FROM %s s
+            WHERE s.sheet_id = ?
+              AND s.validation_status = 'VALID'
+              AND s.inserted_to_master = FALSE
+              AND s.is_duplicate = FALSE
+            """.formatted(stagingTable);
+
+        long[] bounds = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        }, sheetId);
+
+        List<KeyRange> ranges = new ArrayList<>();
+        if (bounds != null) {
+            int size = Math.max(1, chunkSize);
+            for (long from = bounds[0]; from <= bounds[1]; from += size) {
+                ranges.add(new KeyRange(from, from + size));
+            }
+        }
+        return ranges;
+    }
+
+    // ========== Contracts / document volumes ==========
+
+    private ChunkOutcome promoteChunk(PromotionSpec spec, UUID sheetId, UUID tenantId, KeyRange range) {
+        return isPostgres()
+            ? promoteChunkOnConflict(spec, sheetId, tenantId, range)
+            : promoteChunkAntiJoin(spec, sheetId, tenantId, range);
+    }
+
+    /**
+     * PostgreSQL: INSERT … SELECT … ON CONFLICT DO NOTHING RETURNING + UPDATE … FROM in one round trip
+     */
+    private ChunkOutcome promoteChunkOnConflict(PromotionSpec spec, UUID sheetId, UUID tenantId, KeyRange range) {
+        String sql = """
+            WITH candidates AS (
+                SELECT s.*, ROW_NUMBER() OVER (PARTITION BY %3$s ORDER BY s.row_number) AS rn
+                FROM %1$s s
+                WHERE %4$s
+            ), inserted AS (
+                INSERT INTO %2$s (tenant_id, %5$s, source_system, migration_job_id)
+                SELECT ?, %6$s, 'MIGRATION', c.job_id
+                FROM candidates c
+                WHERE c.rn = 1
+                ON CONFLICT (%7$s) DO NOTHING
+                RETURNING %8$s
+            ), marked AS (
+                UPDATE %1$s t
+                SET inserted_to_master = (c.rn = 1 AND i.%9$s IS NOT NULL),
+                    inserted_at = CASE WHEN c.rn = 1 AND i.%9$s IS NOT NULL THEN CURRENT_TIMESTAMP END,
+                    master_data_exists = NOT (c.rn = 1 AND i.%9$s IS NOT NULL)
+                FROM candidates c
+                LEFT JOIN inserted i ON %10$s
+                WHERE t.id = c.id
+                RETURNING t.inserted_to_master
+            )
+            SELECT COUNT(*) FILTER (WHERE inserted_to_master), COUNT(*) FILTER (WHERE NOT inserted_to_master)
+            FROM marked
+            """.formatted(
+                spec.stagingTable(), spec.masterTable(), spec.partitionKey(), chunkFilter(spec, "s"),
+                spec.masterColumns(), alias(spec.stagingColumns(), "c"), spec.conflictTarget(),
+                spec.returningKey(), spec.returningKey().split(",")[0].trim(),
+                alias(spec.returningMatch(), "c"));
+
+        return jdbcTemplate.queryForObject(sql,
+            (rs, rowNum) -> new ChunkOutcome(rs.getInt(1), rs.getInt(2), 0),
+            sheetId, range.from(), range.to(), tenantId);
+    }
+
+    /**
+     * Portable anti-join: mark existing → INSERT … SELECT … WHERE master_data_exists = FALSE → mark inserted
+     */
+    private ChunkOutcome promoteChunkAntiJoin(PromotionSpec spec, UUID sheetId, UUID tenantId, KeyRange range) {
+        String markExisting = """
+            UPDATE %1$s t
+            SET master_data_exists = CASE WHEN
+                    EXISTS (SELECT 1 FROM %2$s m WHERE m.tenant_id = ? AND %3$s)
+                    OR EXISTS (SELECT 1 FROM %1$s e WHERE %4$s AND %5$s AND e.row_number < t.row_number)
+                THEN TRUE ELSE FALSE END
+            WHERE %6$s
+            """.formatted(
+                spec.stagingTable(), spec.masterTable(), alias(spec.masterMatch(), "t"),
+                chunkFilter(spec, "e"), samePartition(spec, "e", "t"), chunkFilter(spec, "t"));
+
+        String insert = """
+            INSERT INTO %1$s (tenant_id, %2$s, source_system, migration_job_id)
+            SELECT ?, %3$s, 'MIGRATION', s.job_id
+            FROM %4$s s
+            WHERE %5$s AND s.master_data_exists = FALSE
+            """.formatted(
+                spec.masterTable(), spec.masterColumns(), spec.stagingColumns(),
+                spec.stagingTable(), chunkFilter(spec, "s"));
+
+        String markInserted = """
+            UPDATE %1$s t
+            SET inserted_to_master = TRUE, inserted_at = CURRENT_TIMESTAMP
+            WHERE %2$s AND t.master_data_exists = FALSE
+            """.formatted(spec.stagingTable(), chunkFilter(spec, "t"));
+
+        int candidates = jdbcTemplate.update(markExisting,
+            tenantId, sheetId, range.from(), range.to(), sheetId, range.from(), range.to());
+        jdbcTemplate.update(insert, tenantId, sheetId, range.from(), range.to());
+        int migrated = jdbcTemplate.update(markInserted, sheetId, range.from(), range.to());
+
+        return new ChunkOutcome(migrated, candidates - migrated, 0);
+    }
+
+    // ========== Customers (JPA, bulk existence check) ==========
+
+    private record CifRow(UUID id, String cif, String customerName, String segment, String notes) {}
+
+    private ChunkOutcome promoteCifChunk(UUID sheetId, UUID tenantId, KeyRange range) {
+        String select = """
+            SELECT s.id, s.so_cif, s.ten_khach_hang, s.phan_khach_khach_hang, s.ghi_chu
+            FROM staging_hsbg_cif s
+            WHERE s.sheet_id = ?
+              AND s.row_number >= ? AND s.row_number < ?
+              AND s.validation_status = 'VALID'
+              AND s.inserted_to_master = FALSE
+              AND s.is_duplicate = FALSE
+              AND s.so_cif IS NOT NULL
+            ORDER BY s.row_number
+            """;
+        List<CifRow> rows = jdbcTemplate.query(select,
+            (rs, rowNum) -> new CifRow(rs.getObject(1, UUID.class), rs.getString(2),
+                                       rs.getString(3), rs.getString(4), rs.getString(5)),
+            sheetId, range.from(), range.to());
+        if (rows.isEmpty()) {
+            return new ChunkOutcome(0, 0, 0);
+        }
+
+        Set<String> codes = new HashSet<>();
+        rows.forEach(row -> codes.add(row.cif()));
+        // Exact lookup, no Bloom pre-screen: customers has no tenant-level unique key to catch a missed CIF
+        Set<String> existing = masterKeyFilterService.findExistingExact(tenantId, MasterKeyFilterService.KeyType.CIF, codes);
+
+        // First-seen row per CIF wins; everything else is an existing/duplicate customer
+        Map<String, CifRow> firstSeen = new HashMap<>();
+        List<UUID> skippedIds = new ArrayList<>();
+        for (CifRow row : rows) {
+            if (existing.contains(row.cif()) || firstSeen.putIfAbsent(row.cif(), row) != null) {
+                skippedIds.add(row.id());
+            }
+        }
+
+        List<Customer> customers = new ArrayList<>(firstSeen.size());
+        for (CifRow row : firstSeen.values()) {
+            Customer customer = new Customer();
+            customer.setTenantId(tenantId.toString());
+            customer.setCode(row.cif());
+            customer.setCompanyName(row.customerName() != null ? row.customerName() : "Unknown");
+            customer.setCustomerType(CustomerType.B2B); // Default from migration
+            customer.setStatus(CustomerStatus.ACTIVE);
+            customer.setTags(row.segment());
+            customer.setNotes(row.notes());
+            customers.add(customer);
+        }
+        customerRepository.saveAll(customers);
+        masterKeyFilterService.record(tenantId, MasterKeyFilterService.KeyType.CIF, firstSeen.keySet());
+
+        List<UUID> insertedIds = firstSeen.values().stream().map(CifRow::id).toList();
+        markStaging("staging_hsbg_cif", insertedIds, true);
+        markStaging("staging_hsbg_cif", skippedIds, false);
+
+        return new ChunkOutcome(insertedIds.size(), skippedIds.size(), 0);
+    }
+
+    /**
+     * Mark staging rows with one UPDATE … FROM over the id array (IN list on non-PostgreSQL)
+     */
+    private void markStaging(String stagingTable, List<UUID> ids, boolean inserted) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String set = inserted
+            ? "inserted_to_master = TRUE, inserted_at = CURRENT_TIMESTAMP, master_data_exists = FALSE"
+            : "master_data_exists = TRUE";
+        if (isPostgres()) {
+            jdbcTemplate.update(
+                "UPDATE " + stagingTable + " t SET " + set
+                    + " FROM unnest(?::uuid[]) AS ids(id) WHERE t.id = ids.id",
+                (Object) ids.stream().map(UUID::toString).toArray(String[]::new));
+        } else {
+            jdbcTemplate.update(
+                "UPDATE " + stagingTable + " t SET " + set
+                    + " WHERE t.id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")",
+                ids.toArray());
+        }
+    }
+
+    // ========== SQL helpers ==========
+
+    /**
+     * Pending valid rows of the chunk; binds sheet_id, row_number from, row_number to
+     */
+    private static String chunkFilter(PromotionSpec spec, String alias) {
+        return alias("""
+            s.sheet_id = ?
+                  AND s.row_number >= ? AND s.row_number < ?
+                  AND s.validation_status = 'VALID'
+                  AND s.inserted_to_master = FALSE
+                  AND s.is_duplicate = FALSE
+                  AND\s""" + spec.required(), alias);
+    }
+
+    private static String samePartition(PromotionSpec spec, String left, String right) {
+        List<String> predicates = new ArrayList<>();
+        for (String column : spec.partitionKey().split(",")) {
+            String name = column.trim().substring(2);
+            predicates.add(left + "." + name + " IS NOT DISTINCT FROM " + right + "." + name);
+        }
+        return String.join(" AND ", predicates);
+    }
+
+    /**
+     * Rewrite "s." column references to the given alias
+     */
+    private static String alias(String sql, String alias) {
+        return STAGING_ALIAS.matcher(sql).replaceAll(Matcher.quoteReplacement(alias + "."));
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+}
@@ -0,0 +1,62 @@
+package com.neobrutalism.crm.common.audit;
+
+import com.neobrutalism.crm.utils.ExcelColumn;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for exporting audit logs to Excel / CSV
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogExportDto {
+
+    @ExcelColumn(name = "Timestamp", index = 0)
+    private String createdAt;
+
+    @ExcelColumn(name = "User", index = 1)
+    private String username;
+
+    @ExcelColumn(name = "Action", index = 2)
+    private String action;
+
+    @ExcelColumn(name = "Entity Type", index = 3)
+    private String entityType;
+
+    @ExcelColumn(name = "Entity ID", index = 4)
+    private String entityId;
+
+    @ExcelColumn(name = "Description", index = 5)
+    private String description;
+
+    @ExcelColumn(name = "Success", index = 6)
+    private String success;
+
+    @ExcelColumn(name = "Error", index = 7)
+    private String errorMessage;
+
+    @ExcelColumn(name = "IP Address", index = 8)
+    private String ipAddress;
+
+    @ExcelColumn(name = "Execution Time (ms)", index = 9)
+    private Long executionTimeMs;
+
+    public static AuditLogExportDto from(AuditLog auditLog) {
+        return AuditLogExportDto.builder()
+            .createdAt(auditLog.getCreatedAt() != null ? auditLog.getCreatedAt().toString() : null)
+            .username(auditLog.getUsername())
+            .action(auditLog.getAction() != null ? auditLog.getAction().name() : null)
+            .entityType(auditLog.getEntityType())
+            .entityId(auditLog.getEntityId() != null ? auditLog.getEntityId().toString() : null)
+            .description(auditLog.getDescription())
+            .success(Boolean.FALSE.equals(auditLog.getSuccess()) ? "No" : "Yes")
+            .errorMessage(auditLog.getErrorMessage())
+            .ipAddress(auditLog.getIpAddress())
+            .executionTimeMs(auditLog.getExecutionTimeMs())
+            .build();
+    }
+}
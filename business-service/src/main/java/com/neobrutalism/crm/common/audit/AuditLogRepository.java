@@ -1,15 +1,19 @@
 package com.neobrutalism.crm.common.audit;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for application audit logs
@@ -102,4 +106,20 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
             @Param("entityType") String entityType,
             @Param("action") AuditAction action,
             Pageable pageable);
+
+    /**
+     * Cursor over a tenant's audit logs in a time window, for streaming exports
+     * (must be consumed inside a read-only transaction and closed)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM ApplicationAuditLog a WHERE a.tenantId = :tenantId " +
+           "AND a.createdAt BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.createdAt DESC")
+    Stream<AuditLog> streamByTenantIdAndCreatedAtBetween(
+            @Param("tenantId") UUID tenantId,
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate);
 }
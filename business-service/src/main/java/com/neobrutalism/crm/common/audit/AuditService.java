@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service for managing audit logs
@@ -144,6 +145,19 @@ public class AuditService {
         return auditLogRepository.findByTenantIdAndCreatedAtBetween(tenantId, startDate, endDate, pageable);
     }
 
+    /**
+     * Stream audit logs in a date range for export
+     *
+     * @param tenantId Tenant ID
+     * @param startDate Start date
+     * @param endDate End date
+     * @return Cursor over audit logs, newest first (caller closes it inside its transaction)
+     */
+    @Transactional(readOnly = true)
+    public Stream<AuditLog> streamAuditLogs(UUID tenantId, Instant startDate, Instant endDate) {
+        return auditLogRepository.streamByTenantIdAndCreatedAtBetween(tenantId, startDate, endDate);
+    }
+
     /**
      * Get failed operations
      * 
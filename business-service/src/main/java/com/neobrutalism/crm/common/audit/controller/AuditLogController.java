@@ -1,7 +1,9 @@
 package com.neobrutalism.crm.common.audit.controller;
 
+import com.neobrutalism.crm.application.excel.service.StreamingExportService;
 import com.neobrutalism.crm.common.audit.AuditAction;
 import com.neobrutalism.crm.common.audit.AuditLog;
+import com.neobrutalism.crm.common.audit.AuditLogExportDto;
 import com.neobrutalism.crm.common.audit.AuditService;
 import com.neobrutalism.crm.common.multitenancy.TenantContext;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,6 +19,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -36,6 +39,7 @@ import java.util.UUID;
 public class AuditLogController {
 
     private final AuditService auditService;
+    private final StreamingExportService streamingExportService;
 
     /**
      * Get audit logs for current tenant with pagination
@@ -76,6 +80,28 @@ public class AuditLogController {
         return ResponseEntity.ok(auditLogs);
     }
 
+    /**
+     * Export audit logs for current tenant, streamed to the response
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AUDITOR')")
+    @Operation(summary = "Export tenant audit logs", description = "Streams audit logs of the current tenant (newest first) as XLSX or CSV (optionally gzip-compressed CSV)")
+    public ResponseEntity<StreamingResponseBody> exportTenantAuditLogs(
+            @Parameter(description = "Output format") @RequestParam(defaultValue = "CSV") StreamingExportService.Format format,
+            @Parameter(description = "Gzip the CSV body") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "Start date (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @Parameter(description = "End date (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+    ) {
+        UUID tenantIdUUID = UUID.fromString(TenantContext.getCurrentTenant());
+        Instant startInstant = startDate != null ? startDate.atZone(ZoneId.systemDefault()).toInstant() : Instant.EPOCH;
+        Instant endInstant = endDate != null ? endDate.atZone(ZoneId.systemDefault()).toInstant() : Instant.now();
+        log.debug("Exporting audit logs for tenant: {} from {} to {} as {}", tenantIdUUID, startInstant, endInstant, format);
+
+        return streamingExportService.export("audit_logs", format, gzip,
+                () -> auditService.streamAuditLogs(tenantIdUUID, startInstant, endInstant),
+                AuditLogExportDto::from, AuditLogExportDto.class);
+    }
+
     /**
      * Get audit history for a specific entity
      */
@@ -0,0 +1,191 @@
+package com.neobrutalism.crm.common.cache;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * CacheManager decorator that publishes evictions of node-local Spring caches to the other nodes
+ *
+ * Every evict / clear on a cache it hands out (@CacheEvict, CacheInvalidationService, direct
+ * use) is applied locally and published on the {@link CacheInvalidationBus}. Invalidations from
+ * other nodes are applied to the target manager directly, so they are not published again.
+ *
+ * Keys: simple value keys (UUID, numbers, enums, ...) are stored under their String form, the
+ * conversion RedisCache applies to its keys, so a published key evicts the same entry on every
+ * node. Other keys (SimpleKey of several arguments, entities) are kept as they are; evicting
+ * one clears the cache on the other nodes, since the key cannot be rebuilt there.
+ */
+public class BroadcastingCacheManager implements CacheManager, CacheInvalidationHandler {
+
+    public static final String REGION = "spring";
+
+    private final CacheManager target;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+    private final ConcurrentMap<String, Cache> decorated = new ConcurrentHashMap<>();
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    public BroadcastingCacheManager(CacheManager target, ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        this.target = target;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = decorated.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache targetCache = target.getCache(name);
+        if (targetCache == null) {
+            return null;
+        }
+        return decorated.computeIfAbsent(name, key -> new BroadcastingCache(targetCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return target.getCacheNames();
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    @Override
+    public void apply(CacheInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            for (String name : target.getCacheNames()) {
+                Cache cache = target.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            return;
+        }
+        Cache cache = target.getCache(invalidation.scope());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            cache.clear();
+        } else {
+            cache.evict(invalidation.key());
+        }
+    }
+
+    private void publish(String cacheName, Object key) {
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null) {
+            bus.publish(CacheInvalidation.of(REGION, cacheName, key instanceof String text ? text : null, null));
+        }
+    }
+
+    /**
+     * Key the target cache is used with: the String form of a simple value key, any other key as is
+     */
+    private Object cacheKey(Object key) {
+        if (key == null || key instanceof String || !BeanUtils.isSimpleValueType(key.getClass())) {
+            return key;
+        }
+        String text = conversionService.convert(key, String.class);
+        return text != null ? text : key;
+    }
+
+    /**
+     * Reads and writes pass through; evictions are also published
+     */
+    private final class BroadcastingCache implements Cache {
+
+        private final Cache delegate;
+
+        BroadcastingCache(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(cacheKey(key));
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(cacheKey(key), type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(cacheKey(key), valueLoader);
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            return delegate.retrieve(cacheKey(key));
+        }
+
+        @Override
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            return delegate.retrieve(cacheKey(key), valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(cacheKey(key), value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(cacheKey(key), value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            Object cacheKey = cacheKey(key);
+            delegate.evict(cacheKey);
+            publish(getName(), cacheKey);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            // Other nodes may hold the key even when this one does not
+            Object cacheKey = cacheKey(key);
+            boolean present = delegate.evictIfPresent(cacheKey);
+            publish(getName(), cacheKey);
+            return present;
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+            publish(getName(), null);
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean present = delegate.invalidate();
+            publish(getName(), null);
+            return present;
+        }
+    }
+}
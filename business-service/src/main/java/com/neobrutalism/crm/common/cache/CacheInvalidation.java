@@ -0,0 +1,49 @@
+package com.neobrutalism.crm.common.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * One invalidation carried by the {@link CacheInvalidationBus}
+ *
+ * - region: which node-local cache family handles it (see {@link CacheInvalidationHandler})
+ * - scope: region-specific kind (a Spring cache name, "user", "role", ...) or {@link #ALL}
+ * - key: entry key within the scope; null means every entry of the scope
+ * - tenant: restricts the invalidation to one tenant; null means every tenant
+ */
+public record CacheInvalidation(String region, String scope, String key, String tenant) {
+
+    public static final String ALL = "*";
+
+    public static CacheInvalidation of(String region, String scope, String key, String tenant) {
+        return new CacheInvalidation(region, scope, key, tenant);
+    }
+
+    /**
+     * Every entry of a region
+     */
+    public static CacheInvalidation all(String region) {
+        return new CacheInvalidation(region, ALL, null, null);
+    }
+
+    /**
+     * Every entry of a region in one tenant
+     */
+    public static CacheInvalidation tenant(String region, String tenant) {
+        return new CacheInvalidation(region, ALL, null, tenant);
+    }
+
+    @JsonIgnore
+    public boolean isAll() {
+        return ALL.equals(scope);
+    }
+
+    /**
+     * Whether applying this invalidation also removes everything other removes
+     */
+    boolean covers(CacheInvalidation other) {
+        return region.equals(other.region)
+            && key == null
+            && (isAll() || scope.equals(other.scope))
+            && (tenant == null || tenant.equals(other.tenant));
+    }
+}
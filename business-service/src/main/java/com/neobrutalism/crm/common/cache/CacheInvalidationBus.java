@@ -0,0 +1,335 @@
+package com.neobrutalism.crm.common.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide invalidation for node-local caches over Redis pub/sub
+ *
+ * Each replica keeps its own Caffeine caches (Spring caches, Casbin L1, role hierarchy). A
+ * local invalidation is applied immediately by the caller and published here; other replicas
+ * apply it through the {@link CacheInvalidationHandler} of its region.
+ *
+ * Publishing:
+ * - Invalidations are queued and flushed every cache.invalidation-bus.flush-interval-ms, or as
+ *   soon as max-batch-size are pending
+ * - Duplicates are dropped and entries covered by a wider invalidation in the same batch
+ *   (a cache clear, a tenant-wide eviction) are coalesced into it
+ * - Each batch carries the node ID and a per-node version, incremented by one per batch
+ *
+ * Receiving:
+ * - Batches are applied in order on a single listener thread; a node's own batches are skipped
+ * - A version at or below the last one seen from that node is a duplicate and is ignored
+ * - A version gap means batches were lost (pub/sub is at-most-once, publish failures): every
+ *   registered region is cleared, so a missed message can cost hit rate but never correctness
+ *
+ * Disabled by default (single node); without Redis it stays disabled and publish() is a no-op.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+    private final ObjectProvider<CacheInvalidationHandler> handlerProvider;
+    private final ObjectMapper objectMapper;
+
+    @Value("${cache.invalidation-bus.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation-bus.channel:crm:cache-invalidation}")
+    private String channel;
+
+    @Value("${cache.invalidation-bus.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${spring.application.name:business-service}")
+    private String applicationName;
+
+    private volatile boolean active;
+    private String nodeId;
+    private StringRedisTemplate redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+    private ExecutorService listenerExecutor;
+    private volatile Map<String, CacheInvalidationHandler> handlers;
+
+    private final Object pendingLock = new Object();
+    private final Object flushLock = new Object();
+    private LinkedHashSet<CacheInvalidation> pending = new LinkedHashSet<>();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Long> lastSeenVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong batchesPublished = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+    private final AtomicLong batchesReceived = new AtomicLong();
+    private final AtomicLong invalidationsApplied = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+    private volatile long lastLagMillis;
+    private volatile long maxLagMillis;
+
+    /**
+     * Wire format: one flushed batch from one node
+     */
+    public record Batch(String node, long version, long sentAt, List<CacheInvalidation> invalidations) {
+    }
+
+    @PostConstruct
+    public void init() {
+        nodeId = applicationName + "-" + UUID.randomUUID().toString().substring(0, 8);
+        if (!enabled) {
+            log.info("Cache invalidation bus DISABLED - cache invalidations stay on this node");
+            return;
+        }
+        redisTemplate = redisTemplateProvider.getIfAvailable();
+        RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+        if (redisTemplate == null || connectionFactory == null) {
+            log.warn("Cache invalidation bus enabled but Redis is not configured - invalidations stay on this node");
+            return;
+        }
+
+        // One listener thread: batches from a node are applied in publish order
+        listenerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.setTaskExecutor(listenerExecutor);
+        listenerContainer.addMessageListener((message, pattern) -> receive(message.getBody()),
+                                             new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        active = true;
+
+        log.info("Cache invalidation bus started: node={}, channel={}, maxBatchSize={}",
+                 nodeId, channel, maxBatchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!active) {
+            return;
+        }
+        flush();
+        active = false;
+        try {
+            listenerContainer.stop();
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.debug("Error stopping cache invalidation listener: {}", e.getMessage());
+        }
+        listenerExecutor.shutdown();
+    }
+
+    /**
+     * Queue an invalidation for the other nodes (the caller has already applied it locally)
+     */
+    public void publish(CacheInvalidation invalidation) {
+        if (!active) {
+            return;
+        }
+        int size;
+        synchronized (pendingLock) {
+            pending.add(invalidation);
+            size = pending.size();
+        }
+        queued.incrementAndGet();
+        if (size >= maxBatchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Publish pending invalidations as versioned batches
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation-bus.flush-interval-ms:10}")
+    public void flush() {
+        if (!active) {
+            return;
+        }
+        // Versions go out in order: a receiver reads a reordering as a gap
+        synchronized (flushLock) {
+            List<CacheInvalidation> batch;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = coalesce(pending);
+                coalesced.addAndGet(pending.size() - batch.size());
+                pending = new LinkedHashSet<>();
+            }
+            for (int from = 0; from < batch.size(); from += maxBatchSize) {
+                send(batch.subList(from, Math.min(batch.size(), from + maxBatchSize)));
+            }
+        }
+    }
+
+    private void send(List<CacheInvalidation> invalidations) {
+        Batch batch = new Batch(nodeId, version.incrementAndGet(), System.currentTimeMillis(),
+                                List.copyOf(invalidations));
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(batch));
+            batchesPublished.incrementAndGet();
+            log.debug("Published cache invalidation batch v{} ({} invalidations)",
+                      batch.version(), invalidations.size());
+        } catch (Exception e) {
+            // The skipped version makes every receiver clear its caches on the next batch
+            publishFailures.incrementAndGet();
+            log.error("Failed to publish cache invalidation batch v{}: {}", batch.version(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop invalidations covered by a wider one in the same batch
+     */
+    static List<CacheInvalidation> coalesce(Collection<CacheInvalidation> invalidations) {
+        List<CacheInvalidation> wide = new ArrayList<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.key() == null) {
+                wide.add(invalidation);
+            }
+        }
+        if (wide.isEmpty()) {
+            return new ArrayList<>(invalidations);
+        }
+        List<CacheInvalidation> kept = new ArrayList<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            boolean covered = false;
+            for (CacheInvalidation candidate : wide) {
+                if (candidate != invalidation && candidate.covers(invalidation)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                kept.add(invalidation);
+            }
+        }
+        return kept;
+    }
+
+    private void receive(byte[] body) {
+        Batch batch;
+        try {
+            batch = objectMapper.readValue(body, Batch.class);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable cache invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(batch.node())) {
+            return;
+        }
+        batchesReceived.incrementAndGet();
+
+        Long previous = lastSeenVersions.get(batch.node());
+        if (previous != null && batch.version() <= previous) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        lastSeenVersions.put(batch.node(), batch.version());
+
+        long lag = Math.max(0, System.currentTimeMillis() - batch.sentAt());
+        lastLagMillis = lag;
+        maxLagMillis = Math.max(maxLagMillis, lag);
+
+        if (previous != null && batch.version() > previous + 1) {
+            gaps.incrementAndGet();
+            log.warn("Missed cache invalidation batches v{}..v{} from {} - clearing all node-local caches",
+                     previous + 1, batch.version() - 1, batch.node());
+            for (CacheInvalidationHandler handler : handlers().values()) {
+                apply(handler, CacheInvalidation.all(handler.region()));
+            }
+            return;
+        }
+
+        for (CacheInvalidation invalidation : batch.invalidations()) {
+            CacheInvalidationHandler handler = handlers().get(invalidation.region());
+            if (handler != null) {
+                apply(handler, invalidation);
+            } else {
+                log.debug("No cache invalidation handler for region {}", invalidation.region());
+            }
+        }
+    }
+
+    private void apply(CacheInvalidationHandler handler, CacheInvalidation invalidation) {
+        try {
+            handler.apply(invalidation);
+            invalidationsApplied.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.error("Failed to apply cache invalidation {}: {}", invalidation, e.getMessage(), e);
+        }
+    }
+
+    private Map<String, CacheInvalidationHandler> handlers() {
+        Map<String, CacheInvalidationHandler> resolved = handlers;
+        if (resolved == null) {
+            resolved = new HashMap<>();
+            for (CacheInvalidationHandler handler : handlerProvider.orderedStream().toList()) {
+                resolved.put(handler.region(), handler);
+            }
+            handlers = resolved;
+        }
+        return resolved;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Bus statistics for monitoring
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("active", active);
+        stats.put("node", nodeId);
+        if (!active) {
+            return stats;
+        }
+        stats.put("channel", channel);
+        stats.put("version", version.get());
+        stats.put("queued", queued.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("batches_published", batchesPublished.get());
+        stats.put("publish_failures", publishFailures.get());
+        stats.put("batches_received", batchesReceived.get());
+        stats.put("invalidations_applied", invalidationsApplied.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("gaps", gaps.get());
+        stats.put("last_lag_ms", lastLagMillis);
+        stats.put("max_lag_ms", maxLagMillis);
+        stats.put("peers", Map.copyOf(lastSeenVersions));
+        return stats;
+    }
+}
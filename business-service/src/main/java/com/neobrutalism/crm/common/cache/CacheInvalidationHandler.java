@@ -0,0 +1,20 @@
+package com.neobrutalism.crm.common.cache;
+
+/**
+ * A node-local cache that applies invalidations received from other nodes
+ *
+ * Implementations publish their own invalidations through {@link CacheInvalidationBus#publish}
+ * and must not publish again from {@link #apply}.
+ */
+public interface CacheInvalidationHandler {
+
+    /**
+     * Region name this handler owns; matches {@link CacheInvalidation#region()}
+     */
+    String region();
+
+    /**
+     * Apply an invalidation that originated on another node
+     */
+    void apply(CacheInvalidation invalidation);
+}
@@ -6,6 +6,8 @@ import com.neobrutalism.crm.domain.user.model.DataScope;
 import com.neobrutalism.crm.domain.user.model.User;
 import com.neobrutalism.crm.domain.user.repository.UserRepository;
 import com.neobrutalism.crm.common.security.DataScopeContext;
+import com.neobrutalism.crm.config.security.PermissionDecisionIndex;
+import com.neobrutalism.crm.config.security.PolicySyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.casbin.jcasbin.main.Enforcer;
@@ -40,6 +42,8 @@ import java.util.UUID;
 public class PermissionService {
 
     private final Enforcer enforcer;
+    private final PermissionDecisionIndex decisionIndex;
+    private final PolicySyncService policySyncService;
     private final PermissionAuditService auditService;
     private final UserRepository userRepository;
     private final ApplicationEventPublisher eventPublisher;
@@ -62,8 +66,8 @@ public class PermissionService {
         // ✅ NEW: Get scope from DataScopeContext
         String scope = getScopeFromContext();
 
-        // Enforce with scope
-        boolean result = enforcer.enforce(userIdStr, tenantId, resource, action, scope);
+        // Enforce with scope (compiled decision index)
+        boolean result = decisionIndex.enforce(userIdStr, tenantId, resource, action, scope);
 
         log.debug("Permission check: user={}, tenant={}, resource={}, action={}, scope={}, result={}",
                   userIdStr, tenantId, resource, action, scope, result);
@@ -86,8 +90,8 @@ public class PermissionService {
         // ✅ NEW: Get scope from DataScopeContext
         String scope = getScopeFromContext();
 
-        // Enforce with scope
-        boolean result = enforcer.enforce(subject, tenantId, resource, action, scope);
+        // Enforce with scope (compiled decision index)
+        boolean result = decisionIndex.enforce(subject, tenantId, resource, action, scope);
 
         log.debug("Permission check: subject={}, tenant={}, resource={}, action={}, scope={}, result={}",
                   subject, tenantId, resource, action, scope, result);
@@ -101,7 +105,7 @@ public class PermissionService {
     public boolean hasPermissionWithScope(UUID userId, String tenantId, String resource,
                                           String action, String scope) {
         String userIdStr = userId.toString();
-        boolean result = enforcer.enforce(userIdStr, tenantId, resource, action, scope);
+        boolean result = decisionIndex.enforce(userIdStr, tenantId, resource, action, scope);
 
         log.debug("Permission check with scope: user={}, tenant={}, resource={}, action={}, scope={}, result={}",
                   userIdStr, tenantId, resource, action, scope, result);
@@ -364,9 +368,10 @@ public class PermissionService {
 
     /**
      * Load lại policies từ database
+     * Các replica khác cũng reload qua policy change log
      */
     public void reloadPolicy() {
-        enforcer.loadPolicy();
+        policySyncService.reloadFromDatabase();
         log.info("Reloaded Casbin policies from database");
     }
 
@@ -2,8 +2,10 @@ package com.neobrutalism.crm.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -30,17 +32,22 @@ public class AsyncConfig implements AsyncConfigurer {
      * Configuration rationale:
      * - corePoolSize: 2 sheets can process concurrently
      * - maxPoolSize: 3 sheets maximum (prevent memory spike)
-     * - queueCapacity: 10 jobs can be queued
+     * - queueCapacity: `excel.migration.queue-capacity` jobs can be queued (default 200)
      * - keepAliveTime: 60s for idle threads
+     *
+     * Memory admission is done by ExcelMemoryGovernor on the worker thread, so a full pool
+     * means jobs wait in the queue. Nothing runs on the submitting (request) thread: beyond the
+     * queue capacity the submission is rejected (TaskRejectedException) instead.
      */
     @Bean(name = "excelMigrationExecutor")
-    public ThreadPoolTaskExecutor excelMigrationExecutor() {
+    public ThreadPoolTaskExecutor excelMigrationExecutor(
+            @Value("${excel.migration.queue-capacity:200}") int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
         // Core settings
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(3);
-        executor.setQueueCapacity(10);
+        executor.setQueueCapacity(queueCapacity);
         executor.setKeepAliveSeconds(60);
 
         // Thread naming
@@ -50,9 +57,8 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(300); // 5 minutes max wait
 
-        // Rejection policy: CallerRunsPolicy ensures no tasks are lost
-        // When pool is full, the calling thread will execute the task
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Rejection policy: AbortPolicy - jobs queue up to queueCapacity, never run on the caller
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
 
         // Allow core threads to timeout
         executor.setAllowCoreThreadTimeOut(true);
@@ -60,7 +66,53 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.initialize();
 
         log.info("Initialized excelMigrationExecutor with core={}, max={}, queue={}",
-                 2, 3, 10);
+                 2, 3, queueCapacity);
+
+        return executor;
+    }
+
+    /**
+     * Migration promotion executor - Runs staging → master promotion chunks in parallel
+     *
+     * Each chunk holds one connection for a single INSERT … SELECT statement,
+     * so the pool is kept well below the Hikari pool size (30).
+     * CallerRunsPolicy: the promoting thread executes the chunk itself when the queue is full.
+     */
+    @Bean(name = "migrationPromotionExecutor")
+    public ThreadPoolTaskExecutor migrationPromotionExecutor(
+            @Value("${migration.promotion.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism * 4);
+        executor.setThreadNamePrefix("migration-promote-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+
+        log.info("Initialized migrationPromotionExecutor with parallelism={}", parallelism);
+
+        return executor;
+    }
+
+    /**
+     * Excel sheet write executor - Serializes the sheets of a multi-sheet workbook concurrently
+     *
+     * Virtual threads with a concurrency limit shared by all jobs: sheet serialization is
+     * CPU-bound (XML encoding + deflate), so at most `excel.write.sheet-parallelism` sheets
+     * (default: CPU cores) are written at once. Further submissions block the submitting thread
+     * until a slot frees up, nothing is rejected.
+     */
+    @Bean(name = "excelSheetWriteExecutor")
+    public SimpleAsyncTaskExecutor excelSheetWriteExecutor(
+            @Value("${excel.write.sheet-parallelism:0}") int parallelism) {
+        int limit = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("excel-sheet-write-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(limit);
+
+        log.info("Initialized excelSheetWriteExecutor with virtual threads, concurrencyLimit={}", limit);
 
         return executor;
     }
@@ -1,6 +1,9 @@
 package com.neobrutalism.crm.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neobrutalism.crm.common.cache.BroadcastingCacheManager;
+import com.neobrutalism.crm.common.cache.CacheInvalidationBus;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
@@ -15,6 +18,9 @@ import java.util.concurrent.TimeUnit;
  * Cache Configuration using Caffeine
  * Caches user sessions, roles, and permissions for performance
  * Only active when Redis cache is not configured
+ *
+ * The caches are node-local; evictions are broadcast to the other replicas through the
+ * CacheInvalidationBus (when cache.invalidation-bus.enabled=true)
  */
 @Configuration
 @EnableCaching
@@ -33,7 +39,7 @@ public class CacheConfig {
     public static final String GROUPS_CACHE = "usergroups";
 
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ObjectProvider<CacheInvalidationBus> invalidationBus) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager(
                 USER_CACHE,
                 USER_ROLES_CACHE,
@@ -47,7 +53,7 @@ public class CacheConfig {
         );
 
         cacheManager.setCaffeine(caffeineCacheBuilder());
-        return cacheManager;
+        return new BroadcastingCacheManager(cacheManager, invalidationBus);
     }
 
     /**
@@ -1,9 +1,12 @@
 package com.neobrutalism.crm.config;
 
+import com.neobrutalism.crm.config.security.PolicyChangeLog;
+import com.neobrutalism.crm.config.security.ReplicaAwareJdbcAdapter;
+import com.neobrutalism.crm.config.security.ScopeMatcher;
 import lombok.extern.slf4j.Slf4j;
 import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.main.SyncedEnforcer;
 import org.casbin.jcasbin.persist.Adapter;
-import org.casbin.adapter.JDBCAdapter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,6 +23,9 @@ import javax.sql.DataSource;
  * - Database connection pooling via HikariCP
  * - Composite indexes for fast query execution
  * - Auto-save enabled for policy updates
+ * - Startup from the newest policy snapshot plus the change log (see PolicyChangeLog)
+ * - SyncedEnforcer: checks, API changes and changes tailed from other nodes share one
+ *   read/write lock (the model's lists are not thread-safe)
  */
 @Slf4j
 @Configuration
@@ -31,6 +37,9 @@ public class CasbinConfig {
     @Value("${casbin.cache.max-size:10000}")
     private int cacheMaxSize;
 
+    @Value("${casbin.policy-sync.enabled:true}")
+    private boolean policySyncEnabled;
+
     /**
      * Create Casbin Enforcer bean with optimized configuration
      *
@@ -39,26 +48,36 @@ public class CasbinConfig {
      * 2. Auto-save enabled for immediate policy persistence
      * 3. JDBC adapter with connection pooling (HikariCP)
      * 4. Composite database indexes for fast queries (see V11 migration)
+     * 5. Policies restored from a compact snapshot + log tail instead of reading casbin_rule
      *
      * @param dataSource Database connection pool
+     * @param policyChangeLog Policy snapshots and change log
      * @return Configured Enforcer instance
      */
     @Bean
-    public Enforcer enforcer(DataSource dataSource) {
+    public Enforcer enforcer(DataSource dataSource, PolicyChangeLog policyChangeLog) {
         try {
             log.info("Initializing Casbin Enforcer with performance optimizations...");
 
             // Load model from classpath
             String modelPath = new ClassPathResource("casbin/model.conf").getURL().getPath();
 
-            // Create JDBC Adapter with connection pooling
-            Adapter adapter = new JDBCAdapter(dataSource);
+            // Create JDBC Adapter with connection pooling (skips writes for changes replicated from other nodes)
+            Adapter adapter = new ReplicaAwareJdbcAdapter(dataSource);
+
+            // Create Enforcer with the model only (no policy load yet), then attach the adapter
+            Enforcer enforcer = new SyncedEnforcer(modelPath);
+            enforcer.setAdapter(adapter);
 
-            // Create Enforcer with model and adapter
-            Enforcer enforcer = new Enforcer(modelPath, adapter);
+            // Data scope function used by the matcher (shared with the compiled decision index)
+            ScopeMatcher.register(enforcer);
 
-            // Load initial policies from database
-            enforcer.loadPolicy();
+            // Load initial policies: snapshot + change log, or casbin_rule when sync is off
+            if (policySyncEnabled) {
+                policyChangeLog.restore(enforcer);
+            } else {
+                enforcer.loadPolicy();
+            }
 
             // Enable auto-save (automatically persist when adding/removing policies)
             // This ensures policy changes are immediately written to database
@@ -2,15 +2,30 @@ package com.neobrutalism.crm.config.security;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neobrutalism.crm.common.cache.CacheInvalidation;
+import com.neobrutalism.crm.common.cache.CacheInvalidationBus;
+import com.neobrutalism.crm.common.cache.CacheInvalidationHandler;
+import com.neobrutalism.crm.domain.permission.event.PermissionChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
 /**
  * Advanced Caching Service for Casbin Permission Checks
@@ -20,7 +35,7 @@ import java.util.Map;
  *
  * Cache Levels:
  * 1. L1: In-memory Caffeine cache (fastest, local to JVM)
- * 2. L2: Casbin's built-in cache (enforcer.enforce result cache)
+ * 2. L2: Compiled decision index / Casbin enforcer
  * 3. L3: Database (slowest, but source of truth)
  *
  * Performance Benefits:
@@ -29,22 +44,47 @@ import java.util.Map;
  * - L3 database query: ~1-5ms (200-1000 ops/sec)
  *
  * Cache Invalidation Strategy:
- * - Automatic: When policies are added/removed/updated via CasbinPolicyManager
+ * - Every entry is indexed by its tenant and by the policy subjects its decision depends on:
+ *   the checked subject (user or role) plus its role closure from the decision index
+ * - invalidateUser / invalidateRole / invalidateTenant drop only the entries indexed under
+ *   that name or tenant; the rest of the cache stays warm
+ * - Automatic: PermissionChangedEvent (role assignment, policy add/delete, bulk update)
+ * - Automatic: policy deltas from PolicySyncService (this node's enforcer calls and changes
+ *   tailed from other nodes) drop the entries depending on the changed rows' subjects
  * - Manual: Via REST API endpoint for administrators
+ * - Cluster: invalidations are published on the CacheInvalidationBus and applied by every
+ *   other replica, so TTLs can stay long
  * - TTL-based: Entries expire after 10 minutes (configurable)
  *
  * Multi-Tenancy:
  * - Cache keys include tenant ID to prevent cross-tenant access
  * - Cache invalidation is tenant-specific
+ * - Hit ratio is tracked per tenant
  *
  * Thread Safety:
  * - Caffeine cache is thread-safe and lock-free
- * - Safe for high-concurrency web applications
+ * - An entry computed while an invalidation ran is dropped instead of cached
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class CasbinCacheService {
+@Order(10) // After PermissionDecisionIndex has marked the touched tenants
+public class CasbinCacheService implements CacheInvalidationHandler, PolicyDeltaListener {
+
+    public static final String REGION = "casbin-l1";
+    private static final String USER_SCOPE = "user";
+    private static final String ROLE_SCOPE = "role";
+
+    /**
+     * Index bucket for entries cached while role closures were unavailable (decision index
+     * disabled or not buildable); any role invalidation drops them
+     */
+    private static final String UNRESOLVED_DEPENDENCIES = "\u0000unresolved";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final PermissionDecisionIndex decisionIndex;
+    private final CacheInvalidationBus invalidationBus;
 
     @Value("${casbin.cache.l1.enabled:true}")
     private boolean l1CacheEnabled;
@@ -56,10 +96,35 @@ public class CasbinCacheService {
     private int l1CacheMaxSize;
 
     // L1 Cache: In-memory Caffeine cache for permission check results
-    private Cache<String, Boolean> permissionCache;
+    private Cache<CacheKey, CachedDecision> permissionCache;
+
+    // Secondary indexes: policy subject -> entries, tenant -> entries
+    private final Map<String, Set<CacheKey>> keysBySubject = new ConcurrentHashMap<>();
+    private final Map<String, Set<CacheKey>> keysByTenant = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation; a miss that sees it move drops its own entry
+    private final AtomicLong invalidationSequence = new AtomicLong();
 
     // Statistics tracking
-    private final Map<String, Long> stats = new ConcurrentHashMap<>();
+    private final Map<String, TenantStats> tenantStats = new ConcurrentHashMap<>();
+    private final LongAdder invalidatedEntries = new LongAdder();
+
+    /**
+     * Cache key with tenant isolation
+     */
+    private record CacheKey(String subject, String tenant, String resource, String action) {
+    }
+
+    /**
+     * Cached result and the subject index buckets it was registered under
+     */
+    private record CachedDecision(boolean allowed, List<String> dependencies) {
+    }
+
+    private static final class TenantStats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
 
     @PostConstruct
     public void init() {
@@ -67,17 +132,18 @@ public class CasbinCacheService {
             this.permissionCache = Caffeine.newBuilder()
                     .maximumSize(l1CacheMaxSize)
                     .expireAfterWrite(Duration.ofMinutes(l1CacheTtlMinutes))
+                    // Size/TTL evictions only; explicit invalidations unindex their own keys
+                    .<CacheKey, CachedDecision>evictionListener((key, value, cause) -> {
+                        if (key != null && value != null) {
+                            unindex(key, value.dependencies());
+                        }
+                    })
                     .recordStats() // Enable statistics tracking
                     .build();
 
             log.info("Casbin L1 Cache initialized: enabled=true, maxSize={}, ttl={}min",
                     l1CacheMaxSize, l1CacheTtlMinutes);
             log.info("Expected L1 cache performance: ~0.001ms per check (~1,000,000 ops/sec)");
-
-            // Initialize stats
-            stats.put("l1_hits", 0L);
-            stats.put("l1_misses", 0L);
-            stats.put("total_checks", 0L);
         } else {
             log.warn("Casbin L1 Cache is DISABLED - using only Casbin built-in cache");
         }
@@ -88,13 +154,10 @@ public class CasbinCacheService {
      *
      * If L1 cache is enabled:
      * 1. Check L1 cache first (fastest)
-     * 2. If miss, delegate to Casbin enforcer (which has its own L2 cache)
-     * 3. Cache the result in L1 for next time
-     *
-     * Cache key format: "user::tenant::resource::action"
-     * Example: "john@example.com::org-uuid-123::/api/customers::read"
+     * 2. If miss, delegate to the decision index / enforcer
+     * 3. Cache the result in L1 and index it under its tenant and dependencies
      *
-     * @param user User identifier (email or username)
+     * @param user User identifier (username, user ID or ROLE_ subject)
      * @param tenant Tenant/domain identifier
      * @param resource Resource path (e.g., "/api/customers")
      * @param action Action (e.g., "read", "create", "update", "delete")
@@ -102,58 +165,73 @@ public class CasbinCacheService {
      * @return true if permission granted, false otherwise
      */
     public boolean checkPermission(String user, String tenant, String resource, String action,
-                                   java.util.function.BooleanSupplier enforcerCheck) {
+                                   BooleanSupplier enforcerCheck) {
         if (!l1CacheEnabled) {
             // L1 cache disabled, go directly to enforcer (L2 cache)
             return enforcerCheck.getAsBoolean();
         }
 
-        // Build cache key with tenant isolation
-        String cacheKey = buildCacheKey(user, tenant, resource, action);
-
-        // Increment total checks
-        stats.merge("total_checks", 1L, Long::sum);
+        CacheKey cacheKey = new CacheKey(user, tenant, resource, action);
+        TenantStats counters = tenantStats.computeIfAbsent(String.valueOf(tenant), key -> new TenantStats());
 
         // Try L1 cache first
-        Boolean cachedResult = permissionCache.getIfPresent(cacheKey);
+        CachedDecision cachedResult = permissionCache.getIfPresent(cacheKey);
 
         if (cachedResult != null) {
             // L1 Cache hit - fastest path
-            stats.merge("l1_hits", 1L, Long::sum);
+            counters.hits.increment();
             log.trace("L1 cache HIT: {}", cacheKey);
-            return cachedResult;
+            return cachedResult.allowed();
         }
 
         // L1 Cache miss - delegate to enforcer (L2 cache + database)
-        stats.merge("l1_misses", 1L, Long::sum);
+        counters.misses.increment();
         log.trace("L1 cache MISS: {}", cacheKey);
 
+        long sequence = invalidationSequence.get();
         boolean result = enforcerCheck.getAsBoolean();
 
-        // Store in L1 cache for future requests
-        permissionCache.put(cacheKey, result);
+        // Store first, then index: an eviction in between leaves at most a dangling index entry
+        List<String> dependencies = dependencies(user, tenant);
+        permissionCache.put(cacheKey, new CachedDecision(result, dependencies));
+        index(cacheKey, dependencies);
+
+        if (invalidationSequence.get() != sequence) {
+            // An invalidation may have missed this entry; the result stands, the entry goes
+            CachedDecision stored = permissionCache.asMap().remove(cacheKey);
+            if (stored != null) {
+                unindex(cacheKey, stored.dependencies());
+            }
+        }
 
         return result;
     }
 
     /**
-     * Invalidate all cache entries for a specific user
+     * Invalidate all cache entries for a specific user, in every tenant
      * Called when user's roles change
      *
      * @param user User identifier
      */
     public void invalidateUser(String user) {
+        invalidateUser(user, null);
+    }
+
+    /**
+     * Invalidate cache entries for a user in one tenant (null: every tenant)
+     *
+     * @param user User identifier
+     * @param tenant Tenant identifier
+     */
+    public void invalidateUser(String user, String tenant) {
         if (!l1CacheEnabled) {
             return;
         }
 
-        log.debug("Invalidating L1 cache for user: {}", user);
-
-        // Caffeine doesn't support key pattern matching, so we invalidate all
-        // This is acceptable because cache will rebuild quickly
-        permissionCache.invalidateAll();
-
-        log.info("Invalidated all L1 cache entries due to user change: {}", user);
+        int removed = evictUser(user, tenant);
+        invalidationBus.publish(CacheInvalidation.of(REGION, USER_SCOPE, user, tenant));
+        log.info("Invalidated {} L1 cache entries for user: {} (tenant: {})",
+                removed, user, tenant != null ? tenant : "all");
     }
 
     /**
@@ -167,32 +245,39 @@ public class CasbinCacheService {
             return;
         }
 
-        log.debug("Invalidating L1 cache for tenant: {}", tenant);
-
-        // Invalidate all since we can't do pattern matching efficiently
-        permissionCache.invalidateAll();
-
-        log.info("Invalidated all L1 cache entries due to tenant policy change: {}", tenant);
+        int removed = evictTenant(String.valueOf(tenant));
+        invalidationBus.publish(CacheInvalidation.tenant(REGION, String.valueOf(tenant)));
+        log.info("Invalidated {} L1 cache entries for tenant: {}", removed, tenant);
     }
 
     /**
-     * Invalidate all cache entries for a specific role
+     * Invalidate all cache entries that depend on a specific role, in every tenant
      * Called when role's permissions change (most common scenario)
      *
+     * Covers the role as a request subject, users and roles inheriting from it, and the
+     * ROLE_-prefixed form the authorization filter checks.
+     *
      * @param role Role name
      */
     public void invalidateRole(String role) {
+        invalidateRole(role, null);
+    }
+
+    /**
+     * Invalidate cache entries that depend on a role in one tenant (null: every tenant)
+     *
+     * @param role Role name or code
+     * @param tenant Tenant identifier
+     */
+    public void invalidateRole(String role, String tenant) {
         if (!l1CacheEnabled) {
             return;
         }
 
-        log.debug("Invalidating L1 cache for role: {}", role);
-
-        // Invalidate all cache entries
-        // This is triggered by RoleMenuService lifecycle hooks
-        permissionCache.invalidateAll();
-
-        log.info("Invalidated all L1 cache entries due to role policy change: {}", role);
+        int removed = evictRole(role, tenant);
+        invalidationBus.publish(CacheInvalidation.of(REGION, ROLE_SCOPE, role, tenant));
+        log.info("Invalidated {} L1 cache entries for role: {} (tenant: {})",
+                removed, role, tenant != null ? tenant : "all");
     }
 
     /**
@@ -205,18 +290,143 @@ public class CasbinCacheService {
         }
 
         log.info("Clearing all L1 cache entries manually");
-        permissionCache.invalidateAll();
+        evictAll();
+        invalidationBus.publish(CacheInvalidation.all(REGION));
 
         // Reset statistics
-        stats.put("l1_hits", 0L);
-        stats.put("l1_misses", 0L);
-        stats.put("total_checks", 0L);
+        tenantStats.clear();
+        invalidatedEntries.reset();
+    }
+
+    /**
+     * Drop the entries a permission change affects
+     *
+     * Runs synchronously so the change is visible to the next check on this node.
+     */
+    @EventListener
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        if (!l1CacheEnabled || event.getChangeType() == null) {
+            return;
+        }
+        String tenant = event.getTenantId();
+        switch (event.getChangeType()) {
+            case ROLE_ASSIGNED, ROLE_REMOVED -> {
+                if (event.getUserId() != null) {
+                    invalidateUser(event.getUserId().toString(), tenant);
+                } else {
+                    invalidateScope(tenant);
+                }
+            }
+            case POLICY_ADDED, POLICY_DELETED -> {
+                if (event.getRoleCode() != null) {
+                    invalidateRole(event.getRoleCode(), tenant);
+                } else {
+                    invalidateScope(tenant);
+                }
+            }
+            case HIERARCHY_CHANGED, BULK_UPDATE, POLICY_RELOAD -> invalidateScope(tenant);
+        }
+    }
+
+    private void invalidateScope(String tenant) {
+        if (tenant != null) {
+            invalidateTenant(tenant);
+        } else {
+            evictAll();
+            invalidationBus.publish(CacheInvalidation.all(REGION));
+        }
+    }
+
+    /**
+     * Drop the entries depending on changed policy rows (applied on this node only: every
+     * node gets the same deltas from the change log)
+     */
+    @Override
+    public void onPolicyDeltas(List<PolicyDelta> deltas, boolean local) {
+        if (!l1CacheEnabled) {
+            return;
+        }
+        int removed = 0;
+        for (PolicyDelta delta : deltas) {
+            // Every entry depending on a g / g2 row depends on both its names, so one known name is enough
+            String subject = delta.column(0);
+            String other = delta.isGrouping() ? delta.column(1) : null;
+            if (subject == null && other == null) {
+                removed += delta.tenant() != null ? evictTenant(delta.tenant()) : evictAll();
+                continue;
+            }
+            if (subject != null) {
+                removed += evictRole(subject, delta.tenant());
+            }
+            if (other != null) {
+                removed += evictRole(other, delta.tenant());
+            }
+        }
+        log.debug("Invalidated {} L1 cache entries for {} {} policy changes",
+                  removed, deltas.size(), local ? "local" : "remote");
+    }
+
+    @Override
+    public void onPolicyReload() {
+        if (l1CacheEnabled) {
+            evictAll();
+        }
+    }
+
+    @Override
+    public String region() {
+        return REGION;
+    }
+
+    /**
+     * Apply an invalidation published by another replica
+     */
+    @Override
+    public void apply(CacheInvalidation invalidation) {
+        if (!l1CacheEnabled) {
+            return;
+        }
+        int removed;
+        if (invalidation.isAll()) {
+            removed = invalidation.tenant() != null ? evictTenant(invalidation.tenant()) : evictAll();
+        } else if (USER_SCOPE.equals(invalidation.scope())) {
+            removed = evictUser(invalidation.key(), invalidation.tenant());
+        } else if (ROLE_SCOPE.equals(invalidation.scope())) {
+            removed = evictRole(invalidation.key(), invalidation.tenant());
+        } else {
+            log.warn("Unknown L1 cache invalidation scope: {}", invalidation.scope());
+            return;
+        }
+        log.debug("Applied remote L1 cache invalidation {}: {} entries", invalidation, removed);
+    }
+
+    private int evictUser(String user, String tenant) {
+        return invalidate(keysBySubject, List.of(String.valueOf(user)), tenant);
+    }
+
+    private int evictRole(String role, String tenant) {
+        List<String> names = new ArrayList<>(roleNames(role));
+        names.add(UNRESOLVED_DEPENDENCIES);
+        return invalidate(keysBySubject, names, tenant);
+    }
+
+    private int evictTenant(String tenant) {
+        return invalidate(keysByTenant, List.of(tenant), null);
+    }
+
+    private int evictAll() {
+        invalidationSequence.incrementAndGet();
+        int removed = (int) permissionCache.estimatedSize();
+        permissionCache.invalidateAll();
+        keysBySubject.clear();
+        keysByTenant.clear();
+        return removed;
     }
 
     /**
      * Get cache statistics for monitoring
      *
-     * @return Map with cache stats (hits, misses, hit rate, size)
+     * @return Map with cache stats (hits, misses, hit rate, size, per-tenant hit ratio)
      */
     public Map<String, Object> getCacheStats() {
         Map<String, Object> statsMap = new ConcurrentHashMap<>();
@@ -226,20 +436,35 @@ public class CasbinCacheService {
             return statsMap;
         }
 
-        long totalChecks = stats.getOrDefault("total_checks", 0L);
-        long l1Hits = stats.getOrDefault("l1_hits", 0L);
-        long l1Misses = stats.getOrDefault("l1_misses", 0L);
-
-        double hitRate = totalChecks > 0 ? (double) l1Hits / totalChecks * 100 : 0.0;
+        long l1Hits = 0;
+        long l1Misses = 0;
+        Map<String, Object> perTenant = new TreeMap<>();
+        for (Map.Entry<String, TenantStats> entry : tenantStats.entrySet()) {
+            long hits = entry.getValue().hits.sum();
+            long misses = entry.getValue().misses.sum();
+            l1Hits += hits;
+            l1Misses += misses;
+
+            Map<String, Object> tenant = new LinkedHashMap<>();
+            tenant.put("hits", hits);
+            tenant.put("misses", misses);
+            tenant.put("hit_rate_percent", hitRate(hits, misses));
+            tenant.put("cache_size", sizeOf(keysByTenant.get(entry.getKey())));
+            perTenant.put(entry.getKey(), tenant);
+        }
+        long totalChecks = l1Hits + l1Misses;
 
         statsMap.put("enabled", true);
         statsMap.put("l1_hits", l1Hits);
         statsMap.put("l1_misses", l1Misses);
         statsMap.put("total_checks", totalChecks);
-        statsMap.put("hit_rate_percent", String.format("%.2f", hitRate));
+        statsMap.put("hit_rate_percent", hitRate(l1Hits, l1Misses));
         statsMap.put("cache_size", permissionCache.estimatedSize());
         statsMap.put("max_size", l1CacheMaxSize);
         statsMap.put("ttl_minutes", l1CacheTtlMinutes);
+        statsMap.put("tenants", perTenant);
+        statsMap.put("indexed_subjects", keysBySubject.size());
+        statsMap.put("invalidated_entries", invalidatedEntries.sum());
 
         // Caffeine internal stats
         com.github.benmanes.caffeine.cache.stats.CacheStats caffeineStats = permissionCache.stats();
@@ -251,23 +476,117 @@ public class CasbinCacheService {
     }
 
     /**
-     * Build cache key with tenant isolation
-     * Format: "user::tenant::resource::action"
-     *
-     * @param user User identifier
-     * @param tenant Tenant identifier
-     * @param resource Resource path
-     * @param action Action
-     * @return Cache key string
+     * Check if L1 cache is enabled
      */
-    private String buildCacheKey(String user, String tenant, String resource, String action) {
-        return String.format("%s::%s::%s::%s", user, tenant, resource, action);
+    public boolean isL1CacheEnabled() {
+        return l1CacheEnabled;
     }
 
     /**
-     * Check if L1 cache is enabled
+     * Names an entry's decision depends on; falls back to the subject plus the unresolved
+     * bucket when role closures are unavailable
      */
-    public boolean isL1CacheEnabled() {
-        return l1CacheEnabled;
+    private List<String> dependencies(String subject, String tenant) {
+        List<String> names = null;
+        try {
+            names = decisionIndex.dependencies(subject, tenant);
+        } catch (RuntimeException e) {
+            log.debug("Could not resolve dependencies of {} in {}: {}", subject, tenant, e.getMessage());
+        }
+        return names != null ? names : List.of(String.valueOf(subject), UNRESOLVED_DEPENDENCIES);
+    }
+
+    private void index(CacheKey key, List<String> dependencies) {
+        for (String name : dependencies) {
+            add(keysBySubject, name, key);
+        }
+        add(keysByTenant, String.valueOf(key.tenant()), key);
+
+        // Evicted before it was indexed: the eviction listener found nothing to remove
+        if (!permissionCache.asMap().containsKey(key)) {
+            unindex(key, dependencies);
+        }
+    }
+
+    private void unindex(CacheKey key, List<String> dependencies) {
+        for (String name : dependencies) {
+            remove(keysBySubject, name, key);
+        }
+        remove(keysByTenant, String.valueOf(key.tenant()), key);
+    }
+
+    private static void add(Map<String, Set<CacheKey>> index, String name, CacheKey key) {
+        index.compute(name, (ignored, keys) -> {
+            Set<CacheKey> target = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            target.add(key);
+            return target;
+        });
+    }
+
+    private static void remove(Map<String, Set<CacheKey>> index, String name, CacheKey key) {
+        index.computeIfPresent(name, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Keys indexed under any of names, restricted to one tenant unless tenant is null
+     */
+    private static Set<CacheKey> collect(Map<String, Set<CacheKey>> index, List<String> names, String tenant) {
+        Set<CacheKey> matched = new HashSet<>();
+        for (String name : names) {
+            Set<CacheKey> keys = index.get(name);
+            if (keys == null) {
+                continue;
+            }
+            for (CacheKey key : keys) {
+                if (tenant == null || tenant.equals(key.tenant())) {
+                    matched.add(key);
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Remove the entries indexed under names; the sequence moves before the lookup, so a miss
+     * indexing concurrently either is found here or drops its own entry
+     */
+    private int invalidate(Map<String, Set<CacheKey>> index, List<String> names, String tenant) {
+        invalidationSequence.incrementAndGet();
+        Set<CacheKey> keys = collect(index, names, tenant);
+        int removed = 0;
+        for (CacheKey key : keys) {
+            // Explicit removal skips the eviction listener, so unindex here
+            CachedDecision decision = permissionCache.asMap().remove(key);
+            if (decision != null) {
+                unindex(key, decision.dependencies());
+                removed++;
+            }
+        }
+        invalidatedEntries.add(removed);
+        return removed;
+    }
+
+    /**
+     * The role as given plus its ROLE_-prefixed / unprefixed form
+     */
+    private static List<String> roleNames(String role) {
+        if (role == null) {
+            return List.of();
+        }
+        return role.startsWith(ROLE_PREFIX)
+            ? List.of(role, role.substring(ROLE_PREFIX.length()))
+            : List.of(role, ROLE_PREFIX + role);
+    }
+
+    private static String hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return String.format("%.2f", total > 0 ? (double) hits / total * 100 : 0.0);
+    }
+
+    private static int sizeOf(Set<CacheKey> keys) {
+        return keys != null ? keys.size() : 0;
     }
 }
@@ -14,7 +14,11 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Casbin Policy Manager
@@ -25,6 +29,14 @@ import java.util.List;
  * - Sync role-menu permissions to Casbin
  * - Support multi-tenant authorization
  * - Handle hierarchical resources
+ *
+ * Syncs are diffs: only rows that differ from the enforcer's current policy set are added or
+ * removed, each persisted by auto-save and logged once for the other replicas (PolicySyncService).
+ * There is no clearPolicy / savePolicy round trip rewriting casbin_rule.
+ *
+ * The startup sync leaves the same p rows and role -> role g rows the old full rewrite did:
+ * rows of deleted roles and hierarchy links no role priority implies any more are removed.
+ * User -> role assignments (g rows of user ids) are not derived from roles and are kept.
  */
 @Component
 @RequiredArgsConstructor
@@ -37,35 +49,33 @@ public class CasbinPolicyManager {
     private final MenuRepository menuRepository;
 
     /**
-     * Load all policies from database when application starts
+     * Sync role-menu policies into the enforcer when application starts
      * This ensures Casbin has all role-menu mappings for authorization
      *
      * NEW: Also loads role hierarchy (g2) based on role priority
+     * The enforcer already holds the stored policy set (CasbinConfig); only differences are written.
      */
     @EventListener(ApplicationReadyEvent.class)
     @Transactional(readOnly = true)
     public void loadPoliciesOnStartup() {
-        log.info("Loading Casbin policies from database...");
+        log.info("Syncing Casbin policies with role-menu permissions...");
 
         try {
-            // Clear existing policies to avoid duplicates
-            enforcer.clearPolicy();
-
             // Load all roles with their menu permissions
             List<Role> roles = roleRepository.findAll();
 
-            int policyCount = 0;
+            // Every role's policies against every current p row, so rows of subjects that are
+            // no longer roles are removed too
+            Set<List<String>> desired = new LinkedHashSet<>();
             for (Role role : roles) {
-                policyCount += syncRolePolicies(role, false);
+                desired.addAll(desiredPolicies(role));
             }
+            int policyCount = syncPolicies(desired, enforcer.getPolicy(), "all roles");
 
             // ✅ NEW: Sync role hierarchy (g2) based on priority
             int hierarchyCount = syncRoleHierarchy(roles);
 
-            // Save all policies to database
-            enforcer.savePolicy();
-
-            log.info("Successfully loaded {} policies and {} hierarchy relationships for {} roles",
+            log.info("Successfully synced {} policies and {} new hierarchy relationships for {} roles",
                 policyCount, hierarchyCount, roles.size());
 
         } catch (Exception e) {
@@ -79,18 +89,59 @@ public class CasbinPolicyManager {
      * Called when role permissions are updated
      * 
      * @param role Role to sync
-     * @param save Whether to save policies immediately
-     * @return Number of policies added
+     * @return Number of policies the role has after the sync
      */
     @Transactional(readOnly = true)
-    public int syncRolePolicies(Role role, boolean save) {
+    public int syncRolePolicies(Role role) {
+        return syncRolePolicies(role, enforcer.getFilteredPolicy(0, role.getName()));
+    }
+
+    /**
+     * Replace a role's policies (all domains) with its role-menu permissions, touching only
+     * the rows that differ
+     */
+    private int syncRolePolicies(Role role, List<List<String>> current) {
         log.debug("Syncing policies for role: {}", role.getName());
-        
-        // Remove old policies for this role (all domains)
-        enforcer.removeFilteredPolicy(0, role.getName());
-        
-        int count = 0;
-        
+        return syncPolicies(desiredPolicies(role), current, "role: " + role.getName());
+    }
+
+    /**
+     * Make current (a slice of the p rows) equal desired, touching only the rows that differ
+     */
+    private int syncPolicies(Set<List<String>> desired, List<List<String>> current, String target) {
+        Set<List<String>> existing = new HashSet<>(current);
+
+        List<List<String>> stale = new ArrayList<>();
+        for (List<String> rule : existing) {
+            if (!desired.contains(rule)) {
+                stale.add(rule);
+            }
+        }
+        List<List<String>> missing = new ArrayList<>();
+        for (List<String> rule : desired) {
+            if (!existing.contains(rule)) {
+                missing.add(rule);
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            enforcer.removePolicies(stale);
+        }
+        if (!missing.isEmpty()) {
+            enforcer.addPolicies(missing);
+        }
+
+        log.debug("Synced {} policies for {} (added {}, removed {})",
+            desired.size(), target, missing.size(), stale.size());
+        return desired.size();
+    }
+
+    /**
+     * Policies a role should have: p, role, domain, resource, action, allow, scope
+     */
+    private Set<List<String>> desiredPolicies(Role role) {
+        Set<List<String>> policies = new LinkedHashSet<>();
+
         // Get role-menu mappings for this role
         List<RoleMenu> roleMenus = roleMenuRepository.findByRoleId(role.getId());
         
@@ -116,29 +167,18 @@ public class CasbinPolicyManager {
                 String scope = determineRoleScope(role);
 
                 // Format: p, role, domain, resource, action, allow, scope
-                boolean added = enforcer.addPolicy(
+                policies.add(List.of(
                     role.getName(),
                     domain,
                     resource,
                     action,
                     "allow",
                     scope  // ✅ NEW: Add scope parameter
-                );
-
-                if (added) {
-                    count++;
-                    log.trace("Added policy: role={}, domain={}, resource={}, action={}, scope={}",
-                        role.getName(), domain, resource, action, scope);
-                }
+                ));
             }
         }
-        
-        if (save) {
-            enforcer.savePolicy();
-        }
-        
-        log.debug("Synced {} policies for role: {}", count, role.getName());
-        return count;
+
+        return policies;
     }
 
     /**
@@ -150,7 +190,6 @@ public class CasbinPolicyManager {
         log.debug("Removing all policies for role: {}", roleName);
         
         enforcer.removeFilteredPolicy(0, roleName);
-        enforcer.savePolicy();
         
         log.info("Removed all policies for role: {}", roleName);
     }
@@ -165,7 +204,6 @@ public class CasbinPolicyManager {
             childRole, parentRole, domain);
         
         enforcer.addGroupingPolicy(childRole, parentRole, domain);
-        enforcer.savePolicy();
     }
 
     /**
@@ -240,13 +278,17 @@ public class CasbinPolicyManager {
      * - Example: g2, ROLE_MANAGER, ROLE_ADMIN, tenant123
      * - Means: ROLE_MANAGER inherits from ROLE_ADMIN in tenant123
      *
+     * Role -> role links no priority implies any more are removed; user assignments stay.
+     *
      * @param roles List of all roles
      * @return Number of hierarchy relationships created
      */
     private int syncRoleHierarchy(List<Role> roles) {
         log.debug("Syncing role hierarchy (g2) based on priority...");
 
-        int count = 0;
+        Set<List<String>> existing = new HashSet<>(enforcer.getGroupingPolicy());
+        Set<List<String>> desired = new HashSet<>();
+        Set<List<String>> missing = new LinkedHashSet<>();
 
         // Group roles by organization (tenant)
         java.util.Map<String, List<Role>> rolesByOrg = new java.util.HashMap<>();
@@ -278,23 +320,36 @@ public class CasbinPolicyManager {
 
                     // Add g2 grouping: child inherits from parent
                     // Format: g2, child_role, parent_role, domain
-                    boolean added = enforcer.addGroupingPolicy(
+                    List<String> rule = List.of(
                         childRole.getName(),  // child role
                         parentRole.getName(), // parent role
                         domain                // tenant/domain
                     );
 
-                    if (added) {
-                        count++;
-                        log.trace("Added role hierarchy: {} inherits from {} in domain {}",
+                    desired.add(rule);
+                    if (!existing.contains(rule) && missing.add(rule)) {
+                        log.trace("Adding role hierarchy: {} inherits from {} in domain {}",
                             childRole.getName(), parentRole.getName(), domain);
                     }
                 }
             }
         }
 
-        log.info("Synced {} role hierarchy relationships (g2)", count);
-        return count;
+        List<List<String>> stale = new ArrayList<>();
+        for (List<String> rule : existing) {
+            if (RoleHierarchyService.isRoleLink(rule) && !desired.contains(rule)) {
+                stale.add(rule);
+            }
+        }
+        if (!stale.isEmpty()) {
+            enforcer.removeGroupingPolicies(stale);
+        }
+        if (!missing.isEmpty()) {
+            enforcer.addGroupingPolicies(new ArrayList<>(missing));
+        }
+
+        log.info("Synced {} new role hierarchy relationships (g2), removed {} stale", missing.size(), stale.size());
+        return missing.size();
     }
 
     /**
@@ -0,0 +1,696 @@
+package com.neobrutalism.crm.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable decision index compiled from the Casbin policy set
+ *
+ * Answers the model in resources/casbin/model.conf without scanning every policy row:
+ * <pre>
+ * (g(r.sub, p.sub, r.dom) || g2(p.sub, r.sub, r.dom)) && r.dom == p.dom
+ *     && regexMatch(r.obj, p.obj) && regexMatch(r.act, p.act) && matchScope(r.scope, p.scope)
+ * e = some(allow) && !some(deny)
+ * </pre>
+ *
+ * Layout: tenant -> policy subject -> rule index. A rule index holds the subject's object
+ * patterns in a path-segment trie keyed by each pattern's literal prefix, so a request only
+ * evaluates the patterns that can match its path:
+ * - jcasbin's regexMatch is Matcher.lookingAt(): anchored at the start of the value, not at
+ *   its end. A pattern whose literal prefix starts with "/" (with or without "^") can only
+ *   match paths starting with that prefix, so the trie is walked once from the path's start
+ * - Other patterns (".*", "(?i)...", alternations, relative prefixes) are always evaluated
+ * Candidates are confirmed with the precompiled Pattern, so the trie only prunes.
+ *
+ * Actions resolve to a bitmask over a small action vocabulary (CRUD, HTTP methods and every
+ * literal action in the policy set), computed by running each action pattern once at compile
+ * time. Actions outside the vocabulary fall back to the compiled action Pattern.
+ *
+ * Role closures (g ancestors and g2 descendants of a subject, per tenant, within Casbin's
+ * default max hierarchy level) are precomputed for every name in the grouping policies.
+ *
+ * Instances are never modified after {@link #compile}, so they are safe to share across threads.
+ * {@link #recompile} builds a new instance that shares the index of every unchanged tenant.
+ */
+@Slf4j
+public final class CompiledPolicySet {
+
+    /** DefaultRoleManager's maxHierarchyLevel */
+    static final int MAX_HIERARCHY_LEVEL = 10;
+
+    private static final String ALLOW = "allow";
+    private static final String DENY = "deny";
+    private static final String REGEX_META = "\\^$.|?*+()[]{}";
+    private static final List<String> BASE_ACTIONS = List.of(
+        "read", "create", "update", "delete", "export", "import",
+        "GET", "POST", "PUT", "PATCH", "DELETE"
+    );
+
+    private static final CompiledPolicySet EMPTY = new CompiledPolicySet(
+        Map.of(), Map.of(), 0, 0, 0, 0);
+
+    private final Map<String, DomainIndex> domains;
+    private final Map<String, Integer> actionBits;
+    private final int policyCount;
+    private final int subjectCount;
+    private final int unindexedPatterns;
+    private final int invalidPatterns;
+
+    private CompiledPolicySet(Map<String, DomainIndex> domains, Map<String, Integer> actionBits,
+                              int policyCount, int subjectCount, int unindexedPatterns, int invalidPatterns) {
+        this.domains = domains;
+        this.actionBits = actionBits;
+        this.policyCount = policyCount;
+        this.subjectCount = subjectCount;
+        this.unindexedPatterns = unindexedPatterns;
+        this.invalidPatterns = invalidPatterns;
+    }
+
+    public static CompiledPolicySet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compile policy rows
+     *
+     * @param policies p rows: sub, dom, obj, act[, eft[, scope]]
+     * @param groupings g rows: user, role, dom
+     * @param roleHierarchy g2 rows: child role, parent role, dom
+     */
+    public static CompiledPolicySet compile(List<List<String>> policies,
+                                            List<List<String>> groupings,
+                                            List<List<String>> roleHierarchy) {
+        return build(policies, groupings, roleHierarchy, null, null);
+    }
+
+    /**
+     * Compile only the given tenants and reuse every other tenant's index from previous
+     *
+     * Falls back to a full {@link #compile} when the action vocabulary changed (action masks
+     * of untouched tenants would be stale).
+     *
+     * @param changedTenants tenants whose p / g / g2 rows may differ from previous
+     */
+    public static CompiledPolicySet recompile(CompiledPolicySet previous, Set<String> changedTenants,
+                                              List<List<String>> policies,
+                                              List<List<String>> groupings,
+                                              List<List<String>> roleHierarchy) {
+        return build(policies, groupings, roleHierarchy, previous, changedTenants);
+    }
+
+    private static CompiledPolicySet build(List<List<String>> policies,
+                                           List<List<String>> groupings,
+                                           List<List<String>> roleHierarchy,
+                                           CompiledPolicySet previous, Set<String> changedTenants) {
+        Map<String, Integer> actionBits = actionVocabulary(policies);
+        if (previous != null && !previous.actionBits.equals(actionBits)) {
+            previous = null;
+        }
+        boolean incremental = previous != null;
+        String[] vocabulary = new String[actionBits.size()];
+        actionBits.forEach((action, bit) -> vocabulary[bit] = action);
+
+        Map<String, Pattern> patterns = new HashMap<>();
+        Map<String, Long> actionMasks = new HashMap<>();
+        Map<String, Map<String, RuleIndex.Builder>> builders = new HashMap<>();
+        Map<String, Integer> policyCounts = new HashMap<>();
+        Map<String, Set<String>> invalidByTenant = new HashMap<>();
+
+        for (List<String> row : policies) {
+            if (row.size() < 4 || (incremental && !changedTenants.contains(row.get(1)))) {
+                continue;
+            }
+            String effect = row.size() > 4 ? row.get(4) : "";
+            boolean allow = ALLOW.equals(effect);
+            if (!allow && !DENY.equals(effect)) {
+                // Neither allow nor deny: cannot change some(allow) && !some(deny)
+                continue;
+            }
+            String tenant = row.get(1);
+            String objPattern = row.get(2);
+            String actPattern = row.get(3);
+            Set<String> invalid = invalidByTenant.computeIfAbsent(tenant, key -> new HashSet<>());
+            Pattern obj = pattern(patterns, invalid, objPattern);
+            Pattern act = pattern(patterns, invalid, actPattern);
+            if (obj == null || act == null) {
+                continue;
+            }
+            long mask = actionMasks.computeIfAbsent(actPattern, key -> actionMask(act, vocabulary));
+            String scope = row.size() > 5 ? row.get(5) : null;
+            Rule rule = new Rule(act, mask, allow,
+                ScopeMatcher.isBlank(scope) ? null : ScopeMatcher.normalize(scope));
+
+            builders.computeIfAbsent(tenant, key -> new HashMap<>())
+                .computeIfAbsent(row.get(0), key -> new RuleIndex.Builder())
+                .add(objPattern, obj, rule);
+            policyCounts.merge(tenant, 1, Integer::sum);
+        }
+
+        // Tenants with only role links still get an index, for their role closures
+        Map<String, List<List<String>>> groupingsByTenant = byTenant(groupings, incremental ? changedTenants : null);
+        Map<String, List<List<String>>> hierarchyByTenant = byTenant(roleHierarchy, incremental ? changedTenants : null);
+        Set<String> tenants = new HashSet<>(builders.keySet());
+        tenants.addAll(groupingsByTenant.keySet());
+        tenants.addAll(hierarchyByTenant.keySet());
+
+        Map<String, DomainIndex> domains = new HashMap<>();
+        if (incremental) {
+            previous.domains.forEach((tenant, domain) -> {
+                if (!changedTenants.contains(tenant)) {
+                    domains.put(tenant, domain);
+                }
+            });
+        }
+        for (String tenant : tenants) {
+            Map<String, RuleIndex> indexes = new HashMap<>();
+            int unindexed = 0;
+            for (Map.Entry<String, RuleIndex.Builder> subject : builders.getOrDefault(tenant, Map.of()).entrySet()) {
+                RuleIndex index = subject.getValue().build();
+                indexes.put(subject.getKey(), index);
+                unindexed += index.unindexed.length;
+            }
+            domains.put(tenant, DomainIndex.build(indexes,
+                groupingsByTenant.getOrDefault(tenant, List.of()),
+                hierarchyByTenant.getOrDefault(tenant, List.of()),
+                policyCounts.getOrDefault(tenant, 0), unindexed,
+                Set.copyOf(invalidByTenant.getOrDefault(tenant, Set.of()))));
+        }
+
+        int policyCount = 0;
+        int subjects = 0;
+        int unindexed = 0;
+        Set<String> invalid = new HashSet<>();
+        for (DomainIndex domain : domains.values()) {
+            policyCount += domain.policyCount;
+            subjects += domain.subjects.size();
+            unindexed += domain.unindexed;
+            invalid.addAll(domain.invalidPatterns);
+        }
+
+        if (!invalid.isEmpty() && !incremental) {
+            log.warn("Compiled policy set skipped {} rows with invalid patterns: {}", invalid.size(), invalid);
+        }
+        return new CompiledPolicySet(domains, actionBits, policyCount, subjects, unindexed, invalid.size());
+    }
+
+    /**
+     * Link rows (name, name, dom) grouped by tenant, optionally only for some tenants
+     */
+    private static Map<String, List<List<String>>> byTenant(List<List<String>> rows, Set<String> only) {
+        Map<String, List<List<String>>> grouped = new HashMap<>();
+        for (List<String> row : rows) {
+            if (row.size() >= 3 && (only == null || only.contains(row.get(2)))) {
+                grouped.computeIfAbsent(row.get(2), key -> new ArrayList<>()).add(row);
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * Decide a request; same answer as enforcer.enforce(sub, dom, obj, act, scope)
+     *
+     * @param scope Request data scope, null if the caller has none
+     */
+    public boolean enforce(String sub, String dom, String obj, String act, String scope) {
+        if (sub == null || dom == null || obj == null || act == null) {
+            return false;
+        }
+        DomainIndex domain = domains.get(dom);
+        if (domain == null) {
+            return false;
+        }
+        RuleIndex[] indexes = domain.closure(sub);
+        if (indexes.length == 0) {
+            return false;
+        }
+
+        Integer bit = actionBits.get(act);
+        Request request = new Request(obj, act, bit != null ? 1L << bit : 0L,
+                                      ScopeMatcher.requestScope(scope), domain.hasDeny);
+        for (RuleIndex index : indexes) {
+            index.evaluate(request);
+            if (request.decided()) {
+                break;
+            }
+        }
+        return request.allowed && !request.denied;
+    }
+
+    /**
+     * Names a subject's decisions depend on in a tenant: itself, its g ancestors and g2
+     * descendants, whether or not they currently have policy rows
+     */
+    public List<String> dependencies(String sub, String dom) {
+        DomainIndex domain = domains.get(dom);
+        String[] names = domain != null ? domain.reachable.get(sub) : null;
+        return names != null ? List.of(names) : List.of(sub);
+    }
+
+    public boolean isEmpty() {
+        return policyCount == 0;
+    }
+
+    public int getPolicyCount() {
+        return policyCount;
+    }
+
+    public int getDomainCount() {
+        return domains.size();
+    }
+
+    public int getSubjectCount() {
+        return subjectCount;
+    }
+
+    public int getActionVocabularySize() {
+        return actionBits.size();
+    }
+
+    public int getUnindexedPatterns() {
+        return unindexedPatterns;
+    }
+
+    public int getInvalidPatterns() {
+        return invalidPatterns;
+    }
+
+    private static Pattern pattern(Map<String, Pattern> patterns, Set<String> invalid, String regex) {
+        if (invalid.contains(regex)) {
+            return null;
+        }
+        Pattern compiled = patterns.get(regex);
+        if (compiled == null) {
+            try {
+                compiled = Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                invalid.add(regex);
+                return null;
+            }
+            patterns.put(regex, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Base actions plus every literal action pattern, at most 64 (one long)
+     */
+    private static Map<String, Integer> actionVocabulary(List<List<String>> policies) {
+        Set<String> actions = new LinkedHashSet<>(BASE_ACTIONS);
+        for (List<String> row : policies) {
+            if (row.size() > 3 && literalPrefix(row.get(3), 0).equals(row.get(3))) {
+                actions.add(row.get(3));
+            }
+        }
+        Map<String, Integer> bits = new LinkedHashMap<>();
+        for (String action : actions) {
+            if (bits.size() == Long.SIZE) {
+                break;
+            }
+            bits.put(action, bits.size());
+        }
+        return Collections.unmodifiableMap(bits);
+    }
+
+    private static long actionMask(Pattern actionPattern, String[] vocabulary) {
+        long mask = 0L;
+        for (int i = 0; i < vocabulary.length; i++) {
+            if (actionPattern.matcher(vocabulary[i]).lookingAt()) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Literal text every match of regex must contain, starting at index from
+     *
+     * Stops at the first metacharacter; a quantifier that allows zero repetitions drops the
+     * character before it. Empty for patterns with a top-level alternation.
+     */
+    static String literalPrefix(String regex, int from) {
+        if (regex.indexOf('|') >= 0 && hasTopLevelAlternation(regex)) {
+            return "";
+        }
+        StringBuilder literal = new StringBuilder();
+        for (int i = from; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (REGEX_META.indexOf(c) >= 0) {
+                if ((c == '?' || c == '*' || c == '{') && !literal.isEmpty()) {
+                    literal.setLength(literal.length() - 1);
+                }
+                break;
+            }
+            literal.append(c);
+        }
+        return literal.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                }
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One policy row, object pattern held by its PatternGroup
+     */
+    private record Rule(Pattern action, long actionMask, boolean allow, String scope) {
+
+        boolean matches(Request request) {
+            boolean actionMatches = request.actionBit != 0
+                ? (actionMask & request.actionBit) != 0
+                : action.matcher(request.act).lookingAt();
+            return actionMatches
+                && (scope == null || ScopeMatcher.matchesNormalized(request.scope, scope));
+        }
+    }
+
+    /**
+     * Rules of one subject sharing an object pattern; the object regex runs once per group
+     */
+    private record PatternGroup(Pattern object, Rule[] rules) {
+
+        void evaluate(Request request) {
+            boolean wanted = false;
+            for (Rule rule : rules) {
+                if ((rule.allow ? !request.allowed : !request.denied) && rule.matches(request)) {
+                    wanted = true;
+                    break;
+                }
+            }
+            if (!wanted || !object.matcher(request.obj).lookingAt()) {
+                return;
+            }
+            for (Rule rule : rules) {
+                if (rule.matches(request)) {
+                    if (rule.allow) {
+                        request.allowed = true;
+                    } else {
+                        request.denied = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-request state: path split points and the effect collected so far
+     */
+    private static final class Request {
+        final String obj;
+        final String act;
+        final long actionBit;
+        final String scope;
+        final boolean denyPossible;
+        final int[] slashes;
+        boolean allowed;
+        boolean denied;
+
+        Request(String obj, String act, long actionBit, String scope, boolean denyPossible) {
+            this.obj = obj;
+            this.act = act;
+            this.actionBit = actionBit;
+            this.scope = scope;
+            this.denyPossible = denyPossible;
+            this.slashes = slashPositions(obj);
+        }
+
+        boolean decided() {
+            return denied || (allowed && !denyPossible);
+        }
+
+        /**
+         * Text between slash k and the next slash (or the end)
+         */
+        int segmentEnd(int k) {
+            return k + 1 < slashes.length ? slashes[k + 1] : obj.length();
+        }
+
+        private static int[] slashPositions(String path) {
+            int count = 0;
+            for (int i = 0; i < path.length(); i++) {
+                if (path.charAt(i) == '/') {
+                    count++;
+                }
+            }
+            int[] positions = new int[count];
+            for (int i = 0, k = 0; i < path.length(); i++) {
+                if (path.charAt(i) == '/') {
+                    positions[k++] = i;
+                }
+            }
+            return positions;
+        }
+    }
+
+    /**
+     * Path-segment trie over pattern literals; a literal "/a/b/c" is stored as full segments
+     * [a, b] and the tail "c", which must prefix the next path segment
+     */
+    private static final class SegmentTrie {
+        final Map<String, SegmentTrie> children = new HashMap<>();
+        final List<Tail> tails = new ArrayList<>(1);
+
+        private record Tail(String prefix, PatternGroup group) {
+        }
+
+        void insert(String literal, PatternGroup group) {
+            String[] parts = literal.substring(1).split("/", -1);
+            SegmentTrie node = this;
+            for (int i = 0; i < parts.length - 1; i++) {
+                node = node.children.computeIfAbsent(parts[i], key -> new SegmentTrie());
+            }
+            node.tails.add(new Tail(parts[parts.length - 1], group));
+        }
+
+        /**
+         * Evaluate groups whose literal occurs at slash k of the path
+         */
+        void walk(Request request, int k) {
+            SegmentTrie node = this;
+            int[] slashes = request.slashes;
+            String obj = request.obj;
+            for (int j = k; ; j++) {
+                int start = slashes[j] + 1;
+                int end = request.segmentEnd(j);
+                for (Tail tail : node.tails) {
+                    if (tail.prefix.length() <= end - start && obj.startsWith(tail.prefix, start)) {
+                        tail.group.evaluate(request);
+                        if (request.decided()) {
+                            return;
+                        }
+                    }
+                }
+                if (node.children.isEmpty() || j + 1 >= slashes.length) {
+                    return;
+                }
+                node = node.children.get(obj.substring(start, end));
+                if (node == null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Object patterns of one subject in one tenant
+     */
+    private static final class RuleIndex {
+        final SegmentTrie anchored;
+        final PatternGroup[] unindexed;
+        final boolean hasDeny;
+
+        private RuleIndex(SegmentTrie anchored, PatternGroup[] unindexed, boolean hasDeny) {
+            this.anchored = anchored;
+            this.unindexed = unindexed;
+            this.hasDeny = hasDeny;
+        }
+
+        void evaluate(Request request) {
+            for (PatternGroup group : unindexed) {
+                group.evaluate(request);
+                if (request.decided()) {
+                    return;
+                }
+            }
+            int[] slashes = request.slashes;
+            if (slashes.length > 0 && slashes[0] == 0) {
+                anchored.walk(request, 0);
+            }
+        }
+
+        static final class Builder {
+            private final Map<String, Pattern> objects = new LinkedHashMap<>();
+            private final Map<String, List<Rule>> rules = new LinkedHashMap<>();
+
+            void add(String objPattern, Pattern obj, Rule rule) {
+                objects.putIfAbsent(objPattern, obj);
+                rules.computeIfAbsent(objPattern, key -> new ArrayList<>()).add(rule);
+            }
+
+            RuleIndex build() {
+                SegmentTrie anchored = new SegmentTrie();
+                List<PatternGroup> unindexed = new ArrayList<>();
+                boolean hasDeny = false;
+
+                for (Map.Entry<String, List<Rule>> entry : rules.entrySet()) {
+                    String regex = entry.getKey();
+                    PatternGroup group = new PatternGroup(objects.get(regex), entry.getValue().toArray(Rule[]::new));
+                    for (Rule rule : group.rules) {
+                        hasDeny |= !rule.allow;
+                    }
+
+                    // lookingAt: a match always starts at the path's first character
+                    String literal = literalPrefix(regex, regex.startsWith("^") ? 1 : 0);
+                    if (literal.startsWith("/")) {
+                        anchored.insert(literal, group);
+                    } else {
+                        unindexed.add(group);
+                    }
+                }
+                return new RuleIndex(anchored, unindexed.toArray(PatternGroup[]::new), hasDeny);
+            }
+        }
+    }
+
+    /**
+     * One tenant: rule indexes per policy subject and precomputed role closures
+     */
+    private static final class DomainIndex {
+        private static final RuleIndex[] NONE = new RuleIndex[0];
+
+        final Map<String, RuleIndex> subjects;
+        final Map<String, RuleIndex[]> closures;
+        final Map<String, String[]> reachable;
+        final boolean hasDeny;
+        final int policyCount;
+        final int unindexed;
+        final Set<String> invalidPatterns;
+
+        private DomainIndex(Map<String, RuleIndex> subjects, Map<String, RuleIndex[]> closures,
+                            Map<String, String[]> reachable, boolean hasDeny,
+                            int policyCount, int unindexed, Set<String> invalidPatterns) {
+            this.subjects = subjects;
+            this.closures = closures;
+            this.reachable = reachable;
+            this.hasDeny = hasDeny;
+            this.policyCount = policyCount;
+            this.unindexed = unindexed;
+            this.invalidPatterns = invalidPatterns;
+        }
+
+        /**
+         * Rule indexes of every policy subject a request subject can use
+         */
+        RuleIndex[] closure(String subject) {
+            RuleIndex[] closure = closures.get(subject);
+            if (closure != null) {
+                return closure;
+            }
+            RuleIndex own = subjects.get(subject);
+            return own != null ? new RuleIndex[] {own} : NONE;
+        }
+
+        /**
+         * @param groupings this tenant's g rows
+         * @param roleHierarchy this tenant's g2 rows
+         */
+        static DomainIndex build(Map<String, RuleIndex> subjects,
+                                 List<List<String>> groupings, List<List<String>> roleHierarchy,
+                                 int policyCount, int unindexed, Set<String> invalidPatterns) {
+            Map<String, List<String>> parents = links(groupings, false);
+            Map<String, List<String>> children = links(roleHierarchy, true);
+
+            Set<String> names = new HashSet<>(parents.keySet());
+            names.addAll(children.keySet());
+
+            Map<String, RuleIndex[]> closures = new HashMap<>();
+            Map<String, String[]> reachableNames = new HashMap<>();
+            for (String name : names) {
+                Set<String> reachable = new LinkedHashSet<>();
+                reachable.add(name);
+                reach(name, parents, reachable);
+                reach(name, children, reachable);
+
+                List<RuleIndex> indexes = new ArrayList<>();
+                for (String candidate : reachable) {
+                    RuleIndex index = subjects.get(candidate);
+                    if (index != null) {
+                        indexes.add(index);
+                    }
+                }
+                closures.put(name, indexes.toArray(RuleIndex[]::new));
+                reachableNames.put(name, reachable.toArray(String[]::new));
+            }
+
+            boolean hasDeny = subjects.values().stream().anyMatch(index -> index.hasDeny);
+            return new DomainIndex(subjects, closures, reachableNames, hasDeny,
+                                   policyCount, unindexed, invalidPatterns);
+        }
+
+        /**
+         * Adjacency for one tenant: name -> linked names (parents, or children when reversed)
+         */
+        private static Map<String, List<String>> links(List<List<String>> rows, boolean reversed) {
+            Map<String, List<String>> links = new HashMap<>();
+            for (List<String> row : rows) {
+                String from = reversed ? row.get(1) : row.get(0);
+                String to = reversed ? row.get(0) : row.get(1);
+                links.computeIfAbsent(from, key -> new ArrayList<>()).add(to);
+            }
+            return links;
+        }
+
+        /**
+         * Breadth-first walk up to MAX_HIERARCHY_LEVEL links, like DefaultRoleManager.hasLink
+         */
+        private static void reach(String start, Map<String, List<String>> links, Set<String> reachable) {
+            Set<String> seen = new HashSet<>();
+            seen.add(start);
+            ArrayDeque<String> frontier = new ArrayDeque<>();
+            frontier.add(start);
+            for (int level = 0; level < MAX_HIERARCHY_LEVEL && !frontier.isEmpty(); level++) {
+                ArrayDeque<String> next = new ArrayDeque<>();
+                for (String name : frontier) {
+                    for (String linked : links.getOrDefault(name, List.of())) {
+                        if (seen.add(linked)) {
+                            reachable.add(linked);
+                            next.add(linked);
+                        }
+                    }
+                }
+                frontier = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.neobrutalism.crm.config.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.model.Assertion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Compiled permission decisions in front of the Casbin Enforcer
+ *
+ * Keeps a {@link CompiledPolicySet} in sync with the enforcer's model and answers permission
+ * checks from it, so check latency no longer grows with the number of policy rows.
+ *
+ * Freshness:
+ * - Policy deltas (local API calls and changes tailed from other nodes, see PolicySyncService)
+ *   record the tenants they touch and bump the policy version
+ * - An index compiled at an older version is recompiled by the first check that sees it (other
+ *   checks wait), so a check never answers from a policy set older than the last completed
+ *   change; a build during which the version moved is redone
+ * - Only the touched tenants are recompiled; a reload, a delta without a tenant, or a model
+ *   change nobody reported (policy lists replaced or resized) recompiles everything
+ *
+ * Verification against Enforcer.enforce (differential harness):
+ * - casbin.decision-index.verify-sample-rate: fraction of live checks also sent to the enforcer
+ * - {@link #verifyRecent()}: replays the last casbin.decision-index.recent-requests checks
+ * Mismatches are counted, logged and returned by the monitoring API.
+ *
+ * With casbin.decision-index.enabled=false every check goes to the enforcer unchanged.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE) // Recompile before caches built on its answers are evicted
+public class PermissionDecisionIndex implements PolicyDeltaListener {
+
+    private static final int MAX_REPORTED_MISMATCHES = 20;
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final Enforcer enforcer;
+
+    @Value("${casbin.decision-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${casbin.decision-index.verify-sample-rate:0.0}")
+    private double verifySampleRate;
+
+    @Value("${casbin.decision-index.recent-requests:1024}")
+    private int recentRequestCapacity;
+
+    private final Object rebuildLock = new Object();
+    private volatile CompiledPolicySet compiled = CompiledPolicySet.empty();
+    private volatile PolicySource compiledSource;
+    private final AtomicLong policyVersion = new AtomicLong();
+    private volatile long compiledVersion = -1;
+    private volatile boolean fullRebuild = true;
+    private final Set<String> dirtyTenants = ConcurrentHashMap.newKeySet();
+
+    private AtomicReferenceArray<Check> recentChecks;
+    private final AtomicLong recentCursor = new AtomicLong();
+
+    private final AtomicLong decisions = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong incrementalRebuilds = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private volatile long lastBuildMillis;
+    private volatile int lastRebuiltTenants;
+
+    /**
+     * One permission check; scope is absent for 4-argument checks
+     */
+    public record Check(String subject, String domain, String resource, String action,
+                        String scope, boolean hasScope) {
+    }
+
+    /**
+     * Differential replay result
+     */
+    public record VerificationReport(int checked, int mismatchCount, List<Mismatch> mismatches) {
+    }
+
+    public record Mismatch(Check check, boolean indexDecision, boolean enforcerDecision) {
+    }
+
+    /**
+     * Identity and size of the model's p / g / g2 lists when the index was compiled
+     */
+    private record PolicySource(List<List<String>> policies, List<List<String>> groupings,
+                                List<List<String>> roleHierarchy, int policyCount,
+                                int groupingCount, int hierarchyCount) {
+
+        boolean sameAs(PolicySource other) {
+            return sameListsAs(other)
+                && policyCount == other.policyCount && groupingCount == other.groupingCount
+                && hierarchyCount == other.hierarchyCount;
+        }
+
+        boolean sameListsAs(PolicySource other) {
+            return other != null
+                && policies == other.policies && groupings == other.groupings
+                && roleHierarchy == other.roleHierarchy;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Permission decision index DISABLED - checks go to the Casbin enforcer");
+            return;
+        }
+        recentChecks = new AtomicReferenceArray<>(Math.max(1, recentRequestCapacity));
+        refreshIfStale();
+        log.info("Permission decision index initialized: policies={}, tenants={}, verifySampleRate={}",
+                 compiled.getPolicyCount(), compiled.getDomainCount(), verifySampleRate);
+    }
+
+    /**
+     * Check without a data scope; same answer as enforcer.enforce(sub, dom, obj, act, "")
+     * (the model takes five request values, so jcasbin rejects a 4-argument enforce)
+     */
+    public boolean enforce(String sub, String dom, String obj, String act) {
+        return decide(new Check(sub, dom, obj, act, null, false));
+    }
+
+    /**
+     * Same answer as enforcer.enforce(sub, dom, obj, act, scope)
+     */
+    public boolean enforce(String sub, String dom, String obj, String act, String scope) {
+        return decide(new Check(sub, dom, obj, act, scope, true));
+    }
+
+    /**
+     * Policy subjects a subject's decisions in a tenant depend on (itself and its role closure)
+     *
+     * @return null when the index is disabled or cannot be built
+     */
+    public List<String> dependencies(String sub, String dom) {
+        if (!enabled) {
+            return null;
+        }
+        CompiledPolicySet current = current();
+        return current != null ? current.dependencies(sub, dom) : null;
+    }
+
+    /**
+     * Whether the policy set has no allow/deny rows
+     */
+    public boolean isEmpty() {
+        if (!enabled) {
+            return enforcer.getPolicy().isEmpty();
+        }
+        CompiledPolicySet current = current();
+        return current == null ? enforcer.getPolicy().isEmpty() : current.isEmpty();
+    }
+
+    /**
+     * Mark the index stale; the next check recompiles it
+     */
+    public void invalidate() {
+        fullRebuild = true;
+        policyVersion.incrementAndGet();
+    }
+
+    @Override
+    public void onPolicyDeltas(List<PolicyDelta> deltas, boolean local) {
+        for (PolicyDelta delta : deltas) {
+            String tenant = delta.tenant();
+            if (tenant != null) {
+                dirtyTenants.add(tenant);
+            } else {
+                fullRebuild = true;
+            }
+        }
+        // After the tenants: a rebuild that sees the new version also sees them
+        policyVersion.incrementAndGet();
+    }
+
+    @Override
+    public void onPolicyReload() {
+        invalidate();
+    }
+
+    private boolean decide(Check check) {
+        if (!enabled) {
+            return enforceDirect(check);
+        }
+        CompiledPolicySet current = current();
+        if (current == null) {
+            fallbacks.incrementAndGet();
+            return enforceDirect(check);
+        }
+
+        decisions.incrementAndGet();
+        boolean decision = current.enforce(check.subject(), check.domain(), check.resource(),
+                                           check.action(), check.scope());
+        recentChecks.set((int) Math.floorMod(recentCursor.getAndIncrement(), (long) recentChecks.length()), check);
+
+        if (verifySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+            verify(check, decision);
+        }
+        return decision;
+    }
+
+    private boolean enforceDirect(Check check) {
+        return enforcer.enforce(check.subject(), check.domain(), check.resource(), check.action(),
+                                check.hasScope() ? check.scope() : "");
+    }
+
+    /**
+     * Current compiled set, recompiled first if the model changed; null if it cannot be built
+     */
+    private CompiledPolicySet current() {
+        if (isFresh()) {
+            return compiled;
+        }
+        return refreshIfStale();
+    }
+
+    private boolean isFresh() {
+        return compiledVersion == policyVersion.get() && source().sameAs(compiledSource);
+    }
+
+    private CompiledPolicySet refreshIfStale() {
+        synchronized (rebuildLock) {
+            if (isFresh()) {
+                return compiled;
+            }
+            for (int attempt = 1; attempt <= MAX_REBUILD_ATTEMPTS; attempt++) {
+                // Read first: a change completing during the build moves the version past it
+                long version = policyVersion.get();
+                PolicySource source = source();
+                Set<String> tenants = Set.copyOf(dirtyTenants);
+                dirtyTenants.removeAll(tenants);
+                // Unreported change (lists replaced, or resized without a delta): recompile all
+                boolean full = fullRebuild || !source.sameListsAs(compiledSource)
+                    || (tenants.isEmpty() && !source.sameAs(compiledSource));
+                fullRebuild = false;
+
+                long start = System.nanoTime();
+                // Copies taken under the enforcer's read lock (a filter without values matches every row)
+                List<List<String>> policies = enforcer.getFilteredNamedPolicy("p", 0);
+                List<List<String>> groupings = enforcer.getFilteredNamedGroupingPolicy("g", 0);
+                List<List<String>> hierarchy = enforcer.getFilteredNamedGroupingPolicy("g2", 0);
+                CompiledPolicySet rebuilt = full
+                    ? CompiledPolicySet.compile(policies, groupings, hierarchy)
+                    : CompiledPolicySet.recompile(compiled, tenants, policies, groupings, hierarchy);
+                lastBuildMillis = (System.nanoTime() - start) / 1_000_000;
+                lastRebuiltTenants = full ? rebuilt.getDomainCount() : tenants.size();
+                // Published at the version read before the copy; the changes after it left their
+                // tenants dirty, so the next attempt recompiles only those
+                compiled = rebuilt;
+                compiledSource = source;
+                compiledVersion = version;
+                rebuilds.incrementAndGet();
+                if (!full) {
+                    incrementalRebuilds.incrementAndGet();
+                }
+                if (policyVersion.get() == version) {
+                    log.debug("Compiled permission index ({}): policies={}, subjects={}, tenants={}, unindexed={}, {} ms",
+                              full ? "full" : tenants.size() + " tenants",
+                              rebuilt.getPolicyCount(), rebuilt.getSubjectCount(), rebuilt.getDomainCount(),
+                              rebuilt.getUnindexedPatterns(), lastBuildMillis);
+                    return rebuilt;
+                }
+                log.debug("Policy set changed while compiling (attempt {}), recompiling", attempt);
+            }
+            log.warn("Could not compile permission index after {} attempts, using the enforcer", MAX_REBUILD_ATTEMPTS);
+            return null;
+        }
+    }
+
+    private PolicySource source() {
+        List<List<String>> policies = policyList("p", "p");
+        List<List<String>> groupings = policyList("g", "g");
+        List<List<String>> hierarchy = policyList("g", "g2");
+        return new PolicySource(policies, groupings, hierarchy,
+                                policies.size(), groupings.size(), hierarchy.size());
+    }
+
+    private List<List<String>> policyList(String section, String type) {
+        Map<String, Assertion> assertions = enforcer.getModel().model.get(section);
+        Assertion assertion = assertions != null ? assertions.get(type) : null;
+        return assertion != null && assertion.policy != null ? assertion.policy : List.of();
+    }
+
+    private boolean verify(Check check, boolean decision) {
+        boolean expected;
+        try {
+            expected = enforceDirect(check);
+        } catch (RuntimeException e) {
+            log.debug("Enforcer failed while verifying {}: {}", check, e.getMessage());
+            return true;
+        }
+        verified.incrementAndGet();
+        if (expected != decision) {
+            mismatches.incrementAndGet();
+            log.warn("Permission index mismatch: {} index={} enforcer={}", check, decision, expected);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Replay recent checks against the enforcer and report disagreements
+     */
+    public VerificationReport verifyRecent() {
+        if (!enabled) {
+            return new VerificationReport(0, 0, List.of());
+        }
+        CompiledPolicySet current = current();
+        if (current == null) {
+            return new VerificationReport(0, 0, List.of());
+        }
+        int checked = 0;
+        int mismatchCount = 0;
+        List<Mismatch> reported = new ArrayList<>();
+        for (int i = 0; i < recentChecks.length(); i++) {
+            Check check = recentChecks.get(i);
+            if (check == null) {
+                continue;
+            }
+            boolean decision = current.enforce(check.subject(), check.domain(), check.resource(),
+                                               check.action(), check.scope());
+            checked++;
+            if (!verify(check, decision)) {
+                mismatchCount++;
+                if (reported.size() < MAX_REPORTED_MISMATCHES) {
+                    reported.add(new Mismatch(check, decision, !decision));
+                }
+            }
+        }
+        log.info("Permission index verification: {} checks replayed, {} mismatches", checked, mismatchCount);
+        return new VerificationReport(checked, mismatchCount, reported);
+    }
+
+    /**
+     * Index statistics for monitoring
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        CompiledPolicySet current = compiled;
+        stats.put("policies", current.getPolicyCount());
+        stats.put("tenants", current.getDomainCount());
+        stats.put("subjects", current.getSubjectCount());
+        stats.put("action_vocabulary", current.getActionVocabularySize());
+        stats.put("unindexed_patterns", current.getUnindexedPatterns());
+        stats.put("invalid_patterns", current.getInvalidPatterns());
+        stats.put("stale", compiledVersion != policyVersion.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("incremental_rebuilds", incrementalRebuilds.get());
+        stats.put("last_rebuilt_tenants", lastRebuiltTenants);
+        stats.put("last_build_ms", lastBuildMillis);
+        stats.put("decisions", decisions.get());
+        stats.put("enforcer_fallbacks", fallbacks.get());
+        stats.put("verify_sample_rate", verifySampleRate);
+        stats.put("verified", verified.get());
+        stats.put("mismatches", mismatches.get());
+        return stats;
+    }
+}
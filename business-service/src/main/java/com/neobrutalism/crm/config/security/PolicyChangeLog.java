@@ -0,0 +1,413 @@
+package com.neobrutalism.crm.config.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.model.Assertion;
+import org.casbin.jcasbin.model.Model;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Casbin policy change log and snapshots (casbin_policy_changes / casbin_policy_snapshots)
+ *
+ * Log:
+ * - One row per changed rule, appended in its own transaction by the node that made the change
+ * - Ids come from an identity column: a row can become visible after a higher id (concurrent
+ *   appends), so readers stop at a gap and let {@link PolicySyncService} decide when to skip it
+ *
+ * Snapshots:
+ * - The whole casbin_rule table as one gzip payload, tagged with the log id read before it
+ *   and the highest casbin_rule id it contains
+ * - The adapter writes casbin_rule before the change is appended, so every change up to the
+ *   tag is in the payload; later changes are replayed from the log (replay is idempotent)
+ * - The newest casbin.policy-sync.snapshots-kept are kept; log rows older than the oldest kept
+ *   snapshot and casbin.policy-sync.retention-hours are pruned
+ *
+ * Startup: {@link #restore} loads the newest snapshot plus the log after it into the enforcer
+ * and checks the result against casbin_rule, falling back to the adapter's full load when
+ * there is no snapshot yet or the check fails.
+ */
+@Slf4j
+@Component
+public class PolicyChangeLog {
+
+    private static final int MAX_VALUES = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate logTransaction;
+    private final String nodeId;
+
+    @Value("${casbin.policy-sync.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${casbin.policy-sync.snapshots-kept:2}")
+    private int snapshotsKept;
+
+    @Value("${casbin.policy-sync.retention-hours:24}")
+    private int retentionHours;
+
+    private volatile long restoredPosition = -1;
+
+    public PolicyChangeLog(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${spring.application.name:business-service}") String applicationName) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.logTransaction = new TransactionTemplate(transactionManager);
+        this.logTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = applicationName + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * One casbin_rule row of a snapshot
+     */
+    public record Rule(String ptype, List<String> values) {
+    }
+
+    /**
+     * Snapshot payload, the log position it covers and its highest casbin_rule id
+     */
+    public record Snapshot(long changeId, long maxRuleId, List<Rule> rules) {
+    }
+
+    private static final RowMapper<PolicyDelta> DELTA_MAPPER = (rs, rowNum) -> new PolicyDelta(
+        rs.getLong("id"),
+        PolicyDelta.Operation.valueOf(rs.getString("operation")),
+        rs.getString("sec"),
+        rs.getString("ptype"),
+        rs.getInt("field_index"),
+        values(rs),
+        rs.getString("origin_node"));
+
+    /**
+     * Identifies this node's rows in the log
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Log position the enforcer was restored to at startup; -1 if {@link #restore} did not run
+     */
+    public long getRestoredPosition() {
+        return restoredPosition;
+    }
+
+    /**
+     * Append changes made on this node (commits independently of the caller's transaction,
+     * like the adapter's own casbin_rule write)
+     */
+    public void append(List<PolicyDelta> deltas) {
+        logTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate("""
+            INSERT INTO casbin_policy_changes
+                (operation, sec, ptype, field_index, v0, v1, v2, v3, v4, v5, origin_node)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """, deltas, batchSize, (ps, delta) -> {
+                ps.setString(1, delta.operation().name());
+                ps.setString(2, delta.sec());
+                ps.setString(3, delta.ptype());
+                ps.setInt(4, delta.fieldIndex());
+                for (int i = 0; i < MAX_VALUES; i++) {
+                    ps.setString(5 + i, i < delta.values().size() ? delta.values().get(i) : null);
+                }
+                ps.setString(11, delta.origin());
+            }));
+    }
+
+    /**
+     * Log rows after a position, in id order
+     */
+    public List<PolicyDelta> readAfter(long afterId, int limit) {
+        return jdbcTemplate.query("""
+            SELECT id, operation, sec, ptype, field_index, v0, v1, v2, v3, v4, v5, origin_node
+            FROM casbin_policy_changes
+            WHERE id > ?
+            ORDER BY id
+            LIMIT ?
+            """, DELTA_MAPPER, afterId, limit);
+    }
+
+    /**
+     * Highest committed log id; 0 for an empty log
+     */
+    public long latestId() {
+        Long id = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM casbin_policy_changes", Long.class);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Log position of the newest snapshot; -1 if there is none
+     */
+    public long latestSnapshotPosition() {
+        Long changeId = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(change_id), -1) FROM casbin_policy_snapshots", Long.class);
+        return changeId != null ? changeId : -1;
+    }
+
+    public Optional<Snapshot> latestSnapshot() {
+        return jdbcTemplate.query("""
+            SELECT change_id, max_rule_id, rule_count, payload
+            FROM casbin_policy_snapshots
+            ORDER BY change_id DESC, id DESC
+            LIMIT 1
+            """, (rs, rowNum) -> new Snapshot(rs.getLong("change_id"), rs.getLong("max_rule_id"),
+                                               decode(rs.getBytes("payload"), rs.getInt("rule_count"))))
+            .stream().findFirst();
+    }
+
+    /**
+     * Snapshot casbin_rule as it is now
+     *
+     * @return log position the snapshot covers
+     */
+    public long writeSnapshot() {
+        long changeId = latestId();
+        long[] maxRuleId = {0};
+        List<Rule> rules = jdbcTemplate.query(
+            "SELECT id, ptype, v0, v1, v2, v3, v4, v5 FROM casbin_rule ORDER BY id",
+            (rs, rowNum) -> {
+                maxRuleId[0] = Math.max(maxRuleId[0], rs.getLong("id"));
+                return new Rule(rs.getString("ptype"), values(rs));
+            });
+        byte[] payload = encode(rules);
+
+        logTransaction.executeWithoutResult(status -> jdbcTemplate.update("""
+            INSERT INTO casbin_policy_snapshots (change_id, max_rule_id, rule_count, payload, origin_node)
+            VALUES (?, ?, ?, ?, ?)
+            """, changeId, maxRuleId[0], rules.size(), payload, nodeId));
+
+        log.info("Wrote Casbin policy snapshot: {} rules at change {} ({} bytes)",
+                 rules.size(), changeId, payload.length);
+        return changeId;
+    }
+
+    /**
+     * Drop snapshots beyond the newest snapshots-kept and log rows no kept snapshot needs
+     */
+    public void prune() {
+        logTransaction.executeWithoutResult(status -> {
+            List<Long> kept = jdbcTemplate.queryForList("""
+                SELECT id FROM casbin_policy_snapshots
+                ORDER BY change_id DESC, id DESC
+                LIMIT ?
+                """, Long.class, Math.max(1, snapshotsKept));
+            if (kept.isEmpty()) {
+                return;
+            }
+            int snapshots = jdbcTemplate.update(
+                "DELETE FROM casbin_policy_snapshots WHERE id NOT IN (" + placeholders(kept.size()) + ")",
+                kept.toArray());
+            int changes = jdbcTemplate.update("""
+                DELETE FROM casbin_policy_changes
+                WHERE id <= (SELECT MIN(change_id) FROM casbin_policy_snapshots)
+                  AND created_at < ?
+                """, Timestamp.from(Instant.now().minus(Duration.ofHours(retentionHours))));
+            if (snapshots > 0 || changes > 0) {
+                log.debug("Pruned {} Casbin policy snapshots and {} change log rows", snapshots, changes);
+            }
+        });
+    }
+
+    /**
+     * Load the policy set into a freshly created enforcer: newest snapshot plus the log after
+     * it, or the adapter's full casbin_rule load when there is no usable snapshot
+     *
+     * Replay stops at the first id gap or reload marker in the log; the rest is picked up by
+     * {@link PolicySyncService} (gap) or covered by the full load (reload). The restored rules
+     * are then checked against casbin_rule (see {@link #mismatch}); a snapshot that does not
+     * match is discarded for the full load, and a new one is written for the next start.
+     *
+     * @return log position the enforcer now reflects
+     */
+    public long restore(Enforcer enforcer) {
+        long position;
+        Optional<Snapshot> snapshot;
+        try {
+            snapshot = latestSnapshot();
+        } catch (DataAccessException | UncheckedIOException e) {
+            log.warn("Could not read Casbin policy snapshot, loading casbin_rule: {}", e.getMessage());
+            snapshot = Optional.empty();
+        }
+
+        if (snapshot.isEmpty()) {
+            position = latestId();
+            enforcer.loadPolicy();
+            log.info("Loaded Casbin policies from casbin_rule (no snapshot yet), log position {}", position);
+        } else {
+            Model model = enforcer.getModel();
+            model.clearPolicy();
+            for (Rule rule : snapshot.get().rules()) {
+                model.addPolicy(PolicyDelta.section(rule.ptype()), rule.ptype(), rule.values());
+            }
+            position = snapshot.get().changeId();
+
+            int replayed = 0;
+            boolean replayedAdds = false;
+            boolean done = false;
+            while (!done) {
+                List<PolicyDelta> tail = readAfter(position, batchSize);
+                done = tail.size() < batchSize;
+                for (PolicyDelta delta : tail) {
+                    if (delta.id() != position + 1) {
+                        done = true;
+                        break;
+                    }
+                    if (delta.isReload()) {
+                        position = latestId();
+                        enforcer.loadPolicy();
+                        log.info("Reload marker in the Casbin change log, loaded casbin_rule at position {}", position);
+                        restoredPosition = position;
+                        return position;
+                    }
+                    delta.applyTo(model);
+                    replayedAdds |= delta.operation() == PolicyDelta.Operation.ADD;
+                    position = delta.id();
+                    replayed++;
+                }
+            }
+
+            String mismatch = mismatch(model, snapshot.get(), replayedAdds);
+            if (mismatch != null) {
+                position = latestId();
+                enforcer.loadPolicy();
+                log.warn("Casbin policy snapshot at change {} does not match casbin_rule ({}), "
+                         + "loaded casbin_rule at position {}", snapshot.get().changeId(), mismatch, position);
+                replaceSnapshot();
+                restoredPosition = position;
+                return position;
+            }
+            enforcer.buildRoleLinks();
+            log.info("Restored Casbin policies from snapshot at change {} ({} rules) + {} log changes",
+                     snapshot.get().changeId(), snapshot.get().rules().size(), replayed);
+        }
+        restoredPosition = position;
+        return position;
+    }
+
+    /**
+     * Why a restored model does not match casbin_rule; null when it does
+     *
+     * - Rule count: the model holds each distinct casbin_rule row once
+     * - Highest rule id: ids only grow, so without an ADD in the replayed tail no row may have
+     *   an id above the snapshot's; one that does was written outside the change log (direct
+     *   SQL, a node with policy sync disabled) and may be missing from the model
+     */
+    private String mismatch(Model model, Snapshot snapshot, boolean replayedAdds) {
+        long[] table = jdbcTemplate.queryForObject("""
+            SELECT (SELECT COUNT(*) FROM (SELECT DISTINCT ptype, v0, v1, v2, v3, v4, v5 FROM casbin_rule) r),
+                   (SELECT COALESCE(MAX(id), 0) FROM casbin_rule)
+            """, (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+        int restored = ruleCount(model);
+        if (table[0] != restored) {
+            return "casbin_rule has " + table[0] + " rules, restored " + restored;
+        }
+        if (!replayedAdds && table[1] > snapshot.maxRuleId()) {
+            return "casbin_rule id " + table[1] + " is above the snapshot's " + snapshot.maxRuleId();
+        }
+        return null;
+    }
+
+    private static int ruleCount(Model model) {
+        int count = 0;
+        for (String sec : List.of("p", "g")) {
+            Map<String, Assertion> assertions = model.model.get(sec);
+            if (assertions != null) {
+                for (Assertion assertion : assertions.values()) {
+                    count += assertion.policy != null ? assertion.policy.size() : 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Snapshot casbin_rule after discarding a stale snapshot, so the next start can use it
+     */
+    private void replaceSnapshot() {
+        try {
+            writeSnapshot();
+        } catch (DataAccessException e) {
+            log.warn("Could not write a new Casbin policy snapshot: {}", e.getMessage());
+        }
+    }
+
+    private static List<String> values(ResultSet rs) throws SQLException {
+        List<String> values = new ArrayList<>(MAX_VALUES);
+        for (int i = 0; i < MAX_VALUES; i++) {
+            values.add(rs.getString("v" + i));
+        }
+        // Trailing empty columns are not part of the rule (same as the adapter's load)
+        int size = values.size();
+        while (size > 0 && values.get(size - 1) == null) {
+            size--;
+        }
+        return values.subList(0, size).stream().map(v -> v == null ? "" : v).toList();
+    }
+
+    private static byte[] encode(List<Rule> rules) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(rules.size());
+            for (Rule rule : rules) {
+                out.writeUTF(rule.ptype());
+                out.writeByte(rule.values().size());
+                for (String value : rule.values()) {
+                    out.writeUTF(value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode policy snapshot", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Rule> decode(byte[] payload, int expectedCount) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int count = in.readInt();
+            if (count != expectedCount) {
+                throw new IOException("payload has " + count + " rules, rule_count is " + expectedCount);
+            }
+            List<Rule> rules = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String ptype = in.readUTF();
+                int size = in.readUnsignedByte();
+                List<String> values = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    values.add(in.readUTF());
+                }
+                rules.add(new Rule(ptype, values));
+            }
+            return rules;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode policy snapshot", e);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
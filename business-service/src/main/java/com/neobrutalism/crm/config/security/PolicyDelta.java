@@ -0,0 +1,115 @@
+package com.neobrutalism.crm.config.security;
+
+import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.model.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One policy change from the casbin_policy_changes log
+ *
+ * - ADD / REMOVE: values is the whole rule
+ * - REMOVE_FILTERED: values filter the columns starting at fieldIndex; an empty value matches anything
+ * - RELOAD: the whole policy set was replaced (savePolicy, reload from the database); no values
+ *
+ * @param id log position; 0 until the delta is appended
+ * @param origin node that made the change
+ */
+public record PolicyDelta(long id, Operation operation, String sec, String ptype, int fieldIndex,
+                          List<String> values, String origin) {
+
+    public enum Operation { ADD, REMOVE, REMOVE_FILTERED, RELOAD }
+
+    /**
+     * Column holding the tenant: p rows are sub, dom, obj, act, eft, scope; g / g2 rows are name, name, dom
+     */
+    private static final int POLICY_DOMAIN_COLUMN = 1;
+    private static final int GROUPING_DOMAIN_COLUMN = 2;
+
+    public static PolicyDelta of(Operation operation, String sec, String ptype, int fieldIndex,
+                                 List<String> values, String origin) {
+        return new PolicyDelta(0, operation, sec, ptype, fieldIndex, List.copyOf(values), origin);
+    }
+
+    public static PolicyDelta reload(String origin) {
+        return new PolicyDelta(0, Operation.RELOAD, "p", "p", 0, List.of(), origin);
+    }
+
+    /**
+     * Section of a policy type: g, g2, ... are grouping rows, everything else is a policy row
+     */
+    public static String section(String ptype) {
+        return ptype.startsWith("g") ? "g" : "p";
+    }
+
+    public boolean isReload() {
+        return operation == Operation.RELOAD;
+    }
+
+    public boolean isGrouping() {
+        return "g".equals(sec);
+    }
+
+    /**
+     * Tenant the change is confined to; null when it can touch any tenant (reload, or a
+     * filtered removal that does not fix the domain column)
+     */
+    public String tenant() {
+        return column(isGrouping() ? GROUPING_DOMAIN_COLUMN : POLICY_DOMAIN_COLUMN);
+    }
+
+    /**
+     * Value a change fixes for a column; null when the column is unconstrained
+     */
+    public String column(int column) {
+        if (isReload()) {
+            return null;
+        }
+        int position = operation == Operation.REMOVE_FILTERED ? column - fieldIndex : column;
+        if (position < 0 || position >= values.size()) {
+            return null;
+        }
+        String value = values.get(position);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Apply the change to a model without going through the enforcer (no adapter write, no
+     * watcher notification, no lock); role links are not rebuilt. Only for a model no other
+     * thread can see yet (startup restore)
+     *
+     * @return whether the model changed
+     */
+    public boolean applyTo(Model model) {
+        return switch (operation) {
+            case ADD -> model.addPolicy(sec, ptype, new ArrayList<>(values));
+            case REMOVE -> model.removePolicy(sec, ptype, values);
+            case REMOVE_FILTERED -> model.removeFilteredPolicy(sec, ptype, fieldIndex, values.toArray(new String[0]));
+            case RELOAD -> throw new IllegalStateException("A reload is not applied to a model");
+        };
+    }
+
+    /**
+     * Apply another node's change through the enforcer's API: under its lock, with role links
+     * updated incrementally; casbin_rule is not written and the watcher does not log it again
+     * (see {@link ReplicaAwareJdbcAdapter#replay})
+     *
+     * @return whether the enforcer's policy changed
+     */
+    public boolean applyTo(Enforcer enforcer) {
+        String[] fields = values.toArray(new String[0]);
+        return ReplicaAwareJdbcAdapter.replay(() -> switch (operation) {
+            case ADD -> isGrouping()
+                ? enforcer.addNamedGroupingPolicy(ptype, new ArrayList<>(values))
+                : enforcer.addNamedPolicy(ptype, new ArrayList<>(values));
+            case REMOVE -> isGrouping()
+                ? enforcer.removeNamedGroupingPolicy(ptype, values)
+                : enforcer.removeNamedPolicy(ptype, values);
+            case REMOVE_FILTERED -> isGrouping()
+                ? enforcer.removeFilteredNamedGroupingPolicy(ptype, fieldIndex, fields)
+                : enforcer.removeFilteredNamedPolicy(ptype, fieldIndex, fields);
+            case RELOAD -> throw new IllegalStateException("A reload is not applied as a change");
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package com.neobrutalism.crm.config.security;
+
+import java.util.List;
+
+/**
+ * Structure derived from the enforcer's policy set that follows it change by change
+ *
+ * Called by {@link PolicySyncService} after the deltas are in the enforcer's model: directly
+ * after a change made on this node, and after each applied batch tailed from the change log.
+ * Listeners are called in @Order order.
+ */
+public interface PolicyDeltaListener {
+
+    /**
+     * Rows were added or removed
+     *
+     * @param local whether the change was made on this node
+     */
+    void onPolicyDeltas(List<PolicyDelta> deltas, boolean local);
+
+    /**
+     * The whole policy set was replaced; anything derived from it must be rebuilt
+     */
+    void onPolicyReload();
+}
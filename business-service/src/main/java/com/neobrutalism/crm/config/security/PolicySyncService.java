@@ -0,0 +1,335 @@
+package com.neobrutalism.crm.config.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.model.Model;
+import org.casbin.jcasbin.persist.WatcherEx;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Incremental Casbin policy sync between replicas
+ *
+ * Outgoing: registered as the enforcer's watcher, so every policy API call on this node
+ * (addPolicy, removeGroupingPolicy, removeFilteredPolicy, addPolicies, ...) is appended to the
+ * {@link PolicyChangeLog} as one delta per rule, after the adapter has written casbin_rule.
+ *
+ * Incoming: every casbin.policy-sync.poll-interval-ms the log is read after the last applied
+ * position; other nodes' deltas are applied through the enforcer's API, so they take the
+ * SyncedEnforcer lock like every other read and write and update role links incrementally
+ * ({@link ReplicaAwareJdbcAdapter} skips the casbin_rule write, and the watcher callbacks
+ * below skip the log append).
+ * - A missing id is waited for up to casbin.policy-sync.gap-timeout-ms (a concurrent append
+ *   that has not committed yet), then skipped (a rolled-back append)
+ * - A reload marker (savePolicy, reload from the database on another node) reloads casbin_rule
+ *
+ * Both directions notify {@link PolicyDeltaListener}s with the deltas, so derived structures
+ * (decision index, L1 cache, role hierarchy) rebuild only what the change touched.
+ *
+ * Snapshots: every casbin.policy-sync.snapshot-interval-ms a snapshot is written once the log
+ * has moved snapshot-every-changes past the newest one, then old snapshots and log rows are pruned.
+ *
+ * With casbin.policy-sync.enabled=false nothing is logged or tailed; local listeners are
+ * still notified.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PolicySyncService implements WatcherEx {
+
+    private final Enforcer enforcer;
+    private final PolicyChangeLog changeLog;
+    private final ObjectProvider<PolicyDeltaListener> listenerProvider;
+
+    @Value("${casbin.policy-sync.enabled:true}")
+    private boolean enabled;
+
+    @Value("${casbin.policy-sync.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${casbin.policy-sync.gap-timeout-ms:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${casbin.policy-sync.snapshot-every-changes:1000}")
+    private long snapshotEveryChanges;
+
+    private final Object applyLock = new Object();
+    private volatile long position;
+    private long gapSince;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong appendFailures = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong gapsSkipped = new AtomicLong();
+    private volatile long lastPollMillis;
+
+    @PostConstruct
+    public void init() {
+        enforcer.setWatcher(this);
+        if (!enabled) {
+            log.info("Casbin policy sync DISABLED - policy changes stay on this node until a full reload");
+            return;
+        }
+        long restored = changeLog.getRestoredPosition();
+        position = restored >= 0 ? restored : changeLog.latestId();
+        log.info("Casbin policy sync started: node={}, position={}", changeLog.getNodeId(), position);
+    }
+
+    // ==================== Watcher: changes made on this node ====================
+
+    @Override
+    public void setUpdateCallback(Runnable runnable) {
+        // Replicas follow the change log instead of reloading on notification
+    }
+
+    @Override
+    public void setUpdateCallback(Consumer<String> func) {
+    }
+
+    @Override
+    public void update() {
+        // Change without details: treat like a reload
+        reloaded();
+    }
+
+    @Override
+    public void updateForAddPolicy(String sec, String ptype, String... params) {
+        changed(List.of(PolicyDelta.of(PolicyDelta.Operation.ADD, sec, ptype, 0,
+                                       Arrays.asList(params), changeLog.getNodeId())));
+    }
+
+    @Override
+    public void updateForRemovePolicy(String sec, String ptype, String... params) {
+        changed(List.of(PolicyDelta.of(PolicyDelta.Operation.REMOVE, sec, ptype, 0,
+                                       Arrays.asList(params), changeLog.getNodeId())));
+    }
+
+    @Override
+    public void updateForRemoveFilteredPolicy(String sec, String ptype, int fieldIndex, String... fieldValues) {
+        changed(List.of(PolicyDelta.of(PolicyDelta.Operation.REMOVE_FILTERED, sec, ptype, fieldIndex,
+                                       Arrays.asList(fieldValues), changeLog.getNodeId())));
+    }
+
+    @Override
+    public void updateForSavePolicy(Model model) {
+        reloaded();
+    }
+
+    @Override
+    public void updateForAddPolicies(String sec, String ptype, List<List<String>> rules) {
+        changed(deltas(PolicyDelta.Operation.ADD, sec, ptype, rules));
+    }
+
+    @Override
+    public void updateForRemovePolicies(String sec, String ptype, List<List<String>> rules) {
+        changed(deltas(PolicyDelta.Operation.REMOVE, sec, ptype, rules));
+    }
+
+    private List<PolicyDelta> deltas(PolicyDelta.Operation operation, String sec, String ptype,
+                                     List<List<String>> rules) {
+        List<PolicyDelta> deltas = new ArrayList<>(rules.size());
+        for (List<String> rule : rules) {
+            deltas.add(PolicyDelta.of(operation, sec, ptype, 0, rule, changeLog.getNodeId()));
+        }
+        return deltas;
+    }
+
+    private void changed(List<PolicyDelta> deltas) {
+        if (ReplicaAwareJdbcAdapter.isReplaying()) {
+            // Another node's change being applied by poll(): already logged, listeners notified per batch
+            return;
+        }
+        if (enabled) {
+            try {
+                changeLog.append(deltas);
+                appended.addAndGet(deltas.size());
+            } catch (RuntimeException e) {
+                // casbin_rule already has the change; other replicas see it on their next reload
+                appendFailures.incrementAndGet();
+                log.error("Failed to append {} Casbin policy changes to the change log: {}",
+                          deltas.size(), e.getMessage());
+            }
+        }
+        notifyDeltas(deltas, true);
+    }
+
+    private void reloaded() {
+        if (enabled) {
+            try {
+                changeLog.append(List.of(PolicyDelta.reload(changeLog.getNodeId())));
+                changeLog.writeSnapshot();
+            } catch (RuntimeException e) {
+                appendFailures.incrementAndGet();
+                log.error("Failed to log Casbin policy reload: {}", e.getMessage());
+            }
+        }
+        notifyReload();
+    }
+
+    /**
+     * Reload casbin_rule into the enforcer and make every other replica do the same
+     */
+    public void reloadFromDatabase() {
+        synchronized (applyLock) {
+            enforcer.loadPolicy();
+            reloads.incrementAndGet();
+        }
+        log.info("Reloaded Casbin policies from the database: {} policies", enforcer.getPolicy().size());
+        reloaded();
+    }
+
+    // ==================== Tailing: changes made on other nodes ====================
+
+    /**
+     * Apply other nodes' changes logged since the last poll
+     */
+    @Scheduled(fixedDelayString = "${casbin.policy-sync.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (applyLock) {
+            try {
+                long start = System.currentTimeMillis();
+                List<PolicyDelta> batch;
+                do {
+                    batch = changeLog.readAfter(position, batchSize);
+                } while (applyBatch(batch) && batch.size() == batchSize);
+                lastPollMillis = System.currentTimeMillis() - start;
+            } catch (RuntimeException e) {
+                log.warn("Casbin policy sync poll failed at position {}: {}", position, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return whether the whole batch was consumed (no gap left to wait for)
+     */
+    private boolean applyBatch(List<PolicyDelta> batch) {
+        String nodeId = changeLog.getNodeId();
+        List<PolicyDelta> remote = new ArrayList<>();
+        boolean consumed = true;
+
+        for (PolicyDelta delta : batch) {
+            if (delta.id() != position + 1) {
+                long now = System.currentTimeMillis();
+                if (gapSince == 0) {
+                    gapSince = now;
+                }
+                if (now - gapSince < gapTimeoutMs) {
+                    consumed = false;
+                    break;
+                }
+                gapsSkipped.incrementAndGet();
+                log.warn("Skipping Casbin change log ids {}..{} after {} ms (rolled back appends)",
+                         position + 1, delta.id() - 1, now - gapSince);
+            }
+            gapSince = 0;
+            position = delta.id();
+
+            if (nodeId.equals(delta.origin())) {
+                continue;
+            }
+            if (delta.isReload()) {
+                // casbin_rule already has everything collected so far in this batch
+                remote.clear();
+                enforcer.loadPolicy();
+                reloads.incrementAndGet();
+                log.info("Reloaded Casbin policies after a reload on {}", delta.origin());
+                notifyReload();
+                continue;
+            }
+            remote.add(delta);
+        }
+
+        if (!remote.isEmpty()) {
+            List<PolicyDelta> changed = new ArrayList<>(remote.size());
+            for (PolicyDelta delta : remote) {
+                if (delta.applyTo(enforcer)) {
+                    changed.add(delta);
+                }
+            }
+            applied.addAndGet(changed.size());
+            if (!changed.isEmpty()) {
+                log.debug("Applied {} Casbin policy changes from other nodes (position {})", changed.size(), position);
+                notifyDeltas(changed, false);
+            }
+        }
+        return consumed;
+    }
+
+    /**
+     * Write a snapshot once the log moved far enough past the newest one, then prune
+     */
+    @Scheduled(fixedDelayString = "${casbin.policy-sync.snapshot-interval-ms:60000}",
+               initialDelayString = "${casbin.policy-sync.snapshot-interval-ms:60000}")
+    public void maintainSnapshots() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long latest = changeLog.latestId();
+            long snapshotAt = changeLog.latestSnapshotPosition();
+            if (snapshotAt < 0 || latest - snapshotAt >= snapshotEveryChanges) {
+                changeLog.writeSnapshot();
+            }
+            changeLog.prune();
+        } catch (RuntimeException e) {
+            log.warn("Casbin policy snapshot maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void notifyDeltas(List<PolicyDelta> deltas, boolean local) {
+        listenerProvider.orderedStream().forEach(listener -> {
+            try {
+                listener.onPolicyDeltas(deltas, local);
+            } catch (RuntimeException e) {
+                log.error("Policy delta listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        });
+    }
+
+    private void notifyReload() {
+        listenerProvider.orderedStream().forEach(listener -> {
+            try {
+                listener.onPolicyReload();
+            } catch (RuntimeException e) {
+                log.error("Policy reload listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Sync statistics for monitoring
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("node", changeLog.getNodeId());
+        if (!enabled) {
+            return stats;
+        }
+        stats.put("position", position);
+        stats.put("appended", appended.get());
+        stats.put("append_failures", appendFailures.get());
+        stats.put("applied", applied.get());
+        stats.put("reloads", reloads.get());
+        stats.put("gaps_skipped", gapsSkipped.get());
+        stats.put("waiting_on_gap", gapSince != 0);
+        stats.put("last_poll_ms", lastPollMillis);
+        return stats;
+    }
+}
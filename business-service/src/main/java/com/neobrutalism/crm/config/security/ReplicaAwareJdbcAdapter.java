@@ -0,0 +1,76 @@
+package com.neobrutalism.crm.config.security;
+
+import org.casbin.adapter.JDBCAdapter;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * JDBC adapter that leaves casbin_rule alone while another node's change is applied
+ *
+ * {@link PolicySyncService} applies tailed deltas through the enforcer's API, so they take the
+ * enforcer's lock and update role links like any local change. The node that made the change
+ * already wrote casbin_rule; inside {@link #replay} the write methods are skipped (and the
+ * watcher callbacks check {@link #isReplaying()} so the change is not logged a second time).
+ */
+@SuppressWarnings({"rawtypes", "unchecked"}) // JDBCAdapter overrides the write methods with raw Lists
+public class ReplicaAwareJdbcAdapter extends JDBCAdapter {
+
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> false);
+
+    public ReplicaAwareJdbcAdapter(DataSource dataSource) throws Exception {
+        super(dataSource);
+    }
+
+    /**
+     * Run an enforcer call for a change another node already persisted
+     */
+    public static boolean replay(BooleanSupplier change) {
+        REPLAYING.set(true);
+        try {
+            return change.getAsBoolean();
+        } finally {
+            REPLAYING.set(false);
+        }
+    }
+
+    public static boolean isReplaying() {
+        return REPLAYING.get();
+    }
+
+    @Override
+    public void addPolicy(String sec, String ptype, List rule) {
+        if (!isReplaying()) {
+            super.addPolicy(sec, ptype, rule);
+        }
+    }
+
+    @Override
+    public void addPolicies(String sec, String ptype, List rules) {
+        if (!isReplaying()) {
+            super.addPolicies(sec, ptype, rules);
+        }
+    }
+
+    @Override
+    public void removePolicy(String sec, String ptype, List rule) {
+        if (!isReplaying()) {
+            super.removePolicy(sec, ptype, rule);
+        }
+    }
+
+    @Override
+    public void removePolicies(String sec, String ptype, List rules) {
+        if (!isReplaying()) {
+            super.removePolicies(sec, ptype, rules);
+        }
+    }
+
+    @Override
+    public void removeFilteredPolicy(String sec, String ptype, int fieldIndex, String... fieldValues) {
+        if (!isReplaying()) {
+            super.removeFilteredPolicy(sec, ptype, fieldIndex, fieldValues);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.neobrutalism.crm.config.security;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transitive closure of one domain's role inheritance
+ *
+ * Roles are interned to int ids; per role the direct parents / children and the transitive
+ * ancestors / descendants are kept as BitSets, so "does A inherit from B" is one bit test.
+ * A role on an inheritance cycle is its own ancestor (same as walking the links).
+ *
+ * Instances are never modified once built: {@link #withLink} / {@link #withoutLink} return an
+ * updated copy, so readers need no locking. The copy shares every BitSet the change does not
+ * touch; only the sets it modifies are cloned.
+ * - Adding child -> parent: every role reaching child gains parent and its ancestors
+ * - Removing it: only roles that reached child can lose ancestors; theirs are recomputed,
+ *   reusing the (unchanged) closure of every other role
+ */
+final class RoleClosure {
+
+    private static final RoleClosure EMPTY = new RoleClosure(new HashMap<>(), new ArrayList<>(),
+        new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 0);
+
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+    private final List<BitSet> parents;
+    private final List<BitSet> children;
+    private final List<BitSet> ancestors;
+    private final List<BitSet> descendants;
+    private final int linkCount;
+
+    private RoleClosure(Map<String, Integer> ids, List<String> names, List<BitSet> parents,
+                        List<BitSet> children, List<BitSet> ancestors, List<BitSet> descendants,
+                        int linkCount) {
+        this.ids = ids;
+        this.names = names;
+        this.parents = parents;
+        this.children = children;
+        this.ancestors = ancestors;
+        this.descendants = descendants;
+        this.linkCount = linkCount;
+    }
+
+    static RoleClosure empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build from inheritance links
+     *
+     * @param links child role, parent role pairs
+     */
+    static RoleClosure of(Collection<List<String>> links) {
+        RoleClosure closure = EMPTY.copy();
+        int count = 0;
+        for (List<String> link : links) {
+            int child = closure.intern(link.get(0));
+            int parent = closure.intern(link.get(1));
+            if (!closure.parents.get(child).get(parent)) {
+                closure.parents.get(child).set(parent);
+                closure.children.get(parent).set(child);
+                count++;
+            }
+        }
+        BitSet all = new BitSet();
+        all.set(0, closure.names.size());
+        closure.recompute(all);
+        return new RoleClosure(closure.ids, closure.names, closure.parents, closure.children,
+                               closure.ancestors, closure.descendants, count);
+    }
+
+    /**
+     * Copy with child -> parent added; this instance when the link already exists
+     */
+    RoleClosure withLink(String child, String parent) {
+        if (hasLink(child, parent)) {
+            return this;
+        }
+        RoleClosure next = copy(linkCount + 1);
+        int c = next.intern(child);
+        int p = next.intern(parent);
+        own(next.parents, c).set(p);
+        own(next.children, p).set(c);
+
+        BitSet gained = (BitSet) next.ancestors.get(p).clone();
+        gained.set(p);
+        BitSet reaching = (BitSet) next.descendants.get(c).clone();
+        reaching.set(c);
+        for (int x = reaching.nextSetBit(0); x >= 0; x = reaching.nextSetBit(x + 1)) {
+            own(next.ancestors, x).or(gained);
+        }
+        for (int y = gained.nextSetBit(0); y >= 0; y = gained.nextSetBit(y + 1)) {
+            own(next.descendants, y).or(reaching);
+        }
+        return next;
+    }
+
+    /**
+     * Copy with child -> parent removed; this instance when there is no such link
+     */
+    RoleClosure withoutLink(String child, String parent) {
+        if (!hasLink(child, parent)) {
+            return this;
+        }
+        RoleClosure next = copy(linkCount - 1);
+        int c = ids.get(child);
+        int p = ids.get(parent);
+        own(next.parents, c).clear(p);
+        own(next.children, p).clear(c);
+
+        BitSet reaching = (BitSet) descendants.get(c).clone();
+        reaching.set(c);
+        next.recompute(reaching);
+        return next;
+    }
+
+    boolean hasLink(String child, String parent) {
+        int c = id(child);
+        int p = id(parent);
+        return c >= 0 && p >= 0 && parents.get(c).get(p);
+    }
+
+    /**
+     * Whether role inherits from ancestor, directly or transitively
+     */
+    boolean inheritsFrom(String role, String ancestor) {
+        int r = id(role);
+        int a = id(ancestor);
+        return r >= 0 && a >= 0 && ancestors.get(r).get(a);
+    }
+
+    Set<String> ancestorsOf(String role) {
+        int r = id(role);
+        return r >= 0 ? names(ancestors.get(r)) : Set.of();
+    }
+
+    Set<String> parentsOf(String role) {
+        int r = id(role);
+        return r >= 0 ? names(parents.get(r)) : Set.of();
+    }
+
+    Set<String> childrenOf(String role) {
+        int r = id(role);
+        return r >= 0 ? names(children.get(r)) : Set.of();
+    }
+
+    /**
+     * Roles with at least one parent
+     */
+    Set<String> inheritingRoles() {
+        Set<String> roles = new LinkedHashSet<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (!parents.get(i).isEmpty()) {
+                roles.add(names.get(i));
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * Roles other roles inherit from but that inherit from nobody
+     */
+    Set<String> rootRoles() {
+        Set<String> roles = new LinkedHashSet<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (parents.get(i).isEmpty() && !children.get(i).isEmpty()) {
+                roles.add(names.get(i));
+            }
+        }
+        return roles;
+    }
+
+    int getLinkCount() {
+        return linkCount;
+    }
+
+    boolean isEmpty() {
+        return linkCount == 0;
+    }
+
+    private int id(String role) {
+        Integer id = ids.get(role);
+        return id != null ? id : -1;
+    }
+
+    private int intern(String role) {
+        Integer id = ids.get(role);
+        if (id != null) {
+            return id;
+        }
+        int next = names.size();
+        ids.put(role, next);
+        names.add(role);
+        parents.add(new BitSet());
+        children.add(new BitSet());
+        ancestors.add(new BitSet());
+        descendants.add(new BitSet());
+        return next;
+    }
+
+    private Set<String> names(BitSet bits) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(names.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Recompute the ancestors of the given roles (every other role's closure must be current)
+     * and fix the descendants sets to match; ancestors are replaced, descendants cloned once
+     * before their first change
+     */
+    private void recompute(BitSet roles) {
+        BitSet owned = new BitSet();
+        List<BitSet> previous = new ArrayList<>();
+        for (int x = roles.nextSetBit(0); x >= 0; x = roles.nextSetBit(x + 1)) {
+            previous.add(ancestors.get(x));
+            ancestors.set(x, reach(x, roles));
+        }
+        int i = 0;
+        for (int x = roles.nextSetBit(0); x >= 0; x = roles.nextSetBit(x + 1)) {
+            BitSet old = previous.get(i++);
+            for (int y = old.nextSetBit(0); y >= 0; y = old.nextSetBit(y + 1)) {
+                descendantsToChange(y, owned).clear(x);
+            }
+        }
+        for (int x = roles.nextSetBit(0); x >= 0; x = roles.nextSetBit(x + 1)) {
+            BitSet current = ancestors.get(x);
+            for (int y = current.nextSetBit(0); y >= 0; y = current.nextSetBit(y + 1)) {
+                descendantsToChange(y, owned).set(x);
+            }
+        }
+    }
+
+    /**
+     * Ancestors of start by walking parent links; roles outside pending contribute their
+     * stored closure instead of being walked
+     */
+    private BitSet reach(int start, BitSet pending) {
+        BitSet reached = new BitSet();
+        BitSet walked = new BitSet();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            int role = stack.pop();
+            if (walked.get(role)) {
+                continue;
+            }
+            walked.set(role);
+            BitSet direct = parents.get(role);
+            for (int parent = direct.nextSetBit(0); parent >= 0; parent = direct.nextSetBit(parent + 1)) {
+                reached.set(parent);
+                if (pending.get(parent)) {
+                    stack.push(parent);
+                } else {
+                    reached.or(ancestors.get(parent));
+                }
+            }
+        }
+        return reached;
+    }
+
+    private RoleClosure copy() {
+        return copy(linkCount);
+    }
+
+    private BitSet descendantsToChange(int role, BitSet owned) {
+        if (owned.get(role)) {
+            return descendants.get(role);
+        }
+        owned.set(role);
+        return own(descendants, role);
+    }
+
+    /**
+     * Shallow copy: the lists are new, the BitSets are shared with this instance until
+     * {@link #own} replaces one
+     */
+    private RoleClosure copy(int links) {
+        return new RoleClosure(new HashMap<>(ids), new ArrayList<>(names), new ArrayList<>(parents),
+                               new ArrayList<>(children), new ArrayList<>(ancestors),
+                               new ArrayList<>(descendants), links);
+    }
+
+    /**
+     * Replace a shared set with a private clone before modifying it; call once per set and change
+     */
+    private static BitSet own(List<BitSet> sets, int index) {
+        BitSet copy = (BitSet) sets.get(index).clone();
+        sets.set(index, copy);
+        return copy;
+    }
+}
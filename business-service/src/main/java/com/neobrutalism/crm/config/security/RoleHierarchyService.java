@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
  * Role Hierarchy Service for Casbin
@@ -54,21 +55,37 @@ import java.util.concurrent.ConcurrentHashMap;
  * Uses Casbin's built-in role inheritance (g2 grouping)
  * Format: g2, role, parent_role, domain
  *
+ * Transitive closure:
+ * Each domain's inheritance links are kept as a {@link RoleClosure} (roles interned to int ids,
+ * ancestors as BitSets), updated incrementally on every link change, so inheritance checks are
+ * one bit test and getAllParentRoles / getHierarchyStructure need no graph traversal.
+ *
+ * g rows also carry user -> role assignments (g, userId, roleCode, tenant); only role -> role
+ * links go into the closures, so they grow with the number of roles, not of users. Users are
+ * identified by their UUID id.
+ *
+ * Cluster: closures are node-local and follow the enforcer's g rows through the policy deltas
+ * of PolicySyncService (changes made on this node and tailed from the other replicas).
+ *
  * @author Neobrutalism CRM Team
  * @version 1.0.0
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class RoleHierarchyService {
+public class RoleHierarchyService implements PolicyDeltaListener {
 
     private final Enforcer enforcer;
 
     @Value("${casbin.role-hierarchy.enabled:true}")
     private boolean hierarchyEnabled;
 
-    // Role hierarchy cache (role -> parent roles)
-    private final Map<String, Set<String>> roleParentsCache = new ConcurrentHashMap<>();
+    // Role hierarchy closure per domain (replaced copy-on-write; writers hold closureLock)
+    private final Map<String, RoleClosure> closures = new ConcurrentHashMap<>();
+    private final Object closureLock = new Object();
+
+    private static final Pattern USER_ID =
+        Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
 
     @PostConstruct
     public void init() {
@@ -85,19 +102,7 @@ public class RoleHierarchyService {
      */
     private void loadRoleHierarchy() {
         try {
-            // Get all role inheritance rules (g2)
-            List<List<String>> roleInheritances = enforcer.getGroupingPolicy();
-
-            int hierarchyCount = 0;
-            for (List<String> inheritance : roleInheritances) {
-                if (inheritance.size() >= 2) {
-                    String role = inheritance.get(0);
-                    String parentRole = inheritance.get(1);
-
-                    roleParentsCache.computeIfAbsent(role, k -> new HashSet<>()).add(parentRole);
-                    hierarchyCount++;
-                }
-            }
+            int hierarchyCount = rebuildClosures();
 
             log.info("Loaded {} role hierarchy relationships", hierarchyCount);
             if (hierarchyCount > 0) {
@@ -129,8 +134,8 @@ public class RoleHierarchyService {
             boolean added = enforcer.addGroupingPolicy(role, parentRole, domain);
 
             if (added) {
-                // Update cache
-                roleParentsCache.computeIfAbsent(role, k -> new HashSet<>()).add(parentRole);
+                // Update closure (no-op if the policy delta already applied it)
+                link(role, parentRole, domain);
 
                 log.info("✅ Added role inheritance: {} inherits from {} (domain: {})",
                         role, parentRole, domain);
@@ -163,14 +168,8 @@ public class RoleHierarchyService {
             boolean removed = enforcer.removeGroupingPolicy(role, parentRole, domain);
 
             if (removed) {
-                // Update cache
-                Set<String> parents = roleParentsCache.get(role);
-                if (parents != null) {
-                    parents.remove(parentRole);
-                    if (parents.isEmpty()) {
-                        roleParentsCache.remove(role);
-                    }
-                }
+                // Update closure (no-op if the policy delta already applied it)
+                unlink(role, parentRole, domain);
 
                 log.info("✅ Removed role inheritance: {} no longer inherits from {} (domain: {})",
                         role, parentRole, domain);
@@ -186,32 +185,129 @@ public class RoleHierarchyService {
     }
 
     /**
-     * Get all parent roles for a role (direct and transitive)
+     * Apply g row changes to the closures: made on this node through other services, or
+     * tailed from other replicas (changes made here by add / removeRoleInheritance are no-ops)
+     */
+    @Override
+    public void onPolicyDeltas(List<PolicyDelta> deltas, boolean local) {
+        if (!hierarchyEnabled) {
+            return;
+        }
+        for (PolicyDelta delta : deltas) {
+            if (!"g".equals(delta.ptype())) {
+                continue;
+            }
+            switch (delta.operation()) {
+                case ADD, REMOVE -> {
+                    List<String> row = delta.values();
+                    if (!isRoleLink(row)) {
+                        continue;
+                    }
+                    String domain = row.size() > 2 ? row.get(2) : "";
+                    if (delta.operation() == PolicyDelta.Operation.ADD) {
+                        link(row.get(0), row.get(1), domain);
+                    } else {
+                        unlink(row.get(0), row.get(1), domain);
+                    }
+                }
+                default -> {
+                    rebuildClosures();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPolicyReload() {
+        if (hierarchyEnabled) {
+            rebuildClosures();
+        }
+    }
+
+    /**
+     * Rebuild every domain's closure from the enforcer's g rows
+     *
+     * @return number of inheritance links
+     */
+    private int rebuildClosures() {
+        Map<String, List<List<String>>> linksByDomain = new HashMap<>();
+        int count = 0;
+        for (List<String> inheritance : enforcer.getGroupingPolicy()) {
+            if (isRoleLink(inheritance)) {
+                String domain = inheritance.size() > 2 ? inheritance.get(2) : "";
+                linksByDomain.computeIfAbsent(domain, k -> new ArrayList<>()).add(inheritance);
+                count++;
+            }
+        }
+        synchronized (closureLock) {
+            Map<String, RoleClosure> rebuilt = new HashMap<>();
+            linksByDomain.forEach((domain, links) -> rebuilt.put(domain, RoleClosure.of(links)));
+            closures.keySet().retainAll(rebuilt.keySet());
+            closures.putAll(rebuilt);
+        }
+        log.debug("Rebuilt role hierarchy closures: {} links in {} domains", count, linksByDomain.size());
+        return count;
+    }
+
+    /**
+     * Whether a g row is role -> role inheritance rather than a user's role assignment
+     */
+    static boolean isRoleLink(List<String> row) {
+        return row.size() >= 2 && !USER_ID.matcher(row.get(0)).matches();
+    }
+
+    private void link(String role, String parentRole, String domain) {
+        synchronized (closureLock) {
+            closures.put(domain, closures.getOrDefault(domain, RoleClosure.empty()).withLink(role, parentRole));
+        }
+    }
+
+    private void unlink(String role, String parentRole, String domain) {
+        synchronized (closureLock) {
+            RoleClosure closure = closures.get(domain);
+            if (closure == null) {
+                return;
+            }
+            RoleClosure updated = closure.withoutLink(role, parentRole);
+            if (updated.isEmpty()) {
+                closures.remove(domain);
+            } else {
+                closures.put(domain, updated);
+            }
+        }
+    }
+
+    /**
+     * Get all parent roles for a role (direct and transitive), across every domain
      *
      * @param role Role name
      * @return Set of all parent roles
      */
     public Set<String> getAllParentRoles(String role) {
         Set<String> allParents = new HashSet<>();
-        Set<String> visited = new HashSet<>();
-        collectParentRoles(role, allParents, visited);
+        for (RoleClosure closure : closures.values()) {
+            allParents.addAll(closure.ancestorsOf(role));
+        }
         return allParents;
     }
 
     /**
-     * Recursively collect parent roles
+     * Get all parent roles for a role (direct and transitive) in one domain
+     *
+     * @param role Role name
+     * @param domain Tenant/domain
+     * @return Set of all parent roles
      */
-    private void collectParentRoles(String role, Set<String> allParents, Set<String> visited) {
-        if (visited.contains(role)) {
-            return; // Prevent infinite loops
-        }
-        visited.add(role);
+    public Set<String> getAllParentRoles(String role, String domain) {
+        return closures.getOrDefault(domain, RoleClosure.empty()).ancestorsOf(role);
+    }
 
-        Set<String> directParents = roleParentsCache.getOrDefault(role, Collections.emptySet());
-        for (String parent : directParents) {
-            allParents.add(parent);
-            collectParentRoles(parent, allParents, visited);
-        }
+    /**
+     * Whether role inherits from parentRole (directly or transitively) in a domain
+     */
+    public boolean inheritsFrom(String role, String parentRole, String domain) {
+        return closures.getOrDefault(domain, RoleClosure.empty()).inheritsFrom(role, parentRole);
     }
 
     /**
@@ -220,14 +316,24 @@ public class RoleHierarchyService {
     public Map<String, Object> getHierarchyStructure() {
         Map<String, Object> structure = new HashMap<>();
         structure.put("enabled", hierarchyEnabled);
-        structure.put("total_roles_with_inheritance", roleParentsCache.size());
 
-        // Build tree structure
-        Map<String, List<String>> tree = new HashMap<>();
-        roleParentsCache.forEach((role, parents) -> {
-            tree.put(role, new ArrayList<>(parents));
+        // Direct parents across domains (tree) and per-domain transitive ancestors (closure)
+        Map<String, Set<String>> tree = new HashMap<>();
+        Map<String, Map<String, List<String>>> closure = new TreeMap<>();
+        closures.forEach((domain, roles) -> {
+            Map<String, List<String>> ancestors = new TreeMap<>();
+            for (String role : roles.inheritingRoles()) {
+                tree.computeIfAbsent(role, k -> new LinkedHashSet<>()).addAll(roles.parentsOf(role));
+                ancestors.put(role, new ArrayList<>(roles.ancestorsOf(role)));
+            }
+            closure.put(domain, ancestors);
         });
-        structure.put("hierarchy", tree);
+
+        Map<String, List<String>> hierarchy = new HashMap<>();
+        tree.forEach((role, parents) -> hierarchy.put(role, new ArrayList<>(parents)));
+        structure.put("total_roles_with_inheritance", tree.size());
+        structure.put("hierarchy", hierarchy);
+        structure.put("closure", closure);
 
         return structure;
     }
@@ -278,25 +384,21 @@ public class RoleHierarchyService {
     private void logHierarchyStructure() {
         log.info("=== Role Hierarchy Structure ===");
 
-        // Find root roles (roles with no parents)
-        Set<String> allRoles = new HashSet<>(roleParentsCache.keySet());
-        Set<String> childRoles = new HashSet<>(roleParentsCache.keySet());
-
-        Set<String> rootRoles = new HashSet<>();
-        for (Set<String> parents : roleParentsCache.values()) {
-            rootRoles.addAll(parents);
-        }
-        rootRoles.removeAll(childRoles);
+        closures.forEach((domain, closure) -> {
+            // Root roles: inherited from, but inheriting from nobody
+            Set<String> rootRoles = closure.rootRoles();
+            log.info("Domain {}: {} inheritance links", domain, closure.getLinkCount());
 
-        if (rootRoles.isEmpty()) {
-            log.info("No clear root roles found, listing all inheritance:");
-            roleParentsCache.forEach((role, parents) ->
-                    log.info("  {} -> {}", role, parents)
-            );
-        } else {
-            log.info("Root roles: {}", rootRoles);
-            rootRoles.forEach(root -> logHierarchyTree(root, 0));
-        }
+            if (rootRoles.isEmpty()) {
+                log.info("No clear root roles found, listing all inheritance:");
+                for (String role : closure.inheritingRoles()) {
+                    log.info("  {} -> {}", role, closure.parentsOf(role));
+                }
+            } else {
+                log.info("Root roles: {}", rootRoles);
+                rootRoles.forEach(root -> logHierarchyTree(closure, root, 0, new HashSet<>()));
+            }
+        });
 
         log.info("================================");
     }
@@ -304,16 +406,17 @@ public class RoleHierarchyService {
     /**
      * Recursively log hierarchy tree
      */
-    private void logHierarchyTree(String role, int depth) {
+    private void logHierarchyTree(RoleClosure closure, String role, int depth, Set<String> path) {
         String indent = "  ".repeat(depth);
         log.info("{}├── {}", indent, role);
 
-        // Find children of this role
-        roleParentsCache.forEach((childRole, parents) -> {
-            if (parents.contains(role)) {
-                logHierarchyTree(childRole, depth + 1);
+        // Children of this role (guarded against cycles below the root)
+        if (path.add(role)) {
+            for (String childRole : closure.childrenOf(role)) {
+                logHierarchyTree(closure, childRole, depth + 1, path);
             }
-        });
+            path.remove(role);
+        }
     }
 
     /**
@@ -0,0 +1,122 @@
+package com.neobrutalism.crm.config.security;
+
+import com.googlecode.aviator.runtime.function.FunctionUtils;
+import com.googlecode.aviator.runtime.type.AviatorBoolean;
+import com.googlecode.aviator.runtime.type.AviatorObject;
+import org.casbin.jcasbin.main.Enforcer;
+import org.casbin.jcasbin.util.function.CustomFunction;
+
+import java.util.Map;
+
+/**
+ * Data scope matching for the Casbin matcher's matchScope(r.scope, p.scope)
+ *
+ * Scope hierarchy: ALL_BRANCHES > CURRENT_BRANCH > SELF_ONLY. A request scope grants
+ * policies of its own level and below. Rules:
+ * - Policy without scope (null / empty / "null"): always matches (legacy policies)
+ * - Request without scope: treated as SELF_ONLY
+ * - ALL_BRANCHES matches any policy scope; other unknown scope names only match themselves
+ *
+ * Shared by the Enforcer (registered as an Aviator function) and CompiledPolicySet,
+ * so both engines give the same answer.
+ */
+public final class ScopeMatcher {
+
+    public static final String FUNCTION_NAME = "matchScope";
+
+    public static final String ALL_BRANCHES = "ALL_BRANCHES";
+    public static final String CURRENT_BRANCH = "CURRENT_BRANCH";
+    public static final String SELF_ONLY = "SELF_ONLY";
+
+    private ScopeMatcher() {
+    }
+
+    /**
+     * Register matchScope on an enforcer
+     */
+    public static void register(Enforcer enforcer) {
+        enforcer.addFunction(FUNCTION_NAME, new MatchScopeFunction());
+    }
+
+    /**
+     * Whether a request scope may use a policy scoped to policyScope
+     */
+    public static boolean matches(String requestScope, String policyScope) {
+        if (isBlank(policyScope)) {
+            return true;
+        }
+        return matchesNormalized(requestScope(requestScope), normalize(policyScope));
+    }
+
+    /**
+     * Same as {@link #matches} for pre-normalized values (request from {@link #requestScope},
+     * policy from {@link #normalize}, never blank)
+     */
+    public static boolean matchesNormalized(String request, String policy) {
+        if (request.equals(policy) || ALL_BRANCHES.equals(request)) {
+            return true;
+        }
+        int requestLevel = level(request);
+        int policyLevel = level(policy);
+        return requestLevel >= 0 && policyLevel >= 0 && requestLevel >= policyLevel;
+    }
+
+    /**
+     * Normalized request scope; no scope means SELF_ONLY
+     */
+    public static String requestScope(String scope) {
+        return isBlank(scope) ? SELF_ONLY : normalize(scope);
+    }
+
+    /**
+     * Canonical scope name (case, dash and short-name variations)
+     */
+    public static String normalize(String scope) {
+        if (scope == null) {
+            return SELF_ONLY;
+        }
+        String normalized = scope.trim().toUpperCase().replace('-', '_');
+        return switch (normalized) {
+            case "ALL", "ALLBRANCHES" -> ALL_BRANCHES;
+            case "CURRENT", "CURRENTBRANCH", "BRANCH" -> CURRENT_BRANCH;
+            case "SELF", "SELFONLY", "OWN" -> SELF_ONLY;
+            default -> normalized;
+        };
+    }
+
+    /**
+     * Privilege level of a normalized scope, -1 if unknown
+     */
+    static int level(String normalizedScope) {
+        return switch (normalizedScope) {
+            case ALL_BRANCHES -> 2;
+            case CURRENT_BRANCH -> 1;
+            case SELF_ONLY -> 0;
+            default -> -1;
+        };
+    }
+
+    public static boolean isBlank(String scope) {
+        return scope == null || scope.isEmpty() || "null".equals(scope);
+    }
+
+    /**
+     * Aviator binding; a null request value arrives as nil
+     */
+    private static final class MatchScopeFunction extends CustomFunction {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public AviatorObject call(Map<String, Object> env, AviatorObject requestScope, AviatorObject policyScope) {
+            return AviatorBoolean.valueOf(matches(
+                FunctionUtils.getStringValue(requestScope, env),
+                FunctionUtils.getStringValue(policyScope, env)));
+        }
+
+        @Override
+        public String getName() {
+            return FUNCTION_NAME;
+        }
+    }
+}
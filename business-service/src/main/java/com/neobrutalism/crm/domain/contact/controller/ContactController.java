@@ -1,7 +1,9 @@
 package com.neobrutalism.crm.domain.contact.controller;
 
+import com.neobrutalism.crm.application.excel.service.StreamingExportService;
 import com.neobrutalism.crm.common.dto.ApiResponse;
 import com.neobrutalism.crm.common.dto.PageResponse;
+import com.neobrutalism.crm.domain.contact.dto.ContactExportDto;
 import com.neobrutalism.crm.domain.contact.dto.ContactRequest;
 import com.neobrutalism.crm.domain.contact.dto.ContactResponse;
 import com.neobrutalism.crm.domain.contact.model.Contact;
@@ -18,7 +20,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -35,6 +39,7 @@ import java.util.stream.Collectors;
 public class ContactController {
 
     private final ContactService contactService;
+    private final StreamingExportService streamingExportService;
 
     @GetMapping
     @Operation(summary = "Get all contacts", description = "Retrieve all contacts with pagination")
@@ -53,6 +58,15 @@ public class ContactController {
         return ApiResponse.success(PageResponse.from(responsePage));
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export contacts", description = "Stream all contacts of the current tenant as XLSX or CSV (optionally gzip-compressed CSV)")
+    public ResponseEntity<StreamingResponseBody> exportContacts(
+            @RequestParam(defaultValue = "XLSX") StreamingExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return streamingExportService.export("contacts", format, gzip,
+                contactService::streamForExport, ContactExportDto::from, ContactExportDto.class);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get contact by ID", description = "Retrieve a specific contact by its ID")
     public ApiResponse<ContactResponse> getContactById(@PathVariable UUID id) {
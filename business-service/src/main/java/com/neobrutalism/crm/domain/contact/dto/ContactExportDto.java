@@ -0,0 +1,83 @@
+package com.neobrutalism.crm.domain.contact.dto;
+
+import com.neobrutalism.crm.domain.contact.model.Contact;
+import com.neobrutalism.crm.utils.ExcelColumn;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for exporting contacts to Excel / CSV
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContactExportDto {
+
+    @ExcelColumn(name = "Full Name", index = 0)
+    private String fullName;
+
+    @ExcelColumn(name = "Title", index = 1)
+    private String title;
+
+    @ExcelColumn(name = "Department", index = 2)
+    private String department;
+
+    @ExcelColumn(name = "Role", index = 3)
+    private String contactRole;
+
+    @ExcelColumn(name = "Status", index = 4)
+    private String status;
+
+    @ExcelColumn(name = "Email", index = 5)
+    private String email;
+
+    @ExcelColumn(name = "Work Phone", index = 6)
+    private String workPhone;
+
+    @ExcelColumn(name = "Mobile Phone", index = 7)
+    private String mobilePhone;
+
+    @ExcelColumn(name = "City", index = 8)
+    private String city;
+
+    @ExcelColumn(name = "Country", index = 9)
+    private String country;
+
+    @ExcelColumn(name = "Customer ID", index = 10)
+    private String customerId;
+
+    @ExcelColumn(name = "Primary", index = 11)
+    private String primary;
+
+    @ExcelColumn(name = "Email Opt-out", index = 12)
+    private String emailOptOut;
+
+    @ExcelColumn(name = "Last Contact Date", index = 13)
+    private String lastContactDate;
+
+    @ExcelColumn(name = "Tags", index = 14)
+    private String tags;
+
+    public static ContactExportDto from(Contact contact) {
+        return ContactExportDto.builder()
+            .fullName(contact.getFullName())
+            .title(contact.getTitle())
+            .department(contact.getDepartment())
+            .contactRole(contact.getContactRole() != null ? contact.getContactRole().name() : null)
+            .status(contact.getStatus() != null ? contact.getStatus().name() : null)
+            .email(contact.getEmail())
+            .workPhone(contact.getWorkPhone())
+            .mobilePhone(contact.getMobilePhone())
+            .city(contact.getCity())
+            .country(contact.getCountry())
+            .customerId(contact.getCustomerId() != null ? contact.getCustomerId().toString() : null)
+            .primary(Boolean.TRUE.equals(contact.getIsPrimary()) ? "Yes" : "No")
+            .emailOptOut(Boolean.TRUE.equals(contact.getEmailOptOut()) ? "Yes" : "No")
+            .lastContactDate(contact.getLastContactDate() != null ? contact.getLastContactDate().toString() : null)
+            .tags(contact.getTags())
+            .build();
+    }
+}
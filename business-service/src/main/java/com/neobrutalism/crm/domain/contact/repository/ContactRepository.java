@@ -5,10 +5,13 @@ import com.neobrutalism.crm.common.security.DataScopeHelper;
 import com.neobrutalism.crm.domain.contact.model.Contact;
 import com.neobrutalism.crm.domain.contact.model.ContactRole;
 import com.neobrutalism.crm.domain.contact.model.ContactStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +19,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for Contact entity
@@ -359,4 +363,15 @@ public interface ContactRepository extends StatefulRepository<Contact, ContactSt
     default long countWithScope() {
         return count(DataScopeHelper.applyDataScope());
     }
+
+    /**
+     * Cursor over a tenant's contacts for streaming exports
+     * (must be consumed inside a read-only transaction and closed)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Contact c WHERE c.tenantId = :tenantId AND c.deleted = false ORDER BY c.lastName, c.firstName")
+    Stream<Contact> streamByTenantId(@Param("tenantId") String tenantId);
 }
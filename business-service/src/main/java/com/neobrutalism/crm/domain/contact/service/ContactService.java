@@ -17,6 +17,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service for Contact management
@@ -190,6 +191,15 @@ public class ContactService extends BaseService<Contact> {
         return contactRepository.findByContactRole(role, tenantIdStr);
     }
 
+    /**
+     * Stream the current tenant's contacts for export
+     * Must be consumed inside a read-only transaction; the caller closes the stream
+     */
+    public Stream<Contact> streamForExport() {
+        String tenantIdStr = TenantContext.getCurrentTenant();
+        return contactRepository.streamByTenantId(tenantIdStr);
+    }
+
     /**
      * Find contacts by status
      */
@@ -1,7 +1,9 @@
 package com.neobrutalism.crm.domain.customer.controller;
 
+import com.neobrutalism.crm.application.excel.service.StreamingExportService;
 import com.neobrutalism.crm.common.dto.ApiResponse;
 import com.neobrutalism.crm.common.dto.PageResponse;
+import com.neobrutalism.crm.domain.customer.dto.CustomerExportDto;
 import com.neobrutalism.crm.domain.customer.dto.CustomerRequest;
 import com.neobrutalism.crm.domain.customer.dto.CustomerResponse;
 import com.neobrutalism.crm.domain.customer.dto.CustomerStatsResponse;
@@ -19,7 +21,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -36,6 +40,7 @@ import java.util.stream.Collectors;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final StreamingExportService streamingExportService;
 
     @GetMapping
     @Operation(summary = "Get all customers", description = "Retrieve all customers with pagination")
@@ -78,6 +83,15 @@ public class CustomerController {
         return ApiResponse.success(count);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export customers", description = "Stream all customers of the current tenant as XLSX or CSV (optionally gzip-compressed CSV)")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam(defaultValue = "XLSX") StreamingExportService.Format format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return streamingExportService.export("customers", format, gzip,
+                customerService::streamForExport, CustomerExportDto::from, CustomerExportDto.class);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get customer by ID", description = "Retrieve a specific customer by its ID")
     public ApiResponse<CustomerResponse> getCustomerById(@PathVariable UUID id) {
@@ -0,0 +1,95 @@
+package com.neobrutalism.crm.domain.customer.dto;
+
+import com.neobrutalism.crm.domain.customer.model.Customer;
+import com.neobrutalism.crm.utils.ExcelColumn;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for exporting customers to Excel / CSV
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerExportDto {
+
+    @ExcelColumn(name = "Code", index = 0)
+    private String code;
+
+    @ExcelColumn(name = "Company Name", index = 1)
+    private String companyName;
+
+    @ExcelColumn(name = "Legal Name", index = 2)
+    private String legalName;
+
+    @ExcelColumn(name = "Type", index = 3)
+    private String customerType;
+
+    @ExcelColumn(name = "Status", index = 4)
+    private String status;
+
+    @ExcelColumn(name = "Industry", index = 5)
+    private String industry;
+
+    @ExcelColumn(name = "Tax ID", index = 6)
+    private String taxId;
+
+    @ExcelColumn(name = "Email", index = 7)
+    private String email;
+
+    @ExcelColumn(name = "Phone", index = 8)
+    private String phone;
+
+    @ExcelColumn(name = "Website", index = 9)
+    private String website;
+
+    @ExcelColumn(name = "City", index = 10)
+    private String city;
+
+    @ExcelColumn(name = "Country", index = 11)
+    private String country;
+
+    @ExcelColumn(name = "Annual Revenue", index = 12)
+    private String annualRevenue;
+
+    @ExcelColumn(name = "Employees", index = 13)
+    private Integer employeeCount;
+
+    @ExcelColumn(name = "Acquisition Date", index = 14)
+    private String acquisitionDate;
+
+    @ExcelColumn(name = "Lead Source", index = 15)
+    private String leadSource;
+
+    @ExcelColumn(name = "VIP", index = 16)
+    private String vip;
+
+    @ExcelColumn(name = "Tags", index = 17)
+    private String tags;
+
+    public static CustomerExportDto from(Customer customer) {
+        return CustomerExportDto.builder()
+            .code(customer.getCode())
+            .companyName(customer.getCompanyName())
+            .legalName(customer.getLegalName())
+            .customerType(customer.getCustomerType() != null ? customer.getCustomerType().name() : null)
+            .status(customer.getStatus() != null ? customer.getStatus().name() : null)
+            .industry(customer.getIndustry() != null ? customer.getIndustry().name() : null)
+            .taxId(customer.getTaxId())
+            .email(customer.getEmail())
+            .phone(customer.getPhone())
+            .website(customer.getWebsite())
+            .city(customer.getCity())
+            .country(customer.getCountry())
+            .annualRevenue(customer.getAnnualRevenue() != null ? customer.getAnnualRevenue().toPlainString() : null)
+            .employeeCount(customer.getEmployeeCount())
+            .acquisitionDate(customer.getAcquisitionDate() != null ? customer.getAcquisitionDate().toString() : null)
+            .leadSource(customer.getLeadSource())
+            .vip(Boolean.TRUE.equals(customer.getIsVip()) ? "Yes" : "No")
+            .tags(customer.getTags())
+            .build();
+    }
+}
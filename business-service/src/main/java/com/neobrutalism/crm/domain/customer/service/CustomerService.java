@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * ✅ PHASE 1 WEEK 2: Service for Customer management with Redis caching
@@ -221,6 +222,15 @@ public class CustomerService extends BaseService<Customer> {
         return customerRepository.findVipCustomers(tenantIdStr);
     }
 
+    /**
+     * Stream the current tenant's customers for export
+     * Must be consumed inside a read-only transaction; the caller closes the stream
+     */
+    public Stream<Customer> streamForExport() {
+        String tenantIdStr = TenantContext.getCurrentTenant();
+        return customerRepository.streamByTenantId(tenantIdStr);
+    }
+
     /**
      * Search customers by company name
      */
@@ -1,8 +1,11 @@
 package com.neobrutalism.crm.domain.permission.controller;
 
+import com.neobrutalism.crm.common.cache.CacheInvalidationBus;
 import com.neobrutalism.crm.common.dto.ApiResponse;
 import com.neobrutalism.crm.config.security.CasbinCacheService;
 import com.neobrutalism.crm.config.security.CasbinPolicyMonitoringService;
+import com.neobrutalism.crm.config.security.PermissionDecisionIndex;
+import com.neobrutalism.crm.config.security.PolicySyncService;
 import com.neobrutalism.crm.config.security.RoleHierarchyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,6 +27,10 @@ import java.util.Map;
  * - POST /api/casbin/monitoring/health-check - Trigger manual health check
  * - GET /api/casbin/cache/stats - Get cache statistics
  * - POST /api/casbin/cache/clear - Clear all caches
+ * - GET /api/casbin/cache/bus/stats - Get cluster cache invalidation bus statistics
+ * - GET /api/casbin/policy-sync/stats - Get policy change log sync statistics
+ * - GET /api/casbin/decision-index/stats - Get compiled decision index statistics
+ * - POST /api/casbin/decision-index/verify - Replay recent checks against the enforcer
  * - GET /api/casbin/hierarchy - Get role hierarchy structure
  * - POST /api/casbin/hierarchy/inherit - Add role inheritance
  *
@@ -42,6 +49,9 @@ public class CasbinMonitoringController {
     private final CasbinPolicyMonitoringService monitoringService;
     private final CasbinCacheService cacheService;
     private final RoleHierarchyService hierarchyService;
+    private final PermissionDecisionIndex decisionIndex;
+    private final CacheInvalidationBus invalidationBus;
+    private final PolicySyncService policySyncService;
 
     /**
      * Get policy monitoring statistics
@@ -95,6 +105,54 @@ public class CasbinMonitoringController {
         return ResponseEntity.ok(ApiResponse.success("All caches cleared successfully"));
     }
 
+    /**
+     * Get cluster cache invalidation bus statistics
+     */
+    @GetMapping("/cache/bus/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get cache invalidation bus statistics",
+               description = "Returns published/received batches, coalescing, version gaps and propagation lag")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getInvalidationBusStats() {
+        log.debug("Getting cache invalidation bus statistics");
+        return ResponseEntity.ok(ApiResponse.success(invalidationBus.getStats()));
+    }
+
+    /**
+     * Get policy change log sync statistics
+     */
+    @GetMapping("/policy-sync/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get policy sync statistics",
+               description = "Returns the applied log position, appended/applied changes, reloads and skipped gaps")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPolicySyncStats() {
+        log.debug("Getting policy sync statistics");
+        return ResponseEntity.ok(ApiResponse.success(policySyncService.getStats()));
+    }
+
+    /**
+     * Get compiled decision index statistics
+     */
+    @GetMapping("/decision-index/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get decision index statistics",
+               description = "Returns compiled policy counts, rebuilds, verification and mismatch counters")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getDecisionIndexStats() {
+        log.debug("Getting permission decision index statistics");
+        return ResponseEntity.ok(ApiResponse.success(decisionIndex.getStats()));
+    }
+
+    /**
+     * Replay recent permission checks against the enforcer
+     */
+    @PostMapping("/decision-index/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Verify decision index against the enforcer",
+               description = "Replays recent permission checks through Enforcer.enforce and reports disagreements")
+    public ResponseEntity<ApiResponse<PermissionDecisionIndex.VerificationReport>> verifyDecisionIndex() {
+        log.info("Permission decision index verification triggered");
+        return ResponseEntity.ok(ApiResponse.success(decisionIndex.verifyRecent()));
+    }
+
     /**
      * Clear cache for specific user
      */
@@ -166,7 +224,7 @@ public class CasbinMonitoringController {
 
         if (success) {
             // Clear cache after hierarchy change
-            cacheService.invalidateRole(role);
+            cacheService.invalidateRole(role, domain);
             return ResponseEntity.ok(ApiResponse.success(
                     "Role inheritance added: " + role + " now inherits from " + parentRole));
         } else {
@@ -194,7 +252,7 @@ public class CasbinMonitoringController {
 
         if (success) {
             // Clear cache after hierarchy change
-            cacheService.invalidateRole(role);
+            cacheService.invalidateRole(role, domain);
             return ResponseEntity.ok(ApiResponse.success(
                     "Role inheritance removed: " + role + " no longer inherits from " + parentRole));
         } else {
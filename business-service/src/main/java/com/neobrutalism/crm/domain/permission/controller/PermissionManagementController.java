@@ -58,7 +58,7 @@ public class PermissionManagementController {
         Role role = roleService.findById(roleId);
 
         long startTime = System.currentTimeMillis();
-        int policyCount = casbinPolicyManager.syncRolePolicies(role, true);
+        int policyCount = casbinPolicyManager.syncRolePolicies(role);
         long duration = System.currentTimeMillis() - startTime;
 
         Map<String, Object> result = new HashMap<>();
@@ -2,11 +2,16 @@ package com.neobrutalism.crm.domain.rolemenu.repository;
 
 import com.neobrutalism.crm.common.repository.BaseRepository;
 import com.neobrutalism.crm.domain.rolemenu.model.RoleMenu;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface RoleMenuRepository extends BaseRepository<RoleMenu> {
@@ -16,4 +21,14 @@ public interface RoleMenuRepository extends BaseRepository<RoleMenu> {
     Optional<RoleMenu> findByRoleIdAndMenuId(UUID roleId, UUID menuId);
     boolean existsByRoleIdAndMenuId(UUID roleId, UUID menuId);
     void deleteByRoleIdAndMenuId(UUID roleId, UUID menuId);
+
+    /**
+     * Cursor over all role-menu rows for exports (must be consumed inside a read-only transaction and closed)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT rm FROM RoleMenu rm ORDER BY rm.roleId, rm.menuId")
+    Stream<RoleMenu> streamAll();
 }
@@ -11,15 +11,20 @@ import com.neobrutalism.crm.domain.rolemenu.repository.RoleMenuRepository;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
 import com.neobrutalism.crm.utils.config.ExcelConfigFactory;
 import com.neobrutalism.crm.utils.exception.ExcelProcessException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for exporting RoleMenu permissions to Excel
@@ -34,6 +39,9 @@ public class RoleMenuExportService {
     private final MenuRepository menuRepository;
     private final ExcelWritingService excelWritingService;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Export permissions for a specific role to Excel
      */
@@ -62,14 +70,39 @@ public class RoleMenuExportService {
 
     /**
      * Export all role permissions to Excel
+     *
+     * Role-menu rows are pulled from a database cursor and written through SXSSF,
+     * so neither the entities nor the export DTOs are ever held as a full list.
+     * Roles and menus (small lookup tables) are still loaded up front.
      */
+    @Transactional(readOnly = true)
     public byte[] exportAllRolePermissions() throws ExcelProcessException {
         log.info("Exporting all role permissions");
 
-        List<Role> roles = roleRepository.findAll();
-        List<RoleMenu> roleMenus = roleMenuRepository.findAll();
+        Map<UUID, Role> roleMap = roleRepository.findAll().stream()
+            .collect(Collectors.toMap(Role::getId, role -> role));
+        Map<UUID, Menu> menuMap = menuRepository.findAll().stream()
+            .collect(Collectors.toMap(Menu::getId, menu -> menu));
 
-        return exportToBytes(roles, roleMenus);
+        ExcelConfig config = ExcelConfigFactory.createProductionConfig();
+        config.setOutputBeanClassName(RoleMenuExportDto.class.getName());
+
+        try (Stream<RoleMenu> roleMenus = roleMenuRepository.streamAll()) {
+            Stream<RoleMenuExportDto> exportData = roleMenus
+                .map(roleMenu -> {
+                    RoleMenuExportDto dto = toExportDto(roleMenu, roleMap, menuMap);
+                    // Detach once mapped so the persistence context does not grow with the cursor
+                    entityManager.detach(roleMenu);
+                    return dto;
+                })
+                .filter(Objects::nonNull);
+
+            byte[] excelBytes = excelWritingService.writeToBytes(exportData, RoleMenuExportDto.class, config);
+
+            log.info("Exported all permission records to Excel ({} bytes)", excelBytes.length);
+
+            return excelBytes;
+        }
     }
 
     /**
@@ -92,37 +125,10 @@ public class RoleMenuExportService {
         List<RoleMenuExportDto> exportData = new ArrayList<>();
 
         for (RoleMenu roleMenu : roleMenus) {
-            Role role = roleMap.get(roleMenu.getRoleId());
-            Menu menu = menuMap.get(roleMenu.getMenuId());
-
-            if (role == null || menu == null) {
-                log.warn("Skipping RoleMenu {} - missing role or menu", roleMenu.getId());
-                continue;
+            RoleMenuExportDto dto = toExportDto(roleMenu, roleMap, menuMap);
+            if (dto != null) {
+                exportData.add(dto);
             }
-
-            RoleMenuExportDto dto = RoleMenuExportDto.builder()
-                .roleCode(role.getCode())
-                .roleName(role.getName())
-                .menuCode(menu.getCode())
-                .menuName(menu.getName())
-                .menuPath(menu.getPath())
-                .canView(RoleMenuExportDto.booleanToString(roleMenu.getCanView()))
-                .canCreate(RoleMenuExportDto.booleanToString(roleMenu.getCanCreate()))
-                .canEdit(RoleMenuExportDto.booleanToString(roleMenu.getCanEdit()))
-                .canDelete(RoleMenuExportDto.booleanToString(roleMenu.getCanDelete()))
-                .canExport(RoleMenuExportDto.booleanToString(roleMenu.getCanExport()))
-                .canImport(RoleMenuExportDto.booleanToString(roleMenu.getCanImport()))
-                .grantedPermissions(RoleMenuExportDto.buildGrantedPermissions(
-                    roleMenu.getCanView(),
-                    roleMenu.getCanCreate(),
-                    roleMenu.getCanEdit(),
-                    roleMenu.getCanDelete(),
-                    roleMenu.getCanExport(),
-                    roleMenu.getCanImport()
-                ))
-                .build();
-
-            exportData.add(dto);
         }
 
         // Configure Excel
@@ -136,4 +142,39 @@ public class RoleMenuExportService {
 
         return excelBytes;
     }
+
+    /**
+     * Map a role-menu row to its export DTO (null when the role or menu no longer exists)
+     */
+    private RoleMenuExportDto toExportDto(RoleMenu roleMenu, Map<UUID, Role> roleMap, Map<UUID, Menu> menuMap) {
+        Role role = roleMap.get(roleMenu.getRoleId());
+        Menu menu = menuMap.get(roleMenu.getMenuId());
+
+        if (role == null || menu == null) {
+            log.warn("Skipping RoleMenu {} - missing role or menu", roleMenu.getId());
+            return null;
+        }
+
+        return RoleMenuExportDto.builder()
+            .roleCode(role.getCode())
+            .roleName(role.getName())
+            .menuCode(menu.getCode())
+            .menuName(menu.getName())
+            .menuPath(menu.getPath())
+            .canView(RoleMenuExportDto.booleanToString(roleMenu.getCanView()))
+            .canCreate(RoleMenuExportDto.booleanToString(roleMenu.getCanCreate()))
+            .canEdit(RoleMenuExportDto.booleanToString(roleMenu.getCanEdit()))
+            .canDelete(RoleMenuExportDto.booleanToString(roleMenu.getCanDelete()))
+            .canExport(RoleMenuExportDto.booleanToString(roleMenu.getCanExport()))
+            .canImport(RoleMenuExportDto.booleanToString(roleMenu.getCanImport()))
+            .grantedPermissions(RoleMenuExportDto.buildGrantedPermissions(
+                roleMenu.getCanView(),
+                roleMenu.getCanCreate(),
+                roleMenu.getCanEdit(),
+                roleMenu.getCanDelete(),
+                roleMenu.getCanExport(),
+                roleMenu.getCanImport()
+            ))
+            .build();
+    }
 }
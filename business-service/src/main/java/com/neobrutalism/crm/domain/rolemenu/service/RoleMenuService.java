@@ -91,7 +91,7 @@ public class RoleMenuService extends BaseService<RoleMenu> {
             Role role = roleRepository.findById(roleId).orElse(null);
             if (role != null) {
                 // Sync policies to Casbin
-                int policyCount = casbinPolicyManager.syncRolePolicies(role, true);
+                int policyCount = casbinPolicyManager.syncRolePolicies(role);
                 log.info("Auto-synced {} Casbin policies for role: {} (id: {})",
                     policyCount, role.getName(), roleId);
 
@@ -0,0 +1,78 @@
+package com.neobrutalism.crm.utils.cache;
+
+import java.util.function.Function;
+
+/**
+ * Compiled accessor for one output column of a bean class
+ *
+ * Built once per class by CellExtractorCompiler and cached in EnhancedReflectionCache.
+ * The getter is a LambdaMetafactory-generated {@link Function} bound to the bean's accessor
+ * method (falls back to a reflective field read when the class has no matching getter),
+ * and the value kind is resolved from the declared type, so writers pick the cell writer
+ * per column instead of per value.
+ */
+public final class CellExtractor {
+
+    /**
+     * Cell writer to use for a column, resolved from the declared field type
+     */
+    public enum ValueKind {
+        /** String */
+        STRING,
+        /** Integer / Long (boxed or primitive) */
+        LONG,
+        /** Double / Float (boxed or primitive) */
+        DOUBLE,
+        /** Boolean (boxed or primitive) */
+        BOOLEAN,
+        /** java.util.Date and subclasses */
+        DATE,
+        /** Any other concrete type: written as toString() */
+        TEXT,
+        /** Declared as a supertype (Object, Number, ...): resolved from the runtime value */
+        DYNAMIC
+    }
+
+    private final String columnName;
+    private final String fieldName;
+    private final Class<?> valueType;
+    private final ValueKind kind;
+    private final Function<Object, Object> getter;
+
+    CellExtractor(String columnName, String fieldName, Class<?> valueType, ValueKind kind,
+                  Function<Object, Object> getter) {
+        this.columnName = columnName;
+        this.fieldName = fieldName;
+        this.valueType = valueType;
+        this.kind = kind;
+        this.getter = getter;
+    }
+
+    /**
+     * Read the column value from a bean
+     */
+    public Object get(Object bean) {
+        return getter.apply(bean);
+    }
+
+    public String getColumnName() { return columnName; }
+    public String getFieldName() { return fieldName; }
+    public Class<?> getValueType() { return valueType; }
+    public ValueKind getKind() { return kind; }
+
+    /**
+     * Column names of an extractor array, in column order
+     */
+    public static String[] columnNames(CellExtractor[] extractors) {
+        String[] names = new String[extractors.length];
+        for (int i = 0; i < extractors.length; i++) {
+            names[i] = extractors[i].columnName;
+        }
+        return names;
+    }
+
+    @Override
+    public String toString() {
+        return "CellExtractor[" + columnName + " <- " + fieldName + ", " + kind + "]";
+    }
+}
@@ -0,0 +1,182 @@
+package com.neobrutalism.crm.utils.cache;
+
+import com.neobrutalism.crm.utils.ExcelColumn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Builds column-ordered CellExtractor arrays for bean classes
+ *
+ * Getters are compiled with LambdaMetafactory (the JDK spins a hidden class per accessor),
+ * so a cell read is a monomorphic interface call instead of Field.get() with its access checks.
+ * Fields without a matching public getter, or classes the lookup cannot reach, fall back to
+ * a reflective read of the field.
+ *
+ * Column order for @ExcelColumn beans: explicit index() first (ascending), then the remaining
+ * columns in declaration order, subclass before superclass. A subclass column hides a
+ * superclass column of the same name (same rule as ReflectionCache).
+ */
+final class CellExtractorCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CellExtractorCompiler.class);
+
+    private static final MethodType FUNCTION_FACTORY = MethodType.methodType(Function.class);
+    private static final MethodType FUNCTION_APPLY = MethodType.methodType(Object.class, Object.class);
+
+    private CellExtractorCompiler() {
+    }
+
+    /**
+     * Extractors for the @ExcelColumn fields of a class (including superclasses)
+     */
+    static CellExtractor[] compileExcelColumns(Class<?> beanClass) {
+        List<IndexedExtractor> columns = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (Class<?> c = beanClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+                if (annotation == null) {
+                    continue;
+                }
+                String columnName = annotation.name().isEmpty() ? field.getName() : annotation.name();
+                if (seen.add(columnName)) {
+                    columns.add(new IndexedExtractor(annotation.index(), compile(beanClass, field, columnName)));
+                }
+            }
+        }
+
+        // Stable sort: unindexed columns keep declaration order after the indexed ones
+        columns.sort(Comparator.comparingInt(c -> c.index() < 0 ? Integer.MAX_VALUE : c.index()));
+
+        CellExtractor[] extractors = new CellExtractor[columns.size()];
+        for (int i = 0; i < extractors.length; i++) {
+            extractors[i] = columns.get(i).extractor();
+        }
+        return extractors;
+    }
+
+    /**
+     * Extractors for all instance fields declared by the class itself, in declaration order
+     * (column name = field name)
+     */
+    static CellExtractor[] compileDeclaredFields(Class<?> beanClass) {
+        List<CellExtractor> extractors = new ArrayList<>();
+        for (Field field : beanClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+            extractors.add(compile(beanClass, field, field.getName()));
+        }
+        return extractors.toArray(new CellExtractor[0]);
+    }
+
+    private static CellExtractor compile(Class<?> beanClass, Field field, String columnName) {
+        Class<?> type = field.getType();
+        return new CellExtractor(columnName, field.getName(), type, kindOf(type), compileGetter(beanClass, field));
+    }
+
+    /**
+     * Cell writer for a declared type; mirrors the instanceof order of the POI writers
+     */
+    static CellExtractor.ValueKind kindOf(Class<?> type) {
+        if (type == String.class) {
+            return CellExtractor.ValueKind.STRING;
+        }
+        if (type == Integer.class || type == int.class || type == Long.class || type == long.class) {
+            return CellExtractor.ValueKind.LONG;
+        }
+        if (type == Double.class || type == double.class || type == Float.class || type == float.class) {
+            return CellExtractor.ValueKind.DOUBLE;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return CellExtractor.ValueKind.BOOLEAN;
+        }
+        if (java.util.Date.class.isAssignableFrom(type)) {
+            return CellExtractor.ValueKind.DATE;
+        }
+        if (!type.isPrimitive()
+            && (type.isAssignableFrom(String.class) || type.isAssignableFrom(Integer.class)
+                || type.isAssignableFrom(Long.class) || type.isAssignableFrom(Double.class)
+                || type.isAssignableFrom(Float.class) || type.isAssignableFrom(Boolean.class)
+                || type.isAssignableFrom(java.util.Date.class))) {
+            return CellExtractor.ValueKind.DYNAMIC;
+        }
+        return CellExtractor.ValueKind.TEXT;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(Class<?> beanClass, Field field) {
+        Method accessor = findAccessor(beanClass, field);
+        if (accessor != null) {
+            try {
+                Class<?> owner = accessor.getDeclaringClass();
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+                MethodHandle target = lookup.unreflect(accessor);
+                CallSite site = LambdaMetafactory.metafactory(
+                    lookup, "apply", FUNCTION_FACTORY, FUNCTION_APPLY, target,
+                    MethodType.methodType(accessor.getReturnType(), owner).wrap());
+                return (Function<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                logger.debug("Falling back to field access for {}.{}: {}",
+                             beanClass.getName(), field.getName(), e.toString());
+            }
+        }
+
+        field.setAccessible(true);
+        return bean -> {
+            try {
+                return field.get(bean);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read field " + field.getName() + " of " + beanClass.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * Public no-arg getter returning exactly the field type (getX, or isX / x for booleans)
+     */
+    private static Method findAccessor(Class<?> beanClass, Field field) {
+        String name = field.getName();
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        List<String> candidates = new ArrayList<>(3);
+        candidates.add("get" + suffix);
+        if (field.getType() == boolean.class) {
+            candidates.add("is" + suffix);
+            if (name.startsWith("is") && name.length() > 2 && Character.isUpperCase(name.charAt(2))) {
+                candidates.add(name);
+            }
+        }
+
+        for (String candidate : candidates) {
+            try {
+                Method method = beanClass.getMethod(candidate);
+                if (method.getReturnType() == field.getType() && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // Try the next naming convention
+            }
+        }
+        return null;
+    }
+
+    private record IndexedExtractor(int index, CellExtractor extractor) {
+    }
+}
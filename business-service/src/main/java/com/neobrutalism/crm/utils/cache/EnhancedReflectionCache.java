@@ -12,6 +12,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Enhanced caching strategy with high-performance concurrent maps
  * Optimized for field reflection and column mapping with built-in Java
+ * Also holds the compiled per-class cell extractors used by the Excel/CSV writers
  */
 public class EnhancedReflectionCache {
     
@@ -28,6 +29,10 @@ public class EnhancedReflectionCache {
     // Class metadata cache
     private final Map<Class<?>, ClassMetadata> classMetadataCache = new ConcurrentHashMap<>();
     
+    // Compiled cell extractors (@ExcelColumn columns / all declared fields)
+    private final Map<Class<?>, CellExtractor[]> cellExtractorCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, CellExtractor[]> declaredFieldExtractorCache = new ConcurrentHashMap<>();
+    
     // Performance statistics
     private final AtomicLong cacheHits = new AtomicLong(0);
     private final AtomicLong cacheMisses = new AtomicLong(0);
@@ -68,6 +73,39 @@ public class EnhancedReflectionCache {
         return fields;
     }
     
+    /**
+     * Get compiled extractors for the @ExcelColumn fields of a class, in column order
+     *
+     * Compiled once per class; the returned array is a copy.
+     */
+    public CellExtractor[] getCellExtractors(Class<?> clazz) {
+        return getOrCompile(cellExtractorCache, clazz, CellExtractorCompiler::compileExcelColumns);
+    }
+    
+    /**
+     * Get compiled extractors for all instance fields declared by a class, in declaration order
+     *
+     * For writers of beans without @ExcelColumn mapping (e.g. multi-sheet reports).
+     */
+    public CellExtractor[] getDeclaredFieldExtractors(Class<?> clazz) {
+        return getOrCompile(declaredFieldExtractorCache, clazz, CellExtractorCompiler::compileDeclaredFields);
+    }
+    
+    private CellExtractor[] getOrCompile(Map<Class<?>, CellExtractor[]> cache, Class<?> clazz,
+                                         java.util.function.Function<Class<?>, CellExtractor[]> compiler) {
+        CellExtractor[] extractors = cache.get(clazz);
+        if (extractors == null) {
+            long startTime = System.nanoTime();
+            extractors = cache.computeIfAbsent(clazz, compiler);
+            cacheMisses.incrementAndGet();
+            cacheLoadTime.addAndGet(System.nanoTime() - startTime);
+            logger.debug("Compiled {} cell extractors for class: {}", extractors.length, clazz.getName());
+        } else {
+            cacheHits.incrementAndGet();
+        }
+        return extractors.clone();
+    }
+    
     /**
      * Get column mapping with caching
      */
@@ -170,6 +208,7 @@ public class EnhancedReflectionCache {
             try {
                 getExcelColumnFields(clazz);
                 getClassMetadata(clazz);
+                getCellExtractors(clazz);
                 logger.debug("Preloaded cache for class: {}", clazz.getName());
             } catch (Exception e) {
                 logger.warn("Failed to preload cache for class: {}", clazz.getName(), e);
@@ -185,6 +224,8 @@ public class EnhancedReflectionCache {
     public void refreshCache(Class<?> clazz) {
         fieldCache.remove(clazz);
         classMetadataCache.remove(clazz);
+        cellExtractorCache.remove(clazz);
+        declaredFieldExtractorCache.remove(clazz);
         // Rebuild cache
         getExcelColumnFields(clazz);
         getClassMetadata(clazz);
@@ -198,6 +239,8 @@ public class EnhancedReflectionCache {
         fieldCache.clear();
         columnMappingCache.clear();
         classMetadataCache.clear();
+        cellExtractorCache.clear();
+        declaredFieldExtractorCache.clear();
         
         cacheHits.set(0);
         cacheMisses.set(0);
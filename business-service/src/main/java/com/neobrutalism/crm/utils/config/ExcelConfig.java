@@ -99,6 +99,22 @@ public class ExcelConfig {
     // Optional: Fully qualified class name used for output schema when data list is empty
     private String outputBeanClassName;
 
+    // SAX Reading Tuning
+    private int sharedStringsCacheSize = 10_000; // Decoded shared strings kept on heap (rest spilled to temp file)
+    private boolean useCompiledRowBinder = true; // Column-indexed typed binder instead of per-cell name lookups
+
+    // Writing Tuning
+    private boolean useDirectOoxmlWriter = false; // Opt-in: emit sheet XML straight into the zip instead of SXSSF Row/Cell objects
+    private boolean parallelSheetWriting = false; // Opt-in multi-sheet: deflate each sheet concurrently, then stitch the parts
+
+    // Pipelined Reading (parse → validate → persist)
+    private int pipelineBufferBatches = 2; // Parsed batches queued ahead of validation (SAX blocks when full)
+    private int pipelineValidateParallelism = 0; // 0 = availableProcessors
+    private int pipelinePersistParallelism = 0; // 0 = auto (2x cores, 4..32)
+
+    // Strategy Selection
+    private boolean adaptiveStrategySelection = false; // Pick by measured throughput / peak heap instead of static priorities
+
     public ExcelConfig() {
         // Default constructor
     }
@@ -367,6 +383,50 @@ public class ExcelConfig {
             return this;
         }
 
+        // SAX reading tuning
+        public Builder sharedStringsCacheSize(int cacheSize) {
+            config.sharedStringsCacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder useCompiledRowBinder(boolean enable) {
+            config.useCompiledRowBinder = enable;
+            return this;
+        }
+
+        // Writing tuning
+        public Builder useDirectOoxmlWriter(boolean enable) {
+            config.useDirectOoxmlWriter = enable;
+            return this;
+        }
+
+        public Builder parallelSheetWriting(boolean enable) {
+            config.parallelSheetWriting = enable;
+            return this;
+        }
+
+        // Pipelined reading
+        public Builder pipelineBufferBatches(int bufferBatches) {
+            config.pipelineBufferBatches = bufferBatches;
+            return this;
+        }
+
+        public Builder pipelineValidateParallelism(int parallelism) {
+            config.pipelineValidateParallelism = parallelism;
+            return this;
+        }
+
+        public Builder pipelinePersistParallelism(int parallelism) {
+            config.pipelinePersistParallelism = parallelism;
+            return this;
+        }
+
+        // Strategy selection
+        public Builder adaptiveStrategySelection(boolean enable) {
+            config.adaptiveStrategySelection = enable;
+            return this;
+        }
+
         public ExcelConfig build() {
             return config;
         }
@@ -453,6 +513,38 @@ public class ExcelConfig {
         return outputBeanClassName;
     }
 
+    public int getSharedStringsCacheSize() {
+        return sharedStringsCacheSize;
+    }
+
+    public boolean isUseCompiledRowBinder() {
+        return useCompiledRowBinder;
+    }
+
+    public boolean isUseDirectOoxmlWriter() {
+        return useDirectOoxmlWriter;
+    }
+
+    public boolean isParallelSheetWriting() {
+        return parallelSheetWriting;
+    }
+
+    public int getPipelineBufferBatches() {
+        return pipelineBufferBatches;
+    }
+
+    public int getPipelineValidateParallelism() {
+        return pipelineValidateParallelism;
+    }
+
+    public int getPipelinePersistParallelism() {
+        return pipelinePersistParallelism;
+    }
+
+    public boolean isAdaptiveStrategySelection() {
+        return adaptiveStrategySelection;
+    }
+
     // Setter for output bean class (used when data list is empty)
     public void setOutputBeanClassName(String outputBeanClassName) {
         this.outputBeanClassName = outputBeanClassName;
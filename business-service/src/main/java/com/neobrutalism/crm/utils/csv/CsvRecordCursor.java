@@ -0,0 +1,213 @@
+package com.neobrutalism.crm.utils.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Zero-allocation CSV tokenizer over a mapped byte range
+ *
+ * nextRecord() scans one record and keeps only field offsets (int arrays reused across records);
+ * a String is created only when a field is asked for, so unmapped columns cost a byte scan.
+ *
+ * Grammar (RFC 4180, lenient):
+ * - Records end at '\n' outside quotes; a '\r' before it is dropped
+ * - A field starting with the quote char is quoted: delimiters and newlines inside are data,
+ *   a doubled quote is one quote, bytes between the closing quote and the next delimiter are ignored
+ * - A quote inside an unquoted field is data
+ *
+ * The charset must be ASCII-compatible (UTF-8, ISO-8859-x, windows-125x): delimiter, quote and
+ * newline are matched as single bytes. MappedCsvFile.split() walks the same grammar, so ranges
+ * it returns always start and end on record boundaries.
+ *
+ * Not thread-safe: one cursor per range/worker.
+ */
+public final class CsvRecordCursor {
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+    private static final int INITIAL_FIELDS = 32;
+
+    private final ByteBuffer buffer;
+    private final long baseOffset;
+    private final byte delimiter;
+    private final byte quote;
+    private final Charset charset;
+    private final int limit;
+
+    private int position;
+    private long recordIndex;
+    private int fieldCount;
+    private int[] starts = new int[INITIAL_FIELDS];
+    private int[] ends = new int[INITIAL_FIELDS];
+    private boolean[] escaped = new boolean[INITIAL_FIELDS];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * @param buffer Bytes of the range (position 0 = baseOffset in the file)
+     * @param baseOffset File offset of the first byte, reported by position()
+     * @param firstRecord Index of the first record in the range (0 = first record of the file)
+     */
+    CsvRecordCursor(ByteBuffer buffer, long baseOffset, long firstRecord,
+                    byte delimiter, byte quote, Charset charset) {
+        this.buffer = buffer;
+        this.baseOffset = baseOffset;
+        this.limit = buffer.limit();
+        this.recordIndex = firstRecord - 1;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.charset = charset;
+    }
+
+    /**
+     * Advance to the next record
+     *
+     * @return false when the range is exhausted
+     */
+    public boolean nextRecord() {
+        if (position >= limit) {
+            return false;
+        }
+        fieldCount = 0;
+        recordIndex++;
+
+        int p = position;
+        while (true) {
+            if (p < limit && buffer.get(p) == quote) {
+                int start = ++p;
+                boolean hasEscapes = false;
+                while (p < limit) {
+                    if (buffer.get(p) == quote) {
+                        if (p + 1 < limit && buffer.get(p + 1) == quote) {
+                            hasEscapes = true;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                int end = p;
+                // Skip the closing quote and anything up to the next delimiter / newline
+                while (p < limit) {
+                    byte b = buffer.get(p);
+                    if (b == delimiter || b == LF) {
+                        break;
+                    }
+                    p++;
+                }
+                addField(start, Math.min(end, limit), hasEscapes);
+            } else {
+                int start = p;
+                while (p < limit) {
+                    byte b = buffer.get(p);
+                    if (b == delimiter || b == LF) {
+                        break;
+                    }
+                    p++;
+                }
+                int end = p;
+                if (end > start && buffer.get(end - 1) == CR && (end == limit || buffer.get(end) == LF)) {
+                    end--;
+                }
+                addField(start, end, false);
+            }
+
+            if (p >= limit) {
+                position = limit;
+                return true;
+            }
+            if (buffer.get(p) == LF) {
+                position = p + 1;
+                return true;
+            }
+            p++; // delimiter
+        }
+    }
+
+    /**
+     * Index of the current record in the file (0-based, counts every record including the header)
+     */
+    public long recordIndex() {
+        return recordIndex;
+    }
+
+    /**
+     * File offset of the next unread record
+     */
+    public long position() {
+        return baseOffset + position;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * True if the field has no bytes at all (",," or '""'); whitespace-only fields are not empty
+     */
+    public boolean isEmpty(int field) {
+        return ends[field] == starts[field];
+    }
+
+    /**
+     * Field value, trimmed like String.trim() and with doubled quotes collapsed
+     */
+    public String field(int field) {
+        int start = starts[field];
+        int end = ends[field];
+        // Bytes <= 0x20 are ASCII in every supported charset, so this trims exactly what String.trim() would
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+
+        if (!escaped[field]) {
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, charset);
+        }
+
+        int n = 0;
+        for (int p = start; p < end; p++) {
+            byte b = buffer.get(p);
+            scratch[n++] = b;
+            if (b == quote) {
+                p++; // second quote of the pair
+            }
+        }
+        return new String(scratch, 0, n, charset);
+    }
+
+    /**
+     * All fields of the current record (header rows, small files)
+     */
+    public String[] fields() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = field(i);
+        }
+        return values;
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            int capacity = fieldCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+}
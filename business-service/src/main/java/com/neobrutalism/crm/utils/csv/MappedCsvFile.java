@@ -0,0 +1,211 @@
+package com.neobrutalism.crm.utils.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-mapped CSV file split into record-aligned byte ranges
+ *
+ * Nothing is read through a Reader: ranges are mapped read-only and tokenized in place by
+ * CsvRecordCursor, so a range can be parsed on any thread without sharing state.
+ *
+ * Range boundaries must not fall inside a quoted field, and the quote state at an arbitrary
+ * offset is only known by scanning from the start. split() therefore walks the bytes once
+ * with the tokenizer's state machine (no field extraction, no allocation per record), cutting
+ * a range at the first record end past the target size and counting records on the way so
+ * every range knows the file index of its first record.
+ */
+public final class MappedCsvFile implements Closeable {
+
+    private static final byte LF = '\n';
+    private static final long SCAN_WINDOW_BYTES = 64L << 20;
+    private static final long MAX_MAPPED_BYTES = Integer.MAX_VALUE;
+
+    // Tokenizer states (same grammar as CsvRecordCursor)
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    /**
+     * Record-aligned byte range [start, end) holding {@code records} records, the first of
+     * which is record {@code firstRecord} of the file
+     */
+    public record Range(long start, long end, long firstRecord, long records) {
+        public long length() {
+            return end - start;
+        }
+    }
+
+    private final FileChannel channel;
+    private final long size;
+    private final long dataStart;
+    private final byte delimiter;
+    private final byte quote;
+    private final Charset charset;
+
+    private MappedCsvFile(FileChannel channel, long size, long dataStart,
+                          byte delimiter, byte quote, Charset charset) {
+        this.channel = channel;
+        this.size = size;
+        this.dataStart = dataStart;
+        this.delimiter = delimiter;
+        this.quote = quote;
+        this.charset = charset;
+    }
+
+    /**
+     * Open a CSV file for mapped reading
+     *
+     * @param delimiter Field delimiter (single ASCII char)
+     * @param quote Quote char (single ASCII char, usually '"')
+     * @param charset ASCII-compatible charset; a UTF-8 BOM is skipped
+     */
+    public static MappedCsvFile open(Path file, char delimiter, char quote, Charset charset) throws IOException {
+        byte delimiterByte = singleByte(delimiter, charset, "delimiter");
+        byte quoteByte = singleByte(quote, charset, "quote");
+        singleByte('\n', charset, "newline");
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long dataStart = 0;
+            if (size >= 3) {
+                ByteBuffer head = ByteBuffer.allocate(3);
+                channel.read(head, 0);
+                if ((head.get(0) & 0xFF) == 0xEF && (head.get(1) & 0xFF) == 0xBB && (head.get(2) & 0xFF) == 0xBF) {
+                    dataStart = 3;
+                }
+            }
+            return new MappedCsvFile(channel, size, dataStart, delimiterByte, quoteByte, charset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Offset of the first record (after the BOM, if any)
+     */
+    public long dataStart() {
+        return dataStart;
+    }
+
+    /**
+     * Cursor over [from, min(size, from + 2GB)); use it for the leading records (header, checkpoint skip)
+     * before the rest of the file is split
+     */
+    public CsvRecordCursor cursor(long from, long firstRecord) throws IOException {
+        long length = Math.min(size - from, MAX_MAPPED_BYTES);
+        return new CsvRecordCursor(map(from, length), from, firstRecord, delimiter, quote, charset);
+    }
+
+    /**
+     * Cursor over one range returned by split()
+     */
+    public CsvRecordCursor cursor(Range range) throws IOException {
+        return new CsvRecordCursor(map(range.start(), range.length()), range.start(), range.firstRecord(),
+                                   delimiter, quote, charset);
+    }
+
+    /**
+     * Split [from, size) into record-aligned ranges of about targetBytes each
+     *
+     * @param from Offset of a record start (e.g. CsvRecordCursor.position() after the header)
+     * @param firstRecord File index of the record starting at {@code from}
+     * @param targetBytes Preferred range length; a range ends at the first record end past it
+     */
+    public List<Range> split(long from, long firstRecord, long targetBytes) throws IOException {
+        long target = Math.max(1, Math.min(targetBytes, MAX_MAPPED_BYTES / 2));
+        List<Range> ranges = new ArrayList<>();
+
+        int state = FIELD_START;
+        long rangeStart = from;
+        long rangeFirstRecord = firstRecord;
+        long records = 0;
+        long lastRecordEnd = from;
+
+        for (long windowStart = from; windowStart < size; windowStart += SCAN_WINDOW_BYTES) {
+            int windowLength = (int) Math.min(SCAN_WINDOW_BYTES, size - windowStart);
+            MappedByteBuffer window = map(windowStart, windowLength);
+
+            for (int i = 0; i < windowLength; i++) {
+                byte b = window.get(i);
+                switch (state) {
+                    case QUOTED:
+                        if (b == quote) {
+                            state = QUOTE_IN_QUOTED;
+                        }
+                        continue;
+                    case QUOTE_IN_QUOTED:
+                        if (b == quote) {
+                            state = QUOTED;
+                            continue;
+                        }
+                        break;
+                    case FIELD_START:
+                        if (b == quote) {
+                            state = QUOTED;
+                            continue;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+
+                // Outside quotes: FIELD_START, UNQUOTED, or just past a closing quote
+                if (b == delimiter) {
+                    state = FIELD_START;
+                } else if (b == LF) {
+                    state = FIELD_START;
+                    records++;
+                    long recordEnd = windowStart + i + 1;
+                    lastRecordEnd = recordEnd;
+                    if (recordEnd - rangeStart >= target) {
+                        ranges.add(new Range(rangeStart, recordEnd, rangeFirstRecord, records));
+                        rangeStart = recordEnd;
+                        rangeFirstRecord += records;
+                        records = 0;
+                    }
+                } else {
+                    state = UNQUOTED;
+                }
+            }
+        }
+
+        if (rangeStart < size) {
+            // The last record may have no trailing newline
+            ranges.add(new Range(rangeStart, size, rangeFirstRecord, lastRecordEnd < size ? records + 1 : records));
+        }
+        return ranges;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer map(long from, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+    }
+
+    private static byte singleByte(char c, Charset charset, String what) {
+        byte[] encoded = String.valueOf(c).getBytes(charset);
+        if (encoded.length != 1 || encoded[0] < 0) {
+            throw new IllegalArgumentException("CSV " + what + " '" + c + "' is not a single ASCII byte in " + charset);
+        }
+        return encoded[0];
+    }
+}
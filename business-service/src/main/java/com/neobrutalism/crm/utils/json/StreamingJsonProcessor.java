@@ -0,0 +1,192 @@
+package com.neobrutalism.crm.utils.json;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.reflection.MethodHandleMapper;
+import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor;
+import com.neobrutalism.crm.utils.sax.TrueStreamingSAXProcessor.ValidationError;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Streaming JSON / JSON Lines reader with the same batch contract as TrueStreamingSAXProcessor
+ *
+ * Records are bound straight from the byte stream by a MappingIterator: Jackson's UTF-8 parser
+ * reads the InputStream, no line or document String is built, and only the current record is
+ * materialized. The input shape is detected from the first token:
+ * - JSON array: elements are read one by one (the array is never bound as a List)
+ * - JSON Lines / concatenated values: root values are read in sequence
+ * - Single object: one record
+ *
+ * A record that fails to bind (wrong type, bad date, ...) is reported and skipped, the iterator
+ * resyncs at the end of that value. Malformed JSON cannot be resynced and aborts the read.
+ *
+ * Readers come from one shared, pre-configured JsonMapper (java.time support, unknown properties
+ * ignored) and are cached per target class; ObjectReader is immutable and thread-safe.
+ */
+@Slf4j
+public class StreamingJsonProcessor<T> {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
+    private static final Map<ReaderKey, ObjectReader> READERS = new ConcurrentHashMap<>();
+
+    private record ReaderKey(Class<?> type, boolean ignoreUnknownProperties) {
+    }
+
+    private final Class<T> beanClass;
+    private final ExcelConfig config;
+    private final Consumer<List<T>> batchProcessor;
+    private final MethodHandleMapper<T> methodHandleMapper;
+    private final boolean hasRowNum;
+
+    private final List<ValidationError> validationErrors = new ArrayList<>();
+    private long totalProcessed;
+    private long totalErrors;
+
+    public StreamingJsonProcessor(Class<T> beanClass, ExcelConfig config, Consumer<List<T>> batchProcessor) {
+        this.beanClass = beanClass;
+        this.config = config;
+        this.batchProcessor = batchProcessor;
+        this.methodHandleMapper = MethodHandleMapper.forClass(beanClass);
+        this.hasRowNum = methodHandleMapper.hasField("rowNum");
+    }
+
+    /**
+     * Shared reader for a target type
+     *
+     * @param ignoreUnknownProperties false to fail records carrying properties the type does not declare
+     */
+    public static ObjectReader readerFor(Class<?> type, boolean ignoreUnknownProperties) {
+        return READERS.computeIfAbsent(new ReaderKey(type, ignoreUnknownProperties), key -> {
+            ObjectReader reader = MAPPER.readerFor(key.type());
+            return key.ignoreUnknownProperties()
+                ? reader
+                : reader.with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        });
+    }
+
+    /**
+     * Read all records and hand them to batchProcessor in config.batchSize batches
+     *
+     * Record numbers (rowNum field, error reports) are 1-based positions in the array / stream.
+     * The stream is closed when reading ends.
+     */
+    public TrueStreamingSAXProcessor.ProcessingResult process(InputStream inputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int batchSize = config.getBatchSize();
+        List<T> batch = new ArrayList<>(batchSize);
+        long recordNum = 0;
+
+        try (MappingIterator<T> records = readerFor(beanClass, true).readValues(inputStream)) {
+            while (records.hasNextValue()) {
+                recordNum++;
+                T record;
+                try {
+                    record = records.nextValue();
+                } catch (StreamReadException e) {
+                    // Malformed JSON: the parser cannot find the next record
+                    throw e;
+                } catch (DatabindException e) {
+                    reportRecordError(recordNum, e);
+                    continue;
+                }
+                if (record == null) {
+                    continue;
+                }
+
+                // ✅ INLINE maxRows VALIDATION (during streaming, NO buffering)
+                if (config.getMaxRows() > 0 && totalProcessed + 1 > config.getMaxRows()) {
+                    throw new RuntimeException(String.format(
+                        "Số lượng bản ghi trong file (%d) vượt quá giới hạn cho phép (%d). " +
+                        "Vui lòng chia nhỏ file hoặc tăng giới hạn xử lý.",
+                        totalProcessed + 1, config.getMaxRows()));
+                }
+
+                if (hasRowNum) {
+                    methodHandleMapper.setFieldValue(record, "rowNum", (int) recordNum);
+                }
+                batch.add(record);
+                totalProcessed++;
+
+                if (batch.size() >= batchSize) {
+                    deliverBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+
+                if (config.isEnableProgressTracking() && totalProcessed % config.getProgressReportInterval() == 0) {
+                    log.info("Processed {} JSON records in streaming mode", totalProcessed);
+                }
+            }
+        }
+        deliverBatch(batch);
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        log.info("Streamed JSON into {}: records={}, processed={}, errors={}, {} ms",
+                 beanClass.getSimpleName(), recordNum, totalProcessed, totalErrors, processingTime);
+
+        if (totalProcessed == 0 && totalErrors == 0) {
+            throw new RuntimeException("Tập không có dữ liệu");
+        }
+
+        return new TrueStreamingSAXProcessor.ProcessingResult(
+            totalProcessed,
+            totalErrors,
+            processingTime,
+            new ArrayList<>(validationErrors),
+            recordNum,
+            0,
+            0
+        );
+    }
+
+    private void deliverBatch(List<T> batch) {
+        if (batch.isEmpty() || batchProcessor == null) {
+            return;
+        }
+        try {
+            batchProcessor.accept(batch);
+            log.debug("Processed batch of {} records", batch.size());
+        } catch (Exception e) {
+            log.error("Error processing batch: {}", e.getMessage(), e);
+            totalErrors += batch.size();
+        }
+    }
+
+    private void reportRecordError(long recordNum, DatabindException e) {
+        String fieldName = null;
+        if (e instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()) {
+            List<JsonMappingException.Reference> path = mappingException.getPath();
+            fieldName = path.get(path.size() - 1).getFieldName();
+        }
+        log.warn("Record {}: failed to bind field '{}' - {}", recordNum, fieldName, e.getOriginalMessage());
+
+        validationErrors.add(new ValidationError((int) recordNum, fieldName, null, e.getOriginalMessage()));
+        totalErrors++;
+
+        int maxErrors = config.getMaxErrorsBeforeAbort();
+        if (totalErrors > maxErrors) {
+            throw new RuntimeException(String.format(
+                "Quá nhiều lỗi (%d/%d). Dừng xử lý tại row %d. " +
+                "Vui lòng kiểm tra và sửa lỗi trước khi tải lại.",
+                totalErrors, maxErrors, recordNum));
+        }
+    }
+}
@@ -2,22 +2,34 @@ package com.neobrutalism.crm.utils.processor.impl;
 
 import com.neobrutalism.crm.utils.processor.AbstractDataProcessor;
 import com.neobrutalism.crm.utils.ExcelColumn;
+import com.neobrutalism.crm.utils.csv.CsvRecordCursor;
+import com.neobrutalism.crm.utils.csv.MappedCsvFile;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Field;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.function.Consumer;
 
 /**
  * CSV data processor implementation
  * Supports .csv format with customizable delimiters
+ *
+ * Quoted fields (delimiters, quotes and line breaks inside quotes) are handled by the mapped
+ * CsvRecordCursor: the stream is spooled to a temp file once and tokenized in place, without
+ * a String per line or a regex split per record.
  */
 public class CsvDataProcessor<T> extends AbstractDataProcessor<T> {
     
     private static final List<String> SUPPORTED_FORMATS = Arrays.asList("csv", "txt");
+    private static final long RANGE_BYTES = 64L << 20;
     
     @Override
     protected ProcessingResult doProcess(InputStream inputStream, 
@@ -28,61 +40,77 @@ public class CsvDataProcessor<T> extends AbstractDataProcessor<T> {
         long startTime = System.currentTimeMillis();
         long processedRecords = 0;
         long errorCount = 0;
+        Path spool = null;
         
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            
+        try {
             CsvConfig csvConfig = getCsvConfig(configuration);
-            String delimiter = csvConfig.getDelimiter();
             boolean hasHeader = csvConfig.isHasHeader();
             
-            // Parse field mappings
-            Map<Integer, Field> fieldMappings = parseFieldMappings(targetClass);
-            String[] headers = null;
+            // The tokenizer works on a mapped file: spool the stream once
+            spool = Files.createTempFile("csv-ingest-", ".csv");
+            Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
             
-            String line;
-            List<T> batch = new ArrayList<>();
-            int batchSize = configuration.getBatchSize();
-            
-            // Skip header if present
-            if (hasHeader && (line = reader.readLine()) != null) {
-                headers = parseCSVLine(line, delimiter);
-                fieldMappings = mapHeadersToFields(headers, targetClass);
-            }
-            
-            while ((line = reader.readLine()) != null) {
-                try {
-                    T record = parseRecord(line, delimiter, targetClass, fieldMappings);
-                    if (record != null) {
-                        batch.add(record);
-                        processedRecords++;
-                        
-                        if (batch.size() >= batchSize) {
-                            batchProcessor.accept(new ArrayList<>(batch));
-                            batch.clear();
-                        }
+            try (MappedCsvFile csv = MappedCsvFile.open(spool, delimiterChar(csvConfig), '"',
+                    Charset.forName(csvConfig.getEncoding()))) {
+                
+                // Parse field mappings
+                Map<Integer, Field> fieldMappings = parseFieldMappings(targetClass);
+                String[] headers = null;
+                long dataStart = csv.dataStart();
+                
+                List<T> batch = new ArrayList<>();
+                int batchSize = configuration.getBatchSize();
+                
+                // Skip header if present
+                if (hasHeader) {
+                    CsvRecordCursor headerCursor = csv.cursor(dataStart, 0);
+                    if (headerCursor.nextRecord()) {
+                        headers = headerCursor.fields();
+                        fieldMappings = mapHeadersToFields(headers, targetClass);
+                        dataStart = headerCursor.position();
                     }
-                } catch (Exception e) {
-                    errorCount++;
-                    logger.debug("Error parsing CSV line: {}", e.getMessage());
-                    
-                    if (errorCount >= configuration.getMaxErrors()) {
-                        logger.warn("Maximum error count reached: {}", errorCount);
-                        break;
+                }
+                
+                records:
+                for (MappedCsvFile.Range range : csv.split(dataStart, hasHeader ? 1 : 0, RANGE_BYTES)) {
+                    CsvRecordCursor cursor = csv.cursor(range);
+                    while (cursor.nextRecord()) {
+                        try {
+                            T record = parseRecord(cursor, targetClass, fieldMappings);
+                            if (record != null) {
+                                batch.add(record);
+                                processedRecords++;
+                                
+                                if (batch.size() >= batchSize) {
+                                    batchProcessor.accept(new ArrayList<>(batch));
+                                    batch.clear();
+                                }
+                            }
+                        } catch (Exception e) {
+                            errorCount++;
+                            logger.debug("Error parsing CSV record {}: {}", cursor.recordIndex(), e.getMessage());
+                            
+                            if (errorCount >= configuration.getMaxErrors()) {
+                                logger.warn("Maximum error count reached: {}", errorCount);
+                                break records;
+                            }
+                        }
                     }
                 }
+                
+                // Process remaining batch
+                if (!batch.isEmpty()) {
+                    batchProcessor.accept(batch);
+                }
+                
+                return createSuccessResult(startTime, processedRecords, errorCount, 
+                        Map.of("headers", headers != null ? Arrays.asList(headers) : Collections.emptyList()));
             }
             
-            // Process remaining batch
-            if (!batch.isEmpty()) {
-                batchProcessor.accept(batch);
-            }
-            
-            return createSuccessResult(startTime, processedRecords, errorCount, 
-                    Map.of("headers", headers != null ? Arrays.asList(headers) : Collections.emptyList()));
-            
         } catch (Exception e) {
             return createErrorResult(startTime, "CSV processing failed: " + e.getMessage());
+        } finally {
+            deleteSpool(spool);
         }
     }
     
@@ -155,23 +183,18 @@ public class CsvDataProcessor<T> extends AbstractDataProcessor<T> {
         return mappings;
     }
     
-    private String[] parseCSVLine(String line, String delimiter) {
-        // Simple CSV parsing - could be enhanced for quoted fields
-        return line.split(delimiter, -1);
-    }
-    
-    private T parseRecord(String line, String delimiter, Class<T> targetClass, 
+    private T parseRecord(CsvRecordCursor cursor, Class<T> targetClass, 
                          Map<Integer, Field> fieldMappings) throws Exception {
         
-        String[] values = parseCSVLine(line, delimiter);
         T record = targetClass.getDeclaredConstructor().newInstance();
         
         for (Map.Entry<Integer, Field> entry : fieldMappings.entrySet()) {
             int index = entry.getKey();
             Field field = entry.getValue();
             
-            if (index < values.length) {
-                String value = values[index].trim();
+            // Only mapped columns are decoded; field() trims and unescapes quotes
+            if (index < cursor.fieldCount() && !cursor.isEmpty(index)) {
+                String value = cursor.field(index);
                 if (!value.isEmpty()) {
                     setFieldValue(record, field, value);
                 }
@@ -181,6 +204,25 @@ public class CsvDataProcessor<T> extends AbstractDataProcessor<T> {
         return record;
     }
     
+    private char delimiterChar(CsvConfig csvConfig) {
+        String delimiter = csvConfig.getDelimiter();
+        if (delimiter == null || delimiter.length() != 1) {
+            throw new IllegalArgumentException("CSV delimiter must be a single character: '" + delimiter + "'");
+        }
+        return delimiter.charAt(0);
+    }
+    
+    private void deleteSpool(Path spool) {
+        if (spool == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            logger.debug("Could not delete CSV spool file {}: {}", spool, e.getMessage());
+        }
+    }
+    
     private void setFieldValue(T record, Field field, String value) throws Exception {
         Class<?> fieldType = field.getType();
         
@@ -1,7 +1,11 @@
 package com.neobrutalism.crm.utils.processor.impl;
 
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.neobrutalism.crm.utils.json.StreamingJsonProcessor;
 import com.neobrutalism.crm.utils.processor.AbstractDataProcessor;
 
 import java.io.BufferedReader;
@@ -14,11 +18,13 @@ import java.util.function.Consumer;
 /**
  * JSON data processor implementation
  * Supports .json, .jsonl (JSON Lines) formats
+ *
+ * Records are bound from the byte stream by a MappingIterator over the shared reader of
+ * StreamingJsonProcessor (no per-line Strings, arrays are not buffered as a tree).
  */
 public class JsonDataProcessor<T> extends AbstractDataProcessor<T> {
     
     private static final List<String> SUPPORTED_FORMATS = Arrays.asList("json", "jsonl");
-    private final ObjectMapper objectMapper = new ObjectMapper();
     
     @Override
     protected ProcessingResult doProcess(InputStream inputStream, 
@@ -30,87 +36,37 @@ public class JsonDataProcessor<T> extends AbstractDataProcessor<T> {
         long processedRecords = 0;
         long errorCount = 0;
         
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            
-            JsonConfig jsonConfig = getJsonConfig(configuration);
-            boolean isJsonLines = jsonConfig.isJsonLines();
+        JsonConfig jsonConfig = getJsonConfig(configuration);
+        boolean isJsonLines = jsonConfig.isJsonLines();
+        ObjectReader reader = StreamingJsonProcessor.readerFor(targetClass, jsonConfig.isIgnoreUnknownProperties());
+        
+        // Arrays, JSON Lines and single objects are all read as a value sequence from the byte stream
+        try (MappingIterator<T> records = reader.readValues(inputStream)) {
             
             List<T> batch = new ArrayList<>();
             int batchSize = configuration.getBatchSize();
             
-            if (isJsonLines) {
-                // Process JSON Lines format (one JSON object per line)
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    try {
-                        if (!line.trim().isEmpty()) {
-                            T record = objectMapper.readValue(line, targetClass);
-                            if (record != null) {
-                                batch.add(record);
-                                processedRecords++;
-                                
-                                if (batch.size() >= batchSize) {
-                                    batchProcessor.accept(new ArrayList<>(batch));
-                                    batch.clear();
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        errorCount++;
-                        logger.debug("Error parsing JSON line: {}", e.getMessage());
+            while (records.hasNextValue()) {
+                try {
+                    T record = records.nextValue();
+                    if (record != null) {
+                        batch.add(record);
+                        processedRecords++;
                         
-                        if (errorCount >= configuration.getMaxErrors()) {
-                            logger.warn("Maximum error count reached: {}", errorCount);
-                            break;
+                        if (batch.size() >= batchSize) {
+                            batchProcessor.accept(new ArrayList<>(batch));
+                            batch.clear();
                         }
                     }
-                }
-                
-            } else {
-                // Process standard JSON format (single array or object)
-                StringBuilder jsonBuilder = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    jsonBuilder.append(line);
-                }
-                
-                String jsonContent = jsonBuilder.toString().trim();
-                try {
-                    JsonNode rootNode = objectMapper.readTree(jsonContent);
+                } catch (DatabindException e) {
+                    // Record skipped, the iterator resyncs at the end of the value
+                    errorCount++;
+                    logger.debug("Error binding JSON record: {}", e.getOriginalMessage());
                     
-                    if (rootNode.isArray()) {
-                        // Process JSON array
-                        for (JsonNode elementNode : rootNode) {
-                            try {
-                                T record = objectMapper.treeToValue(elementNode, targetClass);
-                                if (record != null) {
-                                    batch.add(record);
-                                    processedRecords++;
-                                    
-                                    if (batch.size() >= batchSize) {
-                                        batchProcessor.accept(new ArrayList<>(batch));
-                                        batch.clear();
-                                    }
-                                }
-                            } catch (Exception e) {
-                                errorCount++;
-                                if (errorCount >= configuration.getMaxErrors()) {
-                                    break;
-                                }
-                            }
-                        }
-                    } else {
-                        // Process single JSON object
-                        T record = objectMapper.treeToValue(rootNode, targetClass);
-                        if (record != null) {
-                            batch.add(record);
-                            processedRecords++;
-                        }
+                    if (errorCount >= configuration.getMaxErrors()) {
+                        logger.warn("Maximum error count reached: {}", errorCount);
+                        break;
                     }
-                    
-                } catch (Exception e) {
-                    return createErrorResult(startTime, "JSON parsing failed: " + e.getMessage());
                 }
             }
             
@@ -123,6 +79,8 @@ public class JsonDataProcessor<T> extends AbstractDataProcessor<T> {
                     Map.of("format", isJsonLines ? "JSON Lines" : "JSON",
                            "totalProcessed", processedRecords));
             
+        } catch (StreamReadException e) {
+            return createErrorResult(startTime, "JSON parsing failed: " + e.getOriginalMessage());
         } catch (Exception e) {
             return createErrorResult(startTime, "JSON processing failed: " + e.getMessage());
         }
@@ -155,7 +113,7 @@ public class JsonDataProcessor<T> extends AbstractDataProcessor<T> {
                 }
                 
                 // Basic JSON validation
-                objectMapper.readTree(sampleContent);
+                StreamingJsonProcessor.readerFor(JsonNode.class, true).readTree(sampleContent);
                 
                 return ValidationResult.valid(lineCount); // Rough estimate
                 
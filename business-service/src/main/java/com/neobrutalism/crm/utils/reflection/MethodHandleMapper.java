@@ -100,6 +100,15 @@ public class MethodHandleMapper<T> {
         return accessor != null ? accessor.fieldType : null;
     }
     
+    /**
+     * Get raw setter handle (Bean, FieldType)void for a field name, null if unknown
+     * Used by CompiledRowBinder to build exact-typed setters once per column
+     */
+    public MethodHandle getSetterHandle(String fieldName) {
+        FieldAccessor accessor = fieldAccessors.get(fieldName);
+        return accessor != null ? accessor.setter : null;
+    }
+
     /**
      * Check if field exists
      */
@@ -0,0 +1,62 @@
+package com.neobrutalism.crm.utils.sax;
+
+import java.text.Normalizer;
+
+/**
+ * Field-name heuristics shared by the SAX content handler and CompiledRowBinder
+ *
+ * These depend only on the field name, so CompiledRowBinder evaluates them once per column
+ * when the header row closes instead of once per cell.
+ */
+final class CellValueHeuristics {
+
+    private CellValueHeuristics() {
+    }
+
+    /**
+     * Normalize field name: remove Vietnamese accents, spaces, lowercase
+     */
+    static String normalizeFieldName(String fieldName) {
+        if (fieldName == null || fieldName.isEmpty()) {
+            return "";
+        }
+
+        String normalized = Normalizer.normalize(fieldName, Normalizer.Form.NFD);
+        normalized = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        return normalized.toLowerCase().replaceAll("\\s+", "");
+    }
+
+    /**
+     * Check if field name suggests an identifier (CMND, phone, tax code, etc.)
+     */
+    static boolean isIdentifierFieldName(String fieldName) {
+        String normalizedFieldName = normalizeFieldName(fieldName);
+        return normalizedFieldName.contains("identity") ||
+               normalizedFieldName.contains("identitycard") ||
+               normalizedFieldName.contains("cmnd") ||
+               normalizedFieldName.contains("cccd") ||
+               normalizedFieldName.contains("passport") ||
+               normalizedFieldName.contains("phone") ||
+               normalizedFieldName.contains("phonenumber") ||
+               normalizedFieldName.contains("mobile") ||
+               normalizedFieldName.contains("tax") ||
+               normalizedFieldName.contains("taxcode") ||
+               normalizedFieldName.contains("mst") ||
+               normalizedFieldName.contains("account") ||
+               normalizedFieldName.contains("accountnumber") ||
+               normalizedFieldName.contains("code") ||
+               (normalizedFieldName.contains("number") && normalizedFieldName.contains("card"));
+    }
+
+    /**
+     * Check if field name suggests a percentage value
+     */
+    static boolean isPercentageFieldName(String fieldName) {
+        String normalized = normalizeFieldName(fieldName);
+        return normalized.contains("percent") ||
+               normalized.contains("rate") ||
+               normalized.contains("ratio") ||
+               normalized.contains("tile") || // Vietnamese: tỷ lệ
+               normalized.contains("phantram"); // Vietnamese: phần trăm
+    }
+}
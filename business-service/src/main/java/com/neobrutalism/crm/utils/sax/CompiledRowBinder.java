@@ -0,0 +1,545 @@
+package com.neobrutalism.crm.utils.sax;
+
+import com.neobrutalism.crm.utils.ExcelColumn;
+import com.neobrutalism.crm.utils.reflection.MethodHandleMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Column-index-addressed row binder, compiled once when the header row closes
+ *
+ * The legacy data path resolved every cell by scanning headerMapping, looking up the field type
+ * and annotation by name, NFD-normalizing the field name and going through TypeConverter's
+ * string-keyed cache. The binder moves all of that to compile time: slots[colIndex] holds an
+ * exact-typed setter and a parser specialized for the field type (String / int / long / double /
+ * LocalDate), so binding a cell is one array load plus a direct parse.
+ *
+ * Values the fast parsers do not recognize (currency, accounting, text dates, ...) go through
+ * the legacy normalization via {@link FallbackConverter}, so the bound values stay identical.
+ * Primitive fields are set without boxing; wrapper fields box exactly once at set time.
+ */
+@Slf4j
+public final class CompiledRowBinder<T> {
+
+    /**
+     * Legacy conversion path (smart normalization + TypeConverter) for values the slot parsers skip
+     */
+    @FunctionalInterface
+    public interface FallbackConverter {
+        Object convert(String value, String fieldName, Class<?> fieldType);
+    }
+
+    private static final double DAY_MILLISECONDS = 86_400_000d;
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 31);
+    private static final double MAX_EXCEL_SERIAL = 2958465;
+
+    private final ColumnSlot[] slots;
+    private final MethodHandle rowNumSetter;
+    private final boolean rowNumPrimitive;
+    private final int boundColumns;
+
+    private CompiledRowBinder(ColumnSlot[] slots, MethodHandle rowNumSetter, boolean rowNumPrimitive, int boundColumns) {
+        this.slots = slots;
+        this.rowNumSetter = rowNumSetter;
+        this.rowNumPrimitive = rowNumPrimitive;
+        this.boundColumns = boundColumns;
+    }
+
+    /**
+     * Compile binder from the header row
+     *
+     * Field resolution mirrors the legacy lookup: direct field name (camelCase header) first,
+     * then @ExcelColumn name, then any accessor name the mapper knows.
+     *
+     * @param headerMapping header text → column index, as collected by the SAX handler
+     */
+    public static <T> CompiledRowBinder<T> compile(Class<T> beanClass,
+                                                   Map<String, Integer> headerMapping,
+                                                   FallbackConverter fallback) {
+        MethodHandleMapper<T> mapper = MethodHandleMapper.forClass(beanClass);
+
+        int maxColumn = -1;
+        for (Integer colIndex : headerMapping.values()) {
+            maxColumn = Math.max(maxColumn, colIndex);
+        }
+
+        ColumnSlot[] slots = new ColumnSlot[maxColumn + 1];
+        int bound = 0;
+
+        for (Map.Entry<String, Integer> entry : headerMapping.entrySet()) {
+            String headerName = entry.getKey();
+            int colIndex = entry.getValue();
+
+            String fieldName = resolveFieldName(beanClass, mapper, headerName);
+            if (fieldName == null) {
+                continue;
+            }
+
+            Class<?> fieldType = mapper.getFieldType(fieldName);
+            MethodHandle setter = mapper.getSetterHandle(fieldName);
+            if (fieldType == null || setter == null) {
+                continue;
+            }
+
+            ExcelColumn annotation = findAnnotation(beanClass, fieldName);
+            boolean required = annotation != null && annotation.required();
+
+            slots[colIndex] = createSlot(fieldName, fieldType, setter, required, fallback);
+            bound++;
+        }
+
+        MethodHandle rowNumSetter = null;
+        boolean rowNumPrimitive = false;
+        Class<?> rowNumType = mapper.getFieldType("rowNum");
+        if (rowNumType == int.class || rowNumType == Integer.class) {
+            rowNumPrimitive = rowNumType == int.class;
+            rowNumSetter = mapper.getSetterHandle("rowNum")
+                .asType(MethodType.methodType(void.class, Object.class, rowNumPrimitive ? int.class : Integer.class));
+        }
+
+        log.debug("Compiled row binder for {}: {}/{} columns bound",
+                  beanClass.getSimpleName(), bound, headerMapping.size());
+
+        return new CompiledRowBinder<>(slots, rowNumSetter, rowNumPrimitive, bound);
+    }
+
+    /**
+     * Slot for a 0-based column index, null if the column is not bound to a field
+     */
+    public ColumnSlot slot(int colIndex) {
+        return colIndex >= 0 && colIndex < slots.length ? slots[colIndex] : null;
+    }
+
+    /**
+     * Set rowNum field (1-based) if the bean declares one
+     */
+    public void setRowNum(T instance, int rowNum) throws Throwable {
+        if (rowNumSetter == null) {
+            return;
+        }
+        if (rowNumPrimitive) {
+            rowNumSetter.invokeExact((Object) instance, rowNum);
+        } else {
+            rowNumSetter.invokeExact((Object) instance, Integer.valueOf(rowNum));
+        }
+    }
+
+    public int getBoundColumnCount() {
+        return boundColumns;
+    }
+
+    /**
+     * Compute 0-based column index from a cell reference ("A1" → 0, "AB12" → 27) without regex
+     */
+    public static int columnIndex(String cellReference) {
+        int colIndex = 0;
+        for (int i = 0, len = cellReference.length(); i < len; i++) {
+            char c = cellReference.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                colIndex = colIndex * 26 + (c - 'A' + 1);
+            } else if (c >= 'a' && c <= 'z') {
+                colIndex = colIndex * 26 + (c - 'a' + 1);
+            } else if (c >= '0' && c <= '9') {
+                break;
+            }
+        }
+        return colIndex - 1;
+    }
+
+    // ========== Compilation helpers ==========
+
+    private static <T> String resolveFieldName(Class<T> beanClass, MethodHandleMapper<T> mapper, String headerName) {
+        if (mapper.hasField(headerName) && isFieldNamePattern(headerName)) {
+            return headerName;
+        }
+
+        for (Field field : beanClass.getDeclaredFields()) {
+            ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+            if (annotation != null && headerName.equals(annotation.name()) && mapper.hasField(field.getName())) {
+                return field.getName();
+            }
+        }
+
+        return mapper.hasField(headerName) ? headerName : null;
+    }
+
+    private static boolean isFieldNamePattern(String name) {
+        return name != null && !name.isEmpty() && name.matches("^[a-zA-Z_][a-zA-Z0-9_]*$");
+    }
+
+    private static ExcelColumn findAnnotation(Class<?> beanClass, String fieldName) {
+        try {
+            return beanClass.getDeclaredField(fieldName).getAnnotation(ExcelColumn.class);
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private static ColumnSlot createSlot(String fieldName, Class<?> fieldType, MethodHandle setter,
+                                         boolean required, FallbackConverter fallback) {
+        if (fieldType == String.class) {
+            return new StringSlot(fieldName, required, fallback, setter,
+                                  CellValueHeuristics.isIdentifierFieldName(fieldName));
+        }
+        if (fieldType == int.class || fieldType == Integer.class) {
+            return new IntSlot(fieldName, fieldType, required, fallback, setter);
+        }
+        if (fieldType == long.class || fieldType == Long.class) {
+            return new LongSlot(fieldName, fieldType, required, fallback, setter);
+        }
+        if (fieldType == double.class || fieldType == Double.class) {
+            return new DoubleSlot(fieldName, fieldType, required, fallback, setter,
+                                  CellValueHeuristics.isPercentageFieldName(fieldName));
+        }
+        if (fieldType == LocalDate.class) {
+            return new LocalDateSlot(fieldName, required, fallback, setter);
+        }
+        return new FallbackSlot(fieldName, fieldType, required, fallback, setter);
+    }
+
+    // ========== Slots ==========
+
+    /**
+     * Per-column binding: field metadata resolved at compile time plus a type-specialized parser
+     */
+    public abstract static class ColumnSlot {
+        private final String fieldName;
+        private final Class<?> fieldType;
+        private final boolean required;
+        private final FallbackConverter fallback;
+
+        ColumnSlot(String fieldName, Class<?> fieldType, boolean required, FallbackConverter fallback) {
+            this.fieldName = fieldName;
+            this.fieldType = fieldType;
+            this.required = required;
+            this.fallback = fallback;
+        }
+
+        public String getFieldName() { return fieldName; }
+        public Class<?> getFieldType() { return fieldType; }
+        public boolean isRequired() { return required; }
+
+        /**
+         * Parse trimmed, non-empty value and set it on instance
+         */
+        public abstract void bind(Object instance, String value) throws Throwable;
+
+        Object fallback(String value) {
+            return fallback.convert(value, fieldName, fieldType);
+        }
+    }
+
+    private static final class StringSlot extends ColumnSlot {
+        private final MethodHandle setter;
+        private final boolean identifierField;
+
+        StringSlot(String fieldName, boolean required, FallbackConverter fallback,
+                   MethodHandle setter, boolean identifierField) {
+            super(fieldName, String.class, required, fallback);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, String.class));
+            this.identifierField = identifierField;
+        }
+
+        @Override
+        public void bind(Object instance, String value) throws Throwable {
+            String normalized = identifierField || looksLikeIdentifier(value) ? normalizeIdentifier(value) : value;
+            setter.invokeExact(instance, normalized);
+        }
+    }
+
+    private static final class IntSlot extends ColumnSlot {
+        private final MethodHandle setter;
+        private final boolean primitive;
+
+        IntSlot(String fieldName, Class<?> fieldType, boolean required, FallbackConverter fallback, MethodHandle setter) {
+            super(fieldName, fieldType, required, fallback);
+            this.primitive = fieldType == int.class;
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, primitive ? int.class : Integer.class));
+        }
+
+        @Override
+        public void bind(Object instance, String value) throws Throwable {
+            int parsed;
+            int dot = plainDecimalDot(value, true);
+            if (dot == NOT_PLAIN) {
+                Object converted = fallback(value);
+                if (converted == null) {
+                    return;
+                }
+                parsed = (Integer) converted;
+            } else if (dot >= 0) {
+                parsed = (int) Double.parseDouble(value);
+            } else {
+                try {
+                    parsed = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    // Overflow: let the legacy path raise its usual error
+                    parsed = (Integer) fallback(value);
+                }
+            }
+
+            if (primitive) {
+                setter.invokeExact(instance, parsed);
+            } else {
+                setter.invokeExact(instance, Integer.valueOf(parsed));
+            }
+        }
+    }
+
+    private static final class LongSlot extends ColumnSlot {
+        private final MethodHandle setter;
+        private final boolean primitive;
+
+        LongSlot(String fieldName, Class<?> fieldType, boolean required, FallbackConverter fallback, MethodHandle setter) {
+            super(fieldName, fieldType, required, fallback);
+            this.primitive = fieldType == long.class;
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, primitive ? long.class : Long.class));
+        }
+
+        @Override
+        public void bind(Object instance, String value) throws Throwable {
+            long parsed;
+            int dot = plainDecimalDot(value, true);
+            if (dot == NOT_PLAIN) {
+                Object converted = fallback(value);
+                if (converted == null) {
+                    return;
+                }
+                parsed = (Long) converted;
+            } else if (dot >= 0) {
+                parsed = (long) Double.parseDouble(value);
+            } else {
+                try {
+                    parsed = Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    parsed = (Long) fallback(value);
+                }
+            }
+
+            if (primitive) {
+                setter.invokeExact(instance, parsed);
+            } else {
+                setter.invokeExact(instance, Long.valueOf(parsed));
+            }
+        }
+    }
+
+    private static final class DoubleSlot extends ColumnSlot {
+        private final MethodHandle setter;
+        private final boolean primitive;
+        private final boolean percentageField;
+
+        DoubleSlot(String fieldName, Class<?> fieldType, boolean required, FallbackConverter fallback,
+                   MethodHandle setter, boolean percentageField) {
+            super(fieldName, fieldType, required, fallback);
+            this.primitive = fieldType == double.class;
+            this.percentageField = percentageField;
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, primitive ? double.class : Double.class));
+        }
+
+        @Override
+        public void bind(Object instance, String value) throws Throwable {
+            double parsed;
+            if (plainDecimalDot(value, true) == NOT_PLAIN) {
+                Object converted = fallback(value);
+                if (converted == null) {
+                    return;
+                }
+                parsed = (Double) converted;
+            } else {
+                parsed = Double.parseDouble(value);
+                // Same rule as the legacy normalizer: 0.15 → 15 for percentage-named fields
+                if (percentageField && parsed >= 0 && parsed <= 1) {
+                    parsed = parsed * 100;
+                }
+            }
+
+            if (primitive) {
+                setter.invokeExact(instance, parsed);
+            } else {
+                setter.invokeExact(instance, Double.valueOf(parsed));
+            }
+        }
+    }
+
+    private static final class LocalDateSlot extends ColumnSlot {
+        private final MethodHandle setter;
+
+        LocalDateSlot(String fieldName, boolean required, FallbackConverter fallback, MethodHandle setter) {
+            super(fieldName, LocalDate.class, required, fallback);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, LocalDate.class));
+        }
+
+        @Override
+        public void bind(Object instance, String value) throws Throwable {
+            LocalDate parsed = null;
+            if (plainDecimalDot(value, false) != NOT_PLAIN) {
+                parsed = excelSerialToLocalDate(Double.parseDouble(value));
+            }
+            if (parsed == null) {
+                parsed = (LocalDate) fallback(value);
+            }
+            setter.invokeExact(instance, parsed);
+        }
+    }
+
+    private static final class FallbackSlot extends ColumnSlot {
+        private final MethodHandle setter;
+
+        FallbackSlot(String fieldName, Class<?> fieldType, boolean required, FallbackConverter fallback, MethodHandle setter) {
+            super(fieldName, fieldType, required, fallback);
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        @Override
+        public void bind(Object instance, String value) throws Throwable {
+            Object converted = fallback(value);
+            if (converted == null && getFieldType().isPrimitive()) {
+                return;
+            }
+            setter.invokeExact(instance, converted);
+        }
+    }
+
+    // ========== Allocation-free parsing helpers ==========
+
+    private static final int NOT_PLAIN = -2;
+    private static final int NO_DOT = -1;
+
+    /**
+     * Check value is a plain decimal ([-]digits[.digits]) and return the dot position
+     *
+     * @return NOT_PLAIN if the value needs the legacy normalizer, NO_DOT for integers, else dot index
+     */
+    static int plainDecimalDot(String value, boolean allowMinus) {
+        int len = value.length();
+        int start = 0;
+        if (allowMinus && len > 1 && value.charAt(0) == '-') {
+            start = 1;
+        }
+        if (len == start || !isDigit(value.charAt(start))) {
+            return NOT_PLAIN;
+        }
+
+        int dot = NO_DOT;
+        for (int i = start + 1; i < len; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (dot != NO_DOT) {
+                    return NOT_PLAIN;
+                }
+                dot = i;
+            } else if (!isDigit(c)) {
+                return NOT_PLAIN;
+            }
+        }
+        return dot;
+    }
+
+    /**
+     * Excel 1900 date system serial → LocalDate, same result as DateUtil.getJavaDate
+     * (including the fake 1900-02-29 offset) without Calendar/Date allocation
+     *
+     * @return null if serial is outside the supported range
+     */
+    static LocalDate excelSerialToLocalDate(double serial) {
+        if (serial < 0 || serial >= MAX_EXCEL_SERIAL) {
+            return null;
+        }
+
+        long wholeDays = (long) Math.floor(serial);
+        long millisInDay = (long) ((serial - wholeDays) * DAY_MILLISECONDS + 0.5);
+        long dayAdjust = wholeDays < 61 ? 0 : -1;
+        long carry = millisInDay >= (long) DAY_MILLISECONDS ? 1 : 0;
+
+        return EXCEL_EPOCH.plusDays(wholeDays + dayAdjust + carry);
+    }
+
+    /**
+     * Same detection as the legacy looksLikeIdentifierValue without regex:
+     * scientific notation of a 10+ digit integer, 9-15 digit strings, or "123.0"
+     */
+    static boolean looksLikeIdentifier(String value) {
+        if (hasExponent(value) && isNumericLike(value)) {
+            try {
+                BigDecimal bd = new BigDecimal(value);
+                if (bd.scale() == 0 && bd.precision() > 9) {
+                    return true;
+                }
+            } catch (NumberFormatException ignored) {
+                // Not a number
+            }
+        }
+
+        int len = value.length();
+        int dot = plainDecimalDot(value, false);
+        if (dot == NO_DOT) {
+            return len >= 9 && len <= 15;
+        }
+        return dot > 0 && isZeroFraction(value, dot);
+    }
+
+    /**
+     * Same normalization as the legacy normalizeIdentifierValue:
+     * expand scientific notation, strip a zero fraction
+     */
+    static String normalizeIdentifier(String value) {
+        if (hasExponent(value)) {
+            if (!isNumericLike(value)) {
+                return value;
+            }
+            try {
+                String plainString = new BigDecimal(value).toPlainString();
+                if (plainString.endsWith(".0")) {
+                    plainString = plainString.substring(0, plainString.length() - 2);
+                }
+                return plainString;
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+
+        int dot = plainDecimalDot(value, false);
+        if (dot > 0 && isZeroFraction(value, dot)) {
+            return value.substring(0, dot);
+        }
+        return value;
+    }
+
+    private static boolean isZeroFraction(String value, int dot) {
+        int len = value.length();
+        if (dot == len - 1) {
+            return false;
+        }
+        for (int i = dot + 1; i < len; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasExponent(String value) {
+        return value.indexOf('E') >= 0 || value.indexOf('e') >= 0;
+    }
+
+    private static boolean isNumericLike(String value) {
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c) && c != '.' && c != 'E' && c != 'e' && c != '+' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,321 @@
+package com.neobrutalism.crm.utils.sax;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared strings table spilled to temp files instead of the heap
+ *
+ * POI's SharedStringsTable / ReadOnlySharedStringsTable keep every unique string of the workbook
+ * in memory before the first row is emitted. For 1-2M row workbooks that is hundreds of MB per job.
+ *
+ * Layout:
+ * - data file: UTF-8 bytes of each &lt;si&gt; item, back to back
+ * - index file: (uniqueCount + 1) longs, entry i = start offset of item i
+ * - LRU window: the most recently used decoded strings stay on heap (bounded by cacheSize)
+ *
+ * Both files are read with positional FileChannel reads (no memory mapping: a mapped file cannot
+ * be deleted on Windows until the mapping is garbage collected). The channels are opened with
+ * DELETE_ON_CLOSE and the files are marked deleteOnExit, so they are removed even if close()
+ * is never called.
+ *
+ * Heap usage is O(cacheSize) regardless of workbook size.
+ */
+@Slf4j
+public class FileBackedSharedStrings implements SharedStrings, Closeable {
+
+    public static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private static final String SPREADSHEETML_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(2 * Long.BYTES);
+    private final int count;
+    private final int uniqueCount;
+    private final Map<Integer, String> window;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(256);
+
+    private FileBackedSharedStrings(Path dataFile, Path indexFile, int count, int uniqueCount, int cacheSize)
+            throws IOException {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.count = count;
+        this.uniqueCount = uniqueCount;
+        this.dataChannel = dataFile != null ? openForRead(dataFile) : null;
+        try {
+            this.indexChannel = indexFile != null ? openForRead(indexFile) : null;
+        } catch (IOException e) {
+            dataChannel.close();
+            throw e;
+        }
+
+        int windowSize = Math.max(1, cacheSize);
+        this.window = new LinkedHashMap<>(Math.min(windowSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > windowSize;
+            }
+        };
+    }
+
+    /**
+     * Parse sharedStrings.xml with SAX and spill every item to temp files
+     *
+     * @param sharedStringsData sharedStrings part stream, closed once spilled (may be null if the workbook has no SST)
+     * @param cacheSize number of decoded strings kept in the LRU window
+     */
+    public static FileBackedSharedStrings load(InputStream sharedStringsData, int cacheSize) throws IOException {
+        if (sharedStringsData == null) {
+            return empty();
+        }
+
+        Path dataFile = Files.createTempFile("sst-", ".dat");
+        Path indexFile = Files.createTempFile("sst-", ".idx");
+        dataFile.toFile().deleteOnExit();
+        indexFile.toFile().deleteOnExit();
+
+        try {
+            SpillHandler handler;
+            try (InputStream in = sharedStringsData;
+                 DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(dataFile), 64 * 1024));
+                 DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(indexFile), 64 * 1024))) {
+
+                handler = new SpillHandler(dataOut, indexOut);
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(handler);
+                xmlReader.parse(new InputSource(in));
+
+                // Trailing end offset so item i spans [index[i], index[i + 1])
+                indexOut.writeLong(handler.offset);
+            }
+
+            int uniqueCount = handler.itemCount;
+            int count = handler.declaredCount > 0 ? handler.declaredCount : uniqueCount;
+
+            log.info("Spilled {} shared strings to temp file ({} KB on disk)",
+                     uniqueCount, Files.size(dataFile) / 1024);
+
+            return new FileBackedSharedStrings(dataFile, indexFile, count, uniqueCount, cacheSize);
+
+        } catch (Exception e) {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(indexFile);
+            if (e instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to spill shared strings table: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Empty table for workbooks that store all strings inline
+     */
+    public static FileBackedSharedStrings empty() {
+        try {
+            return new FileBackedSharedStrings(null, null, 0, 0, 1);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getString(idx));
+    }
+
+    /**
+     * Get plain string value of item idx (LRU window first, then temp file)
+     */
+    public synchronized String getString(int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new IndexOutOfBoundsException("Shared string index " + idx + " out of range [0, " + uniqueCount + ")");
+        }
+
+        String cached = window.get(idx);
+        if (cached != null) {
+            return cached;
+        }
+
+        String value = readFromDisk(idx);
+        window.put(idx, value);
+        return value;
+    }
+
+    private String readFromDisk(int idx) {
+        try {
+            // Entries idx and idx + 1: start and end offset of the item
+            indexEntry.clear();
+            readFully(indexChannel, indexEntry, idx * (long) Long.BYTES, idx);
+            long start = indexEntry.getLong(0);
+            int length = (int) (indexEntry.getLong(Long.BYTES) - start);
+
+            if (length == 0) {
+                return "";
+            }
+
+            if (readBuffer.capacity() < length) {
+                readBuffer = ByteBuffer.allocate(Math.max(length, readBuffer.capacity() * 2));
+            }
+            readBuffer.clear().limit(length);
+            readFully(dataChannel, readBuffer, start, idx);
+
+            return new String(readBuffer.array(), 0, length, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read shared string " + idx, e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, int idx) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of shared strings file at item " + idx);
+            }
+            position += read;
+        }
+    }
+
+    private static FileChannel openForRead(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    @Override
+    public synchronized void close() {
+        window.clear();
+        try {
+            if (dataChannel != null) {
+                dataChannel.close();
+            }
+            if (indexChannel != null) {
+                indexChannel.close();
+            }
+            // Already gone with DELETE_ON_CLOSE on most platforms
+            if (dataFile != null) {
+                Files.deleteIfExists(dataFile);
+            }
+            if (indexFile != null) {
+                Files.deleteIfExists(indexFile);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up shared strings temp files: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * SAX handler writing each &lt;si&gt; item (concatenated &lt;t&gt; runs, phonetic runs excluded)
+     */
+    private static class SpillHandler extends DefaultHandler {
+        private final DataOutputStream dataOut;
+        private final DataOutputStream indexOut;
+        private final StringBuilder characters = new StringBuilder(64);
+        private boolean inText = false;
+        private boolean inPhonetic = false;
+        private long offset = 0;
+        private int itemCount = 0;
+        private int declaredCount = -1;
+
+        SpillHandler(DataOutputStream dataOut, DataOutputStream indexOut) {
+            this.dataOut = dataOut;
+            this.indexOut = indexOut;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (uri != null && !uri.isEmpty() && !SPREADSHEETML_NS.equals(uri)) {
+                return;
+            }
+            switch (elementName(localName, qName)) {
+                case "sst" -> {
+                    String countAttr = attributes.getValue("count");
+                    if (countAttr != null) {
+                        try {
+                            declaredCount = Integer.parseInt(countAttr);
+                        } catch (NumberFormatException ignored) {
+                            // count is optional and informational only
+                        }
+                    }
+                }
+                case "si" -> characters.setLength(0);
+                case "t" -> inText = !inPhonetic;
+                case "rPh" -> inPhonetic = true;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws org.xml.sax.SAXException {
+            if (uri != null && !uri.isEmpty() && !SPREADSHEETML_NS.equals(uri)) {
+                return;
+            }
+            switch (elementName(localName, qName)) {
+                case "t" -> inText = false;
+                case "rPh" -> inPhonetic = false;
+                case "si" -> writeItem();
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                characters.append(ch, start, length);
+            }
+        }
+
+        private String elementName(String localName, String qName) {
+            if (localName != null && !localName.isEmpty()) {
+                return localName;
+            }
+            int colon = qName.indexOf(':');
+            return colon >= 0 ? qName.substring(colon + 1) : qName;
+        }
+
+        private void writeItem() throws org.xml.sax.SAXException {
+            try {
+                byte[] bytes = characters.toString().getBytes(StandardCharsets.UTF_8);
+                indexOut.writeLong(offset);
+                dataOut.write(bytes);
+                offset += bytes.length;
+                itemCount++;
+            } catch (IOException e) {
+                throw new org.xml.sax.SAXException("Failed to spill shared string " + itemCount, e);
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.neobrutalism.crm.utils.config.ExcelConfig;
 // import com.neobrutalism.crm.utils.validation.ExcelEarlyValidator; // Unused - disabled to prevent InputStream consumption
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 // Removed unused imports after refactor
@@ -14,6 +15,7 @@ import org.apache.poi.xssf.model.StylesTable;
 
 // import javax.xml.parsers.SAXParserFactory;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -27,13 +29,40 @@ public class TrueStreamingMultiSheetProcessor {
     private final Map<String, Class<?>> sheetClassMap;
     private final Map<String, Consumer<List<?>>> sheetProcessors;
     private final ExcelConfig config;
+    private final Map<String, Long> expectedRowCounts;
+    private final Map<String, Long> resumeRows;
     
     public TrueStreamingMultiSheetProcessor(Map<String, Class<?>> sheetClassMap, 
                                           Map<String, Consumer<List<?>>> sheetProcessors,
                                           ExcelConfig config) {
+        this(sheetClassMap, sheetProcessors, config, Collections.emptyMap());
+    }
+
+    /**
+     * @param expectedRowCounts data rows per sheet known upfront (ExcelMetadataParser),
+     *                          used when a sheet has no &lt;dimension&gt; element
+     */
+    public TrueStreamingMultiSheetProcessor(Map<String, Class<?>> sheetClassMap,
+                                          Map<String, Consumer<List<?>>> sheetProcessors,
+                                          ExcelConfig config,
+                                          Map<String, Long> expectedRowCounts) {
+        this(sheetClassMap, sheetProcessors, config, expectedRowCounts, Collections.emptyMap());
+    }
+
+    /**
+     * @param resumeRows data rows per sheet already committed by a previous run (checkpoint),
+     *                   skipped in the SAX handler without building beans
+     */
+    public TrueStreamingMultiSheetProcessor(Map<String, Class<?>> sheetClassMap,
+                                          Map<String, Consumer<List<?>>> sheetProcessors,
+                                          ExcelConfig config,
+                                          Map<String, Long> expectedRowCounts,
+                                          Map<String, Long> resumeRows) {
         this.sheetClassMap = sheetClassMap;
         this.sheetProcessors = sheetProcessors;
         this.config = config;
+        this.expectedRowCounts = expectedRowCounts != null ? expectedRowCounts : Collections.emptyMap();
+        this.resumeRows = resumeRows != null ? resumeRows : Collections.emptyMap();
     }
     
     /**
@@ -41,8 +70,6 @@ public class TrueStreamingMultiSheetProcessor {
      */
     public Map<String, TrueStreamingSAXProcessor.ProcessingResult> processTrueStreaming(InputStream inputStream) 
             throws Exception {
-        
-        Map<String, TrueStreamingSAXProcessor.ProcessingResult> results = new HashMap<>();
 
         // ❌ DISABLED: Early validation consumes InputStream even after reset
         // ExcelMigrationService already validates file before calling this processor
@@ -58,16 +85,43 @@ public class TrueStreamingMultiSheetProcessor {
                 sheetClassMap.size());
         
         try (OPCPackage opcPackage = OPCPackage.open(inputStream)) {
-            XSSFReader xssfReader = new XSSFReader(opcPackage);
-            org.apache.poi.xssf.model.SharedStringsTable sharedStringsTable =
-                (org.apache.poi.xssf.model.SharedStringsTable) xssfReader.getSharedStringsTable();
-            StylesTable stylesTable = xssfReader.getStylesTable();
-            
-            // ✅ NOTE: sharedStringsTable can be null if Excel file doesn't use shared strings
-            // This is normal for small files or files created by certain tools
-            if (sharedStringsTable == null) {
-                log.warn("⚠️ SharedStringsTable is null - file may not use shared strings (this is OK)");
-            }
+            return processPackage(opcPackage);
+        }
+    }
+
+    /**
+     * Process multiple sheets from a workbook already stored on disk
+     *
+     * ✅ MEMORY: ZipFile-backed OPCPackage (no full zip inflation into heap) and
+     * shared strings spilled to a temp file - peak heap stays flat for 1-2M row workbooks
+     */
+    public Map<String, TrueStreamingSAXProcessor.ProcessingResult> processTrueStreaming(Path excelFile)
+            throws Exception {
+
+        log.info("Processing {} sheets with true streaming from file {}...",
+                sheetClassMap.size(), excelFile.getFileName());
+
+        OPCPackage opcPackage = OPCPackage.open(excelFile.toFile(), PackageAccess.READ);
+        try {
+            return processPackage(opcPackage);
+        } finally {
+            // READ packages must be reverted, close() would try to save
+            opcPackage.revert();
+        }
+    }
+
+    private Map<String, TrueStreamingSAXProcessor.ProcessingResult> processPackage(OPCPackage opcPackage)
+            throws Exception {
+
+        Map<String, TrueStreamingSAXProcessor.ProcessingResult> results = new HashMap<>();
+
+        XSSFReader xssfReader = new XSSFReader(opcPackage);
+        StylesTable stylesTable = xssfReader.getStylesTable();
+
+        // ✅ Shared strings spilled to temp file with LRU window instead of full in-heap table
+        // NOTE: sharedStringsData can be null if Excel file doesn't use shared strings (this is OK)
+        try (FileBackedSharedStrings sharedStrings = FileBackedSharedStrings.load(
+                xssfReader.getSharedStringsData(), config.getSharedStringsCacheSize())) {
 
             XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
 
@@ -78,9 +132,6 @@ public class TrueStreamingMultiSheetProcessor {
                 try (InputStream sheetStream = sheetIterator.next()) {
                     String sheetName = sheetIterator.getSheetName();
 
-                    log.info("🔍 Got sheet stream for '{}', available bytes: {}",
-                             sheetName, sheetStream != null ? sheetStream.available() : "NULL");
-
                     Class<?> beanClass = sheetClassMap.get(sheetName);
                     Consumer<List<?>> sheetProcessor = sheetProcessors.get(sheetName);
 
@@ -93,11 +144,13 @@ public class TrueStreamingMultiSheetProcessor {
                     
                     // Create true streaming processor for this sheet
                     TrueStreamingSAXProcessor<?> processor = createProcessorForSheet(
-                        beanClass, sheetProcessor, config);
+                        beanClass, sheetProcessor, config)
+                        .skipDataRows(resumeRows.getOrDefault(sheetName, 0L));
                     
-                    // Process sheet với true streaming
-                    TrueStreamingSAXProcessor.ProcessingResult result = 
-                        processSheetWithSAX(sheetStream, processor, stylesTable, sharedStringsTable, dataFormatter);
+                    // Process sheet với true streaming - SAX reads the zip entry stream directly
+                    TrueStreamingSAXProcessor.ProcessingResult result = processor.processSheetStream(
+                        sheetStream, stylesTable, sharedStrings, dataFormatter,
+                        expectedRowCounts.getOrDefault(sheetName, -1L));
                     
                     results.put(sheetName, result);
                     
@@ -136,7 +189,7 @@ public class TrueStreamingMultiSheetProcessor {
         
         // Create temporary processor with collecting wrappers
         TrueStreamingMultiSheetProcessor tempProcessor = new TrueStreamingMultiSheetProcessor(
-            sheetClassMap, collectingProcessors, config);
+            sheetClassMap, collectingProcessors, config, expectedRowCounts, resumeRows);
         
         Map<String, TrueStreamingSAXProcessor.ProcessingResult> streamingResults = 
             tempProcessor.processTrueStreaming(inputStream);
@@ -181,19 +234,4 @@ public class TrueStreamingMultiSheetProcessor {
             typedProcessor
         );
     }
-    
-    /**
-     * Process single sheet using SAX with streaming
-     * Uses shared styles/strings/dataFormatter from the already-opened OPCPackage
-     */
-    private TrueStreamingSAXProcessor.ProcessingResult processSheetWithSAX(
-            InputStream sheetStream,
-            TrueStreamingSAXProcessor<?> processor,
-            StylesTable stylesTable,
-            org.apache.poi.xssf.model.SharedStringsTable sharedStringsTable,
-            DataFormatter dataFormatter) throws Exception {
-        
-        // Use processor's new method to process sheet stream with shared resources
-        return processor.processSheetStream(sheetStream, stylesTable, sharedStringsTable, dataFormatter);
-    }
-}
\ No newline at end of file
+}
@@ -2,29 +2,45 @@ package com.neobrutalism.crm.utils.sax;
 
 import com.neobrutalism.crm.utils.ExcelColumn;
 import com.neobrutalism.crm.utils.config.ExcelConfig;
+import com.neobrutalism.crm.utils.csv.CsvRecordCursor;
+import com.neobrutalism.crm.utils.csv.MappedCsvFile;
 import com.neobrutalism.crm.utils.converter.TypeConverter;
 import com.neobrutalism.crm.utils.reflection.MethodHandleMapper;
 import com.neobrutalism.crm.utils.validation.ValidationRule;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.SharedStrings;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.commons.io.input.CountingInputStream;
+import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.SAXParserFactory;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Field;
-import java.text.Normalizer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -55,6 +71,20 @@ public class TrueStreamingSAXProcessor<T> {
 
     // ✅ Error tracking: Store validation errors for reporting
     private final List<ValidationError> validationErrors = new ArrayList<>();
+
+    // ✅ Resume: data rows already committed by a previous run, skipped without building beans
+    private long skipDataRows = 0;
+    private final AtomicLong totalSkipped = new AtomicLong(0);
+
+    // ✅ Set when batchProcessor fails: the row handler stops the parse instead of reading on
+    private volatile BatchAbortedException batchFailure;
+
+    // ✅ Pipelined callers run the row rules themselves (validateRows) off the parsing thread
+    private boolean deferValidation = false;
+
+    // CSV byte ranges: small enough that the ranges parsed ahead of delivery stay a few MB each
+    private static final long MIN_CSV_RANGE_BYTES = 256L << 10;
+    private static final long MAX_CSV_RANGE_BYTES = 4L << 20;
     
     public TrueStreamingSAXProcessor(Class<T> beanClass, ExcelConfig config, 
                                    List<ValidationRule> validationRules, 
@@ -103,6 +133,101 @@ public class TrueStreamingSAXProcessor<T> {
         }
     }
     
+    /**
+     * Resume after a checkpoint: the first {@code dataRows} non-empty data rows are skipped.
+     * Skipped rows only check whether a mapped column has a value (same rule as empty-row
+     * detection), no instance is created, no value is converted or validated.
+     */
+    public TrueStreamingSAXProcessor<T> skipDataRows(long dataRows) {
+        this.skipDataRows = Math.max(0, dataRows);
+        return this;
+    }
+
+    /**
+     * Leave required-field, field-rule and global-rule checks to the caller ({@link #validateRows}).
+     * Unique-field checks depend on row order and still run while parsing.
+     */
+    public TrueStreamingSAXProcessor<T> deferValidation() {
+        this.deferValidation = true;
+        return this;
+    }
+
+    /**
+     * Run the per-row rules skipped by {@link #deferValidation} on a delivered batch
+     *
+     * Thread-safe: batches may be validated concurrently and out of order. The row reported to
+     * the rules is taken from the bean's rowNum field (-1 when the bean has none).
+     *
+     * @return Number of failed checks in the batch
+     */
+    public long validateRows(List<T> batch) {
+        long failures = 0;
+        for (T instance : batch) {
+            failures += validateRow(instance, sheetRowOf(instance));
+        }
+        return failures;
+    }
+
+    private int sheetRowOf(T instance) {
+        if (methodHandleMapper.hasField("rowNum")
+            && methodHandleMapper.getFieldValue(instance, "rowNum") instanceof Number rowNum) {
+            return rowNum.intValue() - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Required fields, custom field rules and global rules for one row (no per-parse state)
+     *
+     * @return Number of failed checks
+     */
+    private int validateRow(T instance, int rowNum) {
+        int failures = 0;
+        try {
+            // Required fields validation
+            for (String requiredField : config.getRequiredFields()) {
+                if (methodHandleMapper.hasField(requiredField)) {
+                    Object value = methodHandleMapper.getFieldValue(instance, requiredField);
+                    if (value == null || (value instanceof String && ((String) value).trim().isEmpty())) {
+                        log.warn("Required field '{}' is empty at row {}", requiredField, rowNum);
+                        failures++;
+                    }
+                }
+            }
+
+            // Custom field validation rules
+            for (Map.Entry<String, ValidationRule> entry : config.getFieldValidationRules().entrySet()) {
+                String fieldName = entry.getKey();
+                ValidationRule rule = entry.getValue();
+                if (methodHandleMapper.hasField(fieldName)) {
+                    Object value = methodHandleMapper.getFieldValue(instance, fieldName);
+                    if (value != null) {
+                        var result = rule.validate(fieldName, value, rowNum, 0);
+                        if (!result.isValid()) {
+                            log.warn("Validation failed for field '{}' with value '{}' at row {}: {}",
+                                    fieldName, value, rowNum, result.getErrorMessage());
+                            failures++;
+                        }
+                    }
+                }
+            }
+
+            // Global validation rules
+            for (ValidationRule rule : config.getGlobalValidationRules()) {
+                var result = rule.validate("global", instance, rowNum, 0);
+                if (!result.isValid()) {
+                    log.warn("Global validation failed for instance at row {}: {}", rowNum, result.getErrorMessage());
+                    failures++;
+                }
+            }
+
+        } catch (Exception e) {
+            log.error("Validation error at row {}: {}", rowNum, e.getMessage());
+            failures++;
+        }
+        return failures;
+    }
+
     /**
      * Get ExcelColumn annotation for a field name
      */
@@ -158,30 +283,72 @@ public class TrueStreamingSAXProcessor<T> {
     
     /**
      * Process Excel với true streaming - không tích lũy kết quả
+     *
+     * OPCPackage.open(InputStream) would inflate the whole zip into heap, so the stream is
+     * spooled to a temp file and read through processExcelFile(Path).
+     * Prefer processExcelFile(Path) when the workbook is already on disk.
      */
     public ProcessingResult processExcelStreamTrue(InputStream inputStream) throws Exception {
-        
-        try (OPCPackage opcPackage = OPCPackage.open(inputStream)) {
-            XSSFReader xssfReader = new XSSFReader(opcPackage);
-            org.apache.poi.xssf.model.SharedStringsTable sharedStringsTable = 
-                (org.apache.poi.xssf.model.SharedStringsTable) xssfReader.getSharedStringsTable();
-            StylesTable stylesTable = xssfReader.getStylesTable();
-            
+        Path spooled = spoolToTempFile(inputStream);
+        try {
+            return processExcelFile(spooled);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    /**
+     * Copy a workbook stream to a temp file so it can be opened file-backed; caller deletes it
+     */
+    public static Path spoolToTempFile(InputStream inputStream) throws IOException {
+        Path file = Files.createTempFile("xlsx-upload-", ".xlsx");
+        try {
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Process Excel file from disk với true streaming
+     *
+     * ✅ MEMORY: OPCPackage is backed by ZipFile (entries inflated on demand from the FileChannel)
+     * and shared strings are spilled to a temp file, so peak heap does not grow with workbook size
+     */
+    public ProcessingResult processExcelFile(Path excelFile) throws Exception {
+        OPCPackage opcPackage = OPCPackage.open(excelFile.toFile(), PackageAccess.READ);
+        try {
+            return processFirstSheet(opcPackage);
+        } finally {
+            // READ packages must be reverted, close() would try to save
+            opcPackage.revert();
+        }
+    }
+
+    private ProcessingResult processFirstSheet(OPCPackage opcPackage) throws Exception {
+        XSSFReader xssfReader = new XSSFReader(opcPackage);
+        StylesTable stylesTable = xssfReader.getStylesTable();
+
+        try (FileBackedSharedStrings sharedStrings = FileBackedSharedStrings.load(
+                xssfReader.getSharedStringsData(), config.getSharedStringsCacheSize())) {
+
             // True streaming content handler - xử lý từng batch ngay
             TrueStreamingContentHandler contentHandler = new TrueStreamingContentHandler();
-            
-            // Setup SAX parser with proper date formatting
-            XMLReader xmlReader = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
-            
+
+            // Setup SAX parser with namespace awareness (XSSFSheetXMLHandler ignores non-SpreadsheetML elements)
+            XMLReader xmlReader = XMLHelper.newXMLReader();
+
             // Create custom DataFormatter that returns serial number for date cells
             // This allows us to parse date in any format we want from the serial number
             SerialNumberDataFormatter dataFormatter = new SerialNumberDataFormatter();
-            
+
             XSSFSheetXMLHandler sheetHandler = new XSSFSheetXMLHandler(
-                stylesTable, sharedStringsTable, contentHandler, dataFormatter, false
+                stylesTable, sharedStrings, contentHandler, dataFormatter, false
             );
             xmlReader.setContentHandler(sheetHandler);
-            
+
             // Process first sheet với true streaming
             XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
             if (sheetIterator.hasNext()) {
@@ -189,7 +356,7 @@ public class TrueStreamingSAXProcessor<T> {
                     xmlReader.parse(new InputSource(sheetStream));
                 }
             }
-            
+
             // Flush remaining batch
             contentHandler.flushRemainingBatch();
         }
@@ -197,7 +364,7 @@ public class TrueStreamingSAXProcessor<T> {
         long processingTime = System.currentTimeMillis() - startTime;
 
         // Throw if no data rows were processed
-        if (totalProcessed.get() == 0) {
+        if (totalProcessed.get() == 0 && totalSkipped.get() == 0) {
             throw new RuntimeException("Tập không có dữ liệu");
         }
 
@@ -212,80 +379,42 @@ public class TrueStreamingSAXProcessor<T> {
     /**
      * Process a single sheet stream with provided shared resources (styles, strings, formatter)
      * This is used by TrueStreamingMultiSheetProcessor to avoid reopening OPCPackage for each sheet
+     *
+     * ✅ TRUE STREAMING: SAX parses directly from the zip entry stream - the sheet XML is never
+     * buffered as byte[] / String. Row count comes from the sheet &lt;dimension&gt; element
+     * (captured during the same parse) or from expectedRows (ExcelMetadataParser) as fallback.
+     *
+     * @param expectedRows data row count known upfront (e.g. MigrationSheet.totalRows), or -1 if unknown
      */
     public ProcessingResult processSheetStream(
             InputStream sheetStream,
             StylesTable stylesTable,
-            org.apache.poi.xssf.model.SharedStringsTable sharedStringsTable,
-            DataFormatter dataFormatter) throws Exception {
-        
-        // ✅ FIX: Read entire stream into memory to ensure it's fully available
-        // POI's XSSFSheetXMLHandler may need the full stream available
-        byte[] sheetData = sheetStream.readAllBytes();
-        log.info("🔍 Read sheet stream: {} bytes", sheetData.length);
-        
-        // ✅ DEBUG: Check first bytes to verify it's XML
-        if (sheetData.length > 0) {
-            String preview = new String(sheetData, 0, Math.min(100, sheetData.length), java.nio.charset.StandardCharsets.UTF_8);
-            log.info("🔍 First {} bytes: {}", Math.min(100, sheetData.length), preview.substring(0, Math.min(50, preview.length())));
-            
-            // ✅ DEBUG: Check if XML contains row elements
-            String fullXml = new String(sheetData, java.nio.charset.StandardCharsets.UTF_8);
-            boolean hasRow = fullXml.contains("<row") || fullXml.contains("<r>");
-            int rowCount = (fullXml.split("<row")).length - 1;
-            log.info("🔍 XML contains row elements: {}, approximate row count: {}", hasRow, rowCount);
-            if (!hasRow && sheetData.length > 500) {
-                // Log more XML content if no rows found
-                log.warn("🔍 XML content (first 500 chars): {}", fullXml.substring(0, Math.min(500, fullXml.length())));
-            }
-        }
-        
-        // Create new InputStream from byte array to ensure fresh stream
-        ByteArrayInputStream sheetInputStream = new ByteArrayInputStream(sheetData);
-        
-        // ✅ DEBUG: Check shared resources
-        log.info("🔍 Shared resources: stylesTable={}, sharedStringsTable={}, dataFormatter={}",
-                 stylesTable != null ? "OK" : "NULL",
-                 sharedStringsTable != null ? "OK" : "NULL",
-                 dataFormatter != null ? "OK" : "NULL");
-        
+            SharedStrings sharedStringsTable,
+            DataFormatter dataFormatter,
+            long expectedRows) throws Exception {
+
+        CountingInputStream countingStream = new CountingInputStream(sheetStream);
+
         // True streaming content handler - xử lý từng batch ngay
         TrueStreamingContentHandler contentHandler = new TrueStreamingContentHandler();
-        
+
         // Setup SAX parser with namespace awareness (required for Excel XML)
         SAXParserFactory saxFactory = SAXParserFactory.newInstance();
         saxFactory.setNamespaceAware(true);
         saxFactory.setValidating(false);
         XMLReader xmlReader = saxFactory.newSAXParser().getXMLReader();
-        
-        // ✅ DEBUG: Set error handler to catch any parsing issues
-        xmlReader.setErrorHandler(new org.xml.sax.ErrorHandler() {
-            @Override
-            public void warning(org.xml.sax.SAXParseException e) {
-                log.warn("🔍 SAX warning: {}", e.getMessage());
-            }
-            @Override
-            public void error(org.xml.sax.SAXParseException e) {
-                log.error("🔍 SAX error: {}", e.getMessage(), e);
-            }
-            @Override
-            public void fatalError(org.xml.sax.SAXParseException e) {
-                log.error("🔍 SAX fatal error: {}", e.getMessage(), e);
-            }
-        });
-        
+
         XSSFSheetXMLHandler sheetHandler = new XSSFSheetXMLHandler(
             stylesTable, sharedStringsTable, contentHandler, dataFormatter, false
         );
-        xmlReader.setContentHandler(sheetHandler);
+        DimensionCapturingHandler dimensionHandler = new DimensionCapturingHandler(sheetHandler);
+        xmlReader.setContentHandler(dimensionHandler);
 
         // Process sheet stream directly
-        log.info("🔍 About to parse sheet stream with SAX...");
         try {
-            xmlReader.parse(new InputSource(sheetInputStream));
-            log.info("🔍 SAX parsing completed. totalProcessed={}", totalProcessed.get());
+            xmlReader.parse(new InputSource(countingStream));
         } catch (Exception e) {
-            log.error("🔍 SAX parsing failed", e);
+            log.error("SAX parsing failed after {} rows", totalProcessed.get(), e);
             throw e;
         }
 
@@ -295,18 +424,288 @@ public class TrueStreamingSAXProcessor<T> {
         long processingTime = System.currentTimeMillis() - startTime;
 
         // Throw if no data rows were processed
-        if (totalProcessed.get() == 0) {
+        if (totalProcessed.get() == 0 && totalSkipped.get() == 0) {
             throw new RuntimeException("Tập không có dữ liệu");
         }
 
+        long declaredRows = dimensionHandler.getDataRowCount(config.getStartRow());
+        long sheetXmlBytes = countingStream.getByteCount();
+
+        log.info("Streamed sheet XML: {} KB, rows declared={} (dimension), expected={} (metadata), processed={}, skipped={} (checkpoint)",
+                 sheetXmlBytes / 1024, declaredRows, expectedRows, totalProcessed.get(), totalSkipped.get());
+
         return new ProcessingResult(
             totalProcessed.get(),
             totalErrors.get(),
             processingTime,
-            new ArrayList<>(validationErrors)
+            new ArrayList<>(validationErrors),
+            declaredRows >= 0 ? declaredRows : expectedRows,
+            sheetXmlBytes,
+            estimateBufferedHeapBytes(sheetXmlBytes)
         );
     }
 
+    /**
+     * @see #processSheetStream(InputStream, StylesTable, SharedStrings, DataFormatter, long)
+     */
+    public ProcessingResult processSheetStream(
+            InputStream sheetStream,
+            StylesTable stylesTable,
+            SharedStrings sharedStringsTable,
+            DataFormatter dataFormatter) throws Exception {
+        return processSheetStream(sheetStream, stylesTable, sharedStringsTable, dataFormatter, -1);
+    }
+
+    /**
+     * Process a CSV file with the same binder, validations and batch contract as the Excel paths
+     *
+     * ✅ PARALLEL: the file is memory-mapped and split into record-aligned byte ranges (quote-aware,
+     * see MappedCsvFile); ranges are tokenized in place and bound on config.threadPoolSize workers,
+     * each with its own content handler sharing the compiled row binder. Batches reach batchProcessor
+     * on the calling thread in file order and in config.batchSize chunks, so consumers and checkpoints
+     * (skipDataRows) behave exactly as with a sheet. Unique-field duplicates are resolved in file order
+     * too: the lowest row of a value is kept and every later row is flagged, whichever range finishes first.
+     *
+     * Record indexes play the role of sheet rows: the header is record config.startRow, rowNum fields
+     * and error reports are 1-based. Empty fields are blank cells. Delimiter from config.delimiter
+     * (single character), quote '"', UTF-8 (a BOM is skipped).
+     */
+    public ProcessingResult processCsvFile(Path csvFile) throws Exception {
+        String delimiter = config.getDelimiter();
+        if (delimiter == null || delimiter.length() != 1) {
+            throw new IllegalArgumentException("CSV delimiter must be a single character: '" + delimiter + "'");
+        }
+        int parallelism = config.isParallelProcessing() ? Math.max(1, config.getThreadPoolSize()) : 1;
+
+        try (MappedCsvFile csv = MappedCsvFile.open(csvFile, delimiter.charAt(0), '"', StandardCharsets.UTF_8)) {
+            // Header: rows before config.startRow are ignored by the handler
+            TrueStreamingContentHandler leadHandler = new TrueStreamingContentHandler();
+            CsvRecordCursor lead = csv.cursor(csv.dataStart(), 0);
+            while (!leadHandler.headerProcessed && lead.nextRecord()) {
+                feedCsvRecord(leadHandler, lead);
+            }
+            if (!leadHandler.headerProcessed) {
+                throw new RuntimeException("Tập không có dữ liệu");
+            }
+
+            long rangeBytes = Math.max(MIN_CSV_RANGE_BYTES,
+                Math.min(MAX_CSV_RANGE_BYTES, (csv.size() - lead.position()) / (parallelism * 8L)));
+            List<MappedCsvFile.Range> ranges = new ArrayList<>(
+                csv.split(lead.position(), lead.recordIndex() + 1, rangeBytes));
+            long dataRecords = ranges.stream().mapToLong(MappedCsvFile.Range::records).sum();
+
+            // Checkpointed rows: skipped sequentially, the first parsed range starts after the last committed row
+            int first = 0;
+            while (!leadHandler.isReadyForData() && first < ranges.size()) {
+                MappedCsvFile.Range range = ranges.get(first);
+                CsvRecordCursor cursor = csv.cursor(range);
+                while (!leadHandler.isReadyForData() && cursor.nextRecord()) {
+                    feedCsvRecord(leadHandler, cursor);
+                }
+                if (cursor.position() < range.end()) {
+                    long consumed = cursor.recordIndex() + 1 - range.firstRecord();
+                    ranges.set(first, new MappedCsvFile.Range(cursor.position(), range.end(),
+                                                               cursor.recordIndex() + 1, range.records() - consumed));
+                } else {
+                    first++;
+                }
+            }
+
+            List<MappedCsvFile.Range> work = ranges.subList(first, ranges.size());
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                Deque<Future<ParsedCsvRange<T>>> inFlight = new ArrayDeque<>();
+                List<T> carry = new ArrayList<>(config.getBatchSize());
+                int next = 0;
+                while (next < work.size() || !inFlight.isEmpty()) {
+                    // Parse ahead by at most two ranges per worker (bounds the beans waiting for delivery)
+                    while (next < work.size() && inFlight.size() < parallelism * 2) {
+                        MappedCsvFile.Range range = work.get(next++);
+                        inFlight.add(pool.submit(() -> parseCsvRange(csv, range, leadHandler)));
+                    }
+                    ParsedCsvRange<T> parsed = awaitCsvRange(inFlight.poll());
+                    leadHandler.mergeUniqueRows(parsed.firstUniqueRows());
+                    carry = deliverInFileOrder(parsed.batches(), carry);
+                }
+                if (!carry.isEmpty()) {
+                    deliverBatch(carry);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            log.info("Parsed CSV {}: {} KB in {} ranges on {} threads, processed={}, skipped={} (checkpoint)",
+                     csvFile.getFileName(), csv.size() / 1024, work.size(), parallelism,
+                     totalProcessed.get(), totalSkipped.get());
+
+            if (totalProcessed.get() == 0 && totalSkipped.get() == 0) {
+                throw new RuntimeException("Tập không có dữ liệu");
+            }
+
+            return new ProcessingResult(
+                totalProcessed.get(),
+                totalErrors.get(),
+                System.currentTimeMillis() - startTime,
+                new ArrayList<>(validationErrors),
+                dataRecords,
+                0,
+                0
+            );
+        }
+    }
+
+    /**
+     * Batches of one CSV range and the first row of each unique-field value within it
+     */
+    private record ParsedCsvRange<B>(List<List<B>> batches, Map<String, Integer> firstUniqueRows) {
+    }
+
+    /**
+     * Tokenize and bind one range on a worker; batches are collected, not delivered, and
+     * unique-field values are only checked within the range (merged in file order by the caller)
+     */
+    private ParsedCsvRange<T> parseCsvRange(MappedCsvFile csv, MappedCsvFile.Range range,
+                                            TrueStreamingContentHandler leadHandler) throws IOException {
+        List<List<T>> batches = new ArrayList<>();
+        Map<String, Integer> firstUniqueRows = new HashMap<>();
+        TrueStreamingContentHandler handler = new TrueStreamingContentHandler(batches::add, firstUniqueRows);
+        handler.adoptHeader(leadHandler);
+
+        CsvRecordCursor cursor = csv.cursor(range);
+        while (cursor.nextRecord()) {
+            feedCsvRecord(handler, cursor);
+        }
+        handler.processBatch();
+        return new ParsedCsvRange<>(batches, firstUniqueRows);
+    }
+
+    /**
+     * Drive one CSV record through the content handler as if it were a sheet row
+     */
+    private void feedCsvRecord(TrueStreamingContentHandler handler, CsvRecordCursor cursor) {
+        int rowNum = Math.toIntExact(cursor.recordIndex());
+        handler.startRow(rowNum);
+        for (int col = 0; col < cursor.fieldCount(); col++) {
+            // Empty field = blank cell (no cell event, like XSSF); unbound columns are never decoded
+            if (!cursor.isEmpty(col) && handler.isColumnMapped(col)) {
+                handler.cell(col, cursor.field(col));
+            }
+        }
+        handler.endRow(rowNum);
+    }
+
+    private ParsedCsvRange<T> awaitCsvRange(Future<ParsedCsvRange<T>> range) throws Exception {
+        try {
+            return range.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Re-chunk a range's batches to config.batchSize; the partial batch a range ends with
+     * is carried over to the next one
+     */
+    private List<T> deliverInFileOrder(List<List<T>> batches, List<T> carry) {
+        int batchSize = config.getBatchSize();
+        for (List<T> batch : batches) {
+            if (carry.isEmpty() && batch.size() >= batchSize) {
+                deliverBatch(batch);
+                continue;
+            }
+            for (T row : batch) {
+                carry.add(row);
+                if (carry.size() >= batchSize) {
+                    deliverBatch(carry);
+                    carry = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        return carry;
+    }
+
+    /**
+     * Hand a batch to batchProcessor; a failing batch counts all its rows as errors and aborts
+     * the parse (the failure reaches the caller of processExcelFile / processSheetStream)
+     */
+    private void deliverBatch(List<T> batch) {
+        if (batchFailure != null) {
+            throw batchFailure;
+        }
+        if (batch.isEmpty() || batchProcessor == null) {
+            return;
+        }
+        try {
+            batchProcessor.accept(batch);
+            log.debug("Processed batch of {} records", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Error processing batch, aborting parse after {} rows: {}", totalProcessed.get(), e.getMessage(), e);
+            totalErrors.addAndGet(batch.size());
+            batchFailure = new BatchAbortedException("Batch of " + batch.size() + " records failed: " + e.getMessage(), e);
+            throw batchFailure;
+        }
+    }
+
+    /**
+     * Heap the buffered approach needed for one sheet: byte[] copy + decoded String
+     * (2 bytes/char worst case) + the split("&lt;row") fragments, all alive at the same time
+     */
+    private static long estimateBufferedHeapBytes(long sheetXmlBytes) {
+        return sheetXmlBytes + 2 * sheetXmlBytes + sheetXmlBytes;
+    }
+
+    /**
+     * Delegating SAX handler - captures &lt;dimension ref="A1:AH1000001"/&gt; while forwarding
+     * every event to POI's XSSFSheetXMLHandler (single pass, no extra buffering)
+     */
+    private static class DimensionCapturingHandler extends DefaultHandler {
+        private final DefaultHandler delegate;
+        private String dimensionRef;
+
+        DimensionCapturingHandler(DefaultHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            if (dimensionRef == null && "dimension".equals(localName)) {
+                dimensionRef = attributes.getValue("ref");
+            }
+            delegate.startElement(uri, localName, qName, attributes);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            delegate.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            delegate.characters(ch, start, length);
+        }
+
+        /**
+         * Data rows declared by the dimension (rows after the header row), or -1 if not available
+         */
+        long getDataRowCount(int headerRow) {
+            if (dimensionRef == null || !dimensionRef.contains(":")) {
+                return -1;
+            }
+            try {
+                CellRangeAddress range = CellRangeAddress.valueOf(dimensionRef);
+                return Math.max(0, range.getLastRow() - headerRow);
+            } catch (Exception e) {
+                log.debug("Invalid dimension ref '{}': {}", dimensionRef, e.getMessage());
+                return -1;
+            }
+        }
+    }
+
     // fieldMapping removed; MethodHandleMapper handles both Excel column names and direct field names
     
     /**
@@ -316,27 +715,100 @@ public class TrueStreamingSAXProcessor<T> {
         
         private final List<T> currentBatch = new ArrayList<>();
         private final Map<String, Integer> headerMapping = new HashMap<>();
-        private final Set<String> seenUniqueValues = new HashSet<>();
+        private final Consumer<List<T>> batchSink;
+        private final Map<String, Integer> firstUniqueRows;
         private final AtomicLong errorCount = new AtomicLong(0);
         private Object currentInstance;
         private int currentRowNum = 0;
         private boolean headerProcessed = false;
         private boolean rowHasValue = false;
+        private long rowsToSkip = skipDataRows;
+        private boolean skippingRow = false;
+
+        // ✅ Compiled when the header row closes: column index → typed setter + parser
+        private CompiledRowBinder<T> rowBinder;
+
+        TrueStreamingContentHandler() {
+            this(TrueStreamingSAXProcessor.this::deliverBatch, new HashMap<>());
+        }
+
+        /**
+         * @param batchSink Receives full batches (copies)
+         * @param firstUniqueRows Unique-field key → first row it was seen at by this handler
+         */
+        TrueStreamingContentHandler(Consumer<List<T>> batchSink, Map<String, Integer> firstUniqueRows) {
+            this.batchSink = batchSink;
+            this.firstUniqueRows = firstUniqueRows;
+        }
+
+        /**
+         * Take over the unique-field values of the next range in file order: a value this handler
+         * already holds came from a lower row, so the range's first occurrence is the duplicate
+         */
+        void mergeUniqueRows(Map<String, Integer> rangeRows) {
+            rangeRows.forEach((key, rowNum) -> {
+                if (firstUniqueRows.putIfAbsent(key, rowNum) != null) {
+                    flagDuplicate(key, rowNum);
+                }
+            });
+        }
+
+        private void flagDuplicate(String key, int rowNum) {
+            int separator = key.indexOf(':');
+            log.warn("Duplicate value '{}' for unique field '{}' at row {}",
+                     key.substring(separator + 1), key.substring(0, separator), rowNum);
+            errorCount.incrementAndGet();
+        }
+
+        /**
+         * Start at a data row of a file whose header another handler has processed (CSV ranges):
+         * shares its header mapping and compiled binder, checkpoint skipping is already done
+         */
+        void adoptHeader(TrueStreamingContentHandler source) {
+            headerMapping.putAll(source.headerMapping);
+            rowBinder = source.rowBinder;
+            headerProcessed = true;
+            rowsToSkip = 0;
+        }
+
+        /**
+         * Header processed and checkpointed rows skipped: the next row becomes a bean
+         */
+        boolean isReadyForData() {
+            return headerProcessed && rowsToSkip == 0;
+        }
+
+        /**
+         * False if a cell in this column would be ignored (lets CSV skip decoding the value)
+         */
+        boolean isColumnMapped(int colIndex) {
+            return !headerProcessed || rowBinder == null || rowBinder.slot(colIndex) != null;
+        }
         
         @Override
         public void startRow(int rowNum) {
+            if (batchFailure != null) {
+                throw batchFailure;
+            }
             this.currentRowNum = rowNum;
 
-            // ✅ ALWAYS log to see if POI calls this method
-            log.info("🔍 SAX startRow CALLED: rowNum={}, startRow config={}, headerProcessed={}",
+            log.trace("SAX startRow: rowNum={}, startRow config={}, headerProcessed={}",
                      rowNum, config.getStartRow(), headerProcessed);
 
             // Skip rows before start row
             if (rowNum < config.getStartRow()) {
-                log.info("🔍 SKIPPING row {} because < startRow {}", rowNum, config.getStartRow());
+                log.trace("Skipping row {} because < startRow {}", rowNum, config.getStartRow());
                 return;
             }
             
+            // Checkpointed rows: only track whether the row has a value
+            if (headerProcessed && rowsToSkip > 0) {
+                skippingRow = true;
+                rowHasValue = false;
+                currentInstance = null;
+                return;
+            }
+
             // Create new instance for data rows using MethodHandle (5x faster)
             if (headerProcessed) {
                 rowHasValue = false;
@@ -346,11 +818,13 @@ public class TrueStreamingSAXProcessor<T> {
                     // Set rowNum if field exists
                     @SuppressWarnings("unchecked")
                     T typedInstance = (T) currentInstance;
-                    if (methodHandleMapper.hasField("rowNum")) {
+                    if (rowBinder != null) {
+                        rowBinder.setRowNum(typedInstance, rowNum + 1);
+                    } else if (methodHandleMapper.hasField("rowNum")) {
                         methodHandleMapper.setFieldValue(typedInstance, "rowNum", rowNum + 1);
                     }
                     
-                } catch (Exception e) {
+                } catch (Throwable e) {
                     log.error("Failed to create instance for row {}: {}", rowNum, e.getMessage());
                     totalErrors.incrementAndGet();
                 }
@@ -360,12 +834,14 @@ public class TrueStreamingSAXProcessor<T> {
         @Override
         public void cell(String cellReference, String formattedValue, 
                         org.apache.poi.xssf.usermodel.XSSFComment comment) {
+            cell(getColumnIndex(cellReference), formattedValue);
+        }
+
+        void cell(int colIndex, String formattedValue) {
             if (currentRowNum < config.getStartRow()) {
                 return;
             }
             
-            int colIndex = getColumnIndex(cellReference);
-            
             // Process header row
             if (currentRowNum == config.getStartRow() && !headerProcessed) {
                 if (formattedValue != null && !formattedValue.trim().isEmpty()) {
@@ -374,15 +850,28 @@ public class TrueStreamingSAXProcessor<T> {
                 return;
             }
             
+            if (skippingRow) {
+                if (!rowHasValue && formattedValue != null && !formattedValue.trim().isEmpty()) {
+                    rowHasValue = rowBinder != null
+                        ? rowBinder.slot(colIndex) != null
+                        : findFieldNameByColumnIndex(colIndex) != null;
+                }
+                return;
+            }
+
             // Process data rows
             if (headerProcessed && currentInstance != null) {
-                processDataCell(colIndex, formattedValue);
+                if (rowBinder != null) {
+                    bindDataCell(colIndex, formattedValue);
+                } else {
+                    processDataCell(colIndex, formattedValue);
+                }
             }
         }
         
         @Override
         public void endRow(int rowNum) {
-            log.info("🔍 SAX endRow called: rowNum={}, startRow={}, headerProcessed={}, headerMapping.size={}",
+            log.trace("SAX endRow: rowNum={}, startRow={}, headerProcessed={}, headerMapping.size={}",
                      rowNum, config.getStartRow(), headerProcessed, headerMapping.size());
 
             // Mark header as processed
@@ -401,6 +890,27 @@ public class TrueStreamingSAXProcessor<T> {
                         log.warn("  Column '{}' -> NO MATCHING FIELD", headerName);
                     }
                 }
+
+                if (config.isUseCompiledRowBinder()) {
+                    rowBinder = CompiledRowBinder.compile(beanClass, headerMapping,
+                        (value, fieldName, fieldType) ->
+                            typeConverter.convert(smartProcessCellValue(value, fieldName, fieldType), fieldType));
+                    log.info("✅ Compiled row binder: {}/{} columns bound",
+                             rowBinder.getBoundColumnCount(), headerMapping.size());
+                }
+                return;
+            }
+
+            // Checkpointed row: counts towards the skip only if it would have been emitted
+            if (skippingRow) {
+                skippingRow = false;
+                if (rowHasValue) {
+                    rowsToSkip--;
+                    totalSkipped.incrementAndGet();
+                    if (rowsToSkip == 0) {
+                        log.info("Skipped {} checkpointed rows, resuming after sheet row {}", totalSkipped.get(), rowNum + 1);
+                    }
+                }
                 return;
             }
 
@@ -415,7 +925,7 @@ public class TrueStreamingSAXProcessor<T> {
                     }
                     // ✅ INLINE maxRows VALIDATION (during streaming, NO buffering)
                     if (config.getMaxRows() > 0) {
-                        int dataRowsProcessed = (int) totalProcessed.get() + 1; // +1 for current row
+                        int dataRowsProcessed = (int) (totalSkipped.get() + totalProcessed.get()) + 1; // +1 for current row
                         if (dataRowsProcessed > config.getMaxRows()) {
                             throw new RuntimeException(String.format(
                                 "Số lượng bản ghi trong file (%d) vượt quá giới hạn cho phép (%d). " +
@@ -444,6 +954,8 @@ public class TrueStreamingSAXProcessor<T> {
                         log.info("Processed {} rows in streaming mode", totalProcessed.get());
                     }
 
+                } catch (BatchAbortedException e) {
+                    throw e;
                 } catch (Exception e) {
                     totalErrors.incrementAndGet();
                     log.warn("Error processing row {}: {}", rowNum, e.getMessage());
@@ -461,24 +973,11 @@ public class TrueStreamingSAXProcessor<T> {
          * Process current batch và clear ngay để tiếp tục streaming
          */
         private void processBatch() {
-            if (!currentBatch.isEmpty() && batchProcessor != null) {
-                try {
-                    // Tạo copy để xử lý
-                    List<T> batchToProcess = new ArrayList<>(currentBatch);
-                    
-                    // Process batch ngay lập tức
-                    batchProcessor.accept(batchToProcess);
-                    
-                    // Clear batch để tiếp tục streaming
-                    currentBatch.clear();
-                    
-                    log.debug("Processed batch of {} records", batchToProcess.size());
-                    
-                } catch (Exception e) {
-                    log.error("Error processing batch: {}", e.getMessage(), e);
-                    totalErrors.addAndGet(currentBatch.size());
-                    currentBatch.clear();
-                }
+            if (!currentBatch.isEmpty()) {
+                // Tạo copy để xử lý, clear batch để tiếp tục streaming
+                List<T> batchToProcess = new ArrayList<>(currentBatch);
+                currentBatch.clear();
+                batchSink.accept(batchToProcess);
             }
         }
         
@@ -492,8 +991,72 @@ public class TrueStreamingSAXProcessor<T> {
             }
         }
         
+        /**
+         * Bind a single cell through the compiled row binder
+         * ✅ Performance: one array load per cell, no map lookups / name normalization / boxing for primitives
+         */
+        private void bindDataCell(int colIndex, String formattedValue) {
+            CompiledRowBinder.ColumnSlot slot = rowBinder.slot(colIndex);
+            if (slot == null) {
+                return;
+            }
+
+            String trimmedValue = (formattedValue != null) ? formattedValue.trim() : null;
+            if (trimmedValue == null || trimmedValue.isEmpty()) {
+                if (slot.isRequired()) {
+                    reportRequiredFieldEmpty(colIndex, slot.getFieldName());
+                }
+                return;
+            }
+
+            rowHasValue = true;
+
+            try {
+                slot.bind(currentInstance, trimmedValue);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                reportCellError(colIndex, slot.getFieldName(), trimmedValue, e);
+            }
+        }
+
+        private void reportRequiredFieldEmpty(int colIndex, String fieldName) {
+            log.warn("Row {}, Column {}: Required field '{}' is empty",
+                     currentRowNum + 1, getColumnName(colIndex), fieldName);
+
+            synchronized (validationErrors) {
+                validationErrors.add(new ValidationError(
+                    currentRowNum + 1,
+                    fieldName,
+                    null,
+                    "REQUIRED_FIELD_EMPTY"
+                ));
+            }
+
+            totalErrors.incrementAndGet();
+            checkErrorAbortThreshold();
+        }
+
+        private void reportCellError(int colIndex, String fieldName, String trimmedValue, Throwable e) {
+            log.warn("Row {}, Column {} ({}): Failed to process value '{}' - {}",
+                     currentRowNum + 1, getColumnName(colIndex), fieldName, trimmedValue, e.getMessage());
+
+            synchronized (validationErrors) {
+                validationErrors.add(new ValidationError(
+                    currentRowNum + 1,
+                    fieldName,
+                    trimmedValue,
+                    e.getMessage()
+                ));
+            }
+
+            totalErrors.incrementAndGet();
+            checkErrorAbortThreshold();
+        }
+
         /**
          * Process a single cell value and set to instance field
+         * (legacy path, used when config.useCompiledRowBinder is off)
          * ✅ FIX: Full error context tracking with ValidationError
          * ✅ FIX: Check required fields BEFORE processing
          */
@@ -664,18 +1227,6 @@ public class TrueStreamingSAXProcessor<T> {
                    fieldType == java.math.BigDecimal.class;
         }
 
-        /**
-         * Check if field is percentage type
-         */
-        private boolean isPercentageField(String fieldName) {
-            String normalized = normalizeFieldName(fieldName);
-            return normalized.contains("percent") ||
-                   normalized.contains("rate") ||
-                   normalized.contains("ratio") ||
-                   normalized.contains("tile") || // Vietnamese: tỷ lệ
-                   normalized.contains("phantram"); // Vietnamese: phần trăm
-        }
-
         /**
          * Normalize numeric values (currency, accounting, percentage)
          */
@@ -701,7 +1252,7 @@ public class TrueStreamingSAXProcessor<T> {
             }
 
             // ✅ Step 3: Handle percentage fields: 0.15 → 15 (if field name suggests percentage)
-            if (isPercentageField(fieldName) &&
+            if (CellValueHeuristics.isPercentageFieldName(fieldName) &&
                 (fieldType == Double.class || fieldType == double.class)) {
                 try {
                     double numValue = Double.parseDouble(value);
@@ -725,39 +1276,11 @@ public class TrueStreamingSAXProcessor<T> {
                 return false;
             }
 
-            String normalizedFieldName = normalizeFieldName(fieldName);
-            boolean matchesPattern = normalizedFieldName.contains("identity") ||
-                                   normalizedFieldName.contains("identitycard") ||
-                                   normalizedFieldName.contains("cmnd") ||
-                                   normalizedFieldName.contains("cccd") ||
-                                   normalizedFieldName.contains("passport") ||
-                                   normalizedFieldName.contains("phone") ||
-                                   normalizedFieldName.contains("phonenumber") ||
-                                   normalizedFieldName.contains("mobile") ||
-                                   normalizedFieldName.contains("tax") ||
-                                   normalizedFieldName.contains("taxcode") ||
-                                   normalizedFieldName.contains("mst") ||
-                                   normalizedFieldName.contains("account") ||
-                                   normalizedFieldName.contains("accountnumber") ||
-                                   normalizedFieldName.contains("code") ||
-                                   (normalizedFieldName.contains("number") && normalizedFieldName.contains("card"));
+            boolean matchesPattern = CellValueHeuristics.isIdentifierFieldName(fieldName);
 
             return matchesPattern || (value != null && !value.trim().isEmpty() && looksLikeIdentifierValue(value));
         }
 
-        /**
-         * Normalize field name: remove Vietnamese accents, spaces, lowercase
-         */
-        private String normalizeFieldName(String fieldName) {
-            if (fieldName == null || fieldName.isEmpty()) {
-                return "";
-            }
-
-            String normalized = Normalizer.normalize(fieldName, Normalizer.Form.NFD);
-            normalized = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-            return normalized.toLowerCase().replaceAll("\\s+", "");
-        }
-
         /**
          * Check if value looks like an identifier (scientific notation or long digit string)
          */
@@ -1093,84 +1616,72 @@ public class TrueStreamingSAXProcessor<T> {
         }
         
         private void runValidations(Object instance, int rowNum) {
+            @SuppressWarnings("unchecked")
+            T typedInstance = (T) instance;
             try {
-                // Required fields validation
-                for (String requiredField : config.getRequiredFields()) {
-                    if (methodHandleMapper.hasField(requiredField)) {
-                        @SuppressWarnings("unchecked")
-                        T typedInstance = (T) instance;
-                        Object value = methodHandleMapper.getFieldValue(typedInstance, requiredField);
-                        if (value == null || (value instanceof String && ((String) value).trim().isEmpty())) {
-                            log.warn("Required field '{}' is empty at row {}", requiredField, rowNum);
-                            errorCount.incrementAndGet();
-                        }
-                    }
-                }
-                
-                // Unique fields validation (simple memory-based check for current batch)
+                // Unique fields validation (order-dependent: first occurrence wins, so always inline)
                 for (String uniqueField : config.getUniqueFields()) {
                     if (methodHandleMapper.hasField(uniqueField)) {
-                        @SuppressWarnings("unchecked")
-                        T typedInstance = (T) instance;
                         Object value = methodHandleMapper.getFieldValue(typedInstance, uniqueField);
                         if (value != null) {
                             String key = uniqueField + ":" + value.toString();
-                            if (seenUniqueValues.contains(key)) {
-                                log.warn("Duplicate value '{}' for unique field '{}' at row {}", 
-                                        value, uniqueField, rowNum);
-                                errorCount.incrementAndGet();
-                            } else {
-                                seenUniqueValues.add(key);
-                            }
-                        }
-                    }
-                }
-                
-                // Custom field validation rules
-                for (Map.Entry<String, ValidationRule> entry : config.getFieldValidationRules().entrySet()) {
-                    String fieldName = entry.getKey();
-                    ValidationRule rule = entry.getValue();
-                    if (methodHandleMapper.hasField(fieldName)) {
-                        @SuppressWarnings("unchecked")
-                        T typedInstance = (T) instance;
-                        Object value = methodHandleMapper.getFieldValue(typedInstance, fieldName);
-                        if (value != null) {
-                            var result = rule.validate(fieldName, value, rowNum, 0);
-                            if (!result.isValid()) {
-                                log.warn("Validation failed for field '{}' with value '{}' at row {}: {}", 
-                                        fieldName, value, rowNum, result.getErrorMessage());
-                                errorCount.incrementAndGet();
+                            if (firstUniqueRows.putIfAbsent(key, rowNum) != null) {
+                                flagDuplicate(key, rowNum);
                             }
                         }
                     }
                 }
-                
-                // Global validation rules
-                for (ValidationRule rule : config.getGlobalValidationRules()) {
-                    var result = rule.validate("global", instance, rowNum, 0);
-                    if (!result.isValid()) {
-                        log.warn("Global validation failed for instance at row {}: {}", rowNum, result.getErrorMessage());
-                        errorCount.incrementAndGet();
-                    }
-                }
-                
             } catch (Exception e) {
                 log.error("Validation error at row {}: {}", rowNum, e.getMessage());
                 errorCount.incrementAndGet();
             }
+
+            if (!deferValidation) {
+                errorCount.addAndGet(validateRow(typedInstance, rowNum));
+            }
         }
         
         private int getColumnIndex(String cellReference) {
             // Extract column index from cell reference (e.g., "A1" -> 0, "B1" -> 1)
-            String colRef = cellReference.replaceAll("\\d", "");
-            int colIndex = 0;
-            for (int i = 0; i < colRef.length(); i++) {
-                colIndex = colIndex * 26 + (colRef.charAt(i) - 'A' + 1);
-            }
-            return colIndex - 1;
+            return CompiledRowBinder.columnIndex(cellReference);
         }
     }
     
+    /**
+     * batchProcessor failed; parsing stops and this propagates to the caller
+     */
+    public static class BatchAbortedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public BatchAbortedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Where a workbook is read from, so strategies take a stored file and an upload stream alike
+     */
+    @FunctionalInterface
+    public interface WorkbookSource {
+
+        ProcessingResult processWith(TrueStreamingSAXProcessor<?> processor) throws Exception;
+
+        /**
+         * Workbook on disk, opened file-backed
+         */
+        static WorkbookSource of(Path excelFile) {
+            return processor -> processor.processExcelFile(excelFile);
+        }
+
+        /**
+         * Upload stream, spooled to a temp file first
+         */
+        static WorkbookSource of(InputStream inputStream) {
+            return processor -> processor.processExcelStreamTrue(inputStream);
+        }
+    }
+
     /**
      * Result class for true streaming processing
      */
@@ -1179,30 +1690,47 @@ public class TrueStreamingSAXProcessor<T> {
         private final long errorCount;
         private final long processingTimeMs;
         private final List<ValidationError> errors;
+        private final long expectedRows;
+        private final long sheetXmlBytes;
+        private final long heapBytesSaved;
 
         public ProcessingResult(long processedRecords, long errorCount, long processingTimeMs) {
             this(processedRecords, errorCount, processingTimeMs, new ArrayList<>());
         }
 
         public ProcessingResult(long processedRecords, long errorCount, long processingTimeMs, List<ValidationError> errors) {
+            this(processedRecords, errorCount, processingTimeMs, errors, -1, 0, 0);
+        }
+
+        public ProcessingResult(long processedRecords, long errorCount, long processingTimeMs, List<ValidationError> errors,
+                                long expectedRows, long sheetXmlBytes, long heapBytesSaved) {
             this.processedRecords = processedRecords;
             this.errorCount = errorCount;
             this.processingTimeMs = processingTimeMs;
             this.errors = errors;
+            this.expectedRows = expectedRows;
+            this.sheetXmlBytes = sheetXmlBytes;
+            this.heapBytesSaved = heapBytesSaved;
         }
 
         public long getProcessedRecords() { return processedRecords; }
         public long getErrorCount() { return errorCount; }
         public long getProcessingTimeMs() { return processingTimeMs; }
         public List<ValidationError> getErrors() { return errors; }
+        /** Data rows from sheet dimension or metadata, -1 if unknown */
+        public long getExpectedRows() { return expectedRows; }
+        /** Uncompressed sheet XML bytes streamed through the SAX parser */
+        public long getSheetXmlBytes() { return sheetXmlBytes; }
+        /** Estimated heap not allocated compared to buffering the sheet XML (byte[] + String + split) */
+        public long getHeapBytesSaved() { return heapBytesSaved; }
         public double getRecordsPerSecond() {
             return processingTimeMs > 0 ? (processedRecords * 1000.0) / processingTimeMs : 0;
         }
 
         @Override
         public String toString() {
-            return String.format("ProcessingResult{processed=%d, errors=%d, time=%dms, rate=%.1f rec/sec}",
-                    processedRecords, errorCount, processingTimeMs, getRecordsPerSecond());
+            return String.format("ProcessingResult{processed=%d, expected=%d, errors=%d, time=%dms, rate=%.1f rec/sec, heapSaved=%dKB}",
+                    processedRecords, expectedRows, errorCount, processingTimeMs, getRecordsPerSecond(), heapBytesSaved / 1024);
         }
     }
 
@@ -0,0 +1,162 @@
+package db.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Natural key for document volumes: unique (tenant_id, volume_name, box_code)
+ *
+ * V118 only had the non-unique idx_volume_unique_check, so existing deployments can hold several
+ * rows per key. One row per key is kept - the active one (is_deleted = FALSE) first, then the
+ * oldest - and the others are moved to document_volumes_v306_duplicates (full row, plus the id of
+ * the row that was kept and the archive time) before the unique index is built, so an operator can
+ * review or restore them. Rows without a box_code are left alone (NULLs never conflict in the
+ * unique index).
+ *
+ * Runs outside a transaction so a large table is never locked for the whole migration:
+ * - duplicates are moved in batches of MOVE_BATCH_SIZE, each batch (archive + delete) committed
+ *   on its own
+ * - PostgreSQL builds the index with CREATE UNIQUE INDEX CONCURRENTLY (no write lock); an
+ *   INVALID index left by an interrupted build is dropped first so a rerun retries it
+ * - other databases (H2 in dev / test) use a plain CREATE UNIQUE INDEX
+ *
+ * Rows inserted with a duplicate key while the index is being built make the build fail;
+ * rerunning the migration archives them and builds the index again.
+ */
+@Slf4j
+public class V306__Add_document_volume_natural_key extends BaseJavaMigration {
+
+    private static final int MOVE_BATCH_SIZE = 10_000;
+    private static final String INDEX_NAME = "idx_volume_tenant_name_box";
+    private static final String ARCHIVE_TABLE = "document_volumes_v306_duplicates";
+
+    private static final String CREATE_ARCHIVE = """
+        CREATE TABLE IF NOT EXISTS %s AS
+        SELECT v.*, CAST(NULL AS UUID) AS kept_id, CURRENT_TIMESTAMP AS archived_at
+        FROM document_volumes v
+        WHERE 1 = 0
+        """.formatted(ARCHIVE_TABLE);
+
+    private static final String SELECT_DUPLICATES = """
+        SELECT id, kept_id FROM (
+            SELECT id,
+                   ROW_NUMBER() OVER key_order AS rn,
+                   FIRST_VALUE(id) OVER key_order AS kept_id
+            FROM document_volumes
+            WHERE box_code IS NOT NULL
+            WINDOW key_order AS (
+                PARTITION BY tenant_id, volume_name, box_code
+                ORDER BY is_deleted, created_at, id
+            )
+        ) ranked
+        WHERE ranked.rn > 1
+        LIMIT ?
+        """;
+
+    private static final String ARCHIVE_DUPLICATE = """
+        INSERT INTO %s
+        SELECT v.*, ?, CURRENT_TIMESTAMP FROM document_volumes v WHERE v.id = ?
+        """.formatted(ARCHIVE_TABLE);
+
+    private static final String DELETE_DUPLICATE = "DELETE FROM document_volumes WHERE id = ?";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+
+        archiveDuplicates(connection);
+
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                dropInvalidIndex(connection);
+                statement.execute("CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS " + INDEX_NAME
+                    + " ON document_volumes(tenant_id, volume_name, box_code)");
+            } else {
+                statement.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_NAME
+                    + " ON document_volumes(tenant_id, volume_name, box_code)");
+            }
+        }
+    }
+
+    /**
+     * Move every row but the kept one of each key to ARCHIVE_TABLE, one committed batch at a time
+     */
+    private static void archiveDuplicates(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_ARCHIVE);
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement(SELECT_DUPLICATES);
+             PreparedStatement archive = connection.prepareStatement(ARCHIVE_DUPLICATE);
+             PreparedStatement delete = connection.prepareStatement(DELETE_DUPLICATE)) {
+            select.setInt(1, MOVE_BATCH_SIZE);
+            long moved = 0;
+            int batch;
+            do {
+                batch = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        archive.setObject(1, rs.getObject(2));
+                        archive.setObject(2, rs.getObject(1));
+                        archive.addBatch();
+                        delete.setObject(1, rs.getObject(1));
+                        delete.addBatch();
+                        batch++;
+                    }
+                }
+                if (batch > 0) {
+                    archive.executeBatch();
+                    delete.executeBatch();
+                }
+                connection.commit();
+                moved += batch;
+            } while (batch > 0);
+
+            if (moved > 0) {
+                log.warn("Moved {} duplicate document_volumes rows to {} before building {}; "
+                         + "kept_id is the row that stays for each key", moved, ARCHIVE_TABLE, INDEX_NAME);
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void dropInvalidIndex(Connection connection) throws SQLException {
+        boolean invalid;
+        try (PreparedStatement query = connection.prepareStatement("""
+                SELECT NOT i.indisvalid
+                FROM pg_index i
+                JOIN pg_class c ON c.oid = i.indexrelid
+                WHERE c.relname = ? AND pg_table_is_visible(c.oid)
+                """)) {
+            query.setString(1, INDEX_NAME);
+            try (ResultSet rs = query.executeQuery()) {
+                invalid = rs.next() && rs.getBoolean(1);
+            }
+        }
+        if (invalid) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX_NAME);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- =============================================
+-- V307: Resumable sheet ingestion checkpoints
+-- =============================================
+-- Purpose: Each staged batch commits together with the sheet checkpoint
+--          (data rows / batches committed, valid / invalid counters), so a
+--          recovered sheet resumes after checkpoint_row instead of row 1.
+--          (sheet_id, row_number) indexes serve the row-number ranges that
+--          staging promotion reads chunk by chunk
+--          (sheet_id = ? AND row_number >= ? AND row_number < ?).
+-- =============================================
+
+ALTER TABLE excel_migration_sheets ADD COLUMN IF NOT EXISTS checkpoint_row BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE excel_migration_sheets ADD COLUMN IF NOT EXISTS checkpoint_batch INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE excel_migration_sheets ADD COLUMN IF NOT EXISTS checkpoint_valid_rows BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE excel_migration_sheets ADD COLUMN IF NOT EXISTS checkpoint_invalid_rows BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_staging_hopdong_sheet_row
+    ON staging_hsbg_hop_dong(sheet_id, row_number);
+
+CREATE INDEX IF NOT EXISTS idx_staging_cif_sheet_row
+    ON staging_hsbg_cif(sheet_id, row_number);
+
+CREATE INDEX IF NOT EXISTS idx_staging_tap_sheet_row
+    ON staging_hsbg_tap(sheet_id, row_number);
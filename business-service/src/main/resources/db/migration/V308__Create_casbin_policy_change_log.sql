@@ -0,0 +1,46 @@
+-- =============================================
+-- V308: Casbin policy change log and snapshots
+-- =============================================
+-- Purpose: Every policy change made through the enforcer (add / remove of
+--          p, g, g2 rows) is appended to casbin_policy_changes; each node
+--          tails the log and applies the deltas to its in-memory model.
+--          casbin_policy_snapshots holds the whole casbin_rule table as one
+--          compressed payload, so a starting node reads one row plus the log
+--          tail after snapshot.change_id instead of casbin_rule row by row.
+--          Before trusting a snapshot, a node checks the restored rules
+--          against casbin_rule (distinct row count and highest id); a row
+--          written outside the change log (direct SQL, a node with policy
+--          sync disabled) shows up as an id above max_rule_id.
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS casbin_policy_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    operation VARCHAR(20) NOT NULL,        -- ADD, REMOVE, REMOVE_FILTERED, RELOAD
+    sec VARCHAR(10) NOT NULL,              -- p or g
+    ptype VARCHAR(100) NOT NULL,           -- p, g, g2
+    field_index INTEGER NOT NULL DEFAULT 0, -- first filtered column (REMOVE_FILTERED)
+    v0 VARCHAR(100),
+    v1 VARCHAR(100),
+    v2 VARCHAR(100),
+    v3 VARCHAR(100),
+    v4 VARCHAR(100),
+    v5 VARCHAR(100),
+    origin_node VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_casbin_policy_changes_created_at
+    ON casbin_policy_changes(created_at);
+
+CREATE TABLE IF NOT EXISTS casbin_policy_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    change_id BIGINT NOT NULL,             -- every change up to this id is in the payload
+    max_rule_id BIGINT NOT NULL,           -- MAX(casbin_rule.id) when the snapshot was read (0 if empty)
+    rule_count INTEGER NOT NULL,
+    payload BYTEA NOT NULL,                -- gzip of the rules: ptype, value count, values
+    origin_node VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_casbin_policy_snapshots_change_id
+    ON casbin_policy_snapshots(change_id);
@@ -0,0 +1,239 @@
+package com.neobrutalism.crm.application.excel.helper;
+
+import com.neobrutalism.crm.utils.ExcelColumn;
+import com.neobrutalism.crm.utils.cache.CellExtractor;
+import com.neobrutalism.crm.utils.cache.EnhancedReflectionCache;
+import com.neobrutalism.crm.utils.config.ExcelConfig;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Round-trip tests for OoxmlStreamWriter and DeflatedZipWriter: files are reopened with XSSF
+ * and compared cell by cell with the rows that were written
+ */
+@DisplayName("OOXML Stream Writer Tests")
+class OoxmlStreamWriterTest {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SampleRow {
+        @ExcelColumn(name = "Tên")
+        private String name;
+
+        @ExcelColumn(name = "Số lượng")
+        private Integer quantity;
+
+        @ExcelColumn(name = "Tổng")
+        private long total;
+
+        @ExcelColumn(name = "Số tiền")
+        private Double amount;
+
+        @ExcelColumn(name = "Kích hoạt")
+        private Boolean active;
+
+        @ExcelColumn(name = "Ngày mở")
+        private Date openDate;
+
+        @ExcelColumn(name = "Lãi suất")
+        private BigDecimal rate;
+
+        @ExcelColumn(name = "Ghi chú")
+        private Object note;
+    }
+
+    private static final String[] HEADERS = {"Tên", "Số lượng", "Tổng", "Số tiền", "Kích hoạt", "Ngày mở", "Lãi suất", "Ghi chú"};
+
+    private final OoxmlStreamWriter writer = new OoxmlStreamWriter();
+
+    private static List<SampleRow> sampleRows() {
+        List<SampleRow> rows = new ArrayList<>();
+        rows.add(new SampleRow("Nguyễn Văn A", 3, 1_000_000_000_000L, 12.5, true,
+                               new Date(1_700_000_000_000L), new BigDecimal("0.0725"), "ghi chú"));
+        rows.add(new SampleRow("<a href=\"x\">Tom & Jerry's</a>", -7, 0L, -0.001, false,
+                               new Date(946_684_800_000L), BigDecimal.ZERO, 42L));
+        rows.add(new SampleRow("  leading and trailing  ", null, Long.MIN_VALUE, null, null, null, null, null));
+        rows.add(new SampleRow(null, Integer.MAX_VALUE, 5L, Double.NaN, true, null, null, true));
+        rows.add(new SampleRow("line1\nline2\ttab ]]> \u0001ctl", 0, 1L, 1e-10, false, null, null, 3.25));
+        rows.add(new SampleRow("", 1, 2L, Double.POSITIVE_INFINITY, null, null, null, new Date(0L)));
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Single-sheet workbook round-trips through XSSF cell by cell")
+    void singleSheetRoundTrip() throws Exception {
+        List<SampleRow> rows = sampleRows();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = writer.writeToStream(out, rows.iterator(), SampleRow.class, 0, 0, new ExcelConfig());
+
+        assertThat(written).isEqualTo(rows.size());
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(1);
+            assertSheet(workbook.getSheetAt(0), rows);
+        }
+    }
+
+    @Test
+    @DisplayName("Sheets deflated separately and stitched by DeflatedZipWriter round-trip through XSSF")
+    void stitchedPackageRoundTrip() throws IOException {
+        List<SampleRow> first = sampleRows();
+        List<SampleRow> second = sampleRows().subList(1, 4);
+        CellExtractor[] extractors = EnhancedReflectionCache.getInstance().getCellExtractors(SampleRow.class);
+        String[] headers = CellExtractor.columnNames(extractors);
+        OoxmlStreamWriter.Styles styles = writer.buildStyles(new ExcelConfig());
+
+        List<OoxmlStreamWriter.DeflatedPart> parts = new ArrayList<>();
+        try {
+            parts.add(writer.writeSheetPart(first.iterator(), extractors, headers, styles, Deflater.BEST_SPEED, true));
+            parts.add(writer.writeSheetPart(second.iterator(), extractors, headers, styles, Deflater.BEST_SPEED, false));
+            assertThat(parts.get(0).rows()).isEqualTo(first.size());
+            assertThat(parts.get(1).rows()).isEqualTo(second.size());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.writePackage(out, List.of("Khách hàng", "A & <B>"), styles, parts, Deflater.BEST_SPEED);
+
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+                assertThat(workbook.getNumberOfSheets()).isEqualTo(2);
+                assertThat(workbook.getSheetName(0)).isEqualTo("Khách hàng");
+                assertThat(workbook.getSheetName(1)).isEqualTo("A & <B>");
+                assertSheet(workbook.getSheetAt(0), first);
+                assertSheet(workbook.getSheetAt(1), second);
+                assertThat(workbook.getSheetAt(0).getPaneInformation().isFreezePane()).isTrue();
+            }
+        } finally {
+            for (OoxmlStreamWriter.DeflatedPart part : parts) {
+                Files.deleteIfExists(part.file());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Text up to 32,767 characters is written; longer text is rejected like POI")
+    void enforcesCellTextLimit() throws Exception {
+        String longest = "x".repeat(32_767);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeToStream(out, List.of(new SampleRow(longest, 1, 1L, 1.0, true, null, null, null)).iterator(),
+                             SampleRow.class, 0, 0, new ExcelConfig());
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getRow(1).getCell(columns(sheet).get("Tên")).getStringCellValue()).isEqualTo(longest);
+        }
+
+        List<SampleRow> tooLong = List.of(new SampleRow(longest + "x", 1, 1L, 1.0, true, null, null, null));
+        assertThatThrownBy(() -> writer.writeToStream(new ByteArrayOutputStream(), tooLong.iterator(),
+                                                      SampleRow.class, 0, 0, new ExcelConfig()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("32767");
+    }
+
+    private static void assertSheet(XSSFSheet sheet, List<SampleRow> rows) {
+        Map<String, Integer> columns = columns(sheet);
+        assertThat(columns.keySet()).containsExactlyInAnyOrder(HEADERS);
+        assertThat(sheet.getLastRowNum()).isEqualTo(rows.size());
+
+        for (int r = 0; r < rows.size(); r++) {
+            SampleRow expected = rows.get(r);
+            Row row = sheet.getRow(r + 1);
+            String at = "row " + (r + 1);
+
+            assertText(row.getCell(columns.get("Tên")), expected.getName(), at);
+            assertNumber(row.getCell(columns.get("Số lượng")), expected.getQuantity(), at);
+            assertNumber(row.getCell(columns.get("Tổng")), expected.getTotal(), at);
+            assertNumber(row.getCell(columns.get("Số tiền")), expected.getAmount(), at);
+            assertBoolean(row.getCell(columns.get("Kích hoạt")), expected.getActive(), at);
+            assertDate(row.getCell(columns.get("Ngày mở")), expected.getOpenDate(), at);
+            assertText(row.getCell(columns.get("Lãi suất")), expected.getRate() == null ? null : expected.getRate().toString(), at);
+            assertDynamic(row.getCell(columns.get("Ghi chú")), expected.getNote(), at);
+        }
+    }
+
+    /** Header name to column index; the column order follows the reflection cache */
+    private static Map<String, Integer> columns(XSSFSheet sheet) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (Cell cell : sheet.getRow(0)) {
+            columns.put(cell.getStringCellValue(), cell.getColumnIndex());
+        }
+        return columns;
+    }
+
+    private static void assertText(Cell cell, String expected, String at) {
+        if (expected == null) {
+            assertThat(cell).as(at).isNull();
+            return;
+        }
+        assertThat(cell.getCellType()).as(at).isEqualTo(CellType.STRING);
+        // Control characters are not allowed in XML 1.0 and are dropped by the writer
+        assertThat(cell.getStringCellValue()).as(at).isEqualTo(expected.replace("\u0001", ""));
+    }
+
+    private static void assertNumber(Cell cell, Number expected, String at) {
+        if (expected == null) {
+            assertThat(cell).as(at).isNull();
+            return;
+        }
+        double value = expected.doubleValue();
+        if (!Double.isFinite(value)) {
+            assertText(cell, Double.toString(value), at);
+            return;
+        }
+        assertThat(cell.getCellType()).as(at).isEqualTo(CellType.NUMERIC);
+        assertThat(cell.getNumericCellValue()).as(at).isEqualTo(value);
+    }
+
+    private static void assertBoolean(Cell cell, Boolean expected, String at) {
+        if (expected == null) {
+            assertThat(cell).as(at).isNull();
+            return;
+        }
+        assertThat(cell.getCellType()).as(at).isEqualTo(CellType.BOOLEAN);
+        assertThat(cell.getBooleanCellValue()).as(at).isEqualTo(expected);
+    }
+
+    private static void assertDate(Cell cell, Date expected, String at) {
+        if (expected == null) {
+            assertThat(cell).as(at).isNull();
+            return;
+        }
+        assertThat(cell.getCellType()).as(at).isEqualTo(CellType.NUMERIC);
+        assertThat(DateUtil.isCellDateFormatted(cell)).as(at).isTrue();
+        assertThat(cell.getDateCellValue()).as(at).isEqualTo(expected);
+    }
+
+    private static void assertDynamic(Cell cell, Object expected, String at) {
+        if (expected instanceof Number number) {
+            assertNumber(cell, number, at);
+        } else if (expected instanceof Boolean b) {
+            assertBoolean(cell, b, at);
+        } else if (expected instanceof Date date) {
+            assertDate(cell, date, at);
+        } else {
+            assertText(cell, expected == null ? null : expected.toString(), at);
+        }
+    }
+}
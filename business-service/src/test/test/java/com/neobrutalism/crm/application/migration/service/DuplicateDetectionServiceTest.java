@@ -0,0 +1,174 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import com.neobrutalism.crm.application.migration.repository.MigrationJobRepository;
+import com.neobrutalism.crm.application.migration.repository.MigrationSheetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for in-file duplicate detection of a sheet that is resumed after its checkpoint
+ *
+ * Rows are staged the way ExcelMigrationService does: a VALID row whose key was seen inline is
+ * stored as a duplicate; a resumed sheet has no inline state, so its remaining rows are stored
+ * VALID. Runs against an in-memory H2 database (PostgreSQL mode).
+ */
+@DisplayName("Duplicate Detection Service Tests")
+class DuplicateDetectionServiceTest {
+
+    /** Duplicate key per staged row (index + 1 = row number) */
+    private static final List<String> KEYS = List.of(
+        "A", "B", "A", "C", "X", "A", "B", "D", "E", "E");
+    /** Validation result per row; rows failing validation are not tracked inline */
+    private static final List<String> STATUS = List.of(
+        "VALID", "VALID", "VALID", "VALID", "INVALID", "VALID", "VALID", "VALID", "VALID", "VALID");
+    /** Rows committed before the restart */
+    private static final int CHECKPOINT_ROW = 4;
+
+    @TempDir
+    Path spillDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private DuplicateDetectionService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:duplicates-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        service = new DuplicateDetectionService(jdbcTemplate, new ObjectMapper(),
+            mock(MasterKeyFilterService.class), mock(MigrationSheetRepository.class),
+            mock(MigrationJobRepository.class));
+        ReflectionTestUtils.setField(service, "inlineEnabled", true);
+        ReflectionTestUtils.setField(service, "memoryBudgetMb", 1L);
+        ReflectionTestUtils.setField(service, "spillDir", spillDir.toString());
+
+        jdbcTemplate.execute("""
+            CREATE TABLE staging_hsbg_tap (
+                id UUID PRIMARY KEY,
+                sheet_id UUID NOT NULL,
+                row_number BIGINT NOT NULL,
+                duplicate_key VARCHAR(500),
+                validation_status VARCHAR(20) NOT NULL,
+                is_duplicate BOOLEAN NOT NULL DEFAULT FALSE
+            )""");
+        jdbcTemplate.execute("""
+            CREATE TABLE excel_migration_errors (
+                id UUID PRIMARY KEY,
+                sheet_id UUID NOT NULL,
+                row_number BIGINT NOT NULL,
+                batch_number INT,
+                error_code VARCHAR(50),
+                error_message VARCHAR(1000),
+                validation_rule VARCHAR(100),
+                error_data VARCHAR(4000),
+                created_at TIMESTAMP
+            )""");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Sheet resumed inside a duplicate group ends like a clean run")
+    void resumedSheetMatchesCleanRun() {
+        UUID clean = UUID.randomUUID();
+        service.beginInlineDetection(clean);
+        stage(clean, 1, KEYS.size());
+        service.completeDuplicateDetection(clean, SheetType.HSBG_THEO_TAP);
+
+        UUID resumed = UUID.randomUUID();
+        service.beginInlineDetection(resumed);
+        stage(resumed, 1, CHECKPOINT_ROW);
+        // Crash: inline state is lost, row 3 is already marked against the still VALID row 1
+        service.discardInlineDetection(resumed);
+        assertThat(statuses(resumed)).containsEntry(1L, "VALID").containsEntry(3L, "INVALID");
+
+        service.resumeDuplicateDetection(resumed);
+        stage(resumed, CHECKPOINT_ROW + 1, KEYS.size());
+        service.completeDuplicateDetection(resumed, SheetType.HSBG_THEO_TAP);
+
+        assertThat(duplicateRows(clean)).containsExactly(1L, 2L, 3L, 6L, 7L, 9L, 10L);
+        assertThat(duplicateRows(resumed)).isEqualTo(duplicateRows(clean));
+        assertThat(statuses(resumed)).isEqualTo(statuses(clean));
+        assertThat(errorRows(resumed)).isEqualTo(errorRows(clean));
+        assertThat(errorRows(resumed)).containsExactly(1L, 2L, 3L, 6L, 7L, 9L, 10L);
+    }
+
+    @Test
+    @DisplayName("Errors of a resumed sheet list the other rows of the group")
+    void resumedErrorsListConflictingRows() {
+        UUID sheetId = UUID.randomUUID();
+        service.beginInlineDetection(sheetId);
+        stage(sheetId, 1, CHECKPOINT_ROW);
+        service.discardInlineDetection(sheetId);
+
+        service.resumeDuplicateDetection(sheetId);
+        stage(sheetId, CHECKPOINT_ROW + 1, KEYS.size());
+        service.completeDuplicateDetection(sheetId, SheetType.HSBG_THEO_TAP);
+
+        String errorData = jdbcTemplate.queryForObject(
+            "SELECT error_data FROM excel_migration_errors WHERE sheet_id = ? AND row_number = 1",
+            String.class, sheetId);
+        assertThat(errorData)
+            .contains("\"duplicate_key\":\"A\"")
+            .contains("\"group_size\":3")
+            .contains("\"conflicting_rows\":[3,6]");
+    }
+
+    /**
+     * Stage rows from..to (inclusive) like ExcelMigrationService: a VALID row already seen inline
+     * is stored INVALID and marked duplicate
+     */
+    private void stage(UUID sheetId, int from, int to) {
+        for (int row = from; row <= to; row++) {
+            String key = KEYS.get(row - 1);
+            boolean valid = STATUS.get(row - 1).equals("VALID");
+            boolean duplicate = valid
+                && service.trackDuplicateKey(sheetId, key, row) != DuplicateFingerprintSet.NOT_SEEN;
+            jdbcTemplate.update("""
+                INSERT INTO staging_hsbg_tap (id, sheet_id, row_number, duplicate_key, validation_status, is_duplicate)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """, UUID.randomUUID(), sheetId, row, key, valid && !duplicate ? "VALID" : "INVALID", duplicate);
+        }
+    }
+
+    private List<Long> duplicateRows(UUID sheetId) {
+        return jdbcTemplate.queryForList(
+            "SELECT row_number FROM staging_hsbg_tap WHERE sheet_id = ? AND is_duplicate = TRUE ORDER BY row_number",
+            Long.class, sheetId);
+    }
+
+    private Map<Long, String> statuses(UUID sheetId) {
+        Map<Long, String> statuses = new TreeMap<>();
+        jdbcTemplate.query("SELECT row_number, validation_status FROM staging_hsbg_tap WHERE sheet_id = ?",
+            rs -> {
+                statuses.put(rs.getLong(1), rs.getString(2));
+            }, sheetId);
+        return statuses;
+    }
+
+    private List<Long> errorRows(UUID sheetId) {
+        return jdbcTemplate.queryForList(
+            "SELECT row_number FROM excel_migration_errors WHERE sheet_id = ? AND error_code = 'DUPLICATE_IN_FILE'"
+                + " ORDER BY row_number", Long.class, sheetId);
+    }
+}
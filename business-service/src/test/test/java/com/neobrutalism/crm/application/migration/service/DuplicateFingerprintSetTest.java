@@ -0,0 +1,137 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for DuplicateFingerprintSet: table growth, eviction to spill partitions, resolution of
+ * spilled keys and fingerprint collisions (false positives)
+ */
+@DisplayName("Duplicate Fingerprint Set Tests")
+class DuplicateFingerprintSetTest {
+
+    /** Large enough that nothing is evicted in these tests */
+    private static final long LARGE_BUDGET = 64L << 20;
+    /** Smallest budget the set accepts: 1024 slots of 16 bytes */
+    private static final long MIN_BUDGET = 1024L * 16;
+
+    @TempDir
+    Path spillRoot;
+
+    @Test
+    @DisplayName("Later occurrences return the first-seen row while the table grows")
+    void growthKeepsFirstSeenRows() {
+        try (DuplicateFingerprintSet set = new DuplicateFingerprintSet(LARGE_BUDGET, spillRoot)) {
+            for (int row = 1; row <= 50_000; row++) {
+                assertThat(set.add("KEY-" + row, row)).isEqualTo(DuplicateFingerprintSet.NOT_SEEN);
+            }
+            assertThat(set.residentSize()).isEqualTo(50_000);
+
+            for (int row = 1; row <= 50_000; row += 997) {
+                assertThat(set.add("KEY-" + row, 100_000L + row)).isEqualTo(row);
+            }
+
+            DuplicateFingerprintSet.Resolution resolution = set.resolve();
+            assertThat(resolution.duplicateRows()).isEqualTo(51);
+            assertThat(resolution.spilledRows()).isZero();
+            assertThat(set.spilledRows()).isZero();
+        }
+        assertThat(spillRoot).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Over budget, partitions are evicted and the resident table stays bounded")
+    void evictionBoundsResidentTable() {
+        try (DuplicateFingerprintSet set = new DuplicateFingerprintSet(MIN_BUDGET, spillRoot)) {
+            for (int row = 1; row <= 20_000; row++) {
+                set.add("KEY-" + row, row);
+                // Growth stops at the budget: at most half of the 1024 slots in use
+                assertThat(set.residentSize()).isLessThanOrEqualTo(512);
+            }
+            assertThat(set.spilledRows()).isGreaterThan(19_000);
+            assertThat(set.residentSize() + set.spilledRows()).isEqualTo(20_000);
+
+            assertThat(set.resolve().duplicateRows()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Duplicates of spilled keys are counted on resolve")
+    void spilledDuplicatesResolved() throws IOException {
+        long expectedDuplicates = 0;
+        try (DuplicateFingerprintSet set = new DuplicateFingerprintSet(MIN_BUDGET, spillRoot)) {
+            long row = 0;
+            for (int i = 0; i < 10_000; i++) {
+                set.add("KEY-" + i, ++row);
+            }
+            // Every third key appears again; most of them now live in spilled partitions
+            long deferred = 0;
+            for (int i = 0; i < 10_000; i += 3) {
+                long firstRow = set.add("KEY-" + i, ++row);
+                if (firstRow == DuplicateFingerprintSet.NOT_SEEN) {
+                    deferred++;
+                } else {
+                    assertThat(firstRow).isEqualTo(i + 1);
+                }
+                expectedDuplicates++;
+            }
+            assertThat(deferred).isGreaterThan(0);
+            assertThat(spillFiles()).isNotEmpty();
+
+            DuplicateFingerprintSet.Resolution resolution = set.resolve();
+            assertThat(resolution.duplicateRows()).isEqualTo(expectedDuplicates);
+            assertThat(resolution.spilledRows()).isEqualTo(set.spilledRows());
+            // Replayed partitions are deleted as soon as they are resolved
+            assertThat(spillFiles()).isEmpty();
+        }
+        assertThat(spillRoot).isEmptyDirectory();
+    }
+
+    @Test
+    @DisplayName("Colliding fingerprints are reported as duplicates, resident and spilled")
+    void fingerprintCollisionsReported() {
+        long fingerprint = DuplicateFingerprintSet.fingerprint("CT-001|HD|2024-01-01");
+
+        try (DuplicateFingerprintSet set = new DuplicateFingerprintSet(LARGE_BUDGET, spillRoot)) {
+            assertThat(set.addFingerprint(fingerprint, 7)).isEqualTo(DuplicateFingerprintSet.NOT_SEEN);
+            // A different key with the same 64-bit fingerprint: reported against row 7;
+            // DuplicateDetectionService clears the flag because the exact duplicate_key is unique
+            assertThat(set.addFingerprint(fingerprint, 9)).isEqualTo(7);
+            assertThat(set.resolve().duplicateRows()).isEqualTo(1);
+        }
+
+        try (DuplicateFingerprintSet set = new DuplicateFingerprintSet(MIN_BUDGET, spillRoot)) {
+            for (int row = 1; row <= 5_000; row++) {
+                set.add("KEY-" + row, row);
+            }
+            assertThat(set.spilledRows()).isPositive();
+            set.addFingerprint(fingerprint, 10_001);
+            set.addFingerprint(fingerprint, 10_002);
+
+            assertThat(set.resolve().duplicateRows()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Fingerprint is never 0 (the empty slot marker) and is stable")
+    void fingerprintStable() {
+        assertThat(DuplicateFingerprintSet.fingerprint("")).isNotZero();
+        assertThat(DuplicateFingerprintSet.fingerprint("CT-001")).isEqualTo(DuplicateFingerprintSet.fingerprint("CT-001"));
+        assertThat(DuplicateFingerprintSet.fingerprint("CT-001")).isNotEqualTo(DuplicateFingerprintSet.fingerprint("CT-002"));
+    }
+
+    private List<Path> spillFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(spillRoot)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+}
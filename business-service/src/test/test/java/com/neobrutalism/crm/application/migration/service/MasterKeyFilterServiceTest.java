@@ -0,0 +1,151 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the master key Bloom filters: saturation and rebuild
+ *
+ * MasterKeyBloomFilter is tested on its own; the rebuild runs MasterKeyFilterService against an
+ * in-memory H2 database (PostgreSQL mode) holding a minimal document_volumes table.
+ */
+@DisplayName("Master Key Filter Tests")
+class MasterKeyFilterServiceTest {
+
+    private static final int MIN_CAPACITY = 50;
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private MasterKeyFilterService filterService;
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:master-filter-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        meterRegistry = new SimpleMeterRegistry();
+        filterService = new MasterKeyFilterService(jdbcTemplate, new DataSourceTransactionManager(dataSource), meterRegistry);
+        ReflectionTestUtils.setField(filterService, "enabled", true);
+        ReflectionTestUtils.setField(filterService, "fpp", 0.01);
+        ReflectionTestUtils.setField(filterService, "minCapacity", (long) MIN_CAPACITY);
+        ReflectionTestUtils.setField(filterService, "refreshInterval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(filterService, "rebuildInterval", Duration.ofHours(6));
+        ReflectionTestUtils.setField(filterService, "refreshOverlap", Duration.ofMinutes(2));
+
+        jdbcTemplate.execute("""
+            CREATE TABLE document_volumes (
+                id UUID PRIMARY KEY,
+                tenant_id UUID NOT NULL,
+                volume_name VARCHAR(255) NOT NULL,
+                box_code VARCHAR(100),
+                is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+                created_at TIMESTAMP NOT NULL
+            )""");
+        tenantId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Filter saturates past its expected insertions; re-added keys do not count")
+    void bloomFilterSaturation() {
+        MasterKeyBloomFilter filter = new MasterKeyBloomFilter(100, 0.01);
+
+        long added = IntStream.range(0, 100).filter(i -> filter.add("CT-" + i)).count();
+        assertThat(added).isGreaterThan(95);
+        for (int i = 0; i < 100; i++) {
+            assertThat(filter.add("CT-" + i)).isFalse();
+        }
+        assertThat(filter.insertions()).isEqualTo(added);
+        assertThat(filter.isSaturated()).isFalse();
+        assertThat(filter.expectedFpp()).isLessThanOrEqualTo(0.011);
+
+        for (int i = 100; i < 400; i++) {
+            filter.add("CT-" + i);
+        }
+        assertThat(filter.isSaturated()).isTrue();
+        assertThat(filter.expectedFpp()).isGreaterThan(filter.targetFpp() * 10);
+        // Still no false negatives
+        for (int i = 0; i < 400; i++) {
+            assertThat(filter.mightContain("CT-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Saturated filter is rebuilt from master data on the next check")
+    void saturatedFilterRebuilt() {
+        insertVolumes(0, 10);
+
+        assertThat(filterService.findExisting(tenantId, MasterKeyFilterService.KeyType.VOLUME,
+            List.of(volumeKey(3), volumeKey(99)))).containsExactly(volumeKey(3));
+        assertThat(filterKeys()).isEqualTo(10);
+
+        // Promotion records more keys than the filter was sized for (max(min capacity, 2 x existing))
+        List<String> promoted = IntStream.range(10, 10 + MIN_CAPACITY + 1).mapToObj(MasterKeyFilterServiceTest::volumeKey).toList();
+        insertVolumes(10, MIN_CAPACITY + 1);
+        filterService.record(tenantId, MasterKeyFilterService.KeyType.VOLUME, promoted);
+        assertThat(filterKeys()).isGreaterThan(MIN_CAPACITY);
+
+        // Keys deleted since the build are only dropped by a rebuild
+        jdbcTemplate.update("UPDATE document_volumes SET is_deleted = TRUE WHERE volume_name = ?", "TAP-3");
+
+        assertThat(filterService.findExisting(tenantId, MasterKeyFilterService.KeyType.VOLUME,
+            List.of(volumeKey(3), volumeKey(20)))).containsExactly(volumeKey(20));
+        assertThat(filterKeys()).isEqualTo(10 + MIN_CAPACITY);
+        assertThat(meterRegistry.get("migration.master_filter.expected_fpp").tag("type", "volume").gauge().value()).isLessThanOrEqualTo(0.011);
+    }
+
+    @Test
+    @DisplayName("Filter is not rebuilt before it saturates")
+    void unsaturatedFilterKept() {
+        insertVolumes(0, 10);
+        filterService.findExisting(tenantId, MasterKeyFilterService.KeyType.VOLUME, List.of(volumeKey(0)));
+
+        filterService.record(tenantId, MasterKeyFilterService.KeyType.VOLUME, List.of(volumeKey(500)));
+        jdbcTemplate.update("UPDATE document_volumes SET is_deleted = TRUE WHERE volume_name = ?", "TAP-3");
+
+        // Not refreshed yet: the deleted key is still a filter hit, the probe rules it out
+        assertThat(filterService.findExisting(tenantId, MasterKeyFilterService.KeyType.VOLUME,
+            List.of(volumeKey(3)))).isEmpty();
+        assertThat(filterKeys()).isEqualTo(11);
+        assertThat(meterRegistry.get("migration.master_filter.false_positives").tag("type", "volume").counter().count()).isEqualTo(1.0);
+    }
+
+    private void insertVolumes(int from, int count) {
+        Timestamp createdAt = Timestamp.from(Instant.now().minusSeconds(60));
+        for (int i = from; i < from + count; i++) {
+            jdbcTemplate.update("""
+                INSERT INTO document_volumes (id, tenant_id, volume_name, box_code, is_deleted, created_at)
+                VALUES (?, ?, ?, ?, FALSE, ?)
+                """, UUID.randomUUID(), tenantId, "TAP-" + i, "BOX-" + i, createdAt);
+        }
+    }
+
+    private double filterKeys() {
+        return meterRegistry.get("migration.master_filter.keys").tag("type", "volume").gauge().value();
+    }
+
+    private static String volumeKey(int i) {
+        return MasterKeyFilterService.volumeKey("TAP-" + i, "BOX-" + i);
+    }
+}
@@ -0,0 +1,182 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import com.neobrutalism.crm.application.migration.model.MigrationSheet;
+import com.neobrutalism.crm.application.migration.model.SheetType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for SheetCheckpointService: a failed batch rolls back with its checkpoint and the
+ * sheet resumes from the last committed batch
+ *
+ * Runs against an in-memory H2 database (PostgreSQL mode, same as the test profile) with the
+ * columns the service touches.
+ */
+@DisplayName("Sheet Checkpoint Service Tests")
+class SheetCheckpointServiceTest {
+
+    private static final int BATCH_SIZE = 4;
+
+    private JdbcTemplate jdbcTemplate;
+    private SheetCheckpointService checkpointService;
+    private UUID sheetId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:checkpoint-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        checkpointService = new SheetCheckpointService(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("""
+            CREATE TABLE excel_migration_sheets (
+                id UUID PRIMARY KEY,
+                checkpoint_row BIGINT NOT NULL DEFAULT 0,
+                checkpoint_batch INT NOT NULL DEFAULT 0,
+                checkpoint_valid_rows BIGINT NOT NULL DEFAULT 0,
+                checkpoint_invalid_rows BIGINT NOT NULL DEFAULT 0
+            )""");
+        jdbcTemplate.execute("""
+            CREATE TABLE staging_hsbg_tap (
+                sheet_id UUID NOT NULL,
+                row_number BIGINT NOT NULL,
+                ten_tap VARCHAR(255)
+            )""");
+        jdbcTemplate.execute("""
+            CREATE TABLE excel_migration_errors (
+                sheet_id UUID NOT NULL,
+                row_number BIGINT NOT NULL,
+                error_message VARCHAR(1000)
+            )""");
+
+        sheetId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO excel_migration_sheets (id) VALUES (?)", sheetId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("Failed batch leaves no staging rows and no checkpoint movement")
+    void failedBatchRollsBack() {
+        SheetCheckpointService.BatchCursor cursor = new SheetCheckpointService.BatchCursor(
+            SheetCheckpointService.Checkpoint.START);
+
+        checkpointService.commitBatch(cursor, rows(1, BATCH_SIZE), this::stage);
+        checkpointService.commitBatch(cursor, rows(5, BATCH_SIZE), this::stage);
+
+        assertThatThrownBy(() -> checkpointService.commitBatch(cursor, rows(9, BATCH_SIZE), (batch, fromRow, batchNumber) -> {
+            insertStaging(batch, fromRow);
+            throw new IllegalStateException("COPY failed mid-batch");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cursor.getRow()).isEqualTo(8);
+        assertThat(cursor.getBatch()).isEqualTo(2);
+        assertThat(stagedRows()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT checkpoint_row FROM excel_migration_sheets WHERE id = ?", Long.class, sheetId)).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Resumed sheet continues after the last committed batch")
+    void resumeAfterFailedBatch() {
+        SheetCheckpointService.BatchCursor cursor = new SheetCheckpointService.BatchCursor(
+            SheetCheckpointService.Checkpoint.START);
+        checkpointService.commitBatch(cursor, rows(1, BATCH_SIZE), this::stage);
+
+        // Validation errors are logged in their own transaction and survive the failed batch
+        jdbcTemplate.update("INSERT INTO excel_migration_errors (sheet_id, row_number, error_message) VALUES (?, 2, 'kept')", sheetId);
+        jdbcTemplate.update("INSERT INTO excel_migration_errors (sheet_id, row_number, error_message) VALUES (?, 6, 'orphaned')", sheetId);
+        assertThatThrownBy(() -> checkpointService.commitBatch(cursor, rows(5, BATCH_SIZE), (batch, fromRow, batchNumber) -> {
+            insertStaging(batch, fromRow);
+            throw new IllegalStateException("connection reset");
+        })).isInstanceOf(IllegalStateException.class);
+
+        MigrationSheet sheet = loadSheet();
+        SheetCheckpointService.Checkpoint checkpoint = checkpointService.resume(sheet);
+
+        assertThat(checkpoint.row()).isEqualTo(4);
+        assertThat(checkpoint.batch()).isEqualTo(1);
+        assertThat(checkpoint.validRows()).isEqualTo(BATCH_SIZE);
+        assertThat(sheet.getProcessedRows()).isEqualTo(4);
+        assertThat(sheet.getValidRows()).isEqualTo(BATCH_SIZE);
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT error_message FROM excel_migration_errors WHERE sheet_id = ?", String.class, sheetId))
+            .containsExactly("kept");
+
+        // Re-reading the sheet from the checkpoint stages every row exactly once
+        SheetCheckpointService.BatchCursor resumed = new SheetCheckpointService.BatchCursor(checkpoint);
+        checkpointService.commitBatch(resumed, rows(5, BATCH_SIZE), this::stage);
+        checkpointService.commitBatch(resumed, rows(9, 2), this::stage);
+
+        assertThat(resumed.getRow()).isEqualTo(10);
+        assertThat(resumed.getBatch()).isEqualTo(3);
+        assertThat(stagedRows()).containsExactlyElementsOf(
+            IntStream.rangeClosed(1, 10).mapToObj(Long::valueOf).toList());
+    }
+
+    @Test
+    @DisplayName("Batch numbered from a stale position is rejected")
+    void staleCursorRejected() {
+        SheetCheckpointService.BatchCursor first = new SheetCheckpointService.BatchCursor(
+            SheetCheckpointService.Checkpoint.START);
+        SheetCheckpointService.BatchCursor stale = new SheetCheckpointService.BatchCursor(
+            SheetCheckpointService.Checkpoint.START);
+        checkpointService.commitBatch(first, rows(1, BATCH_SIZE), this::stage);
+
+        assertThatThrownBy(() -> checkpointService.commitBatch(stale, rows(1, BATCH_SIZE), this::stage))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("is not at row 0");
+        assertThat(stagedRows()).hasSize(BATCH_SIZE);
+    }
+
+    private void stage(List<String> batch, long fromRow, int batchNumber) {
+        insertStaging(batch, fromRow);
+        checkpointService.advance(sheetId, fromRow, batch.size(), batchNumber, batch.size(), 0);
+    }
+
+    private void insertStaging(List<String> batch, long fromRow) {
+        for (int i = 0; i < batch.size(); i++) {
+            jdbcTemplate.update("INSERT INTO staging_hsbg_tap (sheet_id, row_number, ten_tap) VALUES (?, ?, ?)",
+                sheetId, fromRow + i + 1, batch.get(i));
+        }
+    }
+
+    private List<Long> stagedRows() {
+        return jdbcTemplate.queryForList(
+            "SELECT row_number FROM staging_hsbg_tap WHERE sheet_id = ? ORDER BY row_number", Long.class, sheetId);
+    }
+
+    private MigrationSheet loadSheet() {
+        return jdbcTemplate.queryForObject("""
+            SELECT checkpoint_row, checkpoint_batch, checkpoint_valid_rows, checkpoint_invalid_rows
+            FROM excel_migration_sheets WHERE id = ?
+            """, (rs, i) -> MigrationSheet.builder()
+                .id(sheetId)
+                .sheetType(SheetType.HSBG_THEO_TAP)
+                .totalRows(10L)
+                .checkpointRow(rs.getLong(1))
+                .checkpointBatch(rs.getInt(2))
+                .checkpointValidRows(rs.getLong(3))
+                .checkpointInvalidRows(rs.getLong(4))
+                .build(), sheetId);
+    }
+
+    private static List<String> rows(int first, int count) {
+        return IntStream.range(first, first + count).mapToObj(i -> "TAP-" + i).toList();
+    }
+}
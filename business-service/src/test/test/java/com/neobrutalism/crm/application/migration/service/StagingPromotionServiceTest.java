@@ -0,0 +1,212 @@
+package com.neobrutalism.crm.application.migration.service;
+
+import com.neobrutalism.crm.application.migration.dto.MigrationResult;
+import com.neobrutalism.crm.application.migration.monitoring.MigrationMonitor;
+import com.neobrutalism.crm.domain.customer.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for set-based promotion of HSBG_TAP staging rows holding duplicate natural keys
+ *
+ * Runs the portable anti-join path against an in-memory H2 database (PostgreSQL mode) with the
+ * staging and master columns the TAP mapping uses and the (tenant_id, volume_name, box_code)
+ * unique index from V306. Small chunks put duplicates both inside one chunk and across chunks.
+ */
+@DisplayName("Staging Promotion Service Tests")
+class StagingPromotionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private StagingPromotionService promotionService;
+    private UUID tenantId;
+    private UUID sheetId;
+    private UUID jobId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:promotion-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        promotionService = new StagingPromotionService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            new ThreadPoolTaskExecutor(), mock(MigrationMonitor.class), mock(CustomerRepository.class),
+            mock(MasterKeyFilterService.class));
+        ReflectionTestUtils.setField(promotionService, "chunkSize", 3);
+
+        jdbcTemplate.execute("""
+            CREATE TABLE staging_hsbg_tap (
+                id UUID PRIMARY KEY,
+                job_id UUID NOT NULL,
+                sheet_id UUID NOT NULL,
+                row_number BIGINT NOT NULL,
+                ten_tap VARCHAR(255),
+                so_luong_tap INT,
+                ma_don_vi VARCHAR(50),
+                kho_vpbank VARCHAR(100),
+                trach_nhiem_ban_giao VARCHAR(100),
+                loai_ho_so VARCHAR(100),
+                luong_ho_so VARCHAR(100),
+                phan_han_cap_td VARCHAR(100),
+                ngay_phai_ban_giao DATE,
+                ngay_ban_giao DATE,
+                san_pham VARCHAR(100),
+                trang_thai_case_pdm VARCHAR(100),
+                ma_thung VARCHAR(100),
+                ngay_nhap_kho_vpbank DATE,
+                ngay_chuyen_kho_crown DATE,
+                khu_vuc VARCHAR(50),
+                hang VARCHAR(50),
+                cot VARCHAR(50),
+                tinh_trang_thung VARCHAR(100),
+                trang_thai_thung VARCHAR(100),
+                ghi_chu VARCHAR(1000),
+                validation_status VARCHAR(20) NOT NULL,
+                is_duplicate BOOLEAN NOT NULL DEFAULT FALSE,
+                master_data_exists BOOLEAN NOT NULL DEFAULT FALSE,
+                inserted_to_master BOOLEAN NOT NULL DEFAULT FALSE,
+                inserted_at TIMESTAMP
+            )""");
+        jdbcTemplate.execute("""
+            CREATE TABLE document_volumes (
+                id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+                tenant_id UUID NOT NULL,
+                volume_name VARCHAR(255) NOT NULL,
+                volume_quantity INT,
+                unit_code VARCHAR(50),
+                warehouse_vpbank VARCHAR(100),
+                delivery_responsibility VARCHAR(100),
+                document_type VARCHAR(100),
+                document_flow VARCHAR(100),
+                credit_term_category VARCHAR(100),
+                required_delivery_date DATE,
+                delivery_date DATE,
+                product VARCHAR(100),
+                pdm_case_status VARCHAR(100),
+                box_code VARCHAR(100),
+                vpbank_warehouse_entry_date DATE,
+                crown_warehouse_transfer_date DATE,
+                area VARCHAR(50),
+                "row" VARCHAR(50),
+                "column" VARCHAR(50),
+                box_condition VARCHAR(100),
+                box_status VARCHAR(100),
+                notes VARCHAR(1000),
+                source_system VARCHAR(50),
+                migration_job_id UUID,
+                is_deleted BOOLEAN NOT NULL DEFAULT FALSE
+            )""");
+        jdbcTemplate.execute("""
+            CREATE UNIQUE INDEX idx_volume_tenant_name_box ON document_volumes(tenant_id, volume_name, box_code)
+            """);
+
+        tenantId = UUID.randomUUID();
+        sheetId = UUID.randomUUID();
+        jobId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    @DisplayName("First-seen row of a duplicated key is promoted, later rows are skipped")
+    void duplicateStagingRowsPromotedOnce() {
+        stage(1, "TAP-A", "BOX-1", "first A");
+        stage(2, "TAP-A", "BOX-1", "same chunk duplicate");
+        stage(3, "TAP-B", "BOX-1", "other volume, same box");
+        stage(4, "TAP-A", "BOX-1", "next chunk duplicate");
+        stage(5, "TAP-A", "BOX-2", "same volume, other box");
+        stage(6, "TAP-B", "BOX-1", "next chunk duplicate of B");
+        stage(7, "TAP-C", "BOX-3", "first C");
+        stage(8, "TAP-C", "BOX-3", "same chunk duplicate");
+
+        MigrationResult result = promotionService.promoteTap(sheetId, tenantId);
+
+        assertThat(result.getMigratedCount()).isEqualTo(4);
+        assertThat(result.getDuplicateCount()).isEqualTo(4);
+        assertThat(result.getErrorCount()).isZero();
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT notes FROM document_volumes WHERE tenant_id = ? ORDER BY volume_name, box_code", String.class, tenantId))
+            .containsExactly("first A", "same volume, other box", "other volume, same box", "first C");
+        assertThat(promotedRows()).containsExactly(1L, 3L, 5L, 7L);
+        assertThat(skippedRows()).containsExactly(2L, 4L, 6L, 8L);
+    }
+
+    @Test
+    @DisplayName("Rows matching an existing volume are skipped; rows flagged duplicate are never promoted")
+    void existingAndFlaggedRowsSkipped() {
+        jdbcTemplate.update("INSERT INTO document_volumes (tenant_id, volume_name, box_code, notes) VALUES (?, 'TAP-A', 'BOX-1', 'existing')",
+            tenantId);
+        // Same key in another tenant does not block promotion
+        jdbcTemplate.update("INSERT INTO document_volumes (tenant_id, volume_name, box_code, notes) VALUES (?, 'TAP-B', 'BOX-1', 'other tenant')",
+            UUID.randomUUID());
+        stage(1, "TAP-A", "BOX-1", "exists");
+        stage(2, "TAP-B", "BOX-1", "new");
+        stage(3, "TAP-B", "BOX-1", "duplicate");
+        stage(4, "TAP-D", "BOX-4", "in-file duplicate");
+        jdbcTemplate.update("UPDATE staging_hsbg_tap SET is_duplicate = TRUE, validation_status = 'INVALID' WHERE row_number = 4");
+
+        MigrationResult result = promotionService.promoteTap(sheetId, tenantId);
+
+        assertThat(result.getMigratedCount()).isEqualTo(1);
+        assertThat(result.getDuplicateCount()).isEqualTo(2);
+        assertThat(promotedRows()).containsExactly(2L);
+        assertThat(skippedRows()).containsExactly(1L, 3L);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM document_volumes WHERE tenant_id = ?", Integer.class, tenantId)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Promoting the sheet again inserts nothing; skipped rows are re-checked against master data")
+    void promotionIsIdempotent() {
+        stage(1, "TAP-A", "BOX-1", "first");
+        stage(2, "TAP-A", "BOX-1", "duplicate");
+        promotionService.promoteTap(sheetId, tenantId);
+
+        MigrationResult again = promotionService.promoteTap(sheetId, tenantId);
+
+        assertThat(again.getMigratedCount()).isZero();
+        assertThat(again.getDuplicateCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM document_volumes WHERE tenant_id = ?", Integer.class, tenantId)).isEqualTo(1);
+    }
+
+    private void stage(long rowNumber, String volumeName, String boxCode, String notes) {
+        jdbcTemplate.update("""
+            INSERT INTO staging_hsbg_tap (id, job_id, sheet_id, row_number, ten_tap, ma_thung, ghi_chu, validation_status)
+            VALUES (?, ?, ?, ?, ?, ?, ?, 'VALID')
+            """, UUID.randomUUID(), jobId, sheetId, rowNumber, volumeName, boxCode, notes);
+    }
+
+    private List<Long> promotedRows() {
+        return jdbcTemplate.queryForList("""
+            SELECT row_number FROM staging_hsbg_tap
+            WHERE sheet_id = ? AND inserted_to_master = TRUE AND master_data_exists = FALSE AND inserted_at IS NOT NULL
+            ORDER BY row_number
+            """, Long.class, sheetId);
+    }
+
+    private List<Long> skippedRows() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+            SELECT row_number, inserted_to_master FROM staging_hsbg_tap
+            WHERE sheet_id = ? AND master_data_exists = TRUE
+            ORDER BY row_number
+            """, sheetId);
+        rows.forEach(row -> assertThat(row.get("INSERTED_TO_MASTER")).isEqualTo(false));
+        return rows.stream().map(row -> ((Number) row.get("ROW_NUMBER")).longValue()).toList();
+    }
+}
@@ -376,7 +376,7 @@ class DataScopeEnforcementTest {
         customer.setBranchId(branchId);
         customer.setOrganizationId(organizationId);
         customer.setTenantId(tenantId.toString());
-        customer.setCreatedBy(createdBy);
+        customer.setCreatedBy(createdBy.toString());
         customer.setDeleted(false);
         return customer;
     }
@@ -389,7 +389,7 @@ class DataScopeEnforcementTest {
         task.setOrganizationId(organizationId);
         task.setTenantId(tenantId.toString());
         task.setAssignedToId(assignedToId);
-        task.setCreatedBy(createdBy);
+        task.setCreatedBy(createdBy.toString());
         task.setDeleted(false);
         return task;
     }
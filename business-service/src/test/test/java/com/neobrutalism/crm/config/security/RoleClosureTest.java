@@ -0,0 +1,158 @@
+package com.neobrutalism.crm.config.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for RoleClosure incremental updates
+ *
+ * Every closure produced by withLink / withoutLink must equal the closure built from scratch
+ * over the same links, and must leave the instance it was derived from unchanged.
+ */
+@DisplayName("Role Closure Tests")
+class RoleClosureTest {
+
+    private static final String[] ROLES = {"ADMIN", "MANAGER", "TEAM_LEAD", "ANALYST", "USER", "AUDITOR", "GUEST"};
+
+    @Test
+    @DisplayName("Adding a link extends the ancestors of every role below the child")
+    void addLinkPropagatesToDescendants() {
+        RoleClosure closure = RoleClosure.of(List.of(
+            List.of("USER", "TEAM_LEAD"),
+            List.of("TEAM_LEAD", "MANAGER")));
+
+        RoleClosure updated = closure.withLink("MANAGER", "ADMIN");
+
+        assertThat(updated.inheritsFrom("USER", "ADMIN")).isTrue();
+        assertThat(updated.inheritsFrom("TEAM_LEAD", "ADMIN")).isTrue();
+        assertThat(updated.ancestorsOf("USER")).containsExactlyInAnyOrder("TEAM_LEAD", "MANAGER", "ADMIN");
+        assertThat(updated.getLinkCount()).isEqualTo(3);
+        assertThat(updated.rootRoles()).containsExactly("ADMIN");
+
+        // The original instance is untouched
+        assertThat(closure.inheritsFrom("USER", "ADMIN")).isFalse();
+        assertThat(closure.ancestorsOf("ADMIN")).isEmpty();
+        assertThat(closure.getLinkCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Removing a link keeps ancestors still reachable through another path")
+    void removeLinkKeepsAlternativePaths() {
+        RoleClosure closure = RoleClosure.of(List.of(
+            List.of("USER", "TEAM_LEAD"),
+            List.of("USER", "ANALYST"),
+            List.of("TEAM_LEAD", "MANAGER"),
+            List.of("ANALYST", "MANAGER"),
+            List.of("MANAGER", "ADMIN")));
+
+        RoleClosure updated = closure.withoutLink("TEAM_LEAD", "MANAGER");
+
+        assertThat(updated.inheritsFrom("TEAM_LEAD", "MANAGER")).isFalse();
+        assertThat(updated.inheritsFrom("TEAM_LEAD", "ADMIN")).isFalse();
+        assertThat(updated.inheritsFrom("USER", "MANAGER")).isTrue();
+        assertThat(updated.inheritsFrom("USER", "ADMIN")).isTrue();
+        assertThat(updated.childrenOf("MANAGER")).containsExactly("ANALYST");
+
+        assertThat(closure.inheritsFrom("TEAM_LEAD", "ADMIN")).isTrue();
+        assertThat(closure.childrenOf("MANAGER")).containsExactlyInAnyOrder("TEAM_LEAD", "ANALYST");
+    }
+
+    @Test
+    @DisplayName("Roles on a cycle are their own ancestors until the cycle is broken")
+    void cycleAddAndRemove() {
+        RoleClosure closure = RoleClosure.of(List.of(
+            List.of("USER", "MANAGER"),
+            List.of("MANAGER", "ADMIN")));
+
+        RoleClosure cyclic = closure.withLink("ADMIN", "USER");
+        assertThat(cyclic.inheritsFrom("ADMIN", "ADMIN")).isTrue();
+        assertThat(cyclic.inheritsFrom("USER", "USER")).isTrue();
+        assertThat(cyclic.rootRoles()).isEmpty();
+
+        RoleClosure broken = cyclic.withoutLink("MANAGER", "ADMIN");
+        assertThat(broken.inheritsFrom("ADMIN", "ADMIN")).isFalse();
+        assertThat(broken.inheritsFrom("ADMIN", "MANAGER")).isTrue();
+        assertThat(broken.inheritsFrom("MANAGER", "ADMIN")).isFalse();
+        assertThat(broken.ancestorsOf("USER")).containsExactly("MANAGER");
+    }
+
+    @Test
+    @DisplayName("Adding an existing link or removing a missing one returns the same instance")
+    void noOpUpdates() {
+        RoleClosure closure = RoleClosure.of(List.of(List.of("USER", "MANAGER")));
+
+        assertThat(closure.withLink("USER", "MANAGER")).isSameAs(closure);
+        assertThat(closure.withoutLink("MANAGER", "USER")).isSameAs(closure);
+        assertThat(closure.withoutLink("GUEST", "ADMIN")).isSameAs(closure);
+    }
+
+    @Test
+    @DisplayName("Random add/remove sequences match a closure rebuilt from scratch")
+    void incrementalMatchesRebuild() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            Set<List<String>> links = new HashSet<>();
+            RoleClosure closure = RoleClosure.empty();
+            List<RoleClosure> history = new ArrayList<>();
+            List<Map<String, Set<String>>> snapshots = new ArrayList<>();
+
+            for (int step = 0; step < 60; step++) {
+                List<String> link = List.of(ROLES[random.nextInt(ROLES.length)], ROLES[random.nextInt(ROLES.length)]);
+                if (random.nextInt(3) == 0 || links.contains(link)) {
+                    links.remove(link);
+                    closure = closure.withoutLink(link.get(0), link.get(1));
+                } else {
+                    links.add(link);
+                    closure = closure.withLink(link.get(0), link.get(1));
+                }
+
+                assertSameClosure(closure, RoleClosure.of(links), "seed " + seed + " step " + step);
+                history.add(closure);
+                snapshots.add(ancestorMap(closure));
+            }
+
+            // Copies share unchanged BitSets: later updates must not leak into earlier instances
+            for (int i = 0; i < history.size(); i++) {
+                assertThat(ancestorMap(history.get(i)))
+                    .as("seed %d snapshot %d", seed, i)
+                    .isEqualTo(snapshots.get(i));
+            }
+        }
+    }
+
+    private static void assertSameClosure(RoleClosure actual, RoleClosure expected, String description) {
+        assertThat(actual.getLinkCount()).as(description).isEqualTo(expected.getLinkCount());
+        for (String role : ROLES) {
+            assertThat(actual.ancestorsOf(role)).as(description + " ancestors of " + role)
+                .containsExactlyInAnyOrderElementsOf(expected.ancestorsOf(role));
+            assertThat(actual.parentsOf(role)).as(description + " parents of " + role)
+                .containsExactlyInAnyOrderElementsOf(expected.parentsOf(role));
+            assertThat(actual.childrenOf(role)).as(description + " children of " + role)
+                .containsExactlyInAnyOrderElementsOf(expected.childrenOf(role));
+            for (String other : ROLES) {
+                assertThat(actual.inheritsFrom(role, other)).as(description + " " + role + " -> " + other)
+                    .isEqualTo(expected.inheritsFrom(role, other));
+            }
+        }
+        assertThat(actual.rootRoles()).as(description)
+            .containsExactlyInAnyOrderElementsOf(expected.rootRoles());
+    }
+
+    private static Map<String, Set<String>> ancestorMap(RoleClosure closure) {
+        Map<String, Set<String>> map = new HashMap<>();
+        for (String role : ROLES) {
+            map.put(role, closure.ancestorsOf(role));
+        }
+        return map;
+    }
+}
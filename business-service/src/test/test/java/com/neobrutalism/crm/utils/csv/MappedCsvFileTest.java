@@ -0,0 +1,151 @@
+package com.neobrutalism.crm.utils.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for MappedCsvFile.split: records that straddle a target range boundary must stay whole
+ *
+ * Each file is split with every target size from 1 byte up to the file length, so range
+ * boundaries fall on every byte, including inside quoted fields holding delimiters, doubled
+ * quotes and newlines. The records read range by range must equal one sequential read.
+ */
+@DisplayName("Mapped CSV File Tests")
+class MappedCsvFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Quoted newlines, delimiters and quotes never split a record")
+    void quotedFieldsStraddlingBoundaries() throws IOException {
+        String csv = "id,name,note\n"
+            + "1,\"Nguyen, Van A\",plain\n"
+            + "2,\"line one\nline two\",\"say \"\"hi\"\"\"\n"
+            + "3,,\"\n\n\"\n"
+            + "4,\"a,\"\"b\"\",\nc\",x\n"
+            + "5,Tran Thi B,\"ends with quote \"\"\"\n";
+
+        assertSplitMatchesSequential(write("quoted.csv", csv), 6);
+    }
+
+    @Test
+    @DisplayName("CRLF endings, a BOM and a missing trailing newline")
+    void crlfBomAndNoTrailingNewline() throws IOException {
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        byte[] body = ("id,name\r\n1,\"Le\r\nVan C\"\r\n2,Pham\r\n3,\"last, no newline\"")
+            .getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[bom.length + body.length];
+        System.arraycopy(bom, 0, content, 0, bom.length);
+        System.arraycopy(body, 0, content, bom.length, body.length);
+        Path file = tempDir.resolve("crlf.csv");
+        Files.write(file, content);
+
+        List<List<String>> records = assertSplitMatchesSequential(file, 4);
+        assertThat(records.get(0)).containsExactly("id", "name");
+        assertThat(records.get(1)).containsExactly("1", "Le\r\nVan C");
+        assertThat(records.get(3)).containsExactly("3", "last, no newline");
+    }
+
+    @Test
+    @DisplayName("Multi-byte UTF-8 values across boundaries")
+    void multiByteValues() throws IOException {
+        StringBuilder csv = new StringBuilder("ma,ten\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append(i).append(",\"Hồ sơ số ").append(i).append(i % 3 == 0 ? "\nghi chú" : "").append("\"\n");
+        }
+
+        List<List<String>> records = assertSplitMatchesSequential(write("utf8.csv", csv.toString()), 41);
+        assertThat(records.get(1)).containsExactly("0", "Hồ sơ số 0\nghi chú");
+        assertThat(records.get(2)).containsExactly("1", "Hồ sơ số 1");
+    }
+
+    @Test
+    @DisplayName("Ranges after the header keep the file index of their first record")
+    void splitAfterHeader() throws IOException {
+        StringBuilder csv = new StringBuilder("id,value\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append(i).append(",\"v").append(i).append(i % 7 == 0 ? ",\n" : "").append("\"\n");
+        }
+        Path file = write("header.csv", csv.toString());
+
+        try (MappedCsvFile mapped = MappedCsvFile.open(file, ',', '"', StandardCharsets.UTF_8)) {
+            CsvRecordCursor head = mapped.cursor(mapped.dataStart(), 0);
+            assertThat(head.nextRecord()).isTrue();
+            long dataFrom = head.position();
+
+            List<MappedCsvFile.Range> ranges = mapped.split(dataFrom, 1, 97);
+            assertThat(ranges).hasSizeGreaterThan(1);
+            assertThat(ranges.get(0).start()).isEqualTo(dataFrom);
+
+            long expectedRecord = 1;
+            for (MappedCsvFile.Range range : ranges) {
+                assertThat(range.firstRecord()).isEqualTo(expectedRecord);
+                CsvRecordCursor cursor = mapped.cursor(range);
+                while (cursor.nextRecord()) {
+                    assertThat(cursor.recordIndex()).isEqualTo(expectedRecord);
+                    assertThat(cursor.field(0)).isEqualTo(String.valueOf(expectedRecord - 1));
+                    expectedRecord++;
+                }
+            }
+            assertThat(expectedRecord).isEqualTo(201);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Split with every target size and compare against one cursor over the whole file
+     *
+     * @return records of the sequential read
+     */
+    private static List<List<String>> assertSplitMatchesSequential(Path file, int expectedRecords) throws IOException {
+        try (MappedCsvFile mapped = MappedCsvFile.open(file, ',', '"', StandardCharsets.UTF_8)) {
+            List<List<String>> expected = readAll(mapped.cursor(mapped.dataStart(), 0));
+            assertThat(expected).hasSize(expectedRecords);
+
+            for (long target = 1; target <= mapped.size(); target++) {
+                List<MappedCsvFile.Range> ranges = mapped.split(mapped.dataStart(), 0, target);
+                List<List<String>> actual = new ArrayList<>();
+                long previousEnd = mapped.dataStart();
+                long recordIndex = 0;
+
+                for (MappedCsvFile.Range range : ranges) {
+                    assertThat(range.start()).as("target %d", target).isEqualTo(previousEnd);
+                    assertThat(range.firstRecord()).as("target %d", target).isEqualTo(recordIndex);
+                    List<List<String>> records = readAll(mapped.cursor(range));
+                    assertThat((long) records.size()).as("target %d range %s", target, range).isEqualTo(range.records());
+                    actual.addAll(records);
+                    previousEnd = range.end();
+                    recordIndex += range.records();
+                }
+
+                assertThat(previousEnd).as("target %d", target).isEqualTo(mapped.size());
+                assertThat(actual).as("target %d", target).isEqualTo(expected);
+            }
+            return expected;
+        }
+    }
+
+    private static List<List<String>> readAll(CsvRecordCursor cursor) {
+        List<List<String>> records = new ArrayList<>();
+        while (cursor.nextRecord()) {
+            records.add(List.of(cursor.fields()));
+        }
+        return records;
+    }
+}
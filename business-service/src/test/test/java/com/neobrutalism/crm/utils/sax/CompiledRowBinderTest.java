@@ -0,0 +1,205 @@
+package com.neobrutalism.crm.utils.sax;
+
+import com.neobrutalism.crm.utils.ExcelColumn;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for CompiledRowBinder: column resolution, type-specialized slots and the fallback path
+ */
+@DisplayName("Compiled Row Binder Tests")
+class CompiledRowBinderTest {
+
+    @Data
+    @NoArgsConstructor
+    public static class SampleRow {
+        @ExcelColumn(name = "Số CIF")
+        private String customerCode;
+
+        @ExcelColumn(name = "Số điện thoại")
+        private String phone;
+
+        private String note;
+        private int quantity;
+        private Long total;
+        private Double amount;
+        private double interestRate;
+        private LocalDate openDate;
+        private Boolean active;
+        private int rowNum;
+    }
+
+    private final List<String> fallbackCalls = new ArrayList<>();
+
+    private final CompiledRowBinder.FallbackConverter fallback = (value, fieldName, fieldType) -> {
+        fallbackCalls.add(fieldName + "=" + value);
+        if (fieldType == Boolean.class) {
+            return Boolean.valueOf(value);
+        }
+        if (fieldType == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        if (fieldType == Double.class) {
+            return Double.valueOf(value.replace(",", ""));
+        }
+        if (fieldType == int.class || fieldType == Integer.class) {
+            return value.startsWith("(") ? null : -1;
+        }
+        return null;
+    };
+
+    @Test
+    @DisplayName("Column index from cell reference")
+    void columnIndex() {
+        assertThat(CompiledRowBinder.columnIndex("A1")).isEqualTo(0);
+        assertThat(CompiledRowBinder.columnIndex("Z99")).isEqualTo(25);
+        assertThat(CompiledRowBinder.columnIndex("AA1")).isEqualTo(26);
+        assertThat(CompiledRowBinder.columnIndex("AB12")).isEqualTo(27);
+        assertThat(CompiledRowBinder.columnIndex("ab12")).isEqualTo(27);
+        assertThat(CompiledRowBinder.columnIndex("XFD1048576")).isEqualTo(16_383);
+    }
+
+    @Test
+    @DisplayName("Headers resolve by field name, then @ExcelColumn name; unknown headers stay unbound")
+    void compileResolvesHeaders() {
+        CompiledRowBinder<SampleRow> binder = compile();
+
+        assertThat(binder.getBoundColumnCount()).isEqualTo(10);
+        assertThat(binder.slot(0).getFieldName()).isEqualTo("customerCode");
+        assertThat(binder.slot(1).getFieldName()).isEqualTo("phone");
+        assertThat(binder.slot(2).getFieldName()).isEqualTo("note");
+        assertThat(binder.slot(3).getFieldType()).isEqualTo(int.class);
+        assertThat(binder.slot(6).getFieldType()).isEqualTo(double.class);
+        assertThat(binder.slot(11)).isNull();
+        assertThat(binder.slot(12)).isNull();
+        assertThat(binder.slot(-1)).isNull();
+        assertThat(binder.slot(99)).isNull();
+    }
+
+    @Test
+    @DisplayName("Plain values bind without the fallback converter")
+    void plainValuesBindDirectly() throws Throwable {
+        CompiledRowBinder<SampleRow> binder = compile();
+        SampleRow row = new SampleRow();
+
+        binder.slot(2).bind(row, "ghi chú");
+        binder.slot(3).bind(row, "42");
+        binder.slot(4).bind(row, "-9000000000");
+        binder.slot(5).bind(row, "1234.5");
+        binder.slot(6).bind(row, "0.15");
+        binder.slot(7).bind(row, "45000");
+        binder.slot(8).bind(row, "true");
+        binder.setRowNum(row, 17);
+
+        assertThat(row.getNote()).isEqualTo("ghi chú");
+        assertThat(row.getQuantity()).isEqualTo(42);
+        assertThat(row.getTotal()).isEqualTo(-9_000_000_000L);
+        assertThat(row.getAmount()).isEqualTo(1234.5);
+        assertThat(row.getInterestRate()).isEqualTo(15.0, org.assertj.core.data.Offset.offset(1e-9));
+        assertThat(row.getOpenDate()).isEqualTo(DateUtil.getLocalDateTime(45000).toLocalDate());
+        assertThat(row.getRowNum()).isEqualTo(17);
+        // Boolean has no specialized slot
+        assertThat(row.getActive()).isTrue();
+        assertThat(fallbackCalls).containsExactly("active=true");
+    }
+
+    @Test
+    @DisplayName("Decimal text on integer fields truncates like the legacy converter")
+    void decimalOnIntegerField() throws Throwable {
+        CompiledRowBinder<SampleRow> binder = compile();
+        SampleRow row = new SampleRow();
+
+        binder.slot(3).bind(row, "7.9");
+        binder.slot(4).bind(row, "12.0");
+
+        assertThat(row.getQuantity()).isEqualTo(7);
+        assertThat(row.getTotal()).isEqualTo(12L);
+        assertThat(fallbackCalls).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Non-plain values go through the fallback converter")
+    void nonPlainValuesUseFallback() throws Throwable {
+        CompiledRowBinder<SampleRow> binder = compile();
+        SampleRow row = new SampleRow();
+        row.setQuantity(5);
+
+        binder.slot(5).bind(row, "1,234.50");
+        binder.slot(7).bind(row, "2024-03-01");
+        binder.slot(3).bind(row, "(12)");
+        binder.slot(3).bind(row, "99999999999");
+
+        assertThat(row.getAmount()).isEqualTo(1234.5);
+        assertThat(row.getOpenDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        // null from the fallback leaves a primitive untouched; overflow takes the fallback value
+        assertThat(row.getQuantity()).isEqualTo(-1);
+        assertThat(fallbackCalls).containsExactly(
+            "amount=1,234.50", "openDate=2024-03-01", "quantity=(12)", "quantity=99999999999");
+    }
+
+    @Test
+    @DisplayName("Identifier-like strings are normalized")
+    void identifiersNormalized() throws Throwable {
+        CompiledRowBinder<SampleRow> binder = compile();
+        SampleRow row = new SampleRow();
+
+        binder.slot(0).bind(row, "1.23456789012E11");
+        binder.slot(1).bind(row, "912345678.0");
+        binder.slot(2).bind(row, "1.5");
+
+        assertThat(row.getCustomerCode()).isEqualTo("123456789012");
+        assertThat(row.getPhone()).isEqualTo("912345678");
+        assertThat(row.getNote()).isEqualTo("1.5");
+    }
+
+    @Test
+    @DisplayName("Excel serial dates match POI, including the 1900 leap-year bug")
+    void excelSerialDates() {
+        for (double serial : new double[] {1, 59, 60, 61, 366, 25569, 44927.5, 45000.99999, 2958464}) {
+            LocalDate expected = DateUtil.getLocalDateTime(serial).toLocalDate();
+            assertThat(CompiledRowBinder.excelSerialToLocalDate(serial)).as("serial %s", serial).isEqualTo(expected);
+        }
+        assertThat(CompiledRowBinder.excelSerialToLocalDate(-1)).isNull();
+        assertThat(CompiledRowBinder.excelSerialToLocalDate(2958465)).isNull();
+    }
+
+    @Test
+    @DisplayName("Plain decimal detection")
+    void plainDecimalDot() {
+        assertThat(CompiledRowBinder.plainDecimalDot("123", true)).isEqualTo(-1);
+        assertThat(CompiledRowBinder.plainDecimalDot("-12.5", true)).isEqualTo(3);
+        assertThat(CompiledRowBinder.plainDecimalDot("-12.5", false)).isEqualTo(-2);
+        assertThat(CompiledRowBinder.plainDecimalDot("1.2.3", true)).isEqualTo(-2);
+        assertThat(CompiledRowBinder.plainDecimalDot(".5", true)).isEqualTo(-2);
+        assertThat(CompiledRowBinder.plainDecimalDot("1e5", true)).isEqualTo(-2);
+        assertThat(CompiledRowBinder.plainDecimalDot("-", true)).isEqualTo(-2);
+    }
+
+    private CompiledRowBinder<SampleRow> compile() {
+        Map<String, Integer> headers = new LinkedHashMap<>();
+        headers.put("Số CIF", 0);
+        headers.put("Số điện thoại", 1);
+        headers.put("note", 2);
+        headers.put("quantity", 3);
+        headers.put("total", 4);
+        headers.put("amount", 5);
+        headers.put("interestRate", 6);
+        headers.put("openDate", 7);
+        headers.put("active", 8);
+        headers.put("rowNum", 10);
+        headers.put("Không có trường", 11);
+        headers.put("unknownField", 12);
+        return CompiledRowBinder.compile(SampleRow.class, headers, fallback);
+    }
+}
@@ -0,0 +1,133 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for V306: duplicate document volumes are archived and removed before the unique natural key is built
+ */
+@DisplayName("V306 Document Volume Natural Key Migration Tests")
+class V306__Add_document_volume_natural_keyTest {
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private final UUID tenantId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection(
+            "jdbc:h2:mem:v306-" + UUID.randomUUID() + ";MODE=PostgreSQL", "sa", "");
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        jdbcTemplate.execute("""
+            CREATE TABLE document_volumes (
+                id UUID PRIMARY KEY,
+                tenant_id UUID NOT NULL,
+                volume_name VARCHAR(200) NOT NULL,
+                box_code VARCHAR(100),
+                created_at TIMESTAMP NOT NULL,
+                is_deleted BOOLEAN DEFAULT FALSE NOT NULL
+            )
+            """);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Keeps the active, then oldest, row per key and leaves NULL box codes alone")
+    void removesDuplicatesBeforeBuildingIndex() throws Exception {
+        UUID deletedOldest = insert("TAP-1", "BOX-1", 1, true);
+        UUID activeKept = insert("TAP-1", "BOX-1", 2, false);
+        insert("TAP-1", "BOX-1", 3, false);
+        UUID single = insert("TAP-2", "BOX-1", 1, false);
+        UUID otherBox = insert("TAP-1", "BOX-2", 4, false);
+        insert("TAP-3", null, 1, false);
+        insert("TAP-3", null, 2, false);
+
+        migrate();
+
+        List<UUID> remaining = jdbcTemplate.queryForList(
+            "SELECT id FROM document_volumes WHERE box_code IS NOT NULL", UUID.class);
+        assertThat(remaining).containsExactlyInAnyOrder(activeKept, single, otherBox);
+        assertThat(remaining).doesNotContain(deletedOldest);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM document_volumes WHERE box_code IS NULL", Integer.class)).isEqualTo(2);
+
+        assertThatThrownBy(() -> insert("TAP-1", "BOX-1", 5, false))
+            .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    @DisplayName("Removed rows are archived whole, with the id of the row that was kept")
+    void archivesRemovedRows() throws Exception {
+        UUID deletedOldest = insert("TAP-1", "BOX-1", 1, true);
+        UUID activeKept = insert("TAP-1", "BOX-1", 2, false);
+        UUID activeNewer = insert("TAP-1", "BOX-1", 3, false);
+        insert("TAP-2", "BOX-1", 1, false);
+
+        migrate();
+
+        List<Map<String, Object>> archived = jdbcTemplate.queryForList(
+            "SELECT id, kept_id, volume_name, box_code, is_deleted, created_at, archived_at "
+                + "FROM document_volumes_v306_duplicates ORDER BY created_at");
+        assertThat(archived).extracting(row -> row.get("ID")).containsExactly(deletedOldest, activeNewer);
+        assertThat(archived).allSatisfy(row -> {
+            assertThat(row.get("KEPT_ID")).isEqualTo(activeKept);
+            assertThat(row.get("VOLUME_NAME")).isEqualTo("TAP-1");
+            assertThat(row.get("BOX_CODE")).isEqualTo("BOX-1");
+            assertThat(row.get("ARCHIVED_AT")).isNotNull();
+        });
+        assertThat(archived.get(0).get("IS_DELETED")).isEqualTo(true);
+        assertThat(archived.get(1).get("CREATED_AT")).isEqualTo(Timestamp.valueOf("2024-01-03 00:00:00"));
+    }
+
+    @Test
+    @DisplayName("Rerunning the migration is a no-op once the index exists")
+    void rerunIsIdempotent() throws Exception {
+        insert("TAP-1", "BOX-1", 1, false);
+        insert("TAP-1", "BOX-1", 2, false);
+
+        migrate();
+        migrate();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM document_volumes", Integer.class))
+            .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM document_volumes_v306_duplicates", Integer.class))
+            .isEqualTo(1);
+    }
+
+    private void migrate() throws Exception {
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(connection);
+        new V306__Add_document_volume_natural_key().migrate(context);
+    }
+
+    private UUID insert(String volumeName, String boxCode, int day, boolean deleted) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update(
+            "INSERT INTO document_volumes (id, tenant_id, volume_name, box_code, created_at, is_deleted) "
+                + "VALUES (?, ?, ?, ?, ?, ?)",
+            id, tenantId, volumeName, boxCode, Timestamp.valueOf("2024-01-0" + day + " 00:00:00"), deleted);
+        return id;
+    }
+}